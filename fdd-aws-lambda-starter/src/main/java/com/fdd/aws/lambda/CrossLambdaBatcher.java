@@ -0,0 +1,106 @@
+package com.fdd.aws.lambda;
+
+import com.fdd.core.execution.Deadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Collects calls to one remote function into micro-batches.
+ * A batch is sent when it reaches the maximum size or when the first call in it has waited
+ * the maximum delay, whichever comes first; the sender completes each call's future from
+ * its entry in the batch response.
+ */
+final class CrossLambdaBatcher {
+
+    private final String functionName;
+    private final int maxSize;
+    private final long maxDelayNanos;
+    private final Consumer<List<Call>> sender;
+    private List<Call> window;
+
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder calls = new LongAdder();
+
+    CrossLambdaBatcher(String functionName, int maxSize, Duration maxDelay, Consumer<List<Call>> sender) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1 for " + functionName);
+        }
+        this.functionName = functionName;
+        this.maxSize = maxSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+        this.sender = sender;
+    }
+
+    /**
+     * Queue a call for the next batch
+     */
+    CompletableFuture<Object> submit(Object input, Deadline deadline) {
+        Call call = new Call(input, deadline);
+        List<Call> full = null;
+        synchronized (this) {
+            if (window == null) {
+                List<Call> opened = new ArrayList<>(maxSize);
+                window = opened;
+                if (maxSize > 1) {
+                    CrossLambdaScheduler.schedule(() -> flushIfOpen(opened), maxDelayNanos);
+                }
+            }
+            window.add(call);
+            if (window.size() >= maxSize) {
+                full = window;
+                window = null;
+            }
+        }
+        calls.increment();
+        if (full != null) {
+            send(full);
+        }
+        return call.result;
+    }
+
+    private void flushIfOpen(List<Call> opened) {
+        synchronized (this) {
+            if (window != opened) {
+                return; // already sent because it filled up
+            }
+            window = null;
+        }
+        send(opened);
+    }
+
+    private void send(List<Call> batch) {
+        batches.increment();
+        try {
+            sender.accept(batch);
+        } catch (RuntimeException e) {
+            batch.forEach(call -> call.result.completeExceptionally(e));
+        }
+    }
+
+    String getFunctionName() { return functionName; }
+
+    int getMaxSize() { return maxSize; }
+
+    long getBatchCount() { return batches.sum(); }
+
+    long getCallCount() { return calls.sum(); }
+
+    /**
+     * A queued call and the future its caller waits on
+     */
+    static final class Call {
+        final Object input;
+        final Deadline deadline;
+        final CompletableFuture<Object> result = new CompletableFuture<>();
+
+        Call(Object input, Deadline deadline) {
+            this.input = input;
+            this.deadline = deadline;
+        }
+    }
+}
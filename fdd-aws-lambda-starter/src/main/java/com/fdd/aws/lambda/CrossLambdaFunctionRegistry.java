@@ -1,21 +1,47 @@
 package com.fdd.aws.lambda;
 
+import com.fdd.core.cache.SingleFlight;
+import com.fdd.core.config.ServerlessConfigLoader;
+import com.fdd.core.execution.CircuitBreaker;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.execution.RetryBudget;
+import com.fdd.core.execution.RetryPolicy;
 import com.fdd.core.registry.FunctionRegistry;
 import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import com.fdd.core.rest.CompositeEnvelope;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Component;
 
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.URI;
-import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.Optional;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Enhanced Cross-Lambda Function Registry
@@ -25,15 +51,116 @@ import java.util.concurrent.ConcurrentHashMap;
 @Primary
 public class CrossLambdaFunctionRegistry extends FunctionRegistry {
 
+    private static final String PRIMING_TARGET = "fdd-priming";
+
     private final ObjectMapper objectMapper = new ObjectMapper();
-    private final HttpClient httpClient = HttpClient.newHttpClient();
+    private final ObjectWriter requestWriter = objectMapper.writer();
+    private final Map<Class<?>, ObjectReader> responseReaders = new ConcurrentHashMap<>();
+    private final Map<String, RemoteFunction> remoteFunctions = new ConcurrentHashMap<>();
+    private final Map<String, Class<?>> remoteOutputTypes = new ConcurrentHashMap<>();
+    private final Map<String, RetryPolicy> remoteRetryPolicies = new ConcurrentHashMap<>();
+    // serverless.yml metadata of functions that name their implementation class
+    private final Map<String, FunctionMetadata> colocatable = new ConcurrentHashMap<>();
+    private final Set<String> notColocatable = ConcurrentHashMap.newKeySet();
+    private final Set<String> forceRemote = ConcurrentHashMap.newKeySet();
+    private volatile boolean colocationEnabled;
+    private volatile boolean compositeEnabled = true;
+    private volatile AutowireCapableBeanFactory beanFactory;
+    private volatile boolean remoteMetadataLoaded;
+    private final CrossLambdaTransport transport = new CrossLambdaTransport();
     private final Map<String, String> lambdaUrls = new ConcurrentHashMap<>();
+    // Functions whose Lambda URL came from the environment rather than registerLambdaUrl
+    private final Set<String> environmentUrls = ConcurrentHashMap.newKeySet();
+    private final List<Runnable> lambdaUrlListeners = new CopyOnWriteArrayList<>();
+    private final Map<String, SingleFlight> remoteSingleFlights = new ConcurrentHashMap<>();
+    private volatile boolean coalesceAllRemote;
+    private final Map<String, BatchSettings> remoteBatching = new ConcurrentHashMap<>();
+    private final Map<String, HedgeSettings> remoteHedging = new ConcurrentHashMap<>();
+    private volatile WireFormat wireFormat = WireFormat.SMILE;
+    private volatile RetryBudget retryBudget = new RetryBudget(0.1, 10);
+    private final Supplier<Map<String, String>> environment;
 
     public CrossLambdaFunctionRegistry() {
+        this(System::getenv);
+    }
+
+    /**
+     * @param environment source of the FDD_LAMBDA_URL_* variables, read at construction and on reloadLambdaUrls
+     */
+    CrossLambdaFunctionRegistry(Supplier<Map<String, String>> environment) {
         super();
+        this.environment = environment;
         loadLambdaUrls();
     }
 
+    /**
+     * Use the framework's invocation executors for the HTTP client's asynchronous work,
+     * so in virtual-threads mode outbound calls never tie up a platform thread
+     */
+    @Override
+    public void setFunctionExecutors(FunctionExecutors functionExecutors) {
+        super.setFunctionExecutors(functionExecutors);
+        if (functionExecutors != null && functionExecutors.isVirtual()) {
+            transport.setExecutor(functionExecutors.getInvocationExecutor());
+            System.out.println("🧵 Cross-Lambda HTTP client running on virtual threads");
+        }
+    }
+
+    /**
+     * Upper bound for a remote call when the caller has no deadline of its own (default 30s)
+     */
+    public void setDefaultTimeout(Duration defaultTimeout) {
+        transport.setReadTimeout(defaultTimeout);
+    }
+
+    /**
+     * Transport used for remote calls: HTTP version, pooling and per-target timeouts
+     */
+    public CrossLambdaTransport getTransport() {
+        return transport;
+    }
+
+    /**
+     * Binary format offered to remote functions (default Smile; JSON turns negotiation off).
+     * Each proxy starts in JSON and asks for this format in Accept; once a target answers in it,
+     * requests to that target are sent in it too. Targets that only speak JSON stay on JSON.
+     */
+    public void setWireFormat(WireFormat wireFormat) {
+        this.wireFormat = wireFormat;
+        remoteFunctions.clear();
+    }
+
+    public WireFormat getWireFormat() { return wireFormat; }
+
+    /**
+     * Coalesce identical concurrent calls to every remote function
+     */
+    public void setCoalesceAllRemote(boolean coalesceAllRemote) {
+        this.coalesceAllRemote = coalesceAllRemote;
+    }
+
+    /**
+     * Coalesce identical concurrent calls to one remote function: callers with an equal input
+     * while a call is in flight share its response instead of sending their own request
+     */
+    public void enableRemoteCoalescing(String functionName) {
+        remoteSingleFlights.computeIfAbsent(functionName.toLowerCase(),
+                name -> new SingleFlight(functionName, null, objectMapper));
+        System.out.println("🔀 Coalescing identical cross-Lambda calls to: " + functionName);
+    }
+
+    /**
+     * Coalescing state for a remote function, or null when its calls are not coalesced
+     */
+    public SingleFlight getRemoteSingleFlight(String functionName) {
+        SingleFlight singleFlight = remoteSingleFlights.get(functionName.toLowerCase());
+        if (singleFlight == null && coalesceAllRemote) {
+            singleFlight = remoteSingleFlights.computeIfAbsent(functionName.toLowerCase(),
+                    name -> new SingleFlight(functionName, null, objectMapper));
+        }
+        return singleFlight;
+    }
+
     /**
      * Enhanced function registration with type auto-detection
      */
@@ -64,19 +191,26 @@ public class CrossLambdaFunctionRegistry extends FunctionRegistry {
     @Override
     @SuppressWarnings("unchecked")
     public <T, R> Optional<Function<T, R>> getFunction(String componentName) {
-        // First try to get local function
-        Optional<Function<T, R>> localFunction = super.getFunction(componentName);
-        if (localFunction.isPresent()) {
-            System.out.println("📍 Found local function: " + componentName);
-            return localFunction;
+        // First try to get local function, or a co-located copy of it
+        if (!isForcedRemote(componentName)) {
+            Optional<Function<T, R>> localFunction = super.getFunction(componentName);
+            if (localFunction.isEmpty() && colocate(componentName)) {
+                localFunction = super.getFunction(componentName);
+            }
+            if (localFunction.isPresent()) {
+                System.out.println("📍 Found local function: " + componentName);
+                return localFunction;
+            }
         }
 
-        // If not found locally, create a cross-Lambda proxy
-        String lambdaUrl = lambdaUrls.get(componentName.toLowerCase());
-        if (lambdaUrl != null) {
-            System.out.println("🌐 Creating cross-Lambda proxy for: " + componentName + " -> " + lambdaUrl);
-            Function<T, R> crossLambdaProxy = createCrossLambdaProxy(componentName, lambdaUrl);
-            return Optional.of(crossLambdaProxy);
+        // If not found locally, use the cross-Lambda proxy (created once per remote function)
+        RemoteFunction remoteFunction = remoteFunction(componentName);
+        if (remoteFunction != null) {
+            return Optional.of((Function<T, R>) (Function<?, ?>) remoteFunction);
+        }
+        if (isForcedRemote(componentName) && super.getFunction(componentName).isPresent()) {
+            System.out.println("⚠️ " + componentName + " is forced remote but has no Lambda URL, running it locally");
+            return super.getFunction(componentName);
         }
 
         System.out.println("❌ Function not found locally or remotely: " + componentName);
@@ -132,56 +266,832 @@ public class CrossLambdaFunctionRegistry extends FunctionRegistry {
      * Format: FDD_LAMBDA_URL_<FUNCTION_NAME>=<URL>
      */
     private void loadLambdaUrls() {
-        System.getenv().forEach((key, value) -> {
+        environment.get().forEach((key, value) -> {
             if (key.startsWith("FDD_LAMBDA_URL_")) {
                 String functionName = key.substring("FDD_LAMBDA_URL_".length()).toLowerCase();
-                lambdaUrls.put(functionName, value);
-                System.out.println("🔗 Registered cross-Lambda URL: " + functionName + " -> " + value);
+                if (lambdaUrls.putIfAbsent(functionName, value) == null) {
+                    environmentUrls.add(functionName);
+                    System.out.println("🔗 Registered cross-Lambda URL: " + functionName + " -> " + value);
+                }
             }
         });
     }
 
     /**
-     * CRITICAL: Create HTTP proxy that makes Lambda functions feel like local @Autowired beans
-     * This is the core of the FDD cross-Lambda magic!
+     * Read the Lambda URLs from the environment again and reconnect: a JVM restored from a snapshot
+     * may run with another environment than the one it was initialized in, and its connections are gone.
+     * URLs registered through registerLambdaUrl are kept.
      */
-    @SuppressWarnings("unchecked")
-    private <T, R> Function<T, R> createCrossLambdaProxy(String functionName, String lambdaUrl) {
-        return (T input) -> {
+    public void reloadLambdaUrls() {
+        environmentUrls.forEach(lambdaUrls::remove);
+        environmentUrls.clear();
+        loadLambdaUrls();
+        remoteFunctions.clear();
+        transport.resetConnections();
+        lambdaUrlListeners.forEach(Runnable::run);
+    }
+
+    /**
+     * Run a listener whenever Lambda URLs are registered or reloaded, e.g. to drop proxies
+     * obtained through getFunction, which then call the previous URL
+     */
+    public void addLambdaUrlListener(Runnable listener) {
+        lambdaUrlListeners.add(listener);
+    }
+
+    /**
+     * Create the proxy of every function with a Lambda URL up front, resolving the readers
+     * for their declared output types
+     * @return the number of remote functions
+     */
+    public int primeRemoteFunctions() {
+        loadRemoteMetadata();
+        lambdaUrls.keySet().forEach(this::remoteFunction);
+        return remoteFunctions.size();
+    }
+
+    /**
+     * Exercise the whole remote call path (request encoding, format negotiation, compression, the HTTP
+     * client blocking and asynchronously, response decoding) against a stand-in that echoes requests,
+     * then drop the connections so none is left open. The stand-in is kept out of the registry and the
+     * transport's per-target state.
+     */
+    public void warmTransport(URI standIn, Object sample) {
+        RemoteFunction warmUp = new RemoteFunction(PRIMING_TARGET, standIn,
+                responseReaders.computeIfAbsent(Object.class, objectMapper::readerFor), wireFormat, null, null, null);
+        try {
+            // JSON first; the stand-in's answer switches the proxy to the binary format and compression
+            warmUp.apply(sample);
+            warmUp.apply(sample);
+            warmUp.sendAsync(sample).join();
+        } finally {
+            transport.forgetTarget(PRIMING_TARGET);
+            transport.resetConnections();
+        }
+    }
+
+    /**
+     * Functions forced remote go over HTTP even when they are also registered locally
+     */
+    @Override
+    public <R> CompletableFuture<R> invokeAsync(String componentName, Object input) {
+        if (isForcedRemote(componentName) && remoteFunction(componentName) != null) {
+            return invokeRemoteAsync(componentName, input);
+        }
+        return super.invokeAsync(componentName, input);
+    }
+
+    /**
+     * Remote functions are called with HttpClient.sendAsync, so no thread waits on the response;
+     * a function that can be co-located is registered and run in-process instead
+     */
+    @Override
+    protected <R> CompletableFuture<R> invokeRemoteAsync(String componentName, Object input) {
+        if (!isForcedRemote(componentName) && colocate(componentName)) {
+            return super.invokeAsync(componentName, input);
+        }
+        RemoteFunction remoteFunction = remoteFunction(componentName);
+        if (remoteFunction == null) {
+            return super.invokeRemoteAsync(componentName, input);
+        }
+        SingleFlight singleFlight = getRemoteSingleFlight(componentName);
+        if (singleFlight != null) {
+            return singleFlight.applyAsync(input, remoteFunction::sendAsync);
+        }
+        return remoteFunction.sendAsync(input);
+    }
+
+    /**
+     * Push workflow steps down to their remote deployment as one composite request when several
+     * of them run there (default on). The target must accept X-FDD-Composite requests.
+     */
+    public void setCompositeEnabled(boolean compositeEnabled) {
+        this.compositeEnabled = compositeEnabled;
+    }
+
+    /**
+     * Functions called over HTTP share a deployment when their Lambda URLs have the same scheme and
+     * authority (one Lambda function URL or one FDD application); null for functions that run here
+     */
+    @Override
+    public String getRemoteDeployment(String componentName) {
+        if (!compositeEnabled) {
+            return null;
+        }
+        boolean forced = isForcedRemote(componentName);
+        if (!forced && (getInvoker(componentName) != null || colocate(componentName))) {
+            return null;
+        }
+        String lambdaUrl = lambdaUrls.get(componentName.toLowerCase());
+        if (lambdaUrl == null) {
+            return null;
+        }
+        URI uri = URI.create(lambdaUrl);
+        return uri.getScheme() + "://" + uri.getRawAuthority();
+    }
+
+    /**
+     * Composite requests go to the function's Lambda URL through the same transport, circuit breaker and
+     * wire format as its calls; they are not batched, hedged or retried, as the steps need not be idempotent
+     */
+    @Override
+    public CompletableFuture<JsonNode> invokeCompositeAsync(String componentName, JsonNode request) {
+        RemoteFunction remoteFunction = remoteFunction(componentName);
+        if (remoteFunction == null) {
+            return super.invokeCompositeAsync(componentName, request);
+        }
+        return remoteFunction.sendComposite(request);
+    }
+
+    /**
+     * Run functions in-process when their implementation is available here (default off).
+     * A function not registered locally is co-located when serverless.yml names its implementation
+     * class and that class is on the classpath: an existing bean of that name is reused, otherwise
+     * the class is instantiated (with its dependencies autowired when a bean factory is set). The copy is
+     * registered with the function's serverless.yml metadata, so it runs with the same types, executor,
+     * bulkhead, cache and deadline as a local function, and calls skip serialization and the network.
+     * It runs with this Lambda's memory, timeout and IAM role rather than its own deployment's, so
+     * co-location is opt-in and every function co-located is logged.
+     */
+    public void setColocationEnabled(boolean colocationEnabled) {
+        this.colocationEnabled = colocationEnabled;
+        if (colocationEnabled) {
+            System.out.println("🏠 Co-location enabled: functions with their implementation on the classpath run in-process");
+        }
+    }
+
+    public boolean isColocationEnabled() { return colocationEnabled; }
+
+    /**
+     * Bean factory used to reuse or create co-located functions
+     */
+    public void setBeanFactory(AutowireCapableBeanFactory beanFactory) {
+        this.beanFactory = beanFactory;
+    }
+
+    /**
+     * Always call a function over HTTP, even when it is registered locally or could be co-located
+     * (e.g. to keep a dependency's resource limits or IAM role separate); ignored without a Lambda URL
+     */
+    public void setForceRemote(String functionName, boolean remote) {
+        if (remote) {
+            forceRemote.add(functionName.toLowerCase());
+        } else {
+            forceRemote.remove(functionName.toLowerCase());
+        }
+    }
+
+    public boolean isForcedRemote(String functionName) {
+        return !forceRemote.isEmpty() && forceRemote.contains(functionName.toLowerCase());
+    }
+
+    /**
+     * Register a local copy of a function not registered here, if co-location is possible
+     * @return whether the function is now registered locally
+     */
+    private boolean colocate(String componentName) {
+        if (!colocationEnabled || notColocatable.contains(componentName.toLowerCase())) {
+            return false;
+        }
+        loadRemoteMetadata();
+        FunctionMetadata metadata = colocatable.get(componentName.toLowerCase());
+        if (metadata == null) {
+            notColocatable.add(componentName.toLowerCase());
+            return false;
+        }
+        synchronized (colocatable) {
+            if (isRegistered(metadata.getComponent())) {
+                return true;
+            }
             try {
-                System.out.println("🌐 FDD Cross-Lambda call: " + functionName + " -> " + lambdaUrl);
-                System.out.println("📤 Sending: " + objectMapper.writeValueAsString(input));
+                Function<?, ?> function = localCopy(metadata);
+                registerFunction(metadata.getComponent(), function, metadata);
+                String lambdaUrl = lambdaUrls.get(componentName.toLowerCase());
+                System.out.println("🏠 Co-located " + metadata.getComponent() + " in-process ("
+                        + function.getClass().getSimpleName() + ")"
+                        + (lambdaUrl != null ? " instead of calling " + lambdaUrl : ""));
+                return true;
+            } catch (ClassNotFoundException | LinkageError e) {
+                System.out.println("🌐 " + componentName + " is not on the classpath, calling it remotely");
+            } catch (Exception e) {
+                System.err.println("⚠️ Could not co-locate " + componentName + ": " + e.getMessage());
+            }
+            notColocatable.add(componentName.toLowerCase());
+            return false;
+        }
+    }
 
-                String requestBody = objectMapper.writeValueAsString(input);
+    private Function<?, ?> localCopy(FunctionMetadata metadata) throws Exception {
+        AutowireCapableBeanFactory factory = beanFactory;
+        if (factory != null && factory.containsBean(metadata.getComponent())) {
+            Object bean = factory.getBean(metadata.getComponent());
+            if (bean instanceof Function) {
+                return (Function<?, ?>) bean;
+            }
+        }
+        Class<?> type = Class.forName(metadata.getImplementation(), true, getClass().getClassLoader());
+        if (!Function.class.isAssignableFrom(type)) {
+            throw new IllegalArgumentException(type.getName() + " does not implement Function");
+        }
+        return (Function<?, ?>) (factory != null ? factory.createBean(type)
+                : type.getDeclaredConstructor().newInstance());
+    }
 
-                HttpRequest request = HttpRequest.newBuilder()
-                        .uri(URI.create(lambdaUrl))
-                        .header("Content-Type", "application/json")
-                        .POST(HttpRequest.BodyPublishers.ofString(requestBody))
-                        .timeout(java.time.Duration.ofSeconds(30))
-                        .build();
+    /**
+     * Send calls to a remote function in micro-batches: calls arriving within maxDelay of the first
+     * are sent together as one batch envelope (at most maxSize per request) and each caller receives
+     * its own entry of the response. The target must accept X-FDD-Batch requests.
+     */
+    public void enableBatching(String functionName, int maxSize, Duration maxDelay) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("Batch size must be at least 1 for " + functionName);
+        }
+        remoteBatching.put(functionName.toLowerCase(), new BatchSettings(maxSize, maxDelay));
+        remoteFunctions.remove(functionName.toLowerCase());
+        System.out.println("📦 Batching cross-Lambda calls to " + functionName + ": up to " + maxSize
+                + " calls per " + maxDelay.toMillis() + " ms");
+    }
 
-                HttpResponse<String> response = httpClient.send(request,
-                        HttpResponse.BodyHandlers.ofString());
+    /**
+     * Hedge calls to an idempotent remote function: when a call has not answered within the given
+     * percentile of its recent latencies (and at least minDelay), a second request is sent and the first
+     * answer wins. At most maxExtraLoad extra requests per call are sent (e.g. 0.05 for 5%), and none
+     * while the target's circuit breaker is open. Batched functions hedge whole batch requests.
+     */
+    public void enableHedging(String functionName, double percentile, Duration minDelay, double maxExtraLoad) {
+        if (percentile <= 0 || percentile >= 100 || maxExtraLoad <= 0) {
+            throw new IllegalArgumentException("Hedging needs a percentile between 0 and 100 and a positive "
+                    + "max extra load for " + functionName);
+        }
+        remoteHedging.put(functionName.toLowerCase(), new HedgeSettings(percentile, minDelay, maxExtraLoad));
+        remoteFunctions.remove(functionName.toLowerCase());
+        System.out.println("🏁 Hedging cross-Lambda calls to " + functionName + " after p" + percentile
+                + " latency (extra load up to " + Math.round(maxExtraLoad * 100) + "%)");
+    }
 
-                System.out.println("📥 Response status: " + response.statusCode());
-                System.out.println("📥 Response body: " + response.body());
+    /**
+     * Retry calls to a remote function with the given policy, overriding the retry section of serverless.yml;
+     * null turns retries off
+     */
+    public void setRetryPolicy(String functionName, RetryPolicy retryPolicy) {
+        loadRemoteMetadata();
+        if (retryPolicy != null) {
+            remoteRetryPolicies.put(functionName.toLowerCase(), retryPolicy);
+        } else {
+            remoteRetryPolicies.remove(functionName.toLowerCase());
+        }
+        remoteFunctions.remove(functionName.toLowerCase());
+    }
 
-                if (response.statusCode() == 200) {
-                    Object result = objectMapper.readValue(response.body(), Object.class);
-                    System.out.println("✅ Cross-Lambda call successful");
-                    return (R) result;
-                } else {
-                    throw new RuntimeException("Cross-Lambda call failed: " + response.statusCode() +
-                            " - " + response.body());
+    /**
+     * Retry policy of a remote function, or null when its calls are not retried
+     */
+    public RetryPolicy getRetryPolicy(String functionName) {
+        loadRemoteMetadata();
+        return remoteRetryPolicies.get(functionName.toLowerCase());
+    }
+
+    /**
+     * Budget shared by the retries of all remote functions (default: 10% of requests plus 10 retries per second)
+     */
+    public void setRetryBudget(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
+
+    public RetryBudget getRetryBudget() { return retryBudget; }
+
+    /**
+     * Counters of a remote function's calls: retries, circuit breaker, hedging and batching
+     */
+    public Map<String, Object> getRemoteStats(String functionName) {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        RetryPolicy retry = getRetryPolicy(functionName);
+        if (retry != null) {
+            Map<String, Object> retryStats = new LinkedHashMap<>();
+            retryStats.put("maxAttempts", retry.getMaxAttempts());
+            retryStats.put("retries", retry.getRetryCount());
+            retryStats.put("recovered", retry.getRecoveredCount());
+            retryStats.put("attemptsExhausted", retry.getAttemptsExhaustedCount());
+            retryStats.put("budgetExhausted", retry.getBudgetExhaustedCount());
+            retryStats.put("deadlineStopped", retry.getDeadlineStoppedCount());
+            stats.put("retry", retryStats);
+        }
+        RetryBudget budget = retryBudget;
+        stats.put("retryBudget", Map.of("ratio", budget.getRatio(), "requests", budget.getRequestCount(),
+                "retries", budget.getRetryCount(), "exhausted", budget.getExhaustedCount()));
+        CircuitBreaker breaker = transport.getCircuitBreaker(functionName);
+        if (breaker != null) {
+            stats.put("circuitBreaker", Map.of("state", breaker.getState().name(),
+                    "failureRate", breaker.getFailureRate(), "slowCallRate", breaker.getSlowCallRate(),
+                    "rejected", breaker.getRejectedCount()));
+        }
+        RemoteFunction remoteFunction = remoteFunctions.get(functionName.toLowerCase());
+        if (remoteFunction != null && remoteFunction.hedger != null) {
+            CrossLambdaHedger hedger = remoteFunction.hedger;
+            Duration delay = hedger.getHedgeDelay();
+            stats.put("hedging", Map.of("calls", hedger.getCallCount(), "hedges", hedger.getHedgeCount(),
+                    "hedgeWins", hedger.getHedgeWinCount(), "delayMs", delay != null ? delay.toMillis() : -1));
+        }
+        if (remoteFunction != null && remoteFunction.batcher != null) {
+            CrossLambdaBatcher batcher = remoteFunction.batcher;
+            stats.put("batching", Map.of("maxSize", batcher.getMaxSize(), "batches", batcher.getBatchCount(),
+                    "calls", batcher.getCallCount()));
+        }
+        return stats;
+    }
+
+    /**
+     * Declare the output type of a remote function, overriding serverless.yml;
+     * responses are then read straight into that type instead of a Map
+     */
+    public void registerRemoteOutputType(String functionName, Class<?> outputType) {
+        loadRemoteMetadata();
+        remoteOutputTypes.put(functionName.toLowerCase(), outputType);
+        remoteFunctions.remove(functionName.toLowerCase());
+    }
+
+    /**
+     * The proxy for a remote function, created on first use and then reused, or null without a Lambda URL
+     */
+    private RemoteFunction remoteFunction(String componentName) {
+        String key = componentName.toLowerCase();
+        RemoteFunction remoteFunction = remoteFunctions.get(key);
+        if (remoteFunction != null) {
+            return remoteFunction;
+        }
+        String lambdaUrl = lambdaUrls.get(key);
+        if (lambdaUrl == null) {
+            return null;
+        }
+        loadRemoteMetadata();
+        return remoteFunctions.computeIfAbsent(key, name -> {
+            Class<?> outputType = remoteOutputTypes.getOrDefault(name, Object.class);
+            System.out.println("🌐 Creating cross-Lambda proxy for: " + componentName + " -> " + lambdaUrl
+                    + " (" + outputType.getSimpleName() + ")");
+            return new RemoteFunction(componentName, URI.create(lambdaUrl),
+                    responseReaders.computeIfAbsent(outputType, objectMapper::readerFor), wireFormat, remoteBatching.get(name),
+                    remoteHedging.get(name), remoteRetryPolicies.get(name));
+        });
+    }
+
+    /**
+     * Output types, retry policies and implementation classes of remote functions as declared
+     * in serverless.yml, read once
+     */
+    private void loadRemoteMetadata() {
+        if (remoteMetadataLoaded) {
+            return;
+        }
+        synchronized (remoteOutputTypes) {
+            if (!remoteMetadataLoaded) {
+                ServerlessConfigLoader loader = new ServerlessConfigLoader();
+                loader.createMetadataMap(loader.loadConfig()).forEach((name, metadata) -> {
+                    if (metadata.getOutputType() != null) {
+                        remoteOutputTypes.putIfAbsent(name.toLowerCase(), metadata.getOutputType());
+                    }
+                    if (metadata.getImplementation() != null && !metadata.getImplementation().isBlank()) {
+                        colocatable.putIfAbsent(name.toLowerCase(), metadata);
+                    }
+                    if (metadata.getRetry() != null) {
+                        try {
+                            remoteRetryPolicies.putIfAbsent(name.toLowerCase(), RetryPolicy.from(name, metadata.getRetry()));
+                        } catch (IllegalArgumentException e) {
+                            System.err.println("⚠️ Ignoring retry policy for " + name + ": " + e.getMessage());
+                        }
+                    }
+                });
+                remoteMetadataLoaded = true;
+            }
+        }
+    }
+
+    /**
+     * HTTP proxy that makes a remote Lambda function feel like a local @Autowired bean.
+     * Built once per remote function with the reader for its declared output type, the wire
+     * format it negotiates and, when enabled, the batcher its calls are queued on, the hedger
+     * that races a second attempt against slow calls and the policy failed calls are retried with.
+     */
+    private final class RemoteFunction implements Function<Object, Object> {
+        private final String functionName;
+        private final URI uri;
+        private final ObjectReader responseReader;
+        private final WireFormat preferredFormat;
+        private final ObjectWriter preferredWriter;
+        private final ObjectReader preferredReader;
+        private final ObjectReader preferredTreeReader;
+        // Set once the target has answered in the preferred format, so it is known to read it too
+        private volatile boolean preferredAccepted;
+        private final CrossLambdaBatcher batcher;
+        private final CrossLambdaHedger hedger;
+        private final RetryPolicy retry;
+
+        RemoteFunction(String functionName, URI uri, ObjectReader responseReader, WireFormat preferredFormat,
+                       BatchSettings batching, HedgeSettings hedging, RetryPolicy retry) {
+            this.functionName = functionName;
+            this.uri = uri;
+            this.responseReader = responseReader;
+            this.preferredFormat = preferredFormat;
+            this.preferredWriter = preferredFormat.writer(requestWriter);
+            this.preferredReader = preferredFormat.reader(responseReader);
+            this.preferredTreeReader = preferredFormat.reader(objectMapper.reader());
+            this.preferredAccepted = !preferredFormat.isBinary();
+            this.batcher = batching != null
+                    ? new CrossLambdaBatcher(functionName, batching.maxSize, batching.maxDelay, this::sendBatch)
+                    : null;
+            // With batching, hedges and retries are whole batch requests
+            this.hedger = hedging != null
+                    ? new CrossLambdaHedger(functionName, hedging.percentile, hedging.minDelay, hedging.maxExtraLoad)
+                    : null;
+            this.retry = retry;
+        }
+
+        @Override
+        public Object apply(Object input) {
+            SingleFlight singleFlight = getRemoteSingleFlight(functionName);
+            if (singleFlight != null) {
+                return singleFlight.apply(input, Deadline.current(), this::send);
+            }
+            return send(input);
+        }
+
+        private Object send(Object input) {
+            Deadline deadline = Deadline.current();
+            if (batcher != null || hedger != null || retry != null) {
+                try {
+                    return this.sendAsync(input).join();
+                } catch (CompletionException e) {
+                    throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause()
+                            : crossLambdaError(functionName, e.getCause() != null ? e.getCause() : e, deadline);
+                }
+            }
+            try {
+                System.out.println("🌐 FDD Cross-Lambda call: " + functionName + " -> " + uri);
+
+                HttpResponse<byte[]> response = transport.send(functionName, buildRequest(input, deadline));
+                return readResponse(functionName, response, readerFor(response));
+
+            } catch (Exception e) {
+                throw crossLambdaError(functionName, e, deadline);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        <R> CompletableFuture<R> sendAsync(Object input) {
+            Deadline deadline = Deadline.current();
+            if (batcher != null) {
+                if (deadline != null && deadline.isExpired()) {
+                    return CompletableFuture.failedFuture(new DeadlineExceededException(functionName));
+                }
+                CompletableFuture<Object> queued = batcher.submit(input, deadline);
+                return (CompletableFuture<R>) (deadline != null ? deadline.bound(queued, functionName) : queued);
+            }
+
+            HttpRequest request;
+            try {
+                System.out.println("🌐 FDD Cross-Lambda async call: " + functionName + " -> " + uri);
+                request = buildRequest(input, deadline);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(crossLambdaError(functionName, e, deadline));
+            }
+
+            return exchange(request, remaining -> buildRequest(input, remaining), deadline)
+                    .handle((response, failure) -> {
+                        if (failure != null) {
+                            throw crossLambdaError(functionName, failure instanceof CompletionException
+                                    && failure.getCause() != null ? failure.getCause() : failure, deadline);
+                        }
+                        try {
+                            return (R) readResponse(functionName, response, readerFor(response));
+                        } catch (Exception e) {
+                            throw crossLambdaError(functionName, e, deadline);
+                        }
+                    });
+        }
+
+        /**
+         * Send a composite request and read its response as a tree; an error answered by the target
+         * is left in the tree for the caller to map
+         */
+        CompletableFuture<JsonNode> sendComposite(JsonNode composite) {
+            Deadline deadline = Deadline.current();
+            HttpRequest request;
+            try {
+                if (deadline != null) {
+                    deadline.check(functionName);
+                }
+                WireFormat format = requestFormat();
+                byte[] body = writerFor(format).writeValueAsBytes(composite);
+                System.out.println("🧩 FDD Cross-Lambda composite: " + functionName + " -> " + uri + " ("
+                        + composite.path(CompositeEnvelope.STEPS).size() + " steps, " + body.length + " bytes " + format + ")");
+                request = transport.compositeRequest(functionName, uri, body, format, preferredFormat, deadline);
+            } catch (Exception e) {
+                return CompletableFuture.failedFuture(crossLambdaError(functionName, e, deadline));
+            }
+
+            return transport.sendAsync(functionName, request).handle((response, failure) -> {
+                if (failure != null) {
+                    throw crossLambdaError(functionName, failure instanceof CompletionException
+                            && failure.getCause() != null ? failure.getCause() : failure, deadline);
+                }
+                try {
+                    if (response.statusCode() != 200) {
+                        readResponse(functionName, response, responseReader); // throws the mapped failure
+                    }
+                    WireFormat format = responseFormat(response);
+                    return (format == preferredFormat ? preferredTreeReader : format.reader(objectMapper.reader()))
+                            .readTree(response.body());
+                } catch (Exception e) {
+                    throw crossLambdaError(functionName, e, deadline);
+                }
+            });
+        }
+
+        /**
+         * Send a request, hedged and retried as configured; rebuild makes the request again for a hedge
+         * or a retry, so it carries the caller's remaining budget
+         */
+        private CompletableFuture<HttpResponse<byte[]>> exchange(HttpRequest request, RequestBuilder rebuild,
+                                                                 Deadline deadline) {
+            if (retry == null) {
+                return attempt(request, rebuild, deadline);
+            }
+            retryBudget.onRequest();
+            CompletableFuture<HttpResponse<byte[]>> exchange = new CompletableFuture<>();
+            attemptWithRetries(request, rebuild, deadline, 1, exchange);
+            return exchange;
+        }
+
+        /**
+         * One attempt: a single request, or a hedged pair when hedging is enabled
+         */
+        private CompletableFuture<HttpResponse<byte[]>> attempt(HttpRequest request, RequestBuilder rebuild,
+                                                                Deadline deadline) {
+            if (hedger == null) {
+                return transport.sendAsync(functionName, request);
+            }
+            return hedger.call(() -> transport.sendAsync(functionName, request), () -> sendHedge(rebuild, deadline),
+                    response -> response.statusCode() < 500 && response.statusCode() != 429, deadline);
+        }
+
+        /**
+         * Send an attempt and, while the policy, the shared retry budget and the caller's deadline allow,
+         * retry it after a jittered backoff; the last attempt's outcome completes the result
+         */
+        private void attemptWithRetries(HttpRequest request, RequestBuilder rebuild, Deadline deadline, int attempt,
+                                        CompletableFuture<HttpResponse<byte[]>> result) {
+            attempt(request, rebuild, deadline).whenComplete((response, failure) -> {
+                boolean retryable = failure != null
+                        ? retry.isRetryable(failure) : retry.isRetryableStatus(response.statusCode());
+                if (!retryable || !retry.hasAttemptsAfter(attempt)) {
+                    if (retryable) {
+                        retry.onAttemptsExhausted();
+                    } else if (failure == null && attempt > 1 && response.statusCode() == 200) {
+                        retry.onRecovered();
+                    }
+                    complete(result, response, failure);
+                    return;
+                }
+                long backoff = retry.backoffNanos(attempt);
+                if (deadline != null && deadline.remainingNanos() <= backoff) {
+                    retry.onDeadlineStopped();
+                    complete(result, response, failure);
+                    return;
+                }
+                if (!retryBudget.tryAcquire()) {
+                    retry.onBudgetExhausted();
+                    complete(result, response, failure);
+                    return;
+                }
+                retry.onRetry();
+                System.out.println("🔁 Retrying " + functionName + " (attempt " + (attempt + 1) + " of "
+                        + retry.getMaxAttempts() + ") in " + backoff / 1_000_000 + " ms after "
+                        + (failure != null ? failure.getClass().getSimpleName() : "status " + response.statusCode()));
+                CrossLambdaScheduler.schedule(() -> {
+                    HttpRequest next;
+                    try {
+                        // A new request carries the budget left after the backoff
+                        next = deadline == null ? request : rebuild.build(deadline);
+                    } catch (Exception e) {
+                        result.completeExceptionally(e);
+                        return;
+                    }
+                    attemptWithRetries(next, rebuild, deadline, attempt + 1, result);
+                }, backoff);
+            });
+        }
+
+        private void complete(CompletableFuture<HttpResponse<byte[]>> result, HttpResponse<byte[]> response,
+                              Throwable failure) {
+            if (failure != null) {
+                result.completeExceptionally(failure);
+            } else {
+                result.complete(response);
+            }
+        }
+
+        /**
+         * The extra attempt of a hedged call, rebuilt so it carries the caller's remaining budget;
+         * null when it cannot be sent
+         */
+        private CompletableFuture<HttpResponse<byte[]>> sendHedge(RequestBuilder rebuild, Deadline deadline) {
+            try {
+                System.out.println("🏁 FDD Cross-Lambda hedge: " + functionName + " -> " + uri);
+                return transport.trySendAsync(functionName, rebuild.build(deadline));
+            } catch (Exception e) {
+                return null;
+            }
+        }
+
+        /**
+         * Send one batch envelope and complete every call from its entry in the response.
+         * Calls whose deadline has already passed are failed instead of sent; the request
+         * carries the earliest remaining deadline of the others. The batch is hedged and retried as a
+         * whole; calls that fail inside a successful response are not retried.
+         */
+        private void sendBatch(List<CrossLambdaBatcher.Call> batch) {
+            List<CrossLambdaBatcher.Call> sent = new ArrayList<>(batch.size());
+            List<Object> inputs = new ArrayList<>(batch.size());
+            Deadline deadline = null;
+            for (CrossLambdaBatcher.Call call : batch) {
+                if (call.deadline != null && call.deadline.isExpired()) {
+                    call.result.completeExceptionally(new DeadlineExceededException(functionName));
+                    continue;
                 }
+                deadline = Deadline.earliest(deadline, call.deadline);
+                sent.add(call);
+                inputs.add(call.input);
+            }
+            if (sent.isEmpty()) {
+                return;
+            }
 
+            Deadline batchDeadline = deadline;
+            HttpRequest request;
+            RequestBuilder rebuild;
+            try {
+                WireFormat format = requestFormat();
+                byte[] body = writerFor(format).writeValueAsBytes(inputs);
+                System.out.println("📦 FDD Cross-Lambda batch: " + functionName + " -> " + uri
+                        + " (" + sent.size() + " calls, " + body.length + " bytes " + format + ")");
+                rebuild = remaining -> transport.batchRequest(functionName, uri, body, format, preferredFormat, remaining);
+                request = rebuild.build(batchDeadline);
             } catch (Exception e) {
-                System.err.println("❌ Cross-Lambda call error for " + functionName + ": " + e.getMessage());
-                throw new RuntimeException("Cross-Lambda call error for " + functionName + ": " +
-                        e.getMessage(), e);
+                failAll(sent, crossLambdaError(functionName, e, batchDeadline));
+                return;
+            }
+
+            exchange(request, rebuild, batchDeadline).whenComplete((response, failure) -> {
+                if (failure != null) {
+                    failAll(sent, crossLambdaError(functionName, failure instanceof CompletionException
+                            && failure.getCause() != null ? failure.getCause() : failure, batchDeadline));
+                    return;
+                }
+                try {
+                    completeBatch(sent, response);
+                } catch (Exception e) {
+                    failAll(sent, crossLambdaError(functionName, e, batchDeadline));
+                }
+            });
+        }
+
+        private void completeBatch(List<CrossLambdaBatcher.Call> sent, HttpResponse<byte[]> response) throws Exception {
+            if (response.statusCode() != 200) {
+                readResponse(functionName, response, responseReader); // throws the mapped failure
+            }
+            WireFormat format = responseFormat(response);
+            JsonNode entries = (format == preferredFormat ? preferredTreeReader : format.reader(objectMapper.reader()))
+                    .readTree(response.body());
+            for (JsonNode entry : entries) {
+                int index = entry.path(BatchEnvelope.INDEX).asInt(-1);
+                if (index < 0 || index >= sent.size()) {
+                    continue;
+                }
+                CompletableFuture<Object> result = sent.get(index).result;
+                if (entry.hasNonNull(BatchEnvelope.ERROR)) {
+                    String error = entry.get(BatchEnvelope.ERROR).asText();
+                    result.completeExceptionally(BatchEnvelope.DEADLINE_EXCEEDED.equals(error)
+                            ? new DeadlineExceededException(functionName)
+                            : new RuntimeException("Cross-Lambda call failed: " + error + " - "
+                            + entry.path(BatchEnvelope.MESSAGE).asText()));
+                } else {
+                    JsonNode value = entry.get(BatchEnvelope.RESULT);
+                    result.complete(value == null || value.isNull() ? null : responseReader.readValue(value));
+                }
+            }
+            failAll(sent, new RuntimeException("Cross-Lambda batch response from " + functionName + " has no entry for call"));
+        }
+
+        private HttpRequest buildRequest(Object input, Deadline deadline) throws Exception {
+            if (deadline != null) {
+                deadline.check(functionName);
             }
-        };
+            WireFormat format = requestFormat();
+            byte[] requestBody = writerFor(format).writeValueAsBytes(input);
+            System.out.println("📤 Sending " + requestBody.length + " bytes " + format);
+            return transport.request(functionName, uri, requestBody, format, preferredFormat, deadline);
+        }
+
+        /**
+         * JSON until the target has shown it speaks the preferred format
+         */
+        private WireFormat requestFormat() {
+            return preferredAccepted ? preferredFormat : WireFormat.JSON;
+        }
+
+        private ObjectWriter writerFor(WireFormat format) {
+            return format == preferredFormat ? preferredWriter : requestWriter;
+        }
+
+        /**
+         * Reader matching the response's Content-Type
+         */
+        private ObjectReader readerFor(HttpResponse<byte[]> response) {
+            WireFormat format = responseFormat(response);
+            return format == preferredFormat ? preferredReader : format.reader(responseReader);
+        }
+
+        /**
+         * Format of a response; one in the preferred format switches later requests to it
+         */
+        private WireFormat responseFormat(HttpResponse<byte[]> response) {
+            WireFormat format = WireFormat.fromContentType(response.headers().firstValue("Content-Type").orElse(null));
+            if (format == preferredFormat && !preferredAccepted) {
+                preferredAccepted = true;
+                System.out.println("🔁 " + functionName + " answers in " + format + ", sending requests in it too");
+            }
+            return format;
+        }
+
+        private void failAll(List<CrossLambdaBatcher.Call> calls, RuntimeException failure) {
+            for (CrossLambdaBatcher.Call call : calls) {
+                call.result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Makes a remote request with the caller's remaining budget
+     */
+    @FunctionalInterface
+    private interface RequestBuilder {
+        HttpRequest build(Deadline deadline) throws Exception;
+    }
+
+    private static final class HedgeSettings {
+        private final double percentile;
+        private final Duration minDelay;
+        private final double maxExtraLoad;
+
+        HedgeSettings(double percentile, Duration minDelay, double maxExtraLoad) {
+            this.percentile = percentile;
+            this.minDelay = minDelay;
+            this.maxExtraLoad = maxExtraLoad;
+        }
+    }
+
+    private static final class BatchSettings {
+        private final int maxSize;
+        private final Duration maxDelay;
+
+        BatchSettings(int maxSize, Duration maxDelay) {
+            this.maxSize = maxSize;
+            this.maxDelay = maxDelay;
+        }
+    }
+
+    private Object readResponse(String functionName, HttpResponse<byte[]> response, ObjectReader reader) throws Exception {
+        System.out.println("📥 Response status: " + response.statusCode() + " (" + response.body().length + " bytes)");
+
+        if (response.statusCode() == 504) {
+            // The callee ran out of the budget we gave it
+            throw new DeadlineExceededException(functionName);
+        }
+        if (response.statusCode() == 200) {
+            Object result = reader.readValue(response.body());
+            System.out.println("✅ Cross-Lambda call successful");
+            return result;
+        } else {
+            throw new RuntimeException("Cross-Lambda call failed: " + response.statusCode() +
+                    " - " + new String(response.body(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private RuntimeException crossLambdaError(String functionName, Throwable e, Deadline deadline) {
+        if (e instanceof CircuitBreakerOpenException) {
+            System.err.println("🚧 Cross-Lambda call to " + functionName + " rejected: " + e.getMessage());
+            return (CircuitBreakerOpenException) e;
+        }
+        if (e instanceof DeadlineExceededException) {
+            System.err.println("⏱️ Cross-Lambda call abandoned for " + functionName + ": deadline exceeded");
+            return (DeadlineExceededException) e;
+        }
+        if (e instanceof HttpTimeoutException && deadline != null && deadline.isExpired()) {
+            System.err.println("⏱️ Cross-Lambda call abandoned for " + functionName + ": deadline exceeded");
+            return new DeadlineExceededException(functionName);
+        }
+        System.err.println("❌ Cross-Lambda call error for " + functionName + ": " + e.getMessage());
+        return new RuntimeException("Cross-Lambda call error for " + functionName + ": " +
+                e.getMessage(), e);
     }
 
     /**
@@ -189,6 +1099,9 @@ public class CrossLambdaFunctionRegistry extends FunctionRegistry {
      */
     public void registerLambdaUrl(String functionName, String url) {
         lambdaUrls.put(functionName.toLowerCase(), url);
+        environmentUrls.remove(functionName.toLowerCase());
+        remoteFunctions.remove(functionName.toLowerCase());
+        lambdaUrlListeners.forEach(Runnable::run);
         System.out.println("📝 Registered Lambda URL: " + functionName + " -> " + url);
     }
 }
\ No newline at end of file
@@ -0,0 +1,182 @@
+package com.fdd.aws.lambda;
+
+import com.fdd.core.execution.Deadline;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Hedged calls to one idempotent remote function.
+ * When a call has not answered within the configured percentile of recent latencies (never less than
+ * the minimum delay), a second attempt is sent and whichever usable answer arrives first wins; the other
+ * attempt is cancelled. Hedges are capped at a fraction of calls so a slow target is not flooded.
+ */
+final class CrossLambdaHedger {
+
+    private static final int WINDOW = 256;
+    private static final int MIN_SAMPLES = 32;
+    private static final int RECOMPUTE_EVERY = 32;
+
+    private final String functionName;
+    private final double percentile;
+    private final long minDelayNanos;
+    private final double maxExtraLoad;
+
+    // Latencies of recent answered attempts; the percentile is recomputed every RECOMPUTE_EVERY samples
+    private final long[] latencies = new long[WINDOW];
+    private int position;
+    private int recorded;
+    private int sinceRecompute;
+    private volatile long thresholdNanos = -1;
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedges = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    CrossLambdaHedger(String functionName, double percentile, Duration minDelay, double maxExtraLoad) {
+        if (percentile <= 0 || percentile >= 100) {
+            throw new IllegalArgumentException("Hedge percentile must be between 0 and 100 for " + functionName);
+        }
+        if (maxExtraLoad <= 0) {
+            throw new IllegalArgumentException("Hedge max-extra-load must be positive for " + functionName);
+        }
+        this.functionName = functionName;
+        this.percentile = percentile;
+        this.minDelayNanos = minDelay != null ? minDelay.toNanos() : 0;
+        this.maxExtraLoad = maxExtraLoad;
+    }
+
+    /**
+     * Run a call, hedging it when it is slow.
+     * @param attempt sends one attempt
+     * @param hedge sends the extra attempt, or returns null when it may not be sent (e.g. breaker open)
+     * @param usable whether an answer ends the call; otherwise it is kept until no attempt is left
+     */
+    <T> CompletableFuture<T> call(Supplier<CompletableFuture<T>> attempt, Supplier<CompletableFuture<T>> hedge,
+                                  Predicate<T> usable, Deadline deadline) {
+        calls.increment();
+        Attempts<T> attempts = new Attempts<>(usable);
+        attempts.add(attempt.get(), false);
+
+        long delay = thresholdNanos;
+        if (delay >= 0 && !attempts.result.isDone()) {
+            ScheduledFuture<?> timer = CrossLambdaScheduler.schedule(() -> {
+                if (attempts.result.isDone() || (deadline != null && deadline.isExpired()) || !takeBudget()) {
+                    return;
+                }
+                CompletableFuture<T> extra = hedge.get();
+                if (extra != null) {
+                    hedges.increment();
+                    attempts.add(extra, true);
+                }
+            }, Math.max(delay, minDelayNanos));
+            attempts.result.whenComplete((value, error) -> timer.cancel(false));
+        }
+        return attempts.result;
+    }
+
+    private boolean takeBudget() {
+        return hedges.sum() < calls.sum() * maxExtraLoad;
+    }
+
+    private synchronized void recordLatency(long nanos) {
+        latencies[position] = nanos;
+        position = (position + 1) % WINDOW;
+        recorded = Math.min(recorded + 1, WINDOW);
+        if (++sinceRecompute >= RECOMPUTE_EVERY && recorded >= MIN_SAMPLES) {
+            sinceRecompute = 0;
+            long[] sorted = Arrays.copyOf(latencies, recorded);
+            Arrays.sort(sorted);
+            thresholdNanos = sorted[(int) Math.min(recorded - 1, Math.ceil(percentile / 100 * recorded) - 1)];
+        }
+    }
+
+    String getFunctionName() { return functionName; }
+
+    /**
+     * Current hedge delay, or null until enough latencies have been seen
+     */
+    Duration getHedgeDelay() {
+        long threshold = thresholdNanos;
+        return threshold < 0 ? null : Duration.ofNanos(Math.max(threshold, minDelayNanos));
+    }
+
+    long getCallCount() { return calls.sum(); }
+
+    long getHedgeCount() { return hedges.sum(); }
+
+    long getHedgeWinCount() { return hedgeWins.sum(); }
+
+    /**
+     * The attempts of one call: the first usable answer completes the result and cancels the rest
+     */
+    private final class Attempts<T> {
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private final Predicate<T> usable;
+        private final AtomicBoolean answered = new AtomicBoolean();
+        private final List<CompletableFuture<T>> pending = new ArrayList<>(2);
+        private T lastValue;
+        private Throwable lastError;
+
+        Attempts(Predicate<T> usable) {
+            this.usable = usable;
+            result.whenComplete((value, error) -> cancelPending());
+        }
+
+        void add(CompletableFuture<T> attempt, boolean isHedge) {
+            long start = System.nanoTime();
+            synchronized (this) {
+                pending.add(attempt);
+            }
+            attempt.whenComplete((value, error) -> {
+                if (error == null && usable.test(value)) {
+                    recordLatency(System.nanoTime() - start);
+                    // Counted before the caller sees the answer
+                    if (answered.compareAndSet(false, true)) {
+                        if (isHedge) {
+                            hedgeWins.increment();
+                        }
+                        result.complete(value);
+                    }
+                    return;
+                }
+                boolean last;
+                synchronized (this) {
+                    pending.remove(attempt);
+                    if (error == null) {
+                        lastValue = value;
+                    } else if (lastValue == null) {
+                        lastError = error;
+                    }
+                    last = pending.isEmpty();
+                }
+                if (last) {
+                    if (lastValue != null) {
+                        result.complete(lastValue);
+                    } else {
+                        result.completeExceptionally(lastError);
+                    }
+                }
+            });
+            if (result.isDone()) {
+                attempt.cancel(true);
+            }
+        }
+
+        private void cancelPending() {
+            List<CompletableFuture<T>> remaining;
+            synchronized (this) {
+                remaining = new ArrayList<>(pending);
+            }
+            remaining.forEach(attempt -> attempt.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.fdd.aws.lambda;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single timer thread shared by cross-Lambda batch flushes and hedges.
+ * Scheduled tasks only hand work to the transport, so they never block the timer.
+ */
+final class CrossLambdaScheduler {
+
+    private static final ScheduledExecutorService TIMER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "fdd-cross-lambda-timer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private CrossLambdaScheduler() {}
+
+    static ScheduledFuture<?> schedule(Runnable task, long delayNanos) {
+        return TIMER.schedule(task, delayNanos, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,376 @@
+package com.fdd.aws.lambda;
+
+import com.fdd.core.execution.CircuitBreaker;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import com.fdd.core.rest.CompositeEnvelope;
+import com.fdd.core.rest.PayloadCompression;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+
+/**
+ * HTTP transport for cross-Lambda calls.
+ * Clients negotiate HTTP/2 where the target supports it (falling back to HTTP/1.1), keep
+ * connections pooled between calls, and read bodies as bytes. Each call uses the connect and
+ * read timeouts configured for its target, bounded by the caller's deadline.
+ * Compressed responses are decoded as they are read; request bodies of at least the
+ * compression threshold are compressed once the target has advertised an Accept-Encoding.
+ * Every target has a circuit breaker: transport errors, 5xx and 429 responses count as failures,
+ * and while a target's breaker is open calls to it fail fast with CircuitBreakerOpenException.
+ */
+public class CrossLambdaTransport {
+
+    private static final String POOL_SIZE_PROPERTY = "jdk.httpclient.connectionPoolSize";
+    private static final String KEEP_ALIVE_PROPERTY = "jdk.httpclient.keepalive.timeout";
+
+    private volatile HttpClient.Version httpVersion = HttpClient.Version.HTTP_2;
+    private volatile Duration connectTimeout = Duration.ofSeconds(5);
+    private volatile Duration readTimeout = Duration.ofSeconds(30);
+    private volatile Executor executor;
+    private final Map<String, TargetTimeouts> targetTimeouts = new ConcurrentHashMap<>();
+    // One client per distinct connect timeout; the JDK client fixes it at build time
+    private final Map<Duration, HttpClient> clients = new ConcurrentHashMap<>();
+    private volatile boolean compressionEnabled = true;
+    private volatile int compressionMinBytes = PayloadCompression.DEFAULT_MIN_BYTES;
+    // Coding each target has said it accepts on requests (its responses' Accept-Encoding)
+    private final Map<String, String> requestEncodings = new ConcurrentHashMap<>();
+    private volatile boolean circuitBreakerEnabled = true;
+    private volatile CircuitBreaker.Settings circuitBreakerDefaults = new CircuitBreaker.Settings();
+    private final Map<String, CircuitBreaker.Settings> targetCircuitBreakers = new ConcurrentHashMap<>();
+    private final Map<String, CircuitBreaker> breakers = new ConcurrentHashMap<>();
+
+    /**
+     * Size the JDK client's connection pool (0 = unbounded) and how long idle connections are kept.
+     * The JDK reads these once, so this only takes effect before the first HttpClient is used in the JVM;
+     * values already set as system properties win.
+     */
+    public static void configureConnectionPool(Integer maxConnections, Duration keepAlive) {
+        if (maxConnections != null && System.getProperty(POOL_SIZE_PROPERTY) == null) {
+            System.setProperty(POOL_SIZE_PROPERTY, Integer.toString(maxConnections));
+        }
+        if (keepAlive != null && System.getProperty(KEEP_ALIVE_PROPERTY) == null) {
+            System.setProperty(KEEP_ALIVE_PROPERTY, Long.toString(Math.max(1, keepAlive.toSeconds())));
+        }
+    }
+
+    public void setHttpVersion(HttpClient.Version httpVersion) {
+        this.httpVersion = httpVersion;
+        clients.clear();
+    }
+
+    public HttpClient.Version getHttpVersion() { return httpVersion; }
+
+    /**
+     * Default time to establish a connection (default 5s)
+     */
+    public void setConnectTimeout(Duration connectTimeout) {
+        this.connectTimeout = connectTimeout;
+    }
+
+    public Duration getConnectTimeout() { return connectTimeout; }
+
+    /**
+     * Default time to wait for a response when the caller has no deadline of its own (default 30s)
+     */
+    public void setReadTimeout(Duration readTimeout) {
+        this.readTimeout = readTimeout;
+    }
+
+    public Duration getReadTimeout() { return readTimeout; }
+
+    /**
+     * Executor for the clients' asynchronous work (response handling and dependent stages)
+     */
+    public void setExecutor(Executor executor) {
+        this.executor = executor;
+        clients.clear();
+    }
+
+    /**
+     * Ask targets for compressed responses and compress large requests (default on)
+     */
+    public void setCompressionEnabled(boolean compressionEnabled) {
+        this.compressionEnabled = compressionEnabled;
+    }
+
+    /**
+     * Smallest request body worth compressing (default 1024 bytes); smaller bodies are sent as they are
+     */
+    public void setCompressionMinBytes(int compressionMinBytes) {
+        this.compressionMinBytes = compressionMinBytes;
+    }
+
+    /**
+     * Override the timeouts of one target; null values keep the defaults
+     */
+    public void setTargetTimeouts(String functionName, Duration connectTimeout, Duration readTimeout) {
+        targetTimeouts.put(functionName.toLowerCase(), new TargetTimeouts(connectTimeout, readTimeout));
+    }
+
+    /**
+     * Turn the per-target circuit breakers on or off (default on)
+     */
+    public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+        this.circuitBreakerEnabled = circuitBreakerEnabled;
+    }
+
+    /**
+     * Thresholds for targets without settings of their own
+     */
+    public void setCircuitBreakerDefaults(CircuitBreaker.Settings circuitBreakerDefaults) {
+        this.circuitBreakerDefaults = circuitBreakerDefaults;
+        breakers.clear();
+    }
+
+    /**
+     * Override the circuit breaker thresholds of one target
+     */
+    public void setTargetCircuitBreaker(String functionName, CircuitBreaker.Settings settings) {
+        targetCircuitBreakers.put(functionName.toLowerCase(), settings);
+        breakers.remove(functionName.toLowerCase());
+    }
+
+    /**
+     * The circuit breaker guarding a target, or null when circuit breakers are disabled
+     */
+    public CircuitBreaker getCircuitBreaker(String functionName) {
+        if (!circuitBreakerEnabled) {
+            return null;
+        }
+        return breakers.computeIfAbsent(functionName.toLowerCase(), name -> new CircuitBreaker(name,
+                targetCircuitBreakers.getOrDefault(name, circuitBreakerDefaults)));
+    }
+
+    /**
+     * Drop the clients, and with them their pooled connections, and the codings targets advertised;
+     * the next call connects afresh. Connections open when a snapshot is taken do not survive its restore.
+     */
+    public void resetConnections() {
+        clients.clear();
+        requestEncodings.clear();
+    }
+
+    /**
+     * Forget what calls to a target have recorded: its circuit breaker and the coding it accepts
+     */
+    public void forgetTarget(String functionName) {
+        breakers.remove(functionName.toLowerCase());
+        requestEncodings.remove(functionName.toLowerCase());
+    }
+
+    /**
+     * Send a request and block for the response
+     * @throws com.fdd.core.execution.CircuitBreakerOpenException when the target's breaker is open
+     */
+    public HttpResponse<byte[]> send(String functionName, HttpRequest request) throws Exception {
+        CircuitBreaker breaker = getCircuitBreaker(functionName);
+        if (breaker != null) {
+            breaker.acquirePermission();
+        }
+        long start = System.nanoTime();
+        try {
+            HttpResponse<byte[]> response = clientFor(functionName).send(request, bodyHandler(functionName));
+            record(breaker, response, null, start);
+            return response;
+        } catch (UncheckedIOException e) {
+            record(breaker, null, e, start);
+            throw e.getCause();
+        } catch (Exception e) {
+            record(breaker, null, e, start);
+            throw e;
+        }
+    }
+
+    /**
+     * Send a request without blocking the caller; cancelling the returned future abandons the exchange.
+     * Fails with CircuitBreakerOpenException when the target's breaker is open.
+     */
+    public CompletableFuture<HttpResponse<byte[]>> sendAsync(String functionName, HttpRequest request) {
+        CircuitBreaker breaker = getCircuitBreaker(functionName);
+        if (breaker == null) {
+            return clientFor(functionName).sendAsync(request, bodyHandler(functionName));
+        }
+        return sendAsync(functionName, request, breaker);
+    }
+
+    /**
+     * Send an optional extra attempt (a hedge), or return null when the target's breaker does not permit it
+     */
+    CompletableFuture<HttpResponse<byte[]>> trySendAsync(String functionName, HttpRequest request) {
+        CircuitBreaker breaker = getCircuitBreaker(functionName);
+        if (breaker != null && !breaker.tryAcquirePermission()) {
+            return null;
+        }
+        return sendPermitted(functionName, request, breaker);
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> sendPermitted(String functionName, HttpRequest request,
+                                                                  CircuitBreaker breaker) {
+        long start = System.nanoTime();
+        CompletableFuture<HttpResponse<byte[]>> exchange =
+                clientFor(functionName).sendAsync(request, bodyHandler(functionName));
+        // The breaker records the outcome before the caller sees it; cancelling abandons the exchange
+        CompletableFuture<HttpResponse<byte[]>> recorded =
+                exchange.whenComplete((response, error) -> record(breaker, response, error, start));
+        recorded.whenComplete((response, error) -> {
+            if (recorded.isCancelled()) {
+                exchange.cancel(true);
+            }
+        });
+        return recorded;
+    }
+
+    private CompletableFuture<HttpResponse<byte[]>> sendAsync(String functionName, HttpRequest request,
+                                                              CircuitBreaker breaker) {
+        try {
+            breaker.acquirePermission();
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        return sendPermitted(functionName, request, breaker);
+    }
+
+    private static void record(CircuitBreaker breaker, HttpResponse<?> response, Throwable error, long start) {
+        if (breaker == null) {
+            return;
+        }
+        long elapsed = System.nanoTime() - start;
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        if (cause instanceof CancellationException || cause instanceof InterruptedException) {
+            breaker.onIgnored();
+        } else if (cause != null || response.statusCode() >= 500 || response.statusCode() == 429) {
+            breaker.onFailure(elapsed);
+        } else {
+            breaker.onSuccess(elapsed);
+        }
+    }
+
+    /**
+     * Build a POST to a target with a body in the given format, asking for the preferred response format.
+     * The read timeout is the target's, cut to the caller's remaining budget when there is a deadline;
+     * the callee then receives that budget in the X-FDD-Deadline-Ms header.
+     */
+    public HttpRequest request(String functionName, URI uri, byte[] body, WireFormat format,
+                               WireFormat accept, Deadline deadline) {
+        return builder(functionName, uri, body, format, accept, deadline).build();
+    }
+
+    /**
+     * Build a POST carrying a batch envelope (an array of inputs)
+     */
+    public HttpRequest batchRequest(String functionName, URI uri, byte[] body, WireFormat format,
+                                    WireFormat accept, Deadline deadline) {
+        return builder(functionName, uri, body, format, accept, deadline).header(BatchEnvelope.HEADER, "true").build();
+    }
+
+    /**
+     * Build a POST carrying a composite request (workflow steps for the target's deployment)
+     */
+    public HttpRequest compositeRequest(String functionName, URI uri, byte[] body, WireFormat format,
+                                        WireFormat accept, Deadline deadline) {
+        return builder(functionName, uri, body, format, accept, deadline).header(CompositeEnvelope.HEADER, "true").build();
+    }
+
+    private HttpRequest.Builder builder(String functionName, URI uri, byte[] body, WireFormat format,
+                                        WireFormat accept, Deadline deadline) {
+        Duration timeout = readTimeoutFor(functionName);
+        if (deadline != null) {
+            deadline.check(functionName);
+            Duration remaining = deadline.remaining();
+            if (remaining.compareTo(timeout) < 0) {
+                timeout = remaining;
+            }
+        }
+
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+                .uri(uri)
+                .header("Content-Type", format.getMediaType())
+                .header("Accept", accept.acceptHeader())
+                .timeout(timeout);
+        if (compressionEnabled) {
+            builder.header(PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+            String encoding = requestEncodings.get(functionName.toLowerCase());
+            if (encoding != null && body.length >= compressionMinBytes) {
+                body = PayloadCompression.compress(body, encoding);
+                builder.header(PayloadCompression.CONTENT_ENCODING, encoding);
+            }
+        }
+        builder.POST(HttpRequest.BodyPublishers.ofByteArray(body));
+        if (deadline != null) {
+            builder.header(Deadline.HEADER, Long.toString(Math.max(1, timeout.toMillis())));
+        }
+        return builder;
+    }
+
+    /**
+     * Reads the body as bytes, decoding a compressed response, and notes which coding
+     * the target accepts on requests
+     */
+    private HttpResponse.BodyHandler<byte[]> bodyHandler(String functionName) {
+        return responseInfo -> {
+            String accepted = PayloadCompression.negotiate(
+                    responseInfo.headers().firstValue(PayloadCompression.ACCEPT_ENCODING).orElse(null));
+            if (accepted != null && compressionEnabled) {
+                requestEncodings.putIfAbsent(functionName.toLowerCase(), accepted);
+            }
+            String encoding = responseInfo.headers().firstValue(PayloadCompression.CONTENT_ENCODING).orElse(null);
+            if (encoding == null) {
+                return HttpResponse.BodySubscribers.ofByteArray();
+            }
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(), bytes -> {
+                try {
+                    return PayloadCompression.decompress(bytes, encoding);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        };
+    }
+
+    Duration readTimeoutFor(String functionName) {
+        TargetTimeouts target = targetTimeouts.get(functionName.toLowerCase());
+        return target != null && target.readTimeout != null ? target.readTimeout : readTimeout;
+    }
+
+    Duration connectTimeoutFor(String functionName) {
+        TargetTimeouts target = targetTimeouts.get(functionName.toLowerCase());
+        return target != null && target.connectTimeout != null ? target.connectTimeout : connectTimeout;
+    }
+
+    private HttpClient clientFor(String functionName) {
+        return clients.computeIfAbsent(connectTimeoutFor(functionName), timeout -> {
+            HttpClient.Builder builder = HttpClient.newBuilder()
+                    .version(httpVersion)
+                    .connectTimeout(timeout)
+                    .followRedirects(HttpClient.Redirect.NEVER);
+            Executor clientExecutor = executor;
+            if (clientExecutor != null) {
+                builder.executor(clientExecutor);
+            }
+            return builder.build();
+        });
+    }
+
+    private static final class TargetTimeouts {
+        private final Duration connectTimeout;
+        private final Duration readTimeout;
+
+        TargetTimeouts(Duration connectTimeout, Duration readTimeout) {
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+        }
+    }
+}
@@ -1,10 +1,25 @@
 // fdd-aws-lambda-starter/src/main/java/com/fdd/aws/lambda/FddLambdaAutoConfiguration.java
 package com.fdd.aws.lambda;
 
+import com.fdd.core.execution.CircuitBreaker;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.execution.RetryBudget;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.PayloadCompression;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.core.env.Environment;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
 
 /**
  * FDD Lambda Auto-Configuration
@@ -21,7 +36,153 @@ import org.springframework.context.annotation.ComponentScan;
 public class FddLambdaAutoConfiguration {
 
     @Bean
-    public CrossLambdaFunctionRegistry crossLambdaFunctionRegistry() {
-        return new CrossLambdaFunctionRegistry();
+    public CrossLambdaFunctionRegistry crossLambdaFunctionRegistry(ObjectProvider<FunctionExecutors> functionExecutors,
+                                                                   Environment environment,
+                                                                   ApplicationContext applicationContext) {
+        CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+        registry.setFunctionExecutors(functionExecutors.getIfAvailable());
+        // fdd.cross-lambda.colocation.enabled: run functions whose implementation is on the classpath in-process (opt-in)
+        registry.setColocationEnabled(environment.getProperty("fdd.cross-lambda.colocation.enabled", Boolean.class, false));
+        registry.setBeanFactory(applicationContext.getAutowireCapableBeanFactory());
+        // fdd.cross-lambda.composite.enabled: send workflow steps sharing a remote deployment in one request
+        registry.setCompositeEnabled(environment.getProperty("fdd.cross-lambda.composite.enabled", Boolean.class, true));
+        configureTransport(registry, environment);
+        // fdd.cross-lambda.retry-budget: retries allowed as a ratio of requests, plus a floor per second
+        registry.setRetryBudget(new RetryBudget(
+                environment.getProperty("fdd.cross-lambda.retry-budget.ratio", Double.class, 0.1),
+                environment.getProperty("fdd.cross-lambda.retry-budget.min-retries-per-second", Integer.class, 10)));
+        // fdd.cross-lambda.wire-format: binary format offered to FDD targets (smile, cbor, or json to stay on JSON)
+        String wireFormat = environment.getProperty("fdd.cross-lambda.wire-format");
+        if (wireFormat != null && !wireFormat.isBlank()) {
+            registry.setWireFormat(WireFormat.named(wireFormat));
+        }
+        // fdd.cross-lambda.coalesce: "*" for every remote function, or a comma-separated list of names
+        String coalesce = environment.getProperty("fdd.cross-lambda.coalesce");
+        if (coalesce != null) {
+            for (String functionName : coalesce.split(",")) {
+                if ("*".equals(functionName.trim())) {
+                    registry.setCoalesceAllRemote(true);
+                } else if (!functionName.isBlank()) {
+                    registry.enableRemoteCoalescing(functionName.trim());
+                }
+            }
+        }
+        return registry;
+    }
+
+    /**
+     * fdd.cross-lambda.timeout / connect-timeout / http-version (HTTP_2, HTTP_1_1),
+     * fdd.cross-lambda.pool.max-connections / keep-alive, fdd.cross-lambda.compression.enabled / min-bytes,
+     * fdd.cross-lambda.circuit-breaker.enabled and its default thresholds (failure-rate-threshold,
+     * slow-call-rate-threshold, slow-call-duration, window-size, minimum-calls, open-duration, half-open-calls) and
+     * fdd.cross-lambda.targets.<function>.timeout / connect-timeout / batch-size / batch-delay / circuit-breaker.* /
+     * hedge.percentile / hedge.min-delay / hedge.max-extra-load / force-remote
+     */
+    private void configureTransport(CrossLambdaFunctionRegistry registry, Environment environment) {
+        CrossLambdaTransport transport = registry.getTransport();
+        CrossLambdaTransport.configureConnectionPool(
+                environment.getProperty("fdd.cross-lambda.pool.max-connections", Integer.class),
+                duration(environment.getProperty("fdd.cross-lambda.pool.keep-alive")));
+
+        Duration timeout = duration(environment.getProperty("fdd.cross-lambda.timeout"));
+        if (timeout != null) {
+            transport.setReadTimeout(timeout);
+        }
+        Duration connectTimeout = duration(environment.getProperty("fdd.cross-lambda.connect-timeout"));
+        if (connectTimeout != null) {
+            transport.setConnectTimeout(connectTimeout);
+        }
+        String httpVersion = environment.getProperty("fdd.cross-lambda.http-version");
+        if (httpVersion != null) {
+            transport.setHttpVersion(HttpClient.Version.valueOf(httpVersion.trim().toUpperCase()));
+        }
+        transport.setCompressionEnabled(environment.getProperty("fdd.cross-lambda.compression.enabled", Boolean.class, true));
+        transport.setCompressionMinBytes(environment.getProperty("fdd.cross-lambda.compression.min-bytes",
+                Integer.class, PayloadCompression.DEFAULT_MIN_BYTES));
+
+        Binder binder = Binder.get(environment);
+        transport.setCircuitBreakerEnabled(environment.getProperty("fdd.cross-lambda.circuit-breaker.enabled",
+                Boolean.class, true));
+        binder.bind("fdd.cross-lambda.circuit-breaker", CircuitBreaker.Settings.class)
+                .ifBound(transport::setCircuitBreakerDefaults);
+
+        binder.bind("fdd.cross-lambda.targets", Bindable.mapOf(String.class, TargetProperties.class))
+                .orElse(Map.of())
+                .forEach((name, target) -> {
+                    transport.setTargetTimeouts(name, target.getConnectTimeout(), target.getTimeout());
+                    if (target.isForceRemote()) {
+                        registry.setForceRemote(name, true);
+                    }
+                    if (target.getBatchSize() != null && target.getBatchSize() > 1) {
+                        registry.enableBatching(name, target.getBatchSize(),
+                                target.getBatchDelay() != null ? target.getBatchDelay() : Duration.ofMillis(5));
+                    }
+                    if (target.getCircuitBreaker() != null) {
+                        transport.setTargetCircuitBreaker(name, target.getCircuitBreaker());
+                    }
+                    HedgeProperties hedge = target.getHedge();
+                    if (hedge != null && hedge.getPercentile() != null) {
+                        registry.enableHedging(name, hedge.getPercentile(), hedge.getMinDelay(), hedge.getMaxExtraLoad());
+                    }
+                });
+    }
+
+    private static Duration duration(String value) {
+        return value != null && !value.isBlank() ? DurationStyle.detectAndParse(value.trim()) : null;
+    }
+
+    /**
+     * One fdd.cross-lambda.targets entry; batch-size above 1 turns on micro-batching (batch-delay defaults to 5ms),
+     * circuit-breaker overrides the default thresholds, hedge.percentile turns on hedging (idempotent targets only)
+     * and force-remote keeps calls on HTTP even when the function could run in-process
+     */
+    public static class TargetProperties {
+        private Duration timeout;
+        private Duration connectTimeout;
+        private Integer batchSize;
+        private Duration batchDelay;
+        private CircuitBreaker.Settings circuitBreaker;
+        private HedgeProperties hedge;
+        private boolean forceRemote;
+
+        public Duration getTimeout() { return timeout; }
+        public void setTimeout(Duration timeout) { this.timeout = timeout; }
+
+        public Duration getConnectTimeout() { return connectTimeout; }
+        public void setConnectTimeout(Duration connectTimeout) { this.connectTimeout = connectTimeout; }
+
+        public Integer getBatchSize() { return batchSize; }
+        public void setBatchSize(Integer batchSize) { this.batchSize = batchSize; }
+
+        public Duration getBatchDelay() { return batchDelay; }
+        public void setBatchDelay(Duration batchDelay) { this.batchDelay = batchDelay; }
+
+        public CircuitBreaker.Settings getCircuitBreaker() { return circuitBreaker; }
+        public void setCircuitBreaker(CircuitBreaker.Settings circuitBreaker) { this.circuitBreaker = circuitBreaker; }
+
+        public HedgeProperties getHedge() { return hedge; }
+        public void setHedge(HedgeProperties hedge) { this.hedge = hedge; }
+
+        public boolean isForceRemote() { return forceRemote; }
+        public void setForceRemote(boolean forceRemote) { this.forceRemote = forceRemote; }
+    }
+
+    /**
+     * Hedging of one target: a second attempt after the percentile latency (at least min-delay, default 10ms),
+     * with at most max-extra-load extra requests per call (default 0.05)
+     */
+    public static class HedgeProperties {
+        private Double percentile;
+        private Duration minDelay = Duration.ofMillis(10);
+        private double maxExtraLoad = 0.05;
+
+        public Double getPercentile() { return percentile; }
+        public void setPercentile(Double percentile) { this.percentile = percentile; }
+
+        public Duration getMinDelay() { return minDelay; }
+        public void setMinDelay(Duration minDelay) { this.minDelay = minDelay; }
+
+        public double getMaxExtraLoad() { return maxExtraLoad; }
+        public void setMaxExtraLoad(double maxExtraLoad) { this.maxExtraLoad = maxExtraLoad; }
     }
 }
\ No newline at end of file
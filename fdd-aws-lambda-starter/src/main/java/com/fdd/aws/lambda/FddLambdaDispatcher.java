@@ -0,0 +1,462 @@
+package com.fdd.aws.lambda;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.registry.FunctionCodec;
+import com.fdd.core.registry.FunctionInvoker;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import com.fdd.core.rest.CompositeEnvelope;
+import com.fdd.core.rest.PayloadCompression;
+
+import java.io.IOException;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Serves the Lambda events of the function this Lambda runs: the request path of FddLambdaHandler,
+ * without the application context it is started from.
+ * HTTP bodies are decoded by their Content-Type and Content-Encoding and read into the function's input type,
+ * the function runs within the caller's budget and the Lambda's remaining time, and the response is written in
+ * the format and coding the caller accepts. Batch and composite envelopes are executed entry by entry.
+ */
+final class FddLambdaDispatcher {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final ObjectReader bodyReader = objectMapper.readerFor(Object.class);
+    private static final Map<String, String> JSON_HEADERS = Map.of(
+            "Content-Type", "application/json",
+            "Access-Control-Allow-Origin", "*",
+            PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+
+    private final FunctionRegistry registry;
+    private final String functionName;
+    private final boolean compressionEnabled;
+    private final int compressionMinBytes;
+    // The function this Lambda serves, resolved once; null until it is found
+    private volatile Target target;
+
+    /**
+     * @param functionName the function this Lambda serves (FDD_FUNCTION_NAME), or null when it is not set
+     */
+    FddLambdaDispatcher(FunctionRegistry registry, String functionName, boolean compressionEnabled,
+                        int compressionMinBytes) {
+        this.registry = registry;
+        this.functionName = functionName;
+        this.compressionEnabled = compressionEnabled;
+        this.compressionMinBytes = compressionMinBytes;
+        this.target = Target.resolve(registry, functionName);
+        if (registry instanceof CrossLambdaFunctionRegistry crossLambda) {
+            // A function served remotely is called through the proxy it resolved to, which new URLs replace
+            crossLambda.addLambdaUrlListener(() -> target = null);
+        }
+    }
+
+    /**
+     * @param priming whether the event is a priming sample: the function is then applied without its
+     *                cache, coalescing, bulkhead and call counts, so the sample leaves nothing behind
+     */
+    Object handle(Object input, Context context, boolean priming) {
+        Map<?, ?> httpEvent = isHttpRequest(input) ? (Map<?, ?>) input : null;
+        EventHeaders headers = EventHeaders.of(httpEvent);
+
+        try {
+            if (functionName == null) {
+                throw new RuntimeException("FDD_FUNCTION_NAME environment variable not set");
+            }
+
+            // Workflow steps pushed down by a caller: run them here and answer with all their outputs
+            if (headers.composite) {
+                JsonNode composite = readTree(httpEvent, headers, "composite request");
+                JsonNode outputs = Deadline.callWithin(lambdaDeadline(headers, context),
+                        () -> CompositeEnvelope.execute(registry, composite));
+                return createHttpResponse(200, outputs, null, WireFormat.fromAccept(headers.accept),
+                        responseEncoding(headers));
+            }
+
+            Target function = target();
+
+            // Batch envelope from a micro-batching caller: one entry per input, in order
+            if (headers.batch) {
+                List<Map<String, Object>> entries = Deadline.callWithin(lambdaDeadline(headers, context),
+                        () -> executeBatch(function, httpEvent, headers));
+                return createHttpResponse(200, entries, null, WireFormat.fromAccept(headers.accept),
+                        responseEncoding(headers));
+            }
+
+            // Execute function (through its invoker when registered locally, so deployment limits apply)
+            // within the caller's budget and the Lambda's own remaining time
+            Object typedInput = httpEvent != null ? function.readBody(httpEvent, headers) : function.convert(input);
+            Object result = Deadline.callWithin(lambdaDeadline(headers, context), () -> function.invoke(typedInput, priming));
+
+            // Return HTTP response if needed, in the format the caller accepts
+            if (httpEvent != null) {
+                return createHttpResponse(200, result, function.codec, WireFormat.fromAccept(headers.accept),
+                        responseEncoding(headers));
+            }
+            return result;
+
+        } catch (Exception e) {
+            System.err.println("❌ FDD execution failed: " + e.getMessage());
+            e.printStackTrace();
+
+            Map<String, Object> error = new HashMap<>();
+            error.put("functionName", functionName);
+            error.put("error", "FDD_EXECUTION_FAILED");
+            error.put("message", e.getMessage());
+            error.put("type", e.getClass().getSimpleName());
+
+            if (httpEvent != null) {
+                return createHttpResponse(errorStatus(e), error);
+            }
+            return error;
+        }
+    }
+
+    /**
+     * The function this Lambda serves; looked up again while it has not been found
+     */
+    private Target target() {
+        Target resolved = target;
+        if (resolved == null) {
+            resolved = Target.resolve(registry, functionName);
+            if (resolved == null) {
+                throw new RuntimeException("Function not found: " + functionName);
+            }
+            target = resolved;
+        }
+        return resolved;
+    }
+
+    /**
+     * Extract input type from Function<T,R> signature using reflection, for functions registered
+     * without one; Spring CGLIB proxies are looked through
+     */
+    private static Class<?> extractInputTypeFromFunction(Function<?, ?> function) {
+        Class<?> currentClass = function.getClass();
+        while (currentClass != null && currentClass != Object.class) {
+            for (Type iface : currentClass.getGenericInterfaces()) {
+                if (iface instanceof ParameterizedType paramType
+                        && paramType.getRawType() instanceof Class<?> rawType
+                        && Function.class.isAssignableFrom(rawType)) {
+                    Type[] typeArgs = paramType.getActualTypeArguments();
+                    if (typeArgs.length > 0 && typeArgs[0] instanceof Class<?> inputType) {
+                        return inputType;
+                    }
+                }
+            }
+            currentClass = currentClass.getSuperclass();
+        }
+        return null;
+    }
+
+    /**
+     * Execute every input of a batch envelope. Registered functions run concurrently on their
+     * executors through invokeAsync; a failed input only fails its own entry.
+     */
+    private List<Map<String, Object>> executeBatch(Target function, Map<?, ?> httpEvent, EventHeaders headers) {
+        JsonNode inputs = readTree(httpEvent, headers, "batch request");
+        if (inputs == null || !inputs.isArray()) {
+            throw new RuntimeException("Batch request body must be a JSON array");
+        }
+
+        List<CompletableFuture<Object>> results = new ArrayList<>(inputs.size());
+        for (JsonNode element : inputs) {
+            try {
+                if (function.invoker != null) {
+                    results.add(registry.invokeAsync(functionName, objectMapper.treeToValue(element, Object.class)));
+                } else {
+                    Object typedElement = function.inputType != null
+                            ? objectMapper.treeToValue(element, function.inputType)
+                            : objectMapper.treeToValue(element, Object.class);
+                    results.add(CompletableFuture.completedFuture(function.invoke(typedElement, false)));
+                }
+            } catch (Exception e) {
+                results.add(CompletableFuture.failedFuture(e));
+            }
+        }
+
+        List<Map<String, Object>> entries = new ArrayList<>(results.size());
+        for (int i = 0; i < results.size(); i++) {
+            try {
+                entries.add(BatchEnvelope.entry(i, results.get(i).join(), null));
+            } catch (CompletionException e) {
+                entries.add(BatchEnvelope.entry(i, null, e.getCause() != null ? e.getCause() : e));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * The body of an HTTP event as a tree, in the format named by its Content-Type
+     */
+    private static JsonNode readTree(Map<?, ?> httpEvent, EventHeaders headers, String what) {
+        try {
+            return WireFormat.fromContentType(headers.contentType).reader(objectMapper.reader())
+                    .readTree(bodyBytes(httpEvent, headers));
+        } catch (Exception e) {
+            throw new RuntimeException("Invalid JSON in " + what + " body", e);
+        }
+    }
+
+    /**
+     * Raw bytes of an HTTP event body; binary and compressed bodies arrive base64-encoded
+     * and gzip/deflate bodies are decoded by their Content-Encoding
+     */
+    private static byte[] bodyBytes(Map<?, ?> httpEvent, EventHeaders headers) throws IOException {
+        String body = (String) httpEvent.get("body");
+        if (body == null) {
+            return new byte[0];
+        }
+        byte[] bytes = Boolean.TRUE.equals(httpEvent.get("isBase64Encoded"))
+                ? Base64.getDecoder().decode(body)
+                : body.getBytes(StandardCharsets.UTF_8);
+        return PayloadCompression.decompress(bytes, headers.contentEncoding);
+    }
+
+    /**
+     * Coding to compress a response with, from the caller's Accept-Encoding, or null
+     */
+    private String responseEncoding(EventHeaders headers) {
+        return compressionEnabled ? PayloadCompression.negotiate(headers.acceptEncoding) : null;
+    }
+
+    /**
+     * The earlier of the caller's X-FDD-Deadline-Ms budget and the time this Lambda has left
+     */
+    private static Deadline lambdaDeadline(EventHeaders headers, Context context) {
+        Deadline deadline = context != null && context.getRemainingTimeInMillis() > 0
+                ? Deadline.afterMillis(context.getRemainingTimeInMillis()) : null;
+        if (headers.deadline != null) {
+            try {
+                deadline = Deadline.earliest(deadline, Deadline.afterMillis(Long.parseLong(headers.deadline.trim())));
+            } catch (NumberFormatException e) {
+                System.err.println("⚠️ Ignoring invalid " + Deadline.HEADER + " header: " + headers.deadline);
+            }
+        }
+        return deadline;
+    }
+
+    private static int errorStatus(Exception e) {
+        if (e instanceof BulkheadFullException) {
+            return 429;
+        }
+        if (e instanceof DeadlineExceededException) {
+            return 504;
+        }
+        if (e instanceof CircuitBreakerOpenException) {
+            return 503;
+        }
+        return 500;
+    }
+
+    private static boolean isHttpRequest(Object input) {
+        return input instanceof Map && ((Map<?, ?>) input).containsKey("body");
+    }
+
+    /**
+     * HTTP response in the negotiated format, written with the function's codec when given;
+     * bodies of at least the compression threshold are compressed when the caller accepts it.
+     * Binary and compressed bodies are base64-encoded.
+     */
+    private Object createHttpResponse(int statusCode, Object body, FunctionCodec codec, WireFormat format,
+                                      String contentEncoding) {
+        byte[] bytes;
+        try {
+            bytes = codec != null ? codec.forFormat(format).writeOutputAsBytes(body)
+                    : format.writer(objectMapper.writer()).writeValueAsBytes(body);
+        } catch (Exception e) {
+            return createHttpResponse(500, Map.of("error", "Serialization failed"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", statusCode);
+        if (!format.isBinary() && contentEncoding == null) {
+            response.put("headers", JSON_HEADERS);
+            response.put("body", new String(bytes, StandardCharsets.UTF_8));
+            return response;
+        }
+
+        Map<String, Object> headers = new HashMap<>();
+        headers.put("Content-Type", format.getMediaType());
+        headers.put("Access-Control-Allow-Origin", "*");
+        headers.put(PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+        if (contentEncoding != null) {
+            headers.put("Vary", PayloadCompression.ACCEPT_ENCODING);
+            if (bytes.length >= compressionMinBytes) {
+                bytes = PayloadCompression.compress(bytes, contentEncoding);
+                headers.put(PayloadCompression.CONTENT_ENCODING, contentEncoding);
+            }
+        }
+
+        response.put("headers", headers);
+        if (format.isBinary() || headers.containsKey(PayloadCompression.CONTENT_ENCODING)) {
+            response.put("body", Base64.getEncoder().encodeToString(bytes));
+            response.put("isBase64Encoded", true);
+        } else {
+            response.put("body", new String(bytes, StandardCharsets.UTF_8));
+        }
+        return response;
+    }
+
+    private static Object createHttpResponse(int statusCode, Object body) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("statusCode", statusCode);
+        response.put("headers", JSON_HEADERS);
+
+        try {
+            response.put("body", objectMapper.writeValueAsString(body));
+        } catch (Exception e) {
+            response.put("body", "{\"error\":\"Serialization failed\"}");
+        }
+
+        return response;
+    }
+
+    @Override
+    public String toString() {
+        Target resolved = target;
+        return resolved != null ? resolved.toString() : functionName + " (not found yet)";
+    }
+
+    /**
+     * The function this Lambda serves with what a request needs, resolved once: its invoker and codecs
+     * when it is registered here, and its input type. A function only reachable remotely is called through
+     * the proxy it resolved to.
+     */
+    private static final class Target {
+        private final String name;
+        private final Function<Object, Object> function;
+        private final FunctionInvoker invoker;
+        private final FunctionCodec codec;
+        private final Class<?> inputType;
+
+        private Target(String name, Function<Object, Object> function, FunctionInvoker invoker, Class<?> inputType) {
+            this.name = name;
+            this.function = function;
+            this.invoker = invoker;
+            this.codec = invoker != null ? invoker.getCodec() : null;
+            this.inputType = inputType;
+        }
+
+        static Target resolve(FunctionRegistry registry, String name) {
+            if (name == null) {
+                return null;
+            }
+            Function<Object, Object> function = registry.getFunction(name).orElse(null);
+            if (function == null) {
+                return null;
+            }
+            FunctionInvoker invoker = registry.getInvoker(name);
+            Class<?> inputType = invoker != null && invoker.getInputType() != null
+                    ? invoker.getInputType() : extractInputTypeFromFunction(function);
+            return new Target(name, function, invoker, inputType == Object.class ? null : inputType);
+        }
+
+        Object invoke(Object typedInput, boolean priming) {
+            if (invoker != null) {
+                return priming ? invoker.applyDirectly(typedInput) : invoker.invoke(typedInput);
+            }
+            return function.apply(typedInput);
+        }
+
+        /**
+         * The body of an HTTP event read straight into the input type, in the format of its Content-Type
+         */
+        Object readBody(Map<?, ?> httpEvent, EventHeaders headers) {
+            String body = (String) httpEvent.get("body");
+            if (body == null || body.isBlank()) {
+                return convert(new HashMap<>()); // Empty request
+            }
+            WireFormat format = WireFormat.fromContentType(headers.contentType);
+            Object value;
+            try {
+                byte[] bytes = bodyBytes(httpEvent, headers);
+                value = codec != null ? codec.forFormat(format).readInput(bytes, 0, bytes.length)
+                        : format.reader(bodyReader).readValue(bytes);
+            } catch (Exception e) {
+                System.err.println("❌ Failed to parse HTTP body: " + e.getMessage());
+                throw new RuntimeException("Invalid JSON in request body", e);
+            }
+            return convert(value);
+        }
+
+        /**
+         * An already-parsed input (e.g. a direct invocation's Map) converted to the input type
+         */
+        Object convert(Object input) {
+            if (input == null || inputType == null || inputType.isInstance(input)) {
+                return input;
+            }
+            try {
+                return objectMapper.convertValue(input, inputType);
+            } catch (IllegalArgumentException e) {
+                throw new RuntimeException("Cannot convert input to " + inputType.getSimpleName() + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return name + (invoker != null ? " (local" : " (remote")
+                    + (inputType != null ? ", " + inputType.getSimpleName() + ")" : ")");
+        }
+    }
+
+    /**
+     * The headers of an HTTP event the handler reads, found in one pass (names matched case-insensitively)
+     */
+    private static final class EventHeaders {
+        private static final EventHeaders NONE = new EventHeaders();
+
+        private String contentType;
+        private String contentEncoding;
+        private String accept;
+        private String acceptEncoding;
+        private String deadline;
+        private boolean batch;
+        private boolean composite;
+
+        static EventHeaders of(Map<?, ?> httpEvent) {
+            if (httpEvent == null || !(httpEvent.get("headers") instanceof Map<?, ?> eventHeaders)) {
+                return NONE;
+            }
+            EventHeaders headers = new EventHeaders();
+            for (Map.Entry<?, ?> header : eventHeaders.entrySet()) {
+                String name = String.valueOf(header.getKey());
+                String value = header.getValue() != null ? String.valueOf(header.getValue()) : null;
+                if ("Content-Type".equalsIgnoreCase(name)) {
+                    headers.contentType = value;
+                } else if ("Accept".equalsIgnoreCase(name)) {
+                    headers.accept = value;
+                } else if (PayloadCompression.ACCEPT_ENCODING.equalsIgnoreCase(name)) {
+                    headers.acceptEncoding = value;
+                } else if (PayloadCompression.CONTENT_ENCODING.equalsIgnoreCase(name)) {
+                    headers.contentEncoding = value;
+                } else if (Deadline.HEADER.equalsIgnoreCase(name)) {
+                    headers.deadline = value;
+                } else if (BatchEnvelope.HEADER.equalsIgnoreCase(name)) {
+                    headers.batch = BatchEnvelope.isBatch(value);
+                } else if (CompositeEnvelope.HEADER.equalsIgnoreCase(name)) {
+                    headers.composite = CompositeEnvelope.isComposite(value);
+                }
+            }
+            return headers;
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.fdd.aws.lambda;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.execution.RetryPolicy;
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.FunctionPrimer;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.PayloadCompression;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Priming for snapshot-based starts (Lambda SnapStart, CRaC).
+ * Before the checkpoint it does the work a cold JVM would otherwise do on its first requests:
+ * remote proxies and their readers are created, every function's serverless.yml samples run through
+ * its codecs in each wire format, this Lambda's own samples go through the handler's request path, and the
+ * cross-Lambda transport is exercised against a stand-in on the loopback interface. Samples are applied
+ * without result caches, coalescing and bulkheads, so the snapshot holds no sample results and no call counts.
+ * After the restore it re-initializes what must not be shared between JVMs restored from one snapshot:
+ * the retry jitter is reseeded, Lambda URLs are read from the environment again and connections are reopened.
+ *
+ * The hooks are registered with org.crac (or the CRaC JDK's jdk.crac) when it is on the classpath, which
+ * is how SnapStart calls them. Without it, a SnapStart initialization (AWS_LAMBDA_INITIALIZATION_TYPE=snap-start)
+ * is primed at the end of init, but nothing re-initializes after the restore. Tests and benchmarks run the
+ * lifecycle directly through beforeCheckpoint and afterRestore.
+ */
+public class FddLambdaPriming {
+
+    private static final String[] CRAC_PACKAGES = {"org.crac", "jdk.crac"};
+    private static final String SNAP_START = "snap-start";
+
+    private final FunctionRegistry registry;
+    private final String functionName;
+    private final Function<Object, Object> requestPath;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile boolean transportEnabled = true;
+    // The CRaC context only holds its resources weakly
+    private Object checkpointHook;
+
+    private int checkpoints;
+    private int restores;
+    private int sampleCalls;
+    private int requests;
+    private int failures;
+
+    /**
+     * @param functionName the function this Lambda serves (FDD_FUNCTION_NAME), or null
+     * @param requestPath  sends a priming event through the handler and returns its response; the handler
+     *                     applies the function without its cache, coalescing, bulkhead and call counts
+     */
+    public FddLambdaPriming(FunctionRegistry registry, String functionName, Function<Object, Object> requestPath) {
+        this.registry = registry;
+        this.functionName = functionName;
+        this.requestPath = requestPath;
+    }
+
+    /**
+     * Warm the cross-Lambda transport against a loopback stand-in (default on)
+     */
+    public void setTransportEnabled(boolean transportEnabled) {
+        this.transportEnabled = transportEnabled;
+    }
+
+    /**
+     * Register the checkpoint hooks with CRaC, or prime right away for a SnapStart initialization without it
+     * @return whether the hooks were registered
+     */
+    public boolean register() {
+        for (String cracPackage : CRAC_PACKAGES) {
+            try {
+                Class<?> core = Class.forName(cracPackage + ".Core");
+                Class<?> resource = Class.forName(cracPackage + ".Resource");
+                Object context = core.getMethod("getGlobalContext").invoke(null);
+                checkpointHook = Proxy.newProxyInstance(resource.getClassLoader(), new Class<?>[]{resource}, hook());
+                Class.forName(cracPackage + ".Context").getMethod("register", resource).invoke(context, checkpointHook);
+                System.out.println("📸 Priming registered for checkpoints through " + cracPackage);
+                return true;
+            } catch (ClassNotFoundException e) {
+                // Try the next CRaC API
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                System.err.println("⚠️ Could not register with " + cracPackage + ": " + e.getMessage());
+            }
+        }
+        if (SNAP_START.equals(System.getenv("AWS_LAMBDA_INITIALIZATION_TYPE"))) {
+            System.out.println("⚠️ SnapStart without org.crac on the classpath: priming now, nothing runs after restore");
+            beforeCheckpoint();
+        }
+        return false;
+    }
+
+    private InvocationHandler hook() {
+        return (proxy, method, args) -> switch (method.getName()) {
+            case "beforeCheckpoint" -> {
+                beforeCheckpoint();
+                yield null;
+            }
+            case "afterRestore" -> {
+                afterRestore();
+                yield null;
+            }
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            default -> "FddLambdaPriming hook";
+        };
+    }
+
+    /**
+     * Prime before a snapshot is taken; failures are logged and never stop the checkpoint
+     */
+    public synchronized void beforeCheckpoint() {
+        long start = System.nanoTime();
+        try {
+            int remote = registry instanceof CrossLambdaFunctionRegistry crossLambda
+                    ? crossLambda.primeRemoteFunctions() : 0;
+            FunctionPrimer primer = new FunctionPrimer(registry).prime();
+            sampleCalls += primer.getSampleCalls();
+            failures += primer.getFailures();
+            primeRequestPath();
+            if (transportEnabled && registry instanceof CrossLambdaFunctionRegistry crossLambda) {
+                warmTransport(crossLambda);
+            }
+            checkpoints++;
+            System.out.println("📸 Primed for checkpoint in " + (System.nanoTime() - start) / 1_000_000 + " ms: "
+                    + remote + " remote proxies, " + primer.getSampleCalls() + " sample calls, "
+                    + requests + " requests through the handler");
+        } catch (RuntimeException e) {
+            failures++;
+            System.err.println("⚠️ Priming failed: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Re-initialize state that must differ between JVMs restored from one snapshot
+     */
+    public synchronized void afterRestore() {
+        RetryPolicy.reseedJitter();
+        if (registry instanceof CrossLambdaFunctionRegistry crossLambda) {
+            crossLambda.reloadLambdaUrls();
+        }
+        restores++;
+        System.out.println("📸 Restored: retry jitter reseeded, Lambda URLs reloaded, connections reset");
+    }
+
+    /**
+     * This Lambda's samples as HTTP events through the handler, answered in JSON and in each binary format
+     */
+    private void primeRequestPath() {
+        FunctionMetadata metadata = functionName != null ? registry.getMetadata(functionName).orElse(null) : null;
+        List<Object> samples = metadata != null ? metadata.getSamples() : null;
+        if (samples == null || requestPath == null) {
+            return;
+        }
+        for (Object sample : samples) {
+            for (WireFormat accept : WireFormat.values()) {
+                try {
+                    Object response = requestPath.apply(Map.of(
+                            "body", objectMapper.writeValueAsString(sample),
+                            "headers", Map.of("Content-Type", WireFormat.JSON.getMediaType(),
+                                    "Accept", accept.acceptHeader(),
+                                    PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED)));
+                    if (response instanceof Map<?, ?> http && !Integer.valueOf(200).equals(http.get("statusCode"))) {
+                        throw new IllegalStateException("status " + http.get("statusCode"));
+                    }
+                    requests++;
+                } catch (Exception e) {
+                    failures++;
+                    System.err.println("⚠️ Priming request to " + functionName + " failed: " + e.getMessage());
+                }
+            }
+        }
+    }
+
+    private void warmTransport(CrossLambdaFunctionRegistry crossLambda) {
+        HttpServer standIn;
+        try {
+            standIn = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        } catch (IOException | LinkageError e) {
+            System.err.println("⚠️ No stand-in for transport priming: " + e.getMessage());
+            return;
+        }
+        standIn.createContext("/", this::echo);
+        standIn.start();
+        try {
+            URI uri = URI.create("http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":"
+                    + standIn.getAddress().getPort() + "/");
+            // Large enough to be compressed once the stand-in has advertised its codings
+            crossLambda.warmTransport(uri, Map.of("priming", "x".repeat(2 * PayloadCompression.DEFAULT_MIN_BYTES)));
+        } catch (RuntimeException e) {
+            failures++;
+            System.err.println("⚠️ Transport priming failed: " + e.getMessage());
+        } finally {
+            standIn.stop(0);
+        }
+    }
+
+    /**
+     * Stand-in for a remote function: answers with the request body, negotiated like a real FDD target
+     */
+    private void echo(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            byte[] body;
+            try (InputStream in = exchange.getRequestBody()) {
+                body = PayloadCompression.decompress(in.readAllBytes(),
+                        exchange.getRequestHeaders().getFirst(PayloadCompression.CONTENT_ENCODING));
+            }
+            JsonNode value = WireFormat.fromContentType(exchange.getRequestHeaders().getFirst("Content-Type"))
+                    .reader(objectMapper.reader()).readTree(body);
+            WireFormat format = WireFormat.fromAccept(exchange.getRequestHeaders().getFirst("Accept"));
+            byte[] response = format.writer(objectMapper.writer()).writeValueAsBytes(value);
+
+            exchange.getResponseHeaders().set("Content-Type", format.getMediaType());
+            exchange.getResponseHeaders().set(PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+            String encoding = PayloadCompression.negotiate(
+                    exchange.getRequestHeaders().getFirst(PayloadCompression.ACCEPT_ENCODING));
+            if (encoding != null && response.length >= PayloadCompression.DEFAULT_MIN_BYTES) {
+                response = PayloadCompression.compress(response, encoding);
+                exchange.getResponseHeaders().set(PayloadCompression.CONTENT_ENCODING, encoding);
+            }
+            exchange.sendResponseHeaders(200, response.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(response);
+            }
+        }
+    }
+
+    public int getCheckpointCount() { return checkpoints; }
+
+    public int getRestoreCount() { return restores; }
+
+    /**
+     * Samples applied directly to functions, across all wire formats
+     */
+    public int getSampleCalls() { return sampleCalls; }
+
+    /**
+     * Samples sent through the handler as Lambda events
+     */
+    public int getRequestCount() { return requests; }
+
+    public int getFailureCount() { return failures; }
+}
@@ -0,0 +1,572 @@
+package com.fdd.aws.lambda;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fdd.core.execution.CircuitBreaker;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.execution.RetryBudget;
+import com.fdd.core.execution.RetryPolicy;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CrossLambdaFunctionRegistry against stub targets on the loopback interface
+ */
+class CrossLambdaFunctionRegistryTest {
+
+    private final CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+    private final List<StubTarget> targets = new ArrayList<>();
+
+    @AfterEach
+    void stopTargets() {
+        targets.forEach(StubTarget::close);
+    }
+
+    private StubTarget target(String functionName, StubTarget.Handler handler) throws Exception {
+        StubTarget target = StubTarget.start(handler);
+        targets.add(target);
+        registry.registerLambdaUrl(functionName, target.url());
+        return target;
+    }
+
+    /**
+     * Batch response answering every call with its input
+     */
+    private static StubTarget.Reply echoBatch(StubTarget.Request request) {
+        List<Object> entries = new ArrayList<>();
+        for (int i = 0; i < request.body.size(); i++) {
+            entries.add(BatchEnvelope.entry(i, request.body.get(i), null));
+        }
+        return StubTarget.Reply.ok(entries);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stats(String functionName, String section) {
+        return (Map<String, Object>) registry.getRemoteStats(functionName).get(section);
+    }
+
+    @Test
+    void responsesShouldBeReadIntoTheDeclaredOutputType() throws Exception {
+        // Given - serverless.yml declares quoteService's output as Quote
+        target("quoteService", (request, number) -> StubTarget.Reply.ok(Map.of("sku", "A-1", "price", 12)));
+
+        // When
+        Object result = registry.<Object, Object>getFunction("quoteService").orElseThrow().apply(Map.of("sku", "A-1"));
+        Object asyncResult = registry.invokeAsync("quoteService", Map.of("sku", "A-1")).get();
+
+        // Then
+        assertThat(result).isInstanceOf(Quote.class);
+        assertThat(((Quote) result).getPrice()).isEqualTo(12);
+        assertThat(asyncResult).isInstanceOf(Quote.class);
+    }
+
+    @Test
+    void proxiesShouldBeReusedAcrossLookups() throws Exception {
+        // Given
+        StubTarget target = target("inventoryChecker", (request, number) -> StubTarget.Reply.ok(request.body));
+
+        // When
+        Function<Object, Object> first = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        Function<Object, Object> second = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        first.apply(Map.of("sku", "A-1"));
+        registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2")).get();
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(registry.<Object, Object>getFunction("inventoryChecker").orElseThrow()).isSameAs(first);
+        assertThat(target.getRequestCount()).isEqualTo(2);
+    }
+
+    @Test
+    void registeringAnotherOutputTypeShouldReplaceTheProxy() throws Exception {
+        // Given - no declared output type, so responses are read as maps
+        target("inventoryChecker", (request, number) -> StubTarget.Reply.ok(Map.of("sku", "A-1", "price", 12)));
+        Function<Object, Object> untyped = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        assertThat(untyped.apply(Map.of("sku", "A-1"))).isInstanceOf(Map.class);
+
+        // When
+        registry.registerRemoteOutputType("inventoryChecker", Quote.class);
+        Function<Object, Object> typed = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+
+        // Then
+        assertThat(typed).isNotSameAs(untyped);
+        assertThat(typed.apply(Map.of("sku", "A-1"))).isInstanceOf(Quote.class);
+        assertThat(registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1")).get()).isInstanceOf(Quote.class);
+    }
+
+    @Test
+    void registeringAnotherLambdaUrlShouldReplaceTheProxy() throws Exception {
+        // Given
+        StubTarget before = target("inventoryChecker", (request, number) -> StubTarget.Reply.ok(request.body));
+        Function<Object, Object> first = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        first.apply(Map.of("sku", "A-1"));
+
+        // When
+        StubTarget after = target("inventoryChecker", (request, number) -> StubTarget.Reply.ok(request.body));
+        Function<Object, Object> second = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        second.apply(Map.of("sku", "B-2"));
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(before.getRequestCount()).isEqualTo(1);
+        assertThat(after.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void reloadingLambdaUrlsShouldReplaceTheProxy() throws Exception {
+        // Given - inventoryChecker's URL comes from the environment
+        StubTarget before = StubTarget.start((request, number) -> StubTarget.Reply.ok(request.body));
+        StubTarget after = StubTarget.start((request, number) -> StubTarget.Reply.ok(request.body));
+        targets.add(before);
+        targets.add(after);
+        Map<String, String> environment = new ConcurrentHashMap<>(Map.of("FDD_LAMBDA_URL_INVENTORYCHECKER", before.url()));
+        CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry(() -> Map.copyOf(environment));
+        Function<Object, Object> first = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        first.apply(Map.of("sku", "A-1"));
+
+        // When
+        environment.put("FDD_LAMBDA_URL_INVENTORYCHECKER", after.url());
+        registry.reloadLambdaUrls();
+        Function<Object, Object> second = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+        second.apply(Map.of("sku", "B-2"));
+
+        // Then
+        assertThat(second).isNotSameAs(first);
+        assertThat(before.getRequestCount()).isEqualTo(1);
+        assertThat(after.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void batchResponsesShouldBeDemultiplexedPerCall() throws Exception {
+        // Given - entries out of order, one call failed and one out of time on the target
+        StubTarget target = target("inventoryChecker", (request, number) -> StubTarget.Reply.ok(List.of(
+                BatchEnvelope.entry(2, null, new DeadlineExceededException("inventoryChecker")),
+                BatchEnvelope.entry(0, request.body.get(0), null),
+                BatchEnvelope.entry(1, null, new IllegalStateException("out of stock")))));
+        registry.enableBatching("inventoryChecker", 3, Duration.ofSeconds(1));
+
+        // When
+        CompletableFuture<Object> first = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1"));
+        CompletableFuture<Object> second = registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2"));
+        CompletableFuture<Object> third = registry.invokeAsync("inventoryChecker", Map.of("sku", "C-3"));
+
+        // Then
+        assertThat(first.get()).isEqualTo(Map.of("sku", "A-1"));
+        assertThatThrownBy(second::get)
+                .hasCauseInstanceOf(RuntimeException.class)
+                .hasMessageContaining(BatchEnvelope.EXECUTION_FAILED)
+                .hasMessageContaining("out of stock");
+        assertThatThrownBy(third::get).hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(target.getRequests()).hasSize(1);
+        assertThat(target.getRequests().get(0).body.size()).isEqualTo(3);
+    }
+
+    @Test
+    void callsMissingFromTheBatchResponseShouldFail() throws Exception {
+        // Given - the target answers the first call only
+        target("inventoryChecker", (request, number) ->
+                StubTarget.Reply.ok(List.of(BatchEnvelope.entry(0, request.body.get(0), null))));
+        registry.enableBatching("inventoryChecker", 2, Duration.ofSeconds(1));
+
+        // When
+        CompletableFuture<Object> first = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1"));
+        CompletableFuture<Object> second = registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2"));
+
+        // Then
+        assertThat(first.get()).isEqualTo(Map.of("sku", "A-1"));
+        assertThatThrownBy(second::get).hasMessageContaining("has no entry for call");
+    }
+
+    @Test
+    void callsPastTheirDeadlineShouldBeLeftOutOfTheBatch() throws Exception {
+        // Given - a call that expires while the batch window is open
+        StubTarget target = target("inventoryChecker", (request, number) -> echoBatch(request));
+        registry.enableBatching("inventoryChecker", 3, Duration.ofMillis(300));
+
+        // When
+        CompletableFuture<Object> expiring = Deadline.callWithin(Deadline.afterMillis(50),
+                () -> registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1")));
+        CompletableFuture<Object> patient = registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2"));
+
+        // Then
+        assertThatThrownBy(expiring::get).hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(patient.get()).isEqualTo(Map.of("sku", "B-2"));
+        assertThat(target.getRequests()).hasSize(1);
+        StubTarget.Request batch = target.getRequests().get(0);
+        assertThat(batch.body.size()).isEqualTo(1);
+        assertThat(batch.body.get(0).path("sku").asText()).isEqualTo("B-2");
+        assertThat(batch.header(Deadline.HEADER)).isNull();
+    }
+
+    @Test
+    void batchesShouldCarryTheEarliestDeadline() throws Exception {
+        // Given
+        StubTarget target = target("inventoryChecker", (request, number) -> echoBatch(request));
+        registry.enableBatching("inventoryChecker", 2, Duration.ofSeconds(1));
+
+        // When
+        CompletableFuture<Object> later = Deadline.callWithin(Deadline.afterMillis(20_000),
+                () -> registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1")));
+        CompletableFuture<Object> sooner = Deadline.callWithin(Deadline.afterMillis(5_000),
+                () -> registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2")));
+        later.get();
+        sooner.get();
+
+        // Then
+        assertThat(Long.parseLong(target.getRequests().get(0).header(Deadline.HEADER))).isBetween(1L, 5_000L);
+    }
+
+    private List<WireFormat> requestFormats(StubTarget target) {
+        return target.getRequests().stream().map(request -> request.format).toList();
+    }
+
+    @Test
+    void requestsShouldSwitchToSmileOnceTheTargetAnswersInIt() throws Exception {
+        // Given
+        StubTarget target = target("userValidator", (request, number) -> StubTarget.Reply.ok(request.body));
+        Function<Object, Object> userValidator = registry.<Object, Object>getFunction("userValidator").orElseThrow();
+
+        // When
+        Object first = userValidator.apply(Map.of("name", "Ada"));
+        Object second = userValidator.apply(Map.of("name", "Grace"));
+
+        // Then - the first request is JSON asking for Smile, the next one is Smile
+        assertThat(first).isEqualTo(Map.of("name", "Ada"));
+        assertThat(second).isEqualTo(Map.of("name", "Grace"));
+        assertThat(requestFormats(target)).containsExactly(WireFormat.JSON, WireFormat.SMILE);
+        assertThat(target.getRequests().get(0).header("Accept")).isEqualTo(WireFormat.SMILE.acceptHeader());
+    }
+
+    @Test
+    void batchesShouldBeNegotiatedLikeSingleCalls() throws Exception {
+        // Given
+        StubTarget target = target("inventoryChecker", (request, number) -> echoBatch(request));
+        registry.setWireFormat(WireFormat.CBOR);
+        registry.enableBatching("inventoryChecker", 1, Duration.ofMillis(1));
+
+        // When
+        Object first = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1")).get();
+        Object second = registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2")).get();
+
+        // Then
+        assertThat(first).isEqualTo(Map.of("sku", "A-1"));
+        assertThat(second).isEqualTo(Map.of("sku", "B-2"));
+        assertThat(requestFormats(target)).containsExactly(WireFormat.JSON, WireFormat.CBOR);
+    }
+
+    @Test
+    void targetsThatOnlySpeakJsonShouldStayOnJson() throws Exception {
+        // Given
+        StubTarget target = target("userValidator", (request, number) -> StubTarget.Reply.ok(request.body));
+        target.setBinaryFormats(false);
+        Function<Object, Object> userValidator = registry.<Object, Object>getFunction("userValidator").orElseThrow();
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            assertThat(userValidator.apply(Map.of("name", "Ada"))).isEqualTo(Map.of("name", "Ada"));
+        }
+
+        // Then - Smile is still offered, but never sent
+        assertThat(requestFormats(target)).containsOnly(WireFormat.JSON).hasSize(3);
+        assertThat(target.getRequests()).allMatch(request ->
+                WireFormat.SMILE.acceptHeader().equals(request.header("Accept")));
+    }
+
+    @Test
+    void jsonWireFormatShouldTurnNegotiationOff() throws Exception {
+        // Given
+        StubTarget target = target("userValidator", (request, number) -> StubTarget.Reply.ok(request.body));
+        registry.setWireFormat(WireFormat.JSON);
+        Function<Object, Object> userValidator = registry.<Object, Object>getFunction("userValidator").orElseThrow();
+
+        // When
+        userValidator.apply(Map.of("name", "Ada"));
+        userValidator.apply(Map.of("name", "Ada"));
+
+        // Then
+        assertThat(requestFormats(target)).containsOnly(WireFormat.JSON);
+        assertThat(target.getRequests()).allMatch(request ->
+                WireFormat.JSON.getMediaType().equals(request.header("Accept")));
+    }
+
+    @Test
+    void batchedCallsShouldBeRetriedAsOneBatch() throws Exception {
+        // Given - the first batch request is turned away
+        StubTarget target = target("inventoryChecker", (request, number) ->
+                number == 1 ? StubTarget.Reply.status(503, "busy") : echoBatch(request));
+        registry.enableBatching("inventoryChecker", 2, Duration.ofSeconds(1));
+        registry.setRetryPolicy("inventoryChecker", new RetryPolicy("inventoryChecker", 3, null,
+                Duration.ofMillis(1), Duration.ofMillis(5), 2.0));
+
+        // When
+        CompletableFuture<Object> first = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1"));
+        CompletableFuture<Object> second = registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2"));
+
+        // Then - both calls are answered by the retried batch
+        assertThat(first.get()).isEqualTo(Map.of("sku", "A-1"));
+        assertThat(second.get()).isEqualTo(Map.of("sku", "B-2"));
+        assertThat(target.getRequests()).hasSize(2).allMatch(StubTarget.Request::isBatch);
+        assertThat(target.getRequests().get(1).body.size()).isEqualTo(2);
+        assertThat(stats("inventoryChecker", "retry"))
+                .containsEntry("retries", 1L)
+                .containsEntry("recovered", 1L);
+        assertThat(stats("inventoryChecker", "batching")).containsEntry("batches", 1L);
+    }
+
+    @Test
+    void slowBatchesShouldBeHedged() throws Exception {
+        // Given - batches of one call, with enough fast batches for a hedge delay
+        AtomicBoolean slow = new AtomicBoolean();
+        StubTarget target = target("inventoryChecker", (request, number) ->
+                slow.getAndSet(false) ? echoBatch(request).after(5_000) : echoBatch(request));
+        registry.enableBatching("inventoryChecker", 1, Duration.ofMillis(1));
+        registry.enableHedging("inventoryChecker", 50, Duration.ofMillis(20), 0.5);
+        for (int i = 0; i < 32; i++) {
+            registry.invokeAsync("inventoryChecker", Map.of("sku", "warm-" + i)).get();
+        }
+
+        // When - the next batch request hangs
+        slow.set(true);
+        Object result = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1")).get(2, TimeUnit.SECONDS);
+
+        // Then - the hedge answers it
+        assertThat(result).isEqualTo(Map.of("sku", "A-1"));
+        assertThat(target.getRequests()).hasSize(34).allMatch(StubTarget.Request::isBatch);
+        JsonNode hedged = target.getRequests().get(33).body;
+        assertThat(hedged.get(0).path("sku").asText()).isEqualTo("A-1");
+    }
+
+    private static CircuitBreaker.Settings breakerOpeningAfter(int failures) {
+        CircuitBreaker.Settings settings = new CircuitBreaker.Settings();
+        settings.setWindowSize(failures);
+        settings.setMinimumCalls(failures);
+        settings.setOpenDuration(Duration.ofMinutes(1));
+        return settings;
+    }
+
+    @Test
+    void openBreakerShouldFailCallsFastWithCircuitBreakerOpenException() throws Exception {
+        // Given - a target that keeps failing, with a breaker that opens after 4 calls
+        StubTarget target = target("paymentProcessor", (request, number) -> StubTarget.Reply.status(503, "down"));
+        registry.getTransport().setTargetCircuitBreaker("paymentProcessor", breakerOpeningAfter(4));
+        Function<Object, Object> paymentProcessor = registry.<Object, Object>getFunction("paymentProcessor").orElseThrow();
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> paymentProcessor.apply(Map.of("amount", 10)))
+                    .hasMessageContaining("Cross-Lambda call failed: 503");
+        }
+
+        // When / Then - rejected without a request, unwrapped so the handler answers 503
+        assertThatThrownBy(() -> paymentProcessor.apply(Map.of("amount", 10)))
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThatThrownBy(() -> registry.invokeAsync("paymentProcessor", Map.of("amount", 10)).get())
+                .hasCauseInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(target.getRequestCount()).isEqualTo(4);
+        CircuitBreaker breaker = registry.getTransport().getCircuitBreaker("paymentProcessor");
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getRejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void openBreakerShouldFailEveryCallOfABatch() throws Exception {
+        // Given - a failed batch opens the breaker
+        StubTarget target = target("inventoryChecker", (request, number) -> StubTarget.Reply.status(503, "down"));
+        registry.getTransport().setTargetCircuitBreaker("inventoryChecker", breakerOpeningAfter(1));
+        registry.enableBatching("inventoryChecker", 2, Duration.ofSeconds(1));
+        CompletableFuture<Object> failed = registry.invokeAsync("inventoryChecker", Map.of("sku", "A-1"));
+        registry.invokeAsync("inventoryChecker", Map.of("sku", "B-2"));
+        assertThatThrownBy(failed::get).hasMessageContaining("Cross-Lambda call failed: 503");
+
+        // When
+        CompletableFuture<Object> first = registry.invokeAsync("inventoryChecker", Map.of("sku", "C-3"));
+        CompletableFuture<Object> second = registry.invokeAsync("inventoryChecker", Map.of("sku", "D-4"));
+
+        // Then
+        assertThatThrownBy(first::get).hasCauseInstanceOf(CircuitBreakerOpenException.class);
+        assertThatThrownBy(second::get).hasCauseInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(target.getRequestCount()).isEqualTo(1);
+    }
+
+    private static RetryPolicy retryPolicy(int maxAttempts, Duration backoff) {
+        return new RetryPolicy("paymentProcessor", maxAttempts, null, backoff, backoff, 2.0);
+    }
+
+    @Test
+    void retriesShouldRecoverWithTheCallersRemainingBudget() throws Exception {
+        // Given - the target is busy twice
+        StubTarget target = target("paymentProcessor", (request, number) ->
+                number < 3 ? StubTarget.Reply.status(503, "busy") : StubTarget.Reply.ok(Map.of("paid", true)));
+        registry.setRetryPolicy("paymentProcessor", retryPolicy(3, Duration.ofMillis(20)));
+        Function<Object, Object> paymentProcessor = registry.<Object, Object>getFunction("paymentProcessor").orElseThrow();
+
+        // When
+        Object result = Deadline.callWithin(Deadline.afterMillis(10_000), () -> paymentProcessor.apply(Map.of("amount", 10)));
+
+        // Then - every attempt is sent afresh with the budget left at that point
+        assertThat(result).isEqualTo(Map.of("paid", true));
+        assertThat(target.getRequests()).extracting(request -> Long.parseLong(request.header(Deadline.HEADER)))
+                .hasSize(3)
+                .isSortedAccordingTo((a, b) -> Long.compare(b, a))
+                .allMatch(budget -> budget <= 10_000);
+        assertThat(stats("paymentProcessor", "retry"))
+                .containsEntry("retries", 2L)
+                .containsEntry("recovered", 1L);
+    }
+
+    @Test
+    void retriesShouldStopAfterTheLastAttempt() throws Exception {
+        // Given
+        StubTarget target = target("paymentProcessor", (request, number) -> StubTarget.Reply.status(503, "busy"));
+        registry.setRetryPolicy("paymentProcessor", retryPolicy(3, Duration.ofMillis(1)));
+
+        // When / Then
+        assertThatThrownBy(() -> registry.invokeAsync("paymentProcessor", Map.of("amount", 10)).get())
+                .hasMessageContaining("Cross-Lambda call failed: 503");
+        assertThat(target.getRequestCount()).isEqualTo(3);
+        assertThat(stats("paymentProcessor", "retry"))
+                .containsEntry("retries", 2L)
+                .containsEntry("attemptsExhausted", 1L);
+    }
+
+    @Test
+    void statusesOutsideTheRetryListShouldNotBeRetried() throws Exception {
+        // Given
+        StubTarget target = target("paymentProcessor", (request, number) -> StubTarget.Reply.status(500, "bug"));
+        registry.setRetryPolicy("paymentProcessor", retryPolicy(3, Duration.ofMillis(1)));
+
+        // When / Then
+        assertThatThrownBy(() -> registry.invokeAsync("paymentProcessor", Map.of("amount", 10)).get())
+                .hasMessageContaining("Cross-Lambda call failed: 500");
+        assertThat(target.getRequestCount()).isEqualTo(1);
+        assertThat(stats("paymentProcessor", "retry")).containsEntry("retries", 0L);
+    }
+
+    @Test
+    void retriesShouldStopWhenTheBudgetIsSpent() throws Exception {
+        // Given - half a retry per request and no per-second floor
+        StubTarget target = target("paymentProcessor", (request, number) -> StubTarget.Reply.status(503, "busy"));
+        registry.setRetryPolicy("paymentProcessor", retryPolicy(5, Duration.ofMillis(1)));
+        registry.setRetryBudget(new RetryBudget(0.5, 0));
+
+        // When - the first call has earned no retry yet, the second earns one
+        assertThatThrownBy(() -> registry.invokeAsync("paymentProcessor", Map.of("amount", 10)).get())
+                .hasMessageContaining("503");
+        assertThatThrownBy(() -> registry.invokeAsync("paymentProcessor", Map.of("amount", 20)).get())
+                .hasMessageContaining("503");
+
+        // Then
+        assertThat(target.getRequestCount()).isEqualTo(3);
+        assertThat(stats("paymentProcessor", "retry"))
+                .containsEntry("retries", 1L)
+                .containsEntry("budgetExhausted", 2L);
+        assertThat(stats("paymentProcessor", "retryBudget"))
+                .containsEntry("requests", 2L)
+                .containsEntry("retries", 1L);
+    }
+
+    @Test
+    void retriesShouldStopWhenTheBackoffOutlastsTheDeadline() throws Exception {
+        // Given - a backoff of up to an hour against what is left of a one second budget
+        StubTarget target = target("paymentProcessor", (request, number) -> StubTarget.Reply.status(503, "busy").after(500));
+        registry.setRetryPolicy("paymentProcessor", retryPolicy(3, Duration.ofHours(1)));
+
+        // When
+        CompletableFuture<Object> call = Deadline.callWithin(Deadline.afterMillis(1_000),
+                () -> registry.invokeAsync("paymentProcessor", Map.of("amount", 10)));
+
+        // Then - the last answer is returned instead of waiting past the deadline
+        assertThatThrownBy(call::get).hasMessageContaining("Cross-Lambda call failed: 503");
+        assertThat(target.getRequestCount()).isEqualTo(1);
+        assertThat(stats("paymentProcessor", "retry"))
+                .containsEntry("retries", 0L)
+                .containsEntry("deadlineStopped", 1L);
+    }
+
+    @Test
+    void colocationShouldBeOffByDefault() throws Exception {
+        // Given - greeter's implementation is on the classpath
+        StubTarget target = target("greeter", (request, number) -> StubTarget.Reply.ok(Map.of("greeting", "remote")));
+
+        // When
+        Object result = registry.<Object, Object>getFunction("greeter").orElseThrow().apply(Map.of("name", "Ada"));
+
+        // Then
+        assertThat(registry.isColocationEnabled()).isFalse();
+        assertThat(result).isEqualTo(Map.of("greeting", "remote"));
+        assertThat(target.getRequestCount()).isEqualTo(1);
+        assertThat(registry.isRegistered("greeter")).isFalse();
+    }
+
+    @Test
+    void colocatedFunctionsShouldRunInProcess() throws Exception {
+        // Given
+        StubTarget target = target("greeter", (request, number) -> StubTarget.Reply.ok(Map.of("greeting", "remote")));
+        registry.setColocationEnabled(true);
+
+        // When
+        Object result = registry.invokeAsync("greeter", Map.of("name", "Ada")).get();
+
+        // Then
+        assertThat(result).isEqualTo(Map.of("greeting", "Hello, Ada"));
+        assertThat(target.getRequestCount()).isZero();
+        assertThat(registry.isRegistered("greeter")).isTrue();
+        assertThat(registry.getRemoteDeployment("greeter")).isNull();
+    }
+
+    @Test
+    void forcedRemoteFunctionsShouldNotBeColocated() throws Exception {
+        // Given
+        StubTarget target = target("greeter", (request, number) -> StubTarget.Reply.ok(Map.of("greeting", "remote")));
+        registry.setColocationEnabled(true);
+        registry.setForceRemote("greeter", true);
+
+        // When
+        Object async = registry.invokeAsync("greeter", Map.of("name", "Ada")).get();
+        Object sync = registry.<Object, Object>getFunction("greeter").orElseThrow().apply(Map.of("name", "Ada"));
+
+        // Then
+        assertThat(async).isEqualTo(Map.of("greeting", "remote"));
+        assertThat(sync).isEqualTo(Map.of("greeting", "remote"));
+        assertThat(target.getRequestCount()).isEqualTo(2);
+        assertThat(registry.isRegistered("greeter")).isFalse();
+    }
+
+    /**
+     * Output type of quoteService declared in the test serverless.yml
+     */
+    public static class Quote {
+        private String sku;
+        private int price;
+
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+
+        public int getPrice() { return price; }
+        public void setPrice(int price) { this.price = price; }
+    }
+
+    /**
+     * Implementation of greeter named in the test serverless.yml
+     */
+    public static class Greeter implements Function<Map<String, Object>, Map<String, Object>> {
+        @Override
+        public Map<String, Object> apply(Map<String, Object> input) {
+            return Map.of("greeting", "Hello, " + input.get("name"));
+        }
+    }
+}
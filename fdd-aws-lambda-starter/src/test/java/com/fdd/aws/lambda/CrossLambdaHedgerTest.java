@@ -0,0 +1,94 @@
+package com.fdd.aws.lambda;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for CrossLambdaHedger
+ */
+class CrossLambdaHedgerTest {
+
+    private static CompletableFuture<String> answer(String value) {
+        return CompletableFuture.completedFuture(value);
+    }
+
+    private static void warmUp(CrossLambdaHedger hedger, int calls) {
+        for (int i = 0; i < calls; i++) {
+            hedger.call(() -> answer("fast"), () -> answer("hedge"), value -> true, null).join();
+        }
+    }
+
+    @Test
+    void shouldNotHedgeUntilEnoughLatenciesAreSeen() {
+        // Given
+        CrossLambdaHedger hedger = new CrossLambdaHedger("inventoryChecker", 95, Duration.ofMillis(20), 0.05);
+
+        // When / Then
+        warmUp(hedger, 31);
+        assertThat(hedger.getHedgeDelay()).isNull();
+        warmUp(hedger, 1);
+        assertThat(hedger.getHedgeDelay()).isEqualTo(Duration.ofMillis(20)); // the minimum delay wins
+    }
+
+    @Test
+    void shouldCapHedgesAtTheMaximumExtraLoad() throws Exception {
+        // Given - 32 fast calls, then 20 calls the target never answers
+        CrossLambdaHedger hedger = new CrossLambdaHedger("inventoryChecker", 50, Duration.ofMillis(200), 0.05);
+        warmUp(hedger, 32);
+        List<CompletableFuture<String>> slow = new ArrayList<>();
+
+        // When
+        for (int i = 0; i < 20; i++) {
+            slow.add(hedger.call(CompletableFuture::new, () -> answer("hedge"), value -> true, null));
+        }
+        Thread.sleep(600);
+
+        // Then - hedges stay below 5% of the 52 calls
+        assertThat(hedger.getCallCount()).isEqualTo(52);
+        assertThat(hedger.getHedgeCount()).isEqualTo(3);
+        assertThat(hedger.getHedgeWinCount()).isEqualTo(3);
+        assertThat(slow.stream().filter(CompletableFuture::isDone)).hasSize(3);
+    }
+
+    @Test
+    void shouldNotCountAHedgeThatCannotBeSent() throws Exception {
+        // Given - the hedge is refused, as when the target's breaker is open
+        CrossLambdaHedger hedger = new CrossLambdaHedger("inventoryChecker", 50, Duration.ofMillis(10), 1.0);
+        warmUp(hedger, 32);
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<String> call = hedger.call(() -> attempt, () -> null, value -> true, null);
+        Thread.sleep(100);
+        attempt.complete("late");
+
+        // Then
+        assertThat(call.get()).isEqualTo("late");
+        assertThat(hedger.getHedgeCount()).isZero();
+    }
+
+    @Test
+    void shouldKeepWaitingForAUsableAnswer() throws Exception {
+        // Given - the hedge answers first, but with a failure status
+        CrossLambdaHedger hedger = new CrossLambdaHedger("inventoryChecker", 50, Duration.ofMillis(10), 1.0);
+        warmUp(hedger, 32);
+        CompletableFuture<String> attempt = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<String> call = hedger.call(() -> attempt, () -> answer("503"), value -> !value.equals("503"), null);
+        Thread.sleep(100);
+        assertThat(call).isNotDone();
+        attempt.complete("200");
+
+        // Then
+        assertThat(call.get()).isEqualTo("200");
+        assertThat(hedger.getHedgeCount()).isEqualTo(1);
+        assertThat(hedger.getHedgeWinCount()).isZero();
+    }
+}
@@ -0,0 +1,103 @@
+package com.fdd.aws.lambda;
+
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.registry.WireFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CrossLambdaTransport against a stub target on the loopback interface
+ */
+class CrossLambdaTransportTest {
+
+    private static final byte[] BODY = "{\"sku\":\"A-1\"}".getBytes(StandardCharsets.UTF_8);
+
+    private final CrossLambdaTransport transport = new CrossLambdaTransport();
+    private StubTarget target;
+
+    @AfterEach
+    void stopTarget() {
+        if (target != null) {
+            target.close();
+        }
+    }
+
+    private HttpRequest request(String functionName, Deadline deadline) {
+        return transport.request(functionName, URI.create(target.url()), BODY, WireFormat.JSON, WireFormat.JSON, deadline);
+    }
+
+    @Test
+    void sequentialCallsShouldShareAPooledConnection() throws Exception {
+        // Given
+        target = StubTarget.echo();
+
+        // When
+        for (int i = 0; i < 5; i++) {
+            HttpResponse<byte[]> response = transport.send("inventoryChecker", request("inventoryChecker", null));
+            assertThat(response.statusCode()).isEqualTo(200);
+        }
+
+        // Then
+        assertThat(target.getRequests()).extracting(request -> request.remotePort).containsOnly(
+                target.getRequests().get(0).remotePort);
+    }
+
+    @Test
+    void asyncCallsShouldCompleteWithoutBlockingTheCaller() throws Exception {
+        // Given
+        target = StubTarget.start((request, number) -> StubTarget.Reply.ok(request.body).after(1_000));
+
+        // When
+        List<CompletableFuture<HttpResponse<byte[]>>> calls = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            calls.add(transport.sendAsync("inventoryChecker", request("inventoryChecker", null)));
+        }
+
+        // Then - the caller got its futures back before any answer
+        assertThat(calls).noneMatch(CompletableFuture::isDone);
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).get();
+        assertThat(calls).allSatisfy(call -> assertThat(call.join().statusCode()).isEqualTo(200));
+        assertThat(target.getRequestCount()).isEqualTo(8);
+    }
+
+    @Test
+    void targetReadTimeoutShouldApplyToThatTargetOnly() throws Exception {
+        // Given
+        target = StubTarget.start((request, number) -> StubTarget.Reply.ok(request.body).after(300));
+        transport.setTargetTimeouts("paymentProcessor", null, Duration.ofMillis(50));
+
+        // When / Then
+        assertThatThrownBy(() -> transport.send("paymentProcessor", request("paymentProcessor", null)))
+                .isInstanceOf(HttpTimeoutException.class);
+        assertThat(transport.send("inventoryChecker", request("inventoryChecker", null)).statusCode()).isEqualTo(200);
+    }
+
+    @Test
+    void requestsShouldCarryTheCallersRemainingBudget() throws Exception {
+        // Given
+        target = StubTarget.echo();
+
+        // When
+        HttpRequest request = request("inventoryChecker", Deadline.afterMillis(500));
+        transport.send("inventoryChecker", request);
+
+        // Then - the read timeout and the callee's budget are cut to the deadline
+        assertThat(request.timeout()).hasValueSatisfying(timeout -> assertThat(timeout).isLessThanOrEqualTo(Duration.ofMillis(500)));
+        long budget = Long.parseLong(target.getRequests().get(0).header(Deadline.HEADER));
+        assertThat(budget).isBetween(1L, 500L);
+        assertThat(request("inventoryChecker", null).headers().firstValue(Deadline.HEADER)).isEmpty();
+    }
+}
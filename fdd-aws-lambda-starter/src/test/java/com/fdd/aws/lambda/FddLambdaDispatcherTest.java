@@ -0,0 +1,211 @@
+package com.fdd.aws.lambda;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.PayloadCompression;
+import org.assertj.core.api.InstanceOfAssertFactories;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FddLambdaDispatcher, the Lambda handler's request path
+ */
+class FddLambdaDispatcherTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final FunctionRegistry registry = new FunctionRegistry();
+    // Inputs the function was applied to
+    private final List<Object> inputs = new CopyOnWriteArrayList<>();
+    private StubTarget before;
+    private StubTarget after;
+
+    @AfterEach
+    void stopTargets() {
+        if (before != null) {
+            before.close();
+        }
+        if (after != null) {
+            after.close();
+        }
+    }
+
+    /**
+     * This Lambda's function: prices an order, or fails the way its "failure" field names
+     */
+    private void registerOrderPricer() {
+        Function<Order, Map<String, Object>> pricer = order -> {
+            inputs.add(order);
+            if (order.getFailure() != null) {
+                throw switch (order.getFailure()) {
+                    case "bulkhead" -> new BulkheadFullException("orderPricer", 1, 0);
+                    case "breaker" -> new CircuitBreakerOpenException("paymentProcessor", 1_000);
+                    case "deadline" -> new DeadlineExceededException("orderPricer");
+                    default -> new IllegalStateException(order.getFailure());
+                };
+            }
+            return Map.of("total", order.getQuantity() * 10);
+        };
+        registry.registerFunction("orderPricer", pricer,
+                new FunctionMetadata("test.order.price", "orderPricer", Order.class, Map.class));
+    }
+
+    private static Map<String, Object> httpEvent(Map<String, Object> headers, String body, boolean base64) {
+        Map<String, Object> event = new HashMap<>();
+        event.put("headers", headers);
+        event.put("body", body);
+        event.put("isBase64Encoded", base64);
+        return event;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> handle(FddLambdaDispatcher dispatcher, Map<String, Object> event) {
+        return (Map<String, Object>) dispatcher.handle(event, null, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> jsonBody(Map<String, Object> response) throws Exception {
+        return objectMapper.readValue((String) response.get("body"), Map.class);
+    }
+
+    @Test
+    void jsonBodiesShouldBeReadIntoTheInputType() throws Exception {
+        // Given
+        registerOrderPricer();
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+
+        // When
+        Map<String, Object> response = handle(dispatcher, httpEvent(Map.of("content-type", "application/json"),
+                "{\"quantity\":2}", false));
+
+        // Then
+        assertThat(response).containsEntry("statusCode", 200);
+        assertThat(jsonBody(response)).isEqualTo(Map.of("total", 20));
+        assertThat(inputs).singleElement().isInstanceOf(Order.class);
+    }
+
+    @Test
+    void smileBodiesShouldBeReadIntoTheInputTypeAndAnsweredInSmile() throws Exception {
+        // Given
+        registerOrderPricer();
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+        byte[] body = WireFormat.SMILE.writer(objectMapper.writer()).writeValueAsBytes(Map.of("quantity", 3));
+
+        // When
+        Map<String, Object> response = handle(dispatcher, httpEvent(Map.of(
+                "Content-Type", WireFormat.SMILE.getMediaType(),
+                "Accept", WireFormat.SMILE.acceptHeader()), Base64.getEncoder().encodeToString(body), true));
+
+        // Then
+        assertThat(response).containsEntry("statusCode", 200).containsEntry("isBase64Encoded", true);
+        assertThat(response.get("headers")).asInstanceOf(InstanceOfAssertFactories.MAP)
+                .containsEntry("Content-Type", WireFormat.SMILE.getMediaType());
+        byte[] answer = Base64.getDecoder().decode((String) response.get("body"));
+        assertThat(WireFormat.SMILE.reader(objectMapper.readerFor(Map.class)).<Map<?, ?>>readValue(answer))
+                .isEqualTo(Map.of("total", 30));
+        assertThat(inputs).singleElement().isInstanceOf(Order.class);
+    }
+
+    @Test
+    void gzipBodiesShouldBeDecompressedBeforeTheyAreRead() throws Exception {
+        // Given
+        registerOrderPricer();
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+        byte[] body = PayloadCompression.compress("{\"quantity\":4}".getBytes(StandardCharsets.UTF_8),
+                PayloadCompression.GZIP);
+
+        // When
+        Map<String, Object> response = handle(dispatcher, httpEvent(Map.of(
+                "Content-Type", "application/json",
+                PayloadCompression.CONTENT_ENCODING, PayloadCompression.GZIP), Base64.getEncoder().encodeToString(body), true));
+
+        // Then
+        assertThat(response).containsEntry("statusCode", 200);
+        assertThat(jsonBody(response)).isEqualTo(Map.of("total", 40));
+        assertThat(inputs).singleElement().isInstanceOf(Order.class);
+    }
+
+    @Test
+    void failuresShouldBeAnsweredWithTheirStatus() throws Exception {
+        // Given
+        registerOrderPricer();
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+        Map<String, Integer> statuses = Map.of("bulkhead", 429, "breaker", 503, "deadline", 504, "bug", 500);
+
+        // When / Then
+        for (Map.Entry<String, Integer> failure : statuses.entrySet()) {
+            Map<String, Object> response = handle(dispatcher, httpEvent(Map.of("Content-Type", "application/json"),
+                    "{\"quantity\":1,\"failure\":\"" + failure.getKey() + "\"}", false));
+            assertThat(response).as(failure.getKey()).containsEntry("statusCode", failure.getValue());
+            assertThat(jsonBody(response)).containsEntry("error", "FDD_EXECUTION_FAILED");
+        }
+    }
+
+    @Test
+    void functionMissingAtInitShouldBeResolvedOnceRegistered() throws Exception {
+        // Given - the dispatcher starts before the function is registered
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+        Map<String, Object> event = httpEvent(Map.of("Content-Type", "application/json"), "{\"quantity\":5}", false);
+        Map<String, Object> missing = handle(dispatcher, event);
+
+        // When
+        registerOrderPricer();
+        Map<String, Object> response = handle(dispatcher, event);
+
+        // Then
+        assertThat(missing).containsEntry("statusCode", 500);
+        assertThat(jsonBody(missing).get("message")).isEqualTo("Function not found: orderPricer");
+        assertThat(response).containsEntry("statusCode", 200);
+        assertThat(jsonBody(response)).isEqualTo(Map.of("total", 50));
+    }
+
+    @Test
+    void remoteFunctionShouldFollowReloadedLambdaUrls() throws Exception {
+        // Given - the function this Lambda serves is only reachable through its Lambda URL
+        before = StubTarget.echo();
+        after = StubTarget.echo();
+        Map<String, String> environment = new ConcurrentHashMap<>(Map.of("FDD_LAMBDA_URL_INVENTORYCHECKER", before.url()));
+        CrossLambdaFunctionRegistry crossLambda = new CrossLambdaFunctionRegistry(() -> Map.copyOf(environment));
+        FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(crossLambda, "inventoryChecker", true, 1024);
+        Map<String, Object> event = httpEvent(Map.of("Content-Type", "application/json"), "{\"sku\":\"A-1\"}", false);
+        handle(dispatcher, event);
+        handle(dispatcher, event);
+
+        // When
+        environment.put("FDD_LAMBDA_URL_INVENTORYCHECKER", after.url());
+        crossLambda.reloadLambdaUrls();
+        Map<String, Object> response = handle(dispatcher, event);
+
+        // Then
+        assertThat(response).containsEntry("statusCode", 200);
+        assertThat(jsonBody(response)).isEqualTo(Map.of("sku", "A-1"));
+        assertThat(before.getRequestCount()).isEqualTo(2);
+        assertThat(after.getRequestCount()).isEqualTo(1);
+    }
+
+    static class Order {
+        private int quantity;
+        private String failure;
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+
+        public String getFailure() { return failure; }
+        public void setFailure(String failure) { this.failure = failure; }
+    }
+}
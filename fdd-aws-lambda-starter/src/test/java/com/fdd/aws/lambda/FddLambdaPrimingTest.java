@@ -0,0 +1,132 @@
+package com.fdd.aws.lambda;
+
+import com.fdd.core.execution.RetryPolicy;
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.WireFormat;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for the FddLambdaPriming checkpoint and restore lifecycle
+ */
+class FddLambdaPrimingTest {
+
+    private static final int FORMATS = WireFormat.values().length;
+
+    // The Lambda's environment, changed between checkpoint and restore
+    private final Map<String, String> environment = new ConcurrentHashMap<>();
+    private final CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry(() -> Map.copyOf(environment));
+    // The handler's request path, serving orderPricer once it is registered
+    private final FddLambdaDispatcher dispatcher = new FddLambdaDispatcher(registry, "orderPricer", true, 1024);
+    private StubTarget checkpointTarget;
+    private StubTarget restoreTarget;
+
+    @AfterEach
+    void stopTargets() {
+        if (checkpointTarget != null) {
+            checkpointTarget.close();
+        }
+        if (restoreTarget != null) {
+            restoreTarget.close();
+        }
+    }
+
+    /**
+     * This Lambda's function: rejects negative quantities
+     */
+    private void registerOrderPricer(List<Object> samples) {
+        Function<Map<String, Object>, Map<String, Object>> pricer = order -> {
+            int quantity = ((Number) order.get("quantity")).intValue();
+            if (quantity < 0) {
+                throw new IllegalArgumentException("negative quantity");
+            }
+            return Map.of("total", quantity * 10);
+        };
+        FunctionMetadata metadata = new FunctionMetadata("test.order.price", "orderPricer", Map.class, Map.class);
+        metadata.setSamples(samples);
+        registry.registerFunction("orderPricer", pricer, metadata);
+    }
+
+    @Test
+    void restoreShouldReseedJitterAndReloadLambdaUrls() throws Exception {
+        // Given - primed with inventoryChecker's URL from the environment
+        checkpointTarget = StubTarget.echo();
+        restoreTarget = StubTarget.echo();
+        environment.put("FDD_LAMBDA_URL_INVENTORYCHECKER", checkpointTarget.url());
+        CrossLambdaFunctionRegistry crossLambda = new CrossLambdaFunctionRegistry(() -> Map.copyOf(environment));
+        FddLambdaPriming priming = new FddLambdaPriming(crossLambda, null, null);
+        priming.beforeCheckpoint();
+        crossLambda.invokeAsync("inventoryChecker", Map.of("sku", "A-1")).get();
+        long reseeds = RetryPolicy.getJitterReseedCount();
+
+        // When - restored where the environment points elsewhere
+        environment.put("FDD_LAMBDA_URL_INVENTORYCHECKER", restoreTarget.url());
+        priming.afterRestore();
+        Object result = crossLambda.invokeAsync("inventoryChecker", Map.of("sku", "B-2")).get();
+
+        // Then
+        assertThat(priming.getCheckpointCount()).isEqualTo(1);
+        assertThat(priming.getRestoreCount()).isEqualTo(1);
+        assertThat(RetryPolicy.getJitterReseedCount()).isEqualTo(reseeds + 1);
+        assertThat(result).isEqualTo(Map.of("sku", "B-2"));
+        assertThat(checkpointTarget.getRequestCount()).isEqualTo(1);
+        assertThat(restoreTarget.getRequestCount()).isEqualTo(1);
+    }
+
+    @Test
+    void checkpointShouldWarmTheTransportAgainstTheStandIn() {
+        // Given
+        FddLambdaPriming priming = new FddLambdaPriming(registry, null, null);
+
+        // When
+        priming.beforeCheckpoint();
+
+        // Then - the stand-in answered every warm-up call and left nothing behind
+        assertThat(priming.getCheckpointCount()).isEqualTo(1);
+        assertThat(priming.getFailureCount()).isZero();
+        assertThat(registry.getFunction("fdd-priming")).isEmpty();
+    }
+
+    @Test
+    void failingSamplesShouldNotAbortTheCheckpoint() {
+        // Given - one sample the function handles and one it rejects
+        registerOrderPricer(List.of(Map.of("quantity", 2), Map.of("quantity", -1)));
+        FddLambdaPriming priming = new FddLambdaPriming(registry, "orderPricer",
+                event -> dispatcher.handle(event, null, true));
+
+        // When
+        priming.beforeCheckpoint();
+
+        // Then - failures are counted and the rest of the priming still runs
+        assertThat(priming.getCheckpointCount()).isEqualTo(1);
+        assertThat(priming.getSampleCalls()).isEqualTo(FORMATS);
+        assertThat(priming.getRequestCount()).isEqualTo(FORMATS);
+        assertThat(priming.getFailureCount()).isEqualTo(2 * FORMATS);
+    }
+
+    @Test
+    void failingRequestPathShouldNotAbortTheCheckpoint() {
+        // Given
+        registerOrderPricer(List.of(Map.of("quantity", 2)));
+        FddLambdaPriming priming = new FddLambdaPriming(registry, "orderPricer", event -> {
+            throw new IllegalStateException("handler not initialized");
+        });
+        priming.setTransportEnabled(false);
+
+        // When
+        priming.beforeCheckpoint();
+
+        // Then
+        assertThat(priming.getCheckpointCount()).isEqualTo(1);
+        assertThat(priming.getSampleCalls()).isEqualTo(FORMATS);
+        assertThat(priming.getRequestCount()).isZero();
+        assertThat(priming.getFailureCount()).isEqualTo(FORMATS);
+    }
+}
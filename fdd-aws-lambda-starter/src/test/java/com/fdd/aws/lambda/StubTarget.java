@@ -0,0 +1,177 @@
+package com.fdd.aws.lambda;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import com.fdd.core.rest.PayloadCompression;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Remote FDD target on the loopback interface for tests: answers each request through a handler,
+ * in the format the request asks for like a real target, and keeps the requests it received
+ */
+final class StubTarget implements AutoCloseable {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private final List<Request> requests = new CopyOnWriteArrayList<>();
+    private final AtomicInteger count = new AtomicInteger();
+    private final Handler handler;
+    private volatile boolean binaryFormats = true;
+
+    /**
+     * Answers one request; number is 1 for the first request the stub receives
+     */
+    @FunctionalInterface
+    interface Handler {
+        Reply handle(Request request, int number) throws Exception;
+    }
+
+    private StubTarget(Handler handler) throws IOException {
+        this.handler = handler;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::exchange);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    static StubTarget start(Handler handler) throws IOException {
+        return new StubTarget(handler);
+    }
+
+    /**
+     * A target that answers with the request body
+     */
+    static StubTarget echo() throws IOException {
+        return start((request, number) -> Reply.ok(request.body));
+    }
+
+    String url() {
+        return "http://" + InetAddress.getLoopbackAddress().getHostAddress() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    /**
+     * Answer in Smile or CBOR when asked for it (default), or in JSON only like an older target
+     */
+    void setBinaryFormats(boolean binaryFormats) {
+        this.binaryFormats = binaryFormats;
+    }
+
+    List<Request> getRequests() { return requests; }
+
+    int getRequestCount() { return count.get(); }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void exchange(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            Request request = read(exchange);
+            requests.add(request);
+            Reply reply;
+            try {
+                reply = handler.handle(request, count.incrementAndGet());
+                if (reply.delayMillis > 0) {
+                    Thread.sleep(reply.delayMillis);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                reply = Reply.status(500, e.getMessage());
+            }
+
+            WireFormat format = reply.status == 200 && binaryFormats
+                    ? WireFormat.fromAccept(exchange.getRequestHeaders().getFirst("Accept")) : WireFormat.JSON;
+            byte[] body = format.writer(objectMapper.writer()).writeValueAsBytes(reply.body);
+            exchange.getResponseHeaders().set("Content-Type", format.getMediaType());
+            exchange.getResponseHeaders().set(PayloadCompression.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+            exchange.sendResponseHeaders(reply.status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+
+    private Request read(HttpExchange exchange) throws IOException {
+        Headers headers = exchange.getRequestHeaders();
+        byte[] bytes;
+        try (InputStream in = exchange.getRequestBody()) {
+            bytes = PayloadCompression.decompress(in.readAllBytes(), headers.getFirst(PayloadCompression.CONTENT_ENCODING));
+        }
+        WireFormat format = WireFormat.fromContentType(headers.getFirst("Content-Type"));
+        return new Request(headers, format, format.reader(objectMapper.reader()).readTree(bytes),
+                exchange.getRemoteAddress().getPort());
+    }
+
+    /**
+     * A request as the target received it, its body decoded
+     */
+    static final class Request {
+        final Headers headers;
+        final WireFormat format;
+        final JsonNode body;
+        // The caller's end of the connection the request came on
+        final int remotePort;
+
+        Request(Headers headers, WireFormat format, JsonNode body, int remotePort) {
+            this.headers = headers;
+            this.format = format;
+            this.body = body;
+            this.remotePort = remotePort;
+        }
+
+        String header(String name) {
+            return headers.getFirst(name);
+        }
+
+        boolean isBatch() {
+            return BatchEnvelope.isBatch(header(BatchEnvelope.HEADER));
+        }
+    }
+
+    /**
+     * The target's answer: a status, a body and an optional delay before it is sent
+     */
+    static final class Reply {
+        final int status;
+        final Object body;
+        final long delayMillis;
+
+        private Reply(int status, Object body, long delayMillis) {
+            this.status = status;
+            this.body = body;
+            this.delayMillis = delayMillis;
+        }
+
+        static Reply ok(Object body) {
+            return new Reply(200, body, 0);
+        }
+
+        static Reply status(int status, Object body) {
+            return new Reply(status, body, 0);
+        }
+
+        Reply after(long delayMillis) {
+            return new Reply(status, body, delayMillis);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.fdd.core.cache;
+
+import java.util.Arrays;
+
+/**
+ * Canonical serialized form of a function input, compared byte for byte
+ */
+public final class CacheKey {
+
+    private final byte[] bytes;
+    private final int hash;
+
+    CacheKey(byte[] bytes) {
+        this.bytes = bytes;
+        this.hash = Arrays.hashCode(bytes);
+    }
+
+    int length() {
+        return bytes.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CacheKey)) return false;
+        CacheKey that = (CacheKey) o;
+        return hash == that.hash && Arrays.equals(bytes, that.bytes);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
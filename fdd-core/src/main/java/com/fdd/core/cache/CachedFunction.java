@@ -0,0 +1,16 @@
+package com.fdd.core.cache;
+
+import java.util.function.Function;
+
+/**
+ * Marker for a function whose results are memoized, so it is never wrapped twice
+ */
+public interface CachedFunction {
+
+    FunctionCache getFunctionCache();
+
+    /**
+     * The function without its cache, for callers that look the cache up themselves
+     */
+    Function<Object, Object> getDelegate();
+}
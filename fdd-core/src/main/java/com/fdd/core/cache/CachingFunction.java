@@ -0,0 +1,33 @@
+package com.fdd.core.cache;
+
+import java.util.function.Function;
+
+/**
+ * Function wrapper that memoizes results in a FunctionCache
+ */
+public final class CachingFunction implements Function<Object, Object>, CachedFunction {
+
+    private final Function<Object, Object> delegate;
+    private final FunctionCache cache;
+
+    @SuppressWarnings("unchecked")
+    public CachingFunction(Function<?, ?> delegate, FunctionCache cache) {
+        this.delegate = (Function<Object, Object>) delegate;
+        this.cache = cache;
+    }
+
+    @Override
+    public Object apply(Object input) {
+        return cache.apply(input, delegate);
+    }
+
+    @Override
+    public FunctionCache getFunctionCache() {
+        return cache;
+    }
+
+    @Override
+    public Function<Object, Object> getDelegate() {
+        return delegate;
+    }
+}
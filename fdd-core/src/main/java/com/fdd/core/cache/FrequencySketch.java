@@ -0,0 +1,63 @@
+package com.fdd.core.cache;
+
+/**
+ * Count-min sketch of 4-bit access counters used as the TinyLFU admission filter.
+ * Counters are halved once the number of recorded accesses reaches ten times the width,
+ * so the sketch tracks recent popularity rather than all-time totals.
+ * Not thread-safe; guarded by the owning cache.
+ */
+final class FrequencySketch {
+
+    private static final int DEPTH = 4;
+    private static final int MAX_COUNT = 15;
+    private static final int[] SEEDS = {0x97cb3127, 0xbe20ad5b, 0x3c6ef372, 0xa54ff53a};
+
+    private final byte[] counters;
+    private final int width;
+    private final int mask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedEntries) {
+        int target = (int) Math.min(1 << 24, Math.max(16, expectedEntries));
+        this.width = Integer.highestOneBit(target - 1) << 1;
+        this.mask = width - 1;
+        this.counters = new byte[DEPTH * width];
+        this.sampleSize = 10 * width;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int row = 0; row < DEPTH; row++) {
+            int index = row * width + indexOf(hash, row);
+            if (counters[index] < MAX_COUNT) {
+                counters[index]++;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    int frequency(int hash) {
+        int frequency = MAX_COUNT;
+        for (int row = 0; row < DEPTH; row++) {
+            frequency = Math.min(frequency, counters[row * width + indexOf(hash, row)]);
+        }
+        return frequency;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = hash * SEEDS[row];
+        h ^= h >>> 16;
+        return h & mask;
+    }
+
+    private void reset() {
+        for (int i = 0; i < counters.length; i++) {
+            counters[i] = (byte) (counters[i] >>> 1);
+        }
+        additions /= 2;
+    }
+}
@@ -0,0 +1,134 @@
+package com.fdd.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.registry.FunctionMetadata;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Memoization for a pure function declared with a cache: section in serverless.yml.
+ * Inputs are keyed on their canonical JSON form (properties and map entries sorted),
+ * optionally reduced to the configured key fields. Null results and inputs that cannot
+ * be serialized are not cached. Cached results are shared between callers and must be
+ * treated as immutable.
+ */
+public final class FunctionCache {
+    private static final Logger logger = LoggerFactory.getLogger(FunctionCache.class);
+
+    private static final int DEFAULT_MAX_ENTRIES = 10_000;
+    // Rough average entry size used to size the frequency sketch of byte-bounded caches
+    private static final int ESTIMATED_ENTRY_BYTES = 256;
+
+    private final String functionName;
+    private final InputKeys keys;
+    private final boolean weighBytes;
+    private final FunctionResultCache results;
+
+    private FunctionCache(String functionName, InputKeys keys, boolean weighBytes, FunctionResultCache results) {
+        this.functionName = functionName;
+        this.keys = keys;
+        this.weighBytes = weighBytes;
+        this.results = results;
+    }
+
+    /**
+     * Build the cache described by a function's cache metadata
+     */
+    public static FunctionCache create(String functionName, FunctionMetadata.CacheMetadata config, ObjectMapper objectMapper) {
+        FunctionResultCache results;
+        if (config.getMaxBytesValue() != null) {
+            long maxBytes = config.getMaxBytesValue();
+            results = new FunctionResultCache(functionName, maxBytes, config.getTtlDuration(),
+                    Math.max(1, maxBytes / ESTIMATED_ENTRY_BYTES));
+        } else {
+            int maxEntries = config.getMaxEntries() != null ? config.getMaxEntries() : DEFAULT_MAX_ENTRIES;
+            results = new FunctionResultCache(functionName, maxEntries, config.getTtlDuration(), maxEntries);
+        }
+        return new FunctionCache(functionName, new InputKeys(objectMapper, config.getKeyFields()),
+                config.getMaxBytesValue() != null, results);
+    }
+
+    /**
+     * Return the cached result for the input, computing and storing it on a miss
+     */
+    public Object apply(Object input, Function<Object, Object> compute) {
+        CacheKey key = keyFor(input);
+        if (key == null) {
+            return compute.apply(input);
+        }
+        Object cached = results.get(key);
+        if (cached != null) {
+            return cached;
+        }
+        Object result = compute.apply(input);
+        put(key, result);
+        return result;
+    }
+
+    /**
+     * The cached result for a key, or null on a miss
+     */
+    public Object get(CacheKey key) {
+        return results.get(key);
+    }
+
+    /**
+     * Store the result computed for a key; null results are not cached
+     */
+    public void put(CacheKey key, Object result) {
+        if (result != null) {
+            long weight = weighBytes ? key.length() + sizeOf(result) : 1L;
+            if (weight > 0) {
+                results.put(key, result, weight);
+            }
+        }
+    }
+
+    public String getFunctionName() { return functionName; }
+
+    public List<String> getKeyFields() { return keys.getKeyFields(); }
+
+    public FunctionResultCache getResults() { return results; }
+
+    /**
+     * The key an input is cached under, or null when it has no canonical form and is not cached
+     */
+    public CacheKey keyFor(Object input) {
+        try {
+            return keys.keyFor(input);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.debug("Not caching {} call - input has no canonical form: {}", functionName, e.getMessage());
+            return null;
+        }
+    }
+
+    private long sizeOf(Object result) {
+        CountingOutputStream counter = new CountingOutputStream();
+        try {
+            keys.getMapper().writeValue(counter, result);
+            return counter.count;
+        } catch (Exception e) {
+            logger.debug("Not caching {} result - cannot be sized: {}", functionName, e.getMessage());
+            return -1;
+        }
+    }
+
+    private static final class CountingOutputStream extends OutputStream {
+        long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package com.fdd.core.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded result store with W-TinyLFU eviction.
+ * New entries enter a small LRU admission window (1% of capacity); entries leaving the window
+ * only displace an entry of the main segmented LRU if the frequency sketch has seen them more
+ * often, so a burst of one-off inputs cannot flush the popular ones. Main entries start in the
+ * probation segment and move to the protected segment (80% of main) when read again.
+ * Capacity is a weight: one per entry, or the serialized size in bytes.
+ */
+public final class FunctionResultCache {
+
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+
+    private final String name;
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long ttlNanos;
+    private final FrequencySketch sketch;
+
+    private final Map<Object, Node> data = new HashMap<>();
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private long windowWeight;
+    private long protectedWeight;
+    private long totalWeight;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder expirations = new LongAdder();
+
+    /**
+     * @param maximumWeight   capacity in entries or bytes
+     * @param ttl             time to live after write, or null to keep entries until evicted
+     * @param expectedEntries approximate number of entries at capacity, used to size the sketch
+     */
+    public FunctionResultCache(String name, long maximumWeight, Duration ttl, long expectedEntries) {
+        if (maximumWeight < 1) {
+            throw new IllegalArgumentException("Cache capacity must be at least 1 for " + name);
+        }
+        this.name = name;
+        this.maximumWeight = maximumWeight;
+        this.windowMaximum = Math.max(1, maximumWeight / 100);
+        this.protectedMaximum = (long) ((maximumWeight - windowMaximum) * 0.8);
+        this.ttlNanos = ttl != null ? ttl.toNanos() : 0L;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Look up a value, recording the access in the frequency sketch
+     * @return the cached value, or null on a miss or an expired entry
+     */
+    public synchronized Object get(Object key) {
+        sketch.increment(key.hashCode());
+        Node node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        if (ttlNanos > 0 && System.nanoTime() - node.expiresAt >= 0) {
+            remove(node);
+            expirations.increment();
+            misses.increment();
+            return null;
+        }
+        onAccess(node);
+        hits.increment();
+        return node.value;
+    }
+
+    /**
+     * Store a value; entries heavier than the whole cache are not stored
+     */
+    public synchronized void put(Object key, Object value, long weight) {
+        if (weight > maximumWeight) {
+            return;
+        }
+        long expiresAt = ttlNanos > 0 ? System.nanoTime() + ttlNanos : 0L;
+        Node node = data.get(key);
+        if (node != null) {
+            adjustWeight(node, weight - node.weight);
+            node.value = value;
+            node.expiresAt = expiresAt;
+            onAccess(node);
+        } else {
+            node = new Node(key, value, weight, expiresAt);
+            data.put(key, node);
+            node.queue = WINDOW;
+            window.add(node);
+            windowWeight += weight;
+            totalWeight += weight;
+        }
+        evict();
+    }
+
+    public synchronized void invalidateAll() {
+        data.clear();
+        window.clear();
+        probation.clear();
+        protectedQueue.clear();
+        windowWeight = 0;
+        protectedWeight = 0;
+        totalWeight = 0;
+    }
+
+    public String getName() { return name; }
+
+    public long getMaximumWeight() { return maximumWeight; }
+
+    public synchronized int size() { return data.size(); }
+
+    public synchronized long weight() { return totalWeight; }
+
+    public long getHitCount() { return hits.sum(); }
+
+    public long getMissCount() { return misses.sum(); }
+
+    public long getEvictionCount() { return evictions.sum(); }
+
+    public long getExpirationCount() { return expirations.sum(); }
+
+    public double getHitRate() {
+        long hitCount = hits.sum();
+        long total = hitCount + misses.sum();
+        return total == 0 ? 0.0 : (double) hitCount / total;
+    }
+
+    private void onAccess(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToTail(node);
+                break;
+            case PROBATION:
+                // Read again while on probation: promote, demoting the oldest protected entries if needed
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.add(node);
+                protectedWeight += node.weight;
+                while (protectedWeight > protectedMaximum && protectedQueue.head != node) {
+                    Node demoted = protectedQueue.head;
+                    protectedQueue.remove(demoted);
+                    protectedWeight -= demoted.weight;
+                    demoted.queue = PROBATION;
+                    probation.add(demoted);
+                }
+                break;
+            default:
+                protectedQueue.moveToTail(node);
+                break;
+        }
+    }
+
+    private void evict() {
+        // Entries leaving the admission window compete with the main segment's oldest probation entry
+        while (windowWeight > windowMaximum && window.head != null) {
+            Node candidate = window.head;
+            window.remove(candidate);
+            windowWeight -= candidate.weight;
+            candidate.queue = PROBATION;
+            probation.add(candidate);
+            admit(candidate);
+        }
+        // Weight changes on update can still leave the cache over capacity
+        while (totalWeight > maximumWeight) {
+            Node victim = probation.head != null ? probation.head
+                    : protectedQueue.head != null ? protectedQueue.head : window.head;
+            evictNode(victim);
+        }
+    }
+
+    private void admit(Node candidate) {
+        while (totalWeight > maximumWeight) {
+            Node victim = probation.head != candidate ? probation.head : candidate.next;
+            if (victim == null) {
+                victim = protectedQueue.head;
+            }
+            if (victim == null) {
+                evictNode(candidate);
+                return;
+            }
+            if (sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())) {
+                evictNode(victim);
+            } else {
+                evictNode(candidate);
+                return;
+            }
+        }
+    }
+
+    private void adjustWeight(Node node, long delta) {
+        if (node.queue == WINDOW) {
+            windowWeight += delta;
+        } else if (node.queue == PROTECTED) {
+            protectedWeight += delta;
+        }
+        totalWeight += delta;
+        node.weight += delta;
+    }
+
+    private void evictNode(Node node) {
+        remove(node);
+        evictions.increment();
+    }
+
+    private void remove(Node node) {
+        data.remove(node.key);
+        if (node.queue == WINDOW) {
+            window.remove(node);
+            windowWeight -= node.weight;
+        } else if (node.queue == PROBATION) {
+            probation.remove(node);
+        } else {
+            protectedQueue.remove(node);
+            protectedWeight -= node.weight;
+        }
+        totalWeight -= node.weight;
+    }
+
+    private static final class Node {
+        final Object key;
+        Object value;
+        long weight;
+        long expiresAt;
+        int queue;
+        Node prev;
+        Node next;
+
+        Node(Object key, Object value, long weight, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked LRU list: head is the least recently used entry
+     */
+    private static final class AccessQueue {
+        Node head;
+        Node tail;
+
+        void add(Node node) {
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+        }
+
+        void moveToTail(Node node) {
+            if (tail != node) {
+                remove(node);
+                add(node);
+            }
+        }
+
+        void clear() {
+            head = null;
+            tail = null;
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.fdd.core.cache;
+
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the canonical key of a function input: its JSON form with properties and map entries
+ * sorted, optionally reduced to a list of key fields (dotted paths for nested ones)
+ */
+final class InputKeys {
+
+    private final ObjectMapper mapper;
+    private final List<String> keyFields;
+    private final List<JsonPointer> keyPointers;
+
+    InputKeys(ObjectMapper objectMapper, List<String> keyFields) {
+        this.mapper = canonical(objectMapper);
+        this.keyFields = keyFields != null ? keyFields : Collections.emptyList();
+        this.keyPointers = new ArrayList<>(this.keyFields.size());
+        for (String field : this.keyFields) {
+            keyPointers.add(JsonPointer.compile("/" + field.replace('.', '/')));
+        }
+    }
+
+    /**
+     * @throws JsonProcessingException or IllegalArgumentException when the input has no JSON form
+     */
+    CacheKey keyFor(Object input) throws JsonProcessingException {
+        if (keyPointers.isEmpty()) {
+            return new CacheKey(mapper.writeValueAsBytes(input));
+        }
+        JsonNode tree = mapper.valueToTree(input);
+        ObjectNode selected = mapper.createObjectNode();
+        for (int i = 0; i < keyPointers.size(); i++) {
+            selected.set(keyFields.get(i), tree.at(keyPointers.get(i)));
+        }
+        return new CacheKey(mapper.writeValueAsBytes(selected));
+    }
+
+    ObjectMapper getMapper() { return mapper; }
+
+    List<String> getKeyFields() { return keyFields; }
+
+    private static ObjectMapper canonical(ObjectMapper objectMapper) {
+        ObjectMapper base = objectMapper != null ? objectMapper : new ObjectMapper();
+        if (base instanceof JsonMapper) {
+            return ((JsonMapper) base).rebuild()
+                    .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                    .enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)
+                    .build();
+        }
+        ObjectMapper copy = base.copy();
+        copy.setConfig(copy.getSerializationConfig()
+                .with(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+                .with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+        return copy;
+    }
+}
@@ -0,0 +1,157 @@
+package com.fdd.core.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Coalesces concurrent invocations of a function with equal canonical inputs:
+ * the first caller executes, callers arriving while it runs wait for and share its result
+ * or failure. Nothing is kept once the execution completes, so this never serves stale results.
+ * Coalesced callers share one result object, which must be treated as immutable, and the
+ * leader's security context - only enable it for functions whose result does not depend on the caller.
+ */
+public final class SingleFlight {
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+    private final String functionName;
+    private final InputKeys keys;
+    private final Map<CacheKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executions = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    public SingleFlight(String functionName, List<String> keyFields, ObjectMapper objectMapper) {
+        this.functionName = functionName;
+        this.keys = new InputKeys(objectMapper, keyFields);
+    }
+
+    /**
+     * Run compute for the input, or wait for the identical execution already in flight.
+     * A waiting caller gives up with DeadlineExceededException when its own deadline passes;
+     * the shared execution keeps running for the others.
+     */
+    public Object apply(Object input, Deadline deadline, Function<Object, Object> compute) {
+        CacheKey key = keyFor(input);
+        if (key == null) {
+            executions.increment();
+            return compute.apply(input);
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing, deadline);
+        }
+
+        executions.increment();
+        try {
+            Object result = compute.apply(input);
+            inFlight.remove(key, flight);
+            flight.complete(result);
+            return result;
+        } catch (Throwable e) {
+            inFlight.remove(key, flight);
+            flight.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Asynchronous variant: joins the in-flight future for the input or starts one with compute.
+     * Each caller receives its own copy, so cancelling one does not affect the others.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> applyAsync(Object input, Function<Object, CompletableFuture<R>> compute) {
+        CacheKey key = keyFor(input);
+        if (key == null) {
+            executions.increment();
+            return compute.apply(input);
+        }
+
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            return (CompletableFuture<R>) existing.copy();
+        }
+
+        executions.increment();
+        CompletableFuture<R> execution;
+        try {
+            execution = compute.apply(input);
+        } catch (Throwable e) {
+            execution = CompletableFuture.failedFuture(e);
+        }
+        execution.whenComplete((result, failure) -> {
+            inFlight.remove(key, flight);
+            if (failure != null) {
+                flight.completeExceptionally(failure instanceof CompletionException && failure.getCause() != null
+                        ? failure.getCause() : failure);
+            } else {
+                flight.complete(result);
+            }
+        });
+        return (CompletableFuture<R>) flight.copy();
+    }
+
+    public String getFunctionName() { return functionName; }
+
+    public List<String> getKeyFields() { return keys.getKeyFields(); }
+
+    /**
+     * Number of executions started (callers that did not find an identical one in flight)
+     */
+    public long getExecutionCount() { return executions.sum(); }
+
+    /**
+     * Number of callers that shared an execution instead of starting their own
+     */
+    public long getCoalescedCount() { return coalesced.sum(); }
+
+    public int getInFlightCount() { return inFlight.size(); }
+
+    private CacheKey keyFor(Object input) {
+        try {
+            return keys.keyFor(input);
+        } catch (JsonProcessingException | IllegalArgumentException e) {
+            logger.debug("Not coalescing {} call - input has no canonical form: {}", functionName, e.getMessage());
+            return null;
+        }
+    }
+
+    private Object await(CompletableFuture<Object> flight, Deadline deadline) {
+        try {
+            return deadline == null ? flight.join() : flight.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(functionName);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for " + functionName, e);
+        } catch (CompletionException | ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new CompletionException(cause);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.fdd.core.config;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
 import java.util.Map;
 import java.util.List;
 
@@ -16,10 +18,13 @@ public class ServerlessConfig {
     public ServerlessDefinition getServerless() { return serverless; }
     public void setServerless(ServerlessDefinition serverless) { this.serverless = serverless; }
 
+    // cross-lambda is for the deployment; FDD reads Lambda URLs from FDD_LAMBDA_URL_* variables
+    @JsonIgnoreProperties({"cross-lambda"})
     public static class ServerlessDefinition {
         private String service;
         private ProviderConfig provider;
         private Map<String, FunctionConfig> functions;
+        private Map<String, WorkflowConfig> workflows;
         private SecurityConfig security;
         private DiscoveryConfig discovery;
         private MonitoringConfig monitoring;  // Added monitoring support
@@ -33,6 +38,9 @@ public class ServerlessConfig {
         public Map<String, FunctionConfig> getFunctions() { return functions; }
         public void setFunctions(Map<String, FunctionConfig> functions) { this.functions = functions; }
 
+        public Map<String, WorkflowConfig> getWorkflows() { return workflows; }
+        public void setWorkflows(Map<String, WorkflowConfig> workflows) { this.workflows = workflows; }
+
         public SecurityConfig getSecurity() { return security; }
         public void setSecurity(SecurityConfig security) { this.security = security; }
 
@@ -43,6 +51,8 @@ public class ServerlessConfig {
         public void setMonitoring(MonitoringConfig monitoring) { this.monitoring = monitoring; }
     }
 
+    // The deployment tool's provider settings (region, stage, ...) beyond the ones FDD reads
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class ProviderConfig {
         private String name;
         private String runtime;
@@ -54,13 +64,20 @@ public class ServerlessConfig {
         public void setRuntime(String runtime) { this.runtime = runtime; }
     }
 
+    // lambda holds the function's Lambda deployment settings (handler, memory, environment, url)
+    @JsonIgnoreProperties({"lambda"})
     public static class FunctionConfig {
         private String name;
         private String component;
         private String input;
         private String output;
+        private String implementation;
         private SecurityConfig security;
         private DeploymentConfig deployment;
+        private CacheConfig cache;
+        private CoalesceConfig coalesce;
+        private RetryConfig retry;
+        private List<Object> samples;
 
         public String getName() { return name; }
         public void setName(String name) { this.name = name; }
@@ -74,11 +91,26 @@ public class ServerlessConfig {
         public String getOutput() { return output; }
         public void setOutput(String output) { this.output = output; }
 
+        public String getImplementation() { return implementation; }
+        public void setImplementation(String implementation) { this.implementation = implementation; }
+
         public SecurityConfig getSecurity() { return security; }
         public void setSecurity(SecurityConfig security) { this.security = security; }
 
         public DeploymentConfig getDeployment() { return deployment; }
         public void setDeployment(DeploymentConfig deployment) { this.deployment = deployment; }
+
+        public CacheConfig getCache() { return cache; }
+        public void setCache(CacheConfig cache) { this.cache = cache; }
+
+        public CoalesceConfig getCoalesce() { return coalesce; }
+        public void setCoalesce(CoalesceConfig coalesce) { this.coalesce = coalesce; }
+
+        public RetryConfig getRetry() { return retry; }
+        public void setRetry(RetryConfig retry) { this.retry = retry; }
+
+        public List<Object> getSamples() { return samples; }
+        public void setSamples(List<Object> samples) { this.samples = samples; }
     }
 
     public static class SecurityConfig {
@@ -135,6 +167,11 @@ public class ServerlessConfig {
         private String cloud;
         private String memory;
         private String timeout;
+        @JsonProperty("max-concurrency")
+        private Integer maxConcurrency;
+        @JsonProperty("max-queue")
+        private Integer maxQueue;
+        private String bulkhead;
 
         public String getCloud() { return cloud; }
         public void setCloud(String cloud) { this.cloud = cloud; }
@@ -144,6 +181,126 @@ public class ServerlessConfig {
 
         public String getTimeout() { return timeout; }
         public void setTimeout(String timeout) { this.timeout = timeout; }
+
+        public Integer getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+        public Integer getMaxQueue() { return maxQueue; }
+        public void setMaxQueue(Integer maxQueue) { this.maxQueue = maxQueue; }
+
+        public String getBulkhead() { return bulkhead; }
+        public void setBulkhead(String bulkhead) { this.bulkhead = bulkhead; }
+    }
+
+    public static class CacheConfig {
+        private String ttl;
+        @JsonProperty("max-entries")
+        private Integer maxEntries;
+        @JsonProperty("max-bytes")
+        private String maxBytes;
+        @JsonProperty("key-fields")
+        private List<String> keyFields;
+
+        public String getTtl() { return ttl; }
+        public void setTtl(String ttl) { this.ttl = ttl; }
+
+        public Integer getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(Integer maxEntries) { this.maxEntries = maxEntries; }
+
+        public String getMaxBytes() { return maxBytes; }
+        public void setMaxBytes(String maxBytes) { this.maxBytes = maxBytes; }
+
+        public List<String> getKeyFields() { return keyFields; }
+        public void setKeyFields(List<String> keyFields) { this.keyFields = keyFields; }
+    }
+
+    public static class CoalesceConfig {
+        private boolean enabled = true;
+        @JsonProperty("key-fields")
+        private List<String> keyFields;
+
+        public boolean isEnabled() { return enabled; }
+        public void setEnabled(boolean enabled) { this.enabled = enabled; }
+
+        public List<String> getKeyFields() { return keyFields; }
+        public void setKeyFields(List<String> keyFields) { this.keyFields = keyFields; }
+    }
+
+    public static class RetryConfig {
+        @JsonProperty("max-attempts")
+        private Integer maxAttempts;
+        @JsonProperty("retry-on")
+        private List<Integer> retryOn;
+        @JsonProperty("initial-backoff")
+        private String initialBackoff;
+        @JsonProperty("max-backoff")
+        private String maxBackoff;
+        private Double multiplier;
+
+        public Integer getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(Integer maxAttempts) { this.maxAttempts = maxAttempts; }
+
+        public List<Integer> getRetryOn() { return retryOn; }
+        public void setRetryOn(List<Integer> retryOn) { this.retryOn = retryOn; }
+
+        public String getInitialBackoff() { return initialBackoff; }
+        public void setInitialBackoff(String initialBackoff) { this.initialBackoff = initialBackoff; }
+
+        public String getMaxBackoff() { return maxBackoff; }
+        public void setMaxBackoff(String maxBackoff) { this.maxBackoff = maxBackoff; }
+
+        public Double getMultiplier() { return multiplier; }
+        public void setMultiplier(Double multiplier) { this.multiplier = multiplier; }
+    }
+
+    /**
+     * A workflow: steps calling functions, run as a DAG and registered as a function itself.
+     * Step inputs and the output are templates: strings starting with "$." reference the workflow
+     * input ($.input.productId) or the output of another step ($.steps.checkInventory.available),
+     * everything else is a literal.
+     */
+    public static class WorkflowConfig {
+        private String name;
+        private String timeout;
+        private Map<String, WorkflowStepConfig> steps;
+        private JsonNode output;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public String getTimeout() { return timeout; }
+        public void setTimeout(String timeout) { this.timeout = timeout; }
+
+        public Map<String, WorkflowStepConfig> getSteps() { return steps; }
+        public void setSteps(Map<String, WorkflowStepConfig> steps) { this.steps = steps; }
+
+        public JsonNode getOutput() { return output; }
+        public void setOutput(JsonNode output) { this.output = output; }
+    }
+
+    public static class WorkflowStepConfig {
+        private String function;
+        private JsonNode input;
+        @JsonProperty("depends-on")
+        private List<String> dependsOn;
+        private String require;
+        @JsonProperty("on-failure")
+        private String onFailure = "fail";
+
+        public String getFunction() { return function; }
+        public void setFunction(String function) { this.function = function; }
+
+        public JsonNode getInput() { return input; }
+        public void setInput(JsonNode input) { this.input = input; }
+
+        public List<String> getDependsOn() { return dependsOn; }
+        public void setDependsOn(List<String> dependsOn) { this.dependsOn = dependsOn; }
+
+        public String getRequire() { return require; }
+        public void setRequire(String require) { this.require = require; }
+
+        public String getOnFailure() { return onFailure; }
+        public void setOnFailure(String onFailure) { this.onFailure = onFailure; }
     }
 
     public static class DiscoveryConfig {
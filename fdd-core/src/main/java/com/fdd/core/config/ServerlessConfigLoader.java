@@ -3,6 +3,7 @@ package com.fdd.core.config;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
 import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.workflow.WorkflowDefinition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.io.ClassPathResource;
@@ -11,6 +12,7 @@ import org.springframework.core.io.Resource;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -90,6 +92,26 @@ public class ServerlessConfigLoader {
         return metadataMap;
     }
 
+    /**
+     * Compile the workflows section of serverless configuration; invalid workflows are logged and skipped
+     */
+    public Map<String, WorkflowDefinition> createWorkflows(ServerlessConfig config) {
+        Map<String, WorkflowDefinition> workflows = new LinkedHashMap<>();
+        if (config.getServerless() == null || config.getServerless().getWorkflows() == null) {
+            return workflows;
+        }
+
+        config.getServerless().getWorkflows().forEach((workflowName, workflowConfig) -> {
+            try {
+                workflows.put(workflowName, WorkflowDefinition.compile(workflowName, workflowConfig));
+                logger.debug("Compiled workflow: {}", workflowName);
+            } catch (IllegalArgumentException e) {
+                logger.error("Invalid workflow {}: {}", workflowName, e.getMessage());
+            }
+        });
+        return workflows;
+    }
+
     /**
      * Create function metadata from configuration
      */
@@ -97,6 +119,7 @@ public class ServerlessConfigLoader {
         FunctionMetadata metadata = new FunctionMetadata();
         metadata.setName(config.getName());
         metadata.setComponent(componentName);
+        metadata.setImplementation(config.getImplementation());
 
         // Set input/output types (for now as strings, later we'll resolve to actual classes)
         try {
@@ -126,10 +149,56 @@ public class ServerlessConfigLoader {
             FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
             deployment.setCloud(config.getDeployment().getCloud());
             deployment.setMemory(config.getDeployment().getMemory());
-            deployment.setTimeout(config.getDeployment().getTimeout());
+            try {
+                deployment.setTimeout(config.getDeployment().getTimeout());
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring deployment timeout for function {}: {}", componentName, e.getMessage());
+            }
+            deployment.setMaxConcurrency(config.getDeployment().getMaxConcurrency());
+            deployment.setMaxQueue(config.getDeployment().getMaxQueue());
+            deployment.setBulkhead(config.getDeployment().getBulkhead());
             metadata.setDeployment(deployment);
         }
 
+        // Result cache metadata
+        if (config.getCache() != null) {
+            try {
+                FunctionMetadata.CacheMetadata cache = new FunctionMetadata.CacheMetadata();
+                cache.setTtl(config.getCache().getTtl());
+                cache.setMaxEntries(config.getCache().getMaxEntries());
+                cache.setMaxBytes(config.getCache().getMaxBytes());
+                cache.setKeyFields(config.getCache().getKeyFields());
+                metadata.setCache(cache);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring cache configuration for function {}: {}", componentName, e.getMessage());
+            }
+        }
+
+        // Single-flight coalescing metadata
+        if (config.getCoalesce() != null && config.getCoalesce().isEnabled()) {
+            FunctionMetadata.CoalesceMetadata coalesce = new FunctionMetadata.CoalesceMetadata();
+            coalesce.setKeyFields(config.getCoalesce().getKeyFields());
+            metadata.setCoalesce(coalesce);
+        }
+
+        // Retry policy for calls to the function
+        if (config.getRetry() != null) {
+            try {
+                FunctionMetadata.RetryMetadata retry = new FunctionMetadata.RetryMetadata();
+                retry.setMaxAttempts(config.getRetry().getMaxAttempts());
+                retry.setRetryOn(config.getRetry().getRetryOn());
+                retry.setInitialBackoff(config.getRetry().getInitialBackoff());
+                retry.setMaxBackoff(config.getRetry().getMaxBackoff());
+                retry.setMultiplier(config.getRetry().getMultiplier());
+                metadata.setRetry(retry);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Ignoring retry configuration for function {}: {}", componentName, e.getMessage());
+            }
+        }
+
+        // Inputs to prime the function with before a snapshot
+        metadata.setSamples(config.getSamples());
+
         return metadata;
     }
 }
\ No newline at end of file
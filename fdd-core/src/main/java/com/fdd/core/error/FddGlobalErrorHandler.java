@@ -1,14 +1,16 @@
 package com.fdd.core.error;
 
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.DeadlineExceededException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -18,50 +20,87 @@ import java.util.UUID;
 public class FddGlobalErrorHandler {
     private static final Logger logger = LoggerFactory.getLogger(FddGlobalErrorHandler.class);
 
+    // Static parts of the error bodies are encoded once, not per failure
+    private static final JsonErrorBody SECURITY_VIOLATION =
+            JsonErrorBody.of("error", "SECURITY_VIOLATION", "message", "Access denied");
+    private static final JsonErrorBody FUNCTION_EXECUTION_FAILED =
+            JsonErrorBody.of("error", "FUNCTION_EXECUTION_FAILED");
+    private static final JsonErrorBody FUNCTION_SATURATED =
+            JsonErrorBody.of("error", "FUNCTION_SATURATED");
+    private static final JsonErrorBody DEADLINE_EXCEEDED =
+            JsonErrorBody.of("error", "DEADLINE_EXCEEDED");
+    private static final JsonErrorBody DOWNSTREAM_UNAVAILABLE =
+            JsonErrorBody.of("error", "DOWNSTREAM_UNAVAILABLE");
+    private static final JsonErrorBody INTERNAL_ERROR =
+            JsonErrorBody.of("error", "INTERNAL_ERROR", "message", "An unexpected error occurred");
+
     @ExceptionHandler(SecurityException.class)
-    public ResponseEntity<Map<String, Object>> handleSecurityException(SecurityException ex) {
+    public ResponseEntity<byte[]> handleSecurityException(SecurityException ex) {
         String traceId = UUID.randomUUID().toString().substring(0, 8);
 
         logger.warn("Security violation [{}]: {}", traceId, ex.getMessage());
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "SECURITY_VIOLATION");
-        response.put("message", "Access denied");
-        response.put("traceId", traceId);
-        response.put("timestamp", System.currentTimeMillis());
-
-        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(response);
+        return json(HttpStatus.FORBIDDEN, SECURITY_VIOLATION.render(
+                "traceId", traceId,
+                "timestamp", System.currentTimeMillis()));
     }
 
     @ExceptionHandler(FunctionExecutionException.class)
-    public ResponseEntity<Map<String, Object>> handleFunctionException(FunctionExecutionException ex) {
+    public ResponseEntity<byte[]> handleFunctionException(FunctionExecutionException ex) {
         String traceId = UUID.randomUUID().toString().substring(0, 8);
 
         logger.error("Function execution failed [{}]: {}", traceId, ex.getMessage(), ex);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "FUNCTION_EXECUTION_FAILED");
-        response.put("message", ex.getMessage());
-        response.put("functionName", ex.getFunctionName());
-        response.put("traceId", traceId);
-        response.put("timestamp", System.currentTimeMillis());
+        return json(HttpStatus.INTERNAL_SERVER_ERROR, FUNCTION_EXECUTION_FAILED.render(
+                "message", ex.getMessage(),
+                "functionName", ex.getFunctionName(),
+                "traceId", traceId,
+                "timestamp", System.currentTimeMillis()));
+    }
+
+    @ExceptionHandler(BulkheadFullException.class)
+    public ResponseEntity<byte[]> handleBulkheadFull(BulkheadFullException ex) {
+        logger.warn("Function rejected: {}", ex.getMessage());
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+        return json(HttpStatus.TOO_MANY_REQUESTS, FUNCTION_SATURATED.render(
+                "message", ex.getMessage(),
+                "bulkhead", ex.getBulkheadName(),
+                "timestamp", System.currentTimeMillis()));
+    }
+
+    @ExceptionHandler(DeadlineExceededException.class)
+    public ResponseEntity<byte[]> handleDeadlineExceeded(DeadlineExceededException ex) {
+        logger.warn("Function abandoned: {}", ex.getMessage());
+
+        return json(HttpStatus.GATEWAY_TIMEOUT, DEADLINE_EXCEEDED.render(
+                "message", ex.getMessage(),
+                "functionName", ex.getFunctionName(),
+                "timestamp", System.currentTimeMillis()));
+    }
+
+    @ExceptionHandler(CircuitBreakerOpenException.class)
+    public ResponseEntity<byte[]> handleCircuitBreakerOpen(CircuitBreakerOpenException ex) {
+        logger.warn("Downstream call failed fast: {}", ex.getMessage());
+
+        return json(HttpStatus.SERVICE_UNAVAILABLE, DOWNSTREAM_UNAVAILABLE.render(
+                "message", ex.getMessage(),
+                "circuitBreaker", ex.getBreakerName(),
+                "timestamp", System.currentTimeMillis()));
     }
 
     @ExceptionHandler(Exception.class)
-    public ResponseEntity<Map<String, Object>> handleGenericException(Exception ex) {
+    public ResponseEntity<byte[]> handleGenericException(Exception ex) {
         String traceId = UUID.randomUUID().toString().substring(0, 8);
 
         logger.error("Unexpected error [{}]: {}", traceId, ex.getMessage(), ex);
 
-        Map<String, Object> response = new HashMap<>();
-        response.put("error", "INTERNAL_ERROR");
-        response.put("message", "An unexpected error occurred");
-        response.put("traceId", traceId);
-        response.put("timestamp", System.currentTimeMillis());
+        return json(HttpStatus.INTERNAL_SERVER_ERROR, INTERNAL_ERROR.render(
+                "traceId", traceId,
+                "timestamp", System.currentTimeMillis()));
+    }
 
-        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).body(response);
+    private static ResponseEntity<byte[]> json(HttpStatus status, byte[] body) {
+        return ResponseEntity.status(status).contentType(MediaType.APPLICATION_JSON).body(body);
     }
 }
 
@@ -0,0 +1,94 @@
+package com.fdd.core.error;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Pre-encoded JSON error body.
+ * The static fields are serialized to bytes once; only the dynamic fields
+ * (trace IDs, timestamps, messages) are encoded per response.
+ */
+public final class JsonErrorBody {
+
+    private static final JsonStringEncoder ENCODER = JsonStringEncoder.getInstance();
+
+    private final byte[] prefix;
+    private final byte[] staticBytes;
+
+    private JsonErrorBody(byte[] prefix) {
+        this.prefix = prefix;
+        byte[] complete = new byte[prefix.length + 1];
+        System.arraycopy(prefix, 0, complete, 0, prefix.length);
+        complete[prefix.length] = '}';
+        this.staticBytes = complete;
+    }
+
+    /**
+     * Create a body from static name/value pairs
+     */
+    public static JsonErrorBody of(String... staticFields) {
+        if (staticFields.length % 2 != 0) {
+            throw new IllegalArgumentException("Static fields must be name/value pairs");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64);
+        out.write('{');
+        for (int i = 0; i < staticFields.length; i += 2) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeString(out, staticFields[i]);
+            out.write(':');
+            writeString(out, staticFields[i + 1]);
+        }
+        return new JsonErrorBody(out.toByteArray());
+    }
+
+    /**
+     * The body with only its static fields, shared across responses - callers must not modify it
+     */
+    public byte[] staticBytes() {
+        return staticBytes;
+    }
+
+    /**
+     * Render the body with additional dynamic name/value pairs.
+     * Values may be strings, numbers, booleans or null.
+     */
+    public byte[] render(Object... dynamicFields) {
+        if (dynamicFields.length % 2 != 0) {
+            throw new IllegalArgumentException("Dynamic fields must be name/value pairs");
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(prefix.length + 64);
+        out.write(prefix, 0, prefix.length);
+        boolean empty = prefix.length == 1;
+        for (int i = 0; i < dynamicFields.length; i += 2) {
+            if (!empty) {
+                out.write(',');
+            }
+            empty = false;
+            writeString(out, String.valueOf(dynamicFields[i]));
+            out.write(':');
+            writeValue(out, dynamicFields[i + 1]);
+        }
+        out.write('}');
+        return out.toByteArray();
+    }
+
+    private static void writeValue(ByteArrayOutputStream out, Object value) {
+        if (value == null) {
+            out.writeBytes("null".getBytes(StandardCharsets.US_ASCII));
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.writeBytes(value.toString().getBytes(StandardCharsets.US_ASCII));
+        } else {
+            writeString(out, value.toString());
+        }
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        out.write('"');
+        out.writeBytes(ENCODER.quoteAsUTF8(value));
+        out.write('"');
+    }
+}
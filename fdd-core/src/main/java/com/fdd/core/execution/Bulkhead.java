@@ -0,0 +1,103 @@
+package com.fdd.core.execution;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit for a function or security group.
+ * Up to maxConcurrent invocations run at once and up to maxQueue more wait for a slot;
+ * anything beyond that is rejected immediately with BulkheadFullException so a saturated
+ * function sheds load instead of tying up threads shared with other functions.
+ */
+public final class Bulkhead {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public Bulkhead(String name, int maxConcurrent, int maxQueue) {
+        if (maxConcurrent < 1) {
+            throw new IllegalArgumentException("max-concurrency must be at least 1 for bulkhead " + name);
+        }
+        if (maxQueue < 0) {
+            throw new IllegalArgumentException("max-queue must not be negative for bulkhead " + name);
+        }
+        this.name = name;
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.permits = new Semaphore(maxConcurrent, true);
+    }
+
+    /**
+     * Take a slot, waiting in the queue if there is room, otherwise reject
+     * @throws BulkheadFullException when both the slots and the queue are full
+     */
+    public void acquire() {
+        acquire(null);
+    }
+
+    /**
+     * Take a slot, waiting in the queue no longer than the deadline allows
+     * @throws BulkheadFullException when both the slots and the queue are full
+     * @throws DeadlineExceededException when the deadline passes while queued
+     */
+    public void acquire(Deadline deadline) {
+        if (permits.tryAcquire()) {
+            return;
+        }
+        if (waiting.incrementAndGet() > maxQueue) {
+            waiting.decrementAndGet();
+            throw reject();
+        }
+        try {
+            if (deadline == null) {
+                permits.acquire();
+            } else if (!permits.tryAcquire(deadline.remainingNanos(), TimeUnit.NANOSECONDS)) {
+                throw new DeadlineExceededException(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw reject();
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+
+    /**
+     * Return a slot taken by acquire()
+     */
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() { return name; }
+
+    public int getMaxConcurrent() { return maxConcurrent; }
+
+    public int getMaxQueue() { return maxQueue; }
+
+    public int getActiveCount() { return maxConcurrent - permits.availablePermits(); }
+
+    public int getQueuedCount() { return waiting.get(); }
+
+    public long getRejectedCount() { return rejected.sum(); }
+
+    private BulkheadFullException reject() {
+        rejected.increment();
+        return new BulkheadFullException(name, maxConcurrent, maxQueue);
+    }
+
+    @Override
+    public String toString() {
+        return "Bulkhead{" +
+                "name='" + name + '\'' +
+                ", maxConcurrent=" + maxConcurrent +
+                ", maxQueue=" + maxQueue +
+                '}';
+    }
+}
@@ -0,0 +1,20 @@
+package com.fdd.core.execution;
+
+/**
+ * Thrown when a function's bulkhead has no free slot and no room in its queue.
+ * Surfaced as 429 Too Many Requests by the invocation endpoints.
+ */
+public class BulkheadFullException extends RuntimeException {
+    private final String bulkheadName;
+
+    public BulkheadFullException(String bulkheadName, int maxConcurrent, int maxQueue) {
+        // No stack trace: rejections happen under load and carry no useful call site
+        super("Bulkhead '" + bulkheadName + "' is saturated (max-concurrency " + maxConcurrent
+                + ", max-queue " + maxQueue + ")", null, false, false);
+        this.bulkheadName = bulkheadName;
+    }
+
+    public String getBulkheadName() {
+        return bulkheadName;
+    }
+}
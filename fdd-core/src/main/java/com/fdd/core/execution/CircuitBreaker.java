@@ -0,0 +1,220 @@
+package com.fdd.core.execution;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Circuit breaker for calls to one target.
+ * Outcomes of the last window-size calls are kept; once at least minimum-calls are recorded and
+ * the failure rate or slow-call rate reaches its threshold, the breaker opens and calls are
+ * rejected with CircuitBreakerOpenException for open-duration. It then half-opens and lets
+ * half-open-calls probes through: if they stay under the thresholds it closes, otherwise it opens again.
+ */
+public final class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final long slowCallNanos;
+    private final long openNanos;
+
+    // Ring of the last outcomes while closed
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int position;
+    private int recorded;
+    private int failures;
+    private int slowCalls;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int probesInFlight;
+    private int probeResults;
+    private int probeFailures;
+    private int probeSlowCalls;
+
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreaker(String name, Settings settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, Settings settings, LongSupplier nanoClock) {
+        if (settings.getWindowSize() < 1 || settings.getMinimumCalls() < 1 || settings.getHalfOpenCalls() < 1) {
+            throw new IllegalArgumentException("window-size, minimum-calls and half-open-calls must be at least 1 "
+                    + "for circuit breaker " + name);
+        }
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.slowCallNanos = settings.getSlowCallDuration() != null
+                ? settings.getSlowCallDuration().toNanos() : Long.MAX_VALUE;
+        this.openNanos = settings.getOpenDuration().toNanos();
+        this.failed = new boolean[settings.getWindowSize()];
+        this.slow = new boolean[settings.getWindowSize()];
+    }
+
+    /**
+     * Take permission for one call; every permitted call must report onSuccess, onFailure or onIgnored
+     * @throws CircuitBreakerOpenException while the breaker is open or its half-open probes are all taken
+     */
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN) {
+            long openFor = nanoClock.getAsLong() - openedAt;
+            if (openFor < openNanos) {
+                throw reject((openNanos - openFor) / 1_000_000);
+            }
+            state = State.HALF_OPEN;
+            probesInFlight = 0;
+            probeResults = 0;
+            probeFailures = 0;
+            probeSlowCalls = 0;
+        }
+        if (state == State.HALF_OPEN) {
+            if (probesInFlight >= settings.getHalfOpenCalls()) {
+                throw reject(0);
+            }
+            probesInFlight++;
+        }
+    }
+
+    /**
+     * Permission for an optional call (e.g. a hedge): false instead of an exception when not permitted
+     */
+    public boolean tryAcquirePermission() {
+        try {
+            acquirePermission();
+            return true;
+        } catch (CircuitBreakerOpenException e) {
+            return false;
+        }
+    }
+
+    public void onSuccess(long durationNanos) {
+        record(false, durationNanos >= slowCallNanos);
+    }
+
+    public void onFailure(long durationNanos) {
+        record(true, durationNanos >= slowCallNanos);
+    }
+
+    /**
+     * A permitted call ended without an outcome that says anything about the target (e.g. it was cancelled)
+     */
+    public synchronized void onIgnored() {
+        if (state == State.HALF_OPEN && probesInFlight > 0) {
+            probesInFlight--;
+        }
+    }
+
+    private synchronized void record(boolean callFailed, boolean callSlow) {
+        if (state == State.CLOSED) {
+            if (recorded == failed.length) {
+                failures -= failed[position] ? 1 : 0;
+                slowCalls -= slow[position] ? 1 : 0;
+            } else {
+                recorded++;
+            }
+            failed[position] = callFailed;
+            slow[position] = callSlow;
+            failures += callFailed ? 1 : 0;
+            slowCalls += callSlow ? 1 : 0;
+            position = (position + 1) % failed.length;
+            if (recorded >= settings.getMinimumCalls() && exceedsThresholds(failures, slowCalls, recorded)) {
+                open();
+            }
+        } else if (state == State.HALF_OPEN) {
+            // Outcomes of calls started before the breaker opened are not probes
+            if (probesInFlight == 0) {
+                return;
+            }
+            probesInFlight--;
+            probeResults++;
+            probeFailures += callFailed ? 1 : 0;
+            probeSlowCalls += callSlow ? 1 : 0;
+            if (exceedsThresholds(probeFailures, probeSlowCalls, settings.getHalfOpenCalls())) {
+                open();
+            } else if (probeResults >= settings.getHalfOpenCalls()) {
+                close();
+            }
+        }
+    }
+
+    private boolean exceedsThresholds(int failureCount, int slowCount, int calls) {
+        return failureCount * 100.0 / calls >= settings.getFailureRateThreshold()
+                || slowCount * 100.0 / calls >= settings.getSlowCallRateThreshold();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAt = nanoClock.getAsLong();
+    }
+
+    private void close() {
+        state = State.CLOSED;
+        position = 0;
+        recorded = 0;
+        failures = 0;
+        slowCalls = 0;
+    }
+
+    private CircuitBreakerOpenException reject(long retryAfterMillis) {
+        rejected.increment();
+        return new CircuitBreakerOpenException(name, retryAfterMillis);
+    }
+
+    public String getName() { return name; }
+
+    public synchronized State getState() { return state; }
+
+    public synchronized float getFailureRate() { return recorded == 0 ? 0 : failures * 100f / recorded; }
+
+    public synchronized float getSlowCallRate() { return recorded == 0 ? 0 : slowCalls * 100f / recorded; }
+
+    public long getRejectedCount() { return rejected.sum(); }
+
+    @Override
+    public String toString() {
+        return "CircuitBreaker{" +
+                "name='" + name + '\'' +
+                ", state=" + getState() +
+                '}';
+    }
+
+    /**
+     * Thresholds of a circuit breaker; rates are percentages, a null slow-call-duration disables slow-call tracking
+     */
+    public static class Settings {
+        private float failureRateThreshold = 50;
+        private float slowCallRateThreshold = 100;
+        private Duration slowCallDuration;
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private Duration openDuration = Duration.ofSeconds(10);
+        private int halfOpenCalls = 3;
+
+        public float getFailureRateThreshold() { return failureRateThreshold; }
+        public void setFailureRateThreshold(float failureRateThreshold) { this.failureRateThreshold = failureRateThreshold; }
+
+        public float getSlowCallRateThreshold() { return slowCallRateThreshold; }
+        public void setSlowCallRateThreshold(float slowCallRateThreshold) { this.slowCallRateThreshold = slowCallRateThreshold; }
+
+        public Duration getSlowCallDuration() { return slowCallDuration; }
+        public void setSlowCallDuration(Duration slowCallDuration) { this.slowCallDuration = slowCallDuration; }
+
+        public int getWindowSize() { return windowSize; }
+        public void setWindowSize(int windowSize) { this.windowSize = windowSize; }
+
+        public int getMinimumCalls() { return minimumCalls; }
+        public void setMinimumCalls(int minimumCalls) { this.minimumCalls = minimumCalls; }
+
+        public Duration getOpenDuration() { return openDuration; }
+        public void setOpenDuration(Duration openDuration) { this.openDuration = openDuration; }
+
+        public int getHalfOpenCalls() { return halfOpenCalls; }
+        public void setHalfOpenCalls(int halfOpenCalls) { this.halfOpenCalls = halfOpenCalls; }
+    }
+}
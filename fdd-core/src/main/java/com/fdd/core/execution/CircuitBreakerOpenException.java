@@ -0,0 +1,20 @@
+package com.fdd.core.execution;
+
+/**
+ * Thrown instead of calling a target whose circuit breaker is open.
+ * Surfaced as 503 Service Unavailable by the invocation endpoints.
+ */
+public class CircuitBreakerOpenException extends RuntimeException {
+    private final String breakerName;
+
+    public CircuitBreakerOpenException(String breakerName, long retryAfterMillis) {
+        // No stack trace: rejections happen while a target is failing and carry no useful call site
+        super("Circuit breaker '" + breakerName + "' is open; calls fail fast for another "
+                + retryAfterMillis + " ms", null, false, false);
+        this.breakerName = breakerName;
+    }
+
+    public String getBreakerName() {
+        return breakerName;
+    }
+}
@@ -0,0 +1,140 @@
+package com.fdd.core.execution;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Point in time by which an invocation must finish.
+ * The current deadline is held per thread, so nested local calls inherit their caller's
+ * budget and remote calls send what is left of it in the X-FDD-Deadline-Ms header.
+ * Enforcement is cooperative: work is not interrupted, but no new invocation, queue wait
+ * or remote call starts once the budget is spent.
+ */
+public final class Deadline {
+
+    /** Remaining budget in milliseconds, relative so caller and callee clocks need not agree */
+    public static final String HEADER = "X-FDD-Deadline-Ms";
+
+    private static final ThreadLocal<Deadline> currentDeadline = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(Duration timeout) {
+        return afterNanos(timeout.toNanos());
+    }
+
+    public static Deadline afterMillis(long millis) {
+        return afterNanos(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    public static Deadline afterNanos(long nanos) {
+        return new Deadline(System.nanoTime() + nanos);
+    }
+
+    /**
+     * The deadline of the invocation running on this thread, or null when unbounded
+     */
+    public static Deadline current() {
+        return currentDeadline.get();
+    }
+
+    /**
+     * The earlier of two deadlines, either of which may be null
+     */
+    public static Deadline earliest(Deadline a, Deadline b) {
+        if (a == null) {
+            return b;
+        }
+        if (b == null) {
+            return a;
+        }
+        return a.deadlineNanos - b.deadlineNanos <= 0 ? a : b;
+    }
+
+    /**
+     * Run a task with the given deadline installed as the current one
+     */
+    public static <T> T callWithin(Deadline deadline, Supplier<T> task) {
+        Deadline previous = currentDeadline.get();
+        if (deadline == previous) {
+            return task.get();
+        }
+        currentDeadline.set(deadline);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                currentDeadline.set(previous);
+            } else {
+                currentDeadline.remove();
+            }
+        }
+    }
+
+    /**
+     * Capture the caller's deadline so a task handed to another thread runs with it
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        Deadline captured = currentDeadline.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> callWithin(captured, task);
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public long remainingMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(remainingNanos());
+    }
+
+    public Duration remaining() {
+        return Duration.ofNanos(Math.max(0, remainingNanos()));
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    /**
+     * Fail fast if the budget is already spent
+     * @throws DeadlineExceededException when the deadline has passed
+     */
+    public void check(String functionName) {
+        if (isExpired()) {
+            throw new DeadlineExceededException(functionName);
+        }
+    }
+
+    /**
+     * Complete the future with DeadlineExceededException if it has not finished in time
+     */
+    public <T> CompletableFuture<T> bound(CompletableFuture<T> future, String functionName) {
+        return future.orTimeout(Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS)
+                .exceptionally(failure -> {
+                    Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                            ? failure.getCause() : failure;
+                    if (cause instanceof TimeoutException) {
+                        future.cancel(false);
+                        throw new DeadlineExceededException(functionName);
+                    }
+                    throw failure instanceof CompletionException
+                            ? (CompletionException) failure : new CompletionException(failure);
+                });
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{remaining=" + remainingMillis() + "ms}";
+    }
+}
@@ -0,0 +1,19 @@
+package com.fdd.core.execution;
+
+/**
+ * Thrown when an invocation's deadline passes before it could start or finish.
+ * Surfaced as 504 Gateway Timeout by the invocation endpoints.
+ */
+public class DeadlineExceededException extends RuntimeException {
+    private final String functionName;
+
+    public DeadlineExceededException(String functionName) {
+        // No stack trace: raised under overload, the call site adds nothing
+        super("Deadline exceeded for function '" + functionName + "'", null, false, false);
+        this.functionName = functionName;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+}
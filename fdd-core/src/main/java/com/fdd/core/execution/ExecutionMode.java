@@ -0,0 +1,39 @@
+package com.fdd.core.execution;
+
+/**
+ * How function invocations are scheduled (fdd.function.execution.mode)
+ */
+public enum ExecutionMode {
+
+    /** Bounded pool of platform threads */
+    PLATFORM("platform"),
+
+    /** One virtual thread per invocation (requires Java 21+) */
+    VIRTUAL_THREADS("virtual-threads");
+
+    private final String propertyValue;
+
+    ExecutionMode(String propertyValue) {
+        this.propertyValue = propertyValue;
+    }
+
+    public String getPropertyValue() {
+        return propertyValue;
+    }
+
+    /**
+     * Parse a property value, defaulting to PLATFORM when unset
+     */
+    public static ExecutionMode fromProperty(String value) {
+        if (value == null || value.isBlank()) {
+            return PLATFORM;
+        }
+        for (ExecutionMode mode : values()) {
+            if (mode.propertyValue.equalsIgnoreCase(value.trim()) || mode.name().equalsIgnoreCase(value.trim())) {
+                return mode;
+            }
+        }
+        throw new IllegalArgumentException("Unknown fdd.function.execution.mode: " + value
+                + " (expected 'platform' or 'virtual-threads')");
+    }
+}
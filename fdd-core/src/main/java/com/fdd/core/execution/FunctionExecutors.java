@@ -0,0 +1,130 @@
+package com.fdd.core.execution;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Executors used to run function invocations off the request thread
+ * (batch and streaming invocations fan out onto these, as do outbound proxy calls).
+ * Individual functions or security groups can be given their own executor so a slow
+ * function cannot starve the rest; everything else shares the default invocation executor.
+ */
+public class FunctionExecutors implements AutoCloseable {
+    private static final Logger logger = LoggerFactory.getLogger(FunctionExecutors.class);
+
+    private final ExecutionMode mode;
+    private final ExecutorService invocationExecutor;
+    private final Map<String, Executor> functionExecutors = new ConcurrentHashMap<>();
+    private final Map<String, Executor> groupExecutors = new ConcurrentHashMap<>();
+    private final List<ExecutorService> ownedExecutors = new CopyOnWriteArrayList<>();
+    private final int parallelism;
+
+    public FunctionExecutors(int parallelism) {
+        this(ExecutionMode.PLATFORM, parallelism);
+    }
+
+    public FunctionExecutors(ExecutionMode requestedMode, int parallelism) {
+        if (requestedMode == ExecutionMode.VIRTUAL_THREADS && !VirtualThreads.isSupported()) {
+            logger.warn("fdd.function.execution.mode=virtual-threads requires Java 21+, running {} - falling back to platform threads",
+                    Runtime.version());
+            requestedMode = ExecutionMode.PLATFORM;
+        }
+        this.mode = requestedMode;
+        this.parallelism = parallelism;
+        this.invocationExecutor = createExecutor(parallelism);
+    }
+
+    /**
+     * Executor for fanned-out function invocations
+     */
+    public Executor getInvocationExecutor() {
+        return invocationExecutor;
+    }
+
+    /**
+     * Resolve the executor for a function: its own executor, then its security group's, then the default
+     */
+    public Executor executorFor(String componentName, String securityGroup) {
+        Executor executor = componentName != null ? functionExecutors.get(componentName) : null;
+        if (executor == null && securityGroup != null) {
+            executor = groupExecutors.get(securityGroup);
+        }
+        return executor != null ? executor : invocationExecutor;
+    }
+
+    /**
+     * Give a function its own executor (not shut down by this class)
+     */
+    public void registerFunctionExecutor(String componentName, Executor executor) {
+        functionExecutors.put(componentName, executor);
+        logger.debug("Registered executor for function: {}", componentName);
+    }
+
+    /**
+     * Give every function in a security group a shared executor (not shut down by this class)
+     */
+    public void registerGroupExecutor(String securityGroup, Executor executor) {
+        groupExecutors.put(securityGroup, executor);
+        logger.debug("Registered executor for security group: {}", securityGroup);
+    }
+
+    /**
+     * Create a dedicated executor for a function in the current mode, owned and closed by this class
+     */
+    public void configureFunction(String componentName, int parallelism) {
+        registerFunctionExecutor(componentName, ownedExecutor(parallelism));
+    }
+
+    /**
+     * Create a dedicated executor for a security group in the current mode, owned and closed by this class
+     */
+    public void configureGroup(String securityGroup, int parallelism) {
+        registerGroupExecutor(securityGroup, ownedExecutor(parallelism));
+    }
+
+    /**
+     * The effective mode (virtual-threads falls back to platform on older runtimes)
+     */
+    public ExecutionMode getMode() {
+        return mode;
+    }
+
+    public boolean isVirtual() {
+        return mode == ExecutionMode.VIRTUAL_THREADS;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Override
+    public void close() {
+        invocationExecutor.shutdown();
+        ownedExecutors.forEach(ExecutorService::shutdown);
+    }
+
+    private ExecutorService ownedExecutor(int parallelism) {
+        ExecutorService executor = createExecutor(parallelism);
+        ownedExecutors.add(executor);
+        return executor;
+    }
+
+    private ExecutorService createExecutor(int parallelism) {
+        if (mode == ExecutionMode.VIRTUAL_THREADS) {
+            // Virtual threads are cheap to block, so each invocation gets its own; no pool to size
+            logger.debug("Created virtual-thread invocation executor");
+            return VirtualThreads.newVirtualThreadPerTaskExecutor();
+        }
+        // FIFO work-stealing pool bounded to the configured parallelism
+        logger.debug("Created invocation executor with parallelism {}", parallelism);
+        return new ForkJoinPool(parallelism, ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+    }
+}
@@ -0,0 +1,108 @@
+package com.fdd.core.execution;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs invocations concurrently while emitting their outcomes in submission order.
+ * At most maxInFlight invocations are outstanding; submitting beyond that blocks the
+ * caller until the oldest one completes and has been emitted, which gives the producer
+ * natural backpressure and keeps memory bounded regardless of input size.
+ * Not thread-safe: a window is driven by a single producer thread.
+ */
+public final class OrderedInvocationWindow {
+
+    /**
+     * Receives each outcome in submission order; exactly one of result/failure is meaningful
+     */
+    @FunctionalInterface
+    public interface Sink {
+        void accept(long index, Object result, Throwable failure) throws IOException;
+    }
+
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Sink sink;
+    private final ArrayDeque<CompletableFuture<Object>> inFlight;
+    private long nextIndex;
+
+    public OrderedInvocationWindow(Executor executor, int maxInFlight, Sink sink) {
+        if (maxInFlight < 1) {
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        }
+        this.executor = executor;
+        this.maxInFlight = maxInFlight;
+        this.sink = sink;
+        this.inFlight = new ArrayDeque<>(Math.min(maxInFlight, 1024));
+    }
+
+    /**
+     * Submit an invocation, first emitting the oldest outcome if the window is full
+     */
+    public void submit(Supplier<Object> invocation) throws IOException {
+        while (inFlight.size() >= maxInFlight) {
+            emitHead();
+        }
+        inFlight.addLast(CompletableFuture.supplyAsync(invocation, executor));
+    }
+
+    /**
+     * Record an already-failed entry (e.g. an input that could not be parsed) in order
+     */
+    public void fail(Throwable failure) throws IOException {
+        while (inFlight.size() >= maxInFlight) {
+            emitHead();
+        }
+        inFlight.addLast(CompletableFuture.failedFuture(failure));
+    }
+
+    /**
+     * Wait for and emit every outstanding outcome
+     */
+    public void drain() throws IOException {
+        while (!inFlight.isEmpty()) {
+            emitHead();
+        }
+    }
+
+    /**
+     * Abandon outstanding invocations (e.g. when the client went away)
+     */
+    public void cancel() {
+        CompletableFuture<Object> future;
+        while ((future = inFlight.pollFirst()) != null) {
+            future.cancel(false);
+        }
+    }
+
+    /**
+     * Number of outcomes emitted so far
+     */
+    public long emitted() {
+        return nextIndex;
+    }
+
+    private void emitHead() throws IOException {
+        CompletableFuture<Object> head = inFlight.pollFirst();
+        Object result = null;
+        Throwable failure = null;
+        try {
+            result = head.join();
+        } catch (CompletionException e) {
+            failure = e.getCause() != null ? e.getCause() : e;
+        } catch (CancellationException e) {
+            failure = e;
+        }
+        try {
+            sink.accept(nextIndex++, result, failure);
+        } catch (IOException | RuntimeException e) {
+            cancel();
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.fdd.core.execution;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Cap on retries shared by all remote calls of a process.
+ * Over a sliding window, retries may not exceed ratio times the requests made plus a small
+ * reserve of minRetriesPerSecond, so while a target is failing retries add at most that fraction
+ * of traffic instead of multiplying it by the maximum number of attempts.
+ */
+public final class RetryBudget {
+
+    private static final int WINDOW_SECONDS = 10;
+    private static final long SECOND_NANOS = 1_000_000_000L;
+
+    private final double ratio;
+    private final int minRetriesPerSecond;
+    private final LongSupplier nanoClock;
+
+    // One bucket per second of the window, indexed by second modulo the window
+    private final long[] requestBuckets = new long[WINDOW_SECONDS];
+    private final long[] retryBuckets = new long[WINDOW_SECONDS];
+    private long currentSecond;
+    private long windowRequests;
+    private long windowRetries;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder exhausted = new LongAdder();
+
+    public RetryBudget(double ratio, int minRetriesPerSecond) {
+        this(ratio, minRetriesPerSecond, System::nanoTime);
+    }
+
+    RetryBudget(double ratio, int minRetriesPerSecond, LongSupplier nanoClock) {
+        if (ratio < 0 || minRetriesPerSecond < 0) {
+            throw new IllegalArgumentException("Retry budget ratio and min-retries-per-second must not be negative");
+        }
+        this.ratio = ratio;
+        this.minRetriesPerSecond = minRetriesPerSecond;
+        this.nanoClock = nanoClock;
+        this.currentSecond = nanoClock.getAsLong() / SECOND_NANOS;
+    }
+
+    /**
+     * Count a first attempt; each one earns ratio of a retry
+     */
+    public synchronized void onRequest() {
+        advance();
+        requestBuckets[(int) (currentSecond % WINDOW_SECONDS)]++;
+        windowRequests++;
+        requests.increment();
+    }
+
+    /**
+     * Take budget for one retry
+     * @return false when the budget is spent and the call should fail instead of retrying
+     */
+    public synchronized boolean tryAcquire() {
+        advance();
+        if (windowRetries + 1 > ratio * windowRequests + (long) minRetriesPerSecond * WINDOW_SECONDS) {
+            exhausted.increment();
+            return false;
+        }
+        retryBuckets[(int) (currentSecond % WINDOW_SECONDS)]++;
+        windowRetries++;
+        retries.increment();
+        return true;
+    }
+
+    private void advance() {
+        long second = nanoClock.getAsLong() / SECOND_NANOS;
+        long steps = Math.min(second - currentSecond, WINDOW_SECONDS);
+        for (long i = 1; i <= steps; i++) {
+            int slot = (int) ((currentSecond + i) % WINDOW_SECONDS);
+            windowRequests -= requestBuckets[slot];
+            windowRetries -= retryBuckets[slot];
+            requestBuckets[slot] = 0;
+            retryBuckets[slot] = 0;
+        }
+        currentSecond = Math.max(currentSecond, second);
+    }
+
+    public double getRatio() { return ratio; }
+
+    public int getMinRetriesPerSecond() { return minRetriesPerSecond; }
+
+    public long getRequestCount() { return requests.sum(); }
+
+    public long getRetryCount() { return retries.sum(); }
+
+    /**
+     * Retries refused because the budget was spent
+     */
+    public long getExhaustedCount() { return exhausted.sum(); }
+}
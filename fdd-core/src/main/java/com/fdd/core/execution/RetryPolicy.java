@@ -0,0 +1,184 @@
+package com.fdd.core.execution;
+
+import com.fdd.core.registry.FunctionMetadata;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * When and how soon a failed remote call is tried again.
+ * Responses with a retryable status and I/O failures (connection refused or reset, per-attempt
+ * timeouts) are retried up to maxAttempts in total, waiting an exponential backoff with full jitter
+ * between attempts: a random delay between zero and initialBackoff * multiplier^(attempt - 1),
+ * capped at maxBackoff. Callers also check the retry budget and their deadline before each retry.
+ */
+public final class RetryPolicy {
+
+    public static final List<Integer> DEFAULT_RETRY_ON = List.of(429, 502, 503);
+    public static final Duration DEFAULT_INITIAL_BACKOFF = Duration.ofMillis(50);
+    public static final Duration DEFAULT_MAX_BACKOFF = Duration.ofSeconds(1);
+    public static final double DEFAULT_MULTIPLIER = 2.0;
+
+    // Root of the per-thread jitter generators; reseedJitter() replaces it
+    private static volatile SplittableRandom jitterRoot = new SplittableRandom();
+    private static final ThreadLocal<Jitter> jitter = new ThreadLocal<>();
+    private static final LongAdder jitterReseeds = new LongAdder();
+
+    private final String name;
+    private final int maxAttempts;
+    private final Set<Integer> retryOn;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder recovered = new LongAdder();
+    private final LongAdder attemptsExhausted = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+    private final LongAdder deadlineStopped = new LongAdder();
+
+    public RetryPolicy(String name, int maxAttempts, Collection<Integer> retryOn,
+                       Duration initialBackoff, Duration maxBackoff, double multiplier) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("max-attempts must be at least 1 for retry policy " + name);
+        }
+        if (multiplier < 1) {
+            throw new IllegalArgumentException("multiplier must be at least 1 for retry policy " + name);
+        }
+        this.name = name;
+        this.maxAttempts = maxAttempts;
+        this.retryOn = Set.copyOf(retryOn != null ? retryOn : DEFAULT_RETRY_ON);
+        this.initialBackoffNanos = (initialBackoff != null ? initialBackoff : DEFAULT_INITIAL_BACKOFF).toNanos();
+        this.maxBackoffNanos = Math.max(initialBackoffNanos,
+                (maxBackoff != null ? maxBackoff : DEFAULT_MAX_BACKOFF).toNanos());
+        this.multiplier = multiplier;
+    }
+
+    /**
+     * Policy for a function as declared in the retry section of serverless.yml
+     */
+    public static RetryPolicy from(String name, FunctionMetadata.RetryMetadata retry) {
+        return new RetryPolicy(name, retry.getMaxAttempts() != null ? retry.getMaxAttempts() : 3,
+                retry.getRetryOn(), retry.getInitialBackoffDuration(), retry.getMaxBackoffDuration(),
+                retry.getMultiplier() != null ? retry.getMultiplier() : DEFAULT_MULTIPLIER);
+    }
+
+    /**
+     * Whether another attempt may follow the given one (1-based)
+     */
+    public boolean hasAttemptsAfter(int attempt) {
+        return attempt < maxAttempts;
+    }
+
+    public boolean isRetryableStatus(int status) {
+        return retryOn.contains(status);
+    }
+
+    /**
+     * Whether a failed attempt is worth retrying: I/O failures are, a deadline or an open breaker is not
+     */
+    public boolean isRetryable(Throwable failure) {
+        Throwable cause = failure instanceof CompletionException && failure.getCause() != null
+                ? failure.getCause() : failure;
+        return cause instanceof IOException;
+    }
+
+    /**
+     * Delay before the attempt following the given one (1-based), with full jitter
+     */
+    public long backoffNanos(int attempt) {
+        double ceiling = initialBackoffNanos * Math.pow(multiplier, Math.max(0, attempt - 1));
+        long bound = (long) Math.min(maxBackoffNanos, ceiling);
+        return bound > 0 ? jitter().nextLong(bound + 1) : 0;
+    }
+
+    /**
+     * Seed the backoff jitter afresh. JVMs restored from one snapshot (SnapStart, CRaC) would otherwise
+     * share their generators' state and back off in lockstep, retrying against a target all at once.
+     */
+    public static void reseedJitter() {
+        jitterRoot = new SplittableRandom(new SecureRandom().nextLong());
+        jitterReseeds.increment();
+    }
+
+    /**
+     * Times the jitter has been reseeded in this JVM
+     */
+    public static long getJitterReseedCount() { return jitterReseeds.sum(); }
+
+    private static SplittableRandom jitter() {
+        SplittableRandom root = jitterRoot;
+        Jitter current = jitter.get();
+        if (current == null || current.root != root) {
+            synchronized (RetryPolicy.class) {
+                current = new Jitter(root, root.split());
+            }
+            jitter.set(current);
+        }
+        return current.random;
+    }
+
+    private static final class Jitter {
+        private final SplittableRandom root;
+        private final SplittableRandom random;
+
+        Jitter(SplittableRandom root, SplittableRandom random) {
+            this.root = root;
+            this.random = random;
+        }
+    }
+
+    public void onRetry() { retries.increment(); }
+
+    /**
+     * A call succeeded after at least one retry
+     */
+    public void onRecovered() { recovered.increment(); }
+
+    public void onAttemptsExhausted() { attemptsExhausted.increment(); }
+
+    public void onBudgetExhausted() { budgetExhausted.increment(); }
+
+    /**
+     * A retry was dropped because the caller's deadline would pass during the backoff
+     */
+    public void onDeadlineStopped() { deadlineStopped.increment(); }
+
+    public String getName() { return name; }
+
+    public int getMaxAttempts() { return maxAttempts; }
+
+    public Set<Integer> getRetryOn() { return retryOn; }
+
+    public Duration getInitialBackoff() { return Duration.ofNanos(initialBackoffNanos); }
+
+    public Duration getMaxBackoff() { return Duration.ofNanos(maxBackoffNanos); }
+
+    public double getMultiplier() { return multiplier; }
+
+    public long getRetryCount() { return retries.sum(); }
+
+    public long getRecoveredCount() { return recovered.sum(); }
+
+    public long getAttemptsExhaustedCount() { return attemptsExhausted.sum(); }
+
+    public long getBudgetExhaustedCount() { return budgetExhausted.sum(); }
+
+    public long getDeadlineStoppedCount() { return deadlineStopped.sum(); }
+
+    @Override
+    public String toString() {
+        return "RetryPolicy{" +
+                "name='" + name + '\'' +
+                ", maxAttempts=" + maxAttempts +
+                ", retryOn=" + retryOn +
+                '}';
+    }
+}
@@ -0,0 +1,310 @@
+package com.fdd.core.flow;
+
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.security.FunctionSecurityContext;
+import com.fdd.core.security.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Composition of function steps, running independent steps at the same time.
+ * A step starts as soon as it is created: steps handed to parallel run concurrently, dependent steps
+ * are chained with thenApply and thenCompose. Every step and continuation runs with the security
+ * context and deadline of the code that started the flow. The first failure fails the flow and
+ * cancels the steps still running, so queued steps never start and remote calls are abandoned.
+ * Once the deadline has passed no step starts, and join waits no longer than the deadline.
+ *
+ * <pre>
+ * OrderResult result = FddFlow.parallel(
+ *         FddFlow.call(userValidator, user).require(ValidationResult::isValid, v -> "User validation failed"),
+ *         FddFlow.call(inventoryChecker, inventoryRequest).require(InventoryResult::isAvailable, i -> "Out of stock"),
+ *         (validation, inventory) -> paymentRequest)
+ *     .thenCompose(payment -> FddFlow.call(paymentProcessor, payment))
+ *     .thenApply(payment -> OrderResult.success(orderId, payment.getTransactionId()))
+ *     .join();
+ * </pre>
+ */
+public final class FddFlow<T> {
+
+    // Flows have no function name of their own; used in DeadlineExceededException
+    private static final String FLOW_NAME = "flow";
+
+    private final CompletableFuture<T> future;
+    private final Scope scope;
+
+    private FddFlow(CompletableFuture<T> future, Scope scope) {
+        this.future = future;
+        this.scope = scope;
+    }
+
+    /**
+     * Apply a function to an input on the common pool
+     */
+    public static <I, O> FddFlow<O> call(Function<? super I, ? extends O> function, I input) {
+        return call(function, input, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Apply a function to an input on the given executor
+     */
+    public static <I, O> FddFlow<O> call(Function<? super I, ? extends O> function, I input, Executor executor) {
+        Scope scope = Scope.capture();
+        CompletableFuture<O> future = new CompletableFuture<>();
+        if (scope.isExpired()) {
+            future.completeExceptionally(new DeadlineExceededException(FLOW_NAME));
+            return new FddFlow<>(future, scope);
+        }
+        try {
+            executor.execute(() -> {
+                if (future.isDone()) {
+                    return; // cancelled before it started
+                }
+                if (scope.isExpired()) {
+                    future.completeExceptionally(new DeadlineExceededException(FLOW_NAME));
+                    return;
+                }
+                try {
+                    future.complete(scope.call(() -> function.apply(input)));
+                } catch (Throwable e) {
+                    future.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            future.completeExceptionally(e);
+        }
+        return new FddFlow<>(future, scope);
+    }
+
+    /**
+     * Start an asynchronous step, e.g. registry.invokeAsync, with the flow's context installed.
+     * Cancelling the flow cancels the returned future.
+     */
+    public static <O> FddFlow<O> async(Supplier<? extends CompletionStage<O>> step) {
+        Scope scope = Scope.capture();
+        if (scope.isExpired()) {
+            return new FddFlow<>(CompletableFuture.failedFuture(new DeadlineExceededException(FLOW_NAME)), scope);
+        }
+        CompletableFuture<O> future;
+        try {
+            future = scope.call(step).toCompletableFuture();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return new FddFlow<>(future, scope);
+    }
+
+    /**
+     * Run two steps concurrently and combine their results; fails as soon as either fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <A, B, R> FddFlow<R> parallel(FddFlow<A> first, FddFlow<B> second,
+                                                BiFunction<? super A, ? super B, ? extends R> combine) {
+        return all(Arrays.asList(first, second))
+                .thenApply(results -> combine.apply((A) results.get(0), (B) results.get(1)));
+    }
+
+    /**
+     * Run steps concurrently and collect their results in order; fails as soon as any fails
+     */
+    @SuppressWarnings("unchecked")
+    public static <O> FddFlow<List<O>> parallel(List<FddFlow<? extends O>> steps) {
+        return (FddFlow<List<O>>) (FddFlow<?>) all(new ArrayList<>(steps));
+    }
+
+    private static FddFlow<List<Object>> all(List<FddFlow<?>> flows) {
+        List<CompletableFuture<?>> steps = new ArrayList<>(flows.size());
+        flows.forEach(flow -> steps.add(flow.future));
+        CompletableFuture<List<Object>> result = new CompletableFuture<>();
+        Object[] results = new Object[steps.size()];
+        AtomicInteger remaining = new AtomicInteger(steps.size());
+        if (steps.isEmpty()) {
+            result.complete(List.of());
+        }
+        for (int i = 0; i < steps.size(); i++) {
+            int index = i;
+            CompletableFuture<?> step = steps.get(i);
+            cancelWith(result, step);
+            step.whenComplete((value, failure) -> {
+                if (failure != null) {
+                    if (result.completeExceptionally(unwrap(failure))) {
+                        steps.forEach(sibling -> sibling.cancel(true));
+                    }
+                } else {
+                    results[index] = value;
+                    if (remaining.decrementAndGet() == 0) {
+                        result.complete(Arrays.asList(results));
+                    }
+                }
+            });
+        }
+        return new FddFlow<>(result, Scope.capture());
+    }
+
+    /**
+     * Transform the result of this step
+     */
+    public <R> FddFlow<R> thenApply(Function<? super T, ? extends R> function) {
+        CompletableFuture<R> next = future.thenApply(value -> scope.call(() -> function.apply(value)));
+        cancelWith(next, future);
+        return new FddFlow<>(next, scope);
+    }
+
+    /**
+     * Start a step that needs the result of this one
+     */
+    public <R> FddFlow<R> thenCompose(Function<? super T, FddFlow<R>> step) {
+        CompletableFuture<R> next = new CompletableFuture<>();
+        cancelWith(next, future);
+        future.whenComplete((value, failure) -> {
+            if (failure != null) {
+                next.completeExceptionally(unwrap(failure));
+                return;
+            }
+            if (next.isDone()) {
+                return;
+            }
+            CompletableFuture<R> inner;
+            try {
+                inner = scope.call(() -> step.apply(value)).future;
+            } catch (Throwable e) {
+                next.completeExceptionally(e);
+                return;
+            }
+            cancelWith(next, inner);
+            inner.whenComplete((result, innerFailure) -> {
+                if (innerFailure != null) {
+                    next.completeExceptionally(unwrap(innerFailure));
+                } else {
+                    next.complete(result);
+                }
+            });
+        });
+        return new FddFlow<>(next, scope);
+    }
+
+    /**
+     * Fail the flow with FlowStepFailedException when the result does not satisfy the condition
+     */
+    public FddFlow<T> require(Predicate<? super T> condition, Function<? super T, String> message) {
+        return thenApply(value -> {
+            if (!condition.test(value)) {
+                throw new FlowStepFailedException(message.apply(value));
+            }
+            return value;
+        });
+    }
+
+    /**
+     * Replace a failure of this step with a value computed from it; cancellation is not recovered
+     */
+    public FddFlow<T> recover(Function<Throwable, ? extends T> handler) {
+        CompletableFuture<T> next = future.handle((value, failure) -> {
+            if (failure == null) {
+                return value;
+            }
+            Throwable cause = unwrap(failure);
+            if (cause instanceof CancellationException) {
+                throw (CancellationException) cause;
+            }
+            return scope.call(() -> handler.apply(cause));
+        });
+        cancelWith(next, future);
+        return new FddFlow<>(next, scope);
+    }
+
+    /**
+     * Wait for the result, at most until the deadline of the code that started the flow
+     * @throws FlowStepFailedException when a require condition failed
+     * @throws DeadlineExceededException when the deadline passed first
+     */
+    public T join() {
+        try {
+            return toFuture().join();
+        } catch (CompletionException e) {
+            Throwable cause = unwrap(e);
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The result as a future, failing with DeadlineExceededException once the deadline passes
+     */
+    public CompletableFuture<T> toFuture() {
+        if (scope.deadline == null) {
+            return future;
+        }
+        // Bound a copy: a timeout then cancels the steps instead of just completing the result
+        CompletableFuture<T> bounded = scope.deadline.bound(future.copy(), FLOW_NAME);
+        bounded.whenComplete((value, failure) -> {
+            if (failure != null) {
+                future.cancel(true);
+            }
+        });
+        return bounded;
+    }
+
+    /**
+     * Cancel the steps of this flow that have not finished
+     */
+    public boolean cancel() {
+        return future.cancel(true);
+    }
+
+    private static void cancelWith(CompletableFuture<?> downstream, CompletableFuture<?> upstream) {
+        downstream.whenComplete((value, failure) -> {
+            if (downstream.isCancelled()) {
+                upstream.cancel(true);
+            }
+        });
+    }
+
+    private static Throwable unwrap(Throwable failure) {
+        return failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+    }
+
+    /**
+     * Security context and deadline of the code that started a flow
+     */
+    private static final class Scope {
+        private final FunctionSecurityContext securityContext;
+        private final Deadline deadline;
+
+        private Scope(FunctionSecurityContext securityContext, Deadline deadline) {
+            this.securityContext = securityContext;
+            this.deadline = deadline;
+        }
+
+        static Scope capture() {
+            return new Scope(SecurityContextHolder.getContextIfPresent(), Deadline.current());
+        }
+
+        boolean isExpired() {
+            return deadline != null && deadline.isExpired();
+        }
+
+        <R> R call(Supplier<R> task) {
+            return SecurityContextHolder.callWithin(securityContext, () -> Deadline.callWithin(deadline, task));
+        }
+    }
+}
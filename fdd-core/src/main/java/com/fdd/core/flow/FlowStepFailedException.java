@@ -0,0 +1,13 @@
+package com.fdd.core.flow;
+
+/**
+ * Thrown when a step of an FddFlow returns a result its require condition rejects
+ * (e.g. a user that is not valid), failing the flow and cancelling its other steps.
+ */
+public class FlowStepFailedException extends RuntimeException {
+
+    public FlowStepFailedException(String message) {
+        // No stack trace: a business outcome, not a programming error
+        super(message, null, false, false);
+    }
+}
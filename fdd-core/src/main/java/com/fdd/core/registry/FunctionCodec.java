@@ -0,0 +1,152 @@
+package com.fdd.core.registry;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Jackson reader/writer pair resolved once per function from its declared input/output types.
+ * The JSON codec also carries variants for the binary wire formats, derived from the same
+ * readers and writers so they share their resolved (de)serializers.
+ */
+public final class FunctionCodec {
+
+    private final WireFormat format;
+    private final Map<WireFormat, FunctionCodec> variants;
+    private final ObjectMapper objectMapper;
+    private final Class<?> inputType;
+    private final ObjectReader inputReader;
+    private final Class<?> outputType;
+    private final ObjectWriter outputWriter;
+    private final ObjectWriter genericWriter;
+
+    FunctionCodec(ObjectMapper objectMapper, Class<?> inputType, Class<?> outputType) {
+        this.objectMapper = objectMapper;
+        this.inputType = inputType;
+        this.inputReader = objectMapper.readerFor(inputType != null ? inputType : Object.class);
+        this.outputType = outputType;
+        // Callers own the target stream, so the writers never close it and only flush when asked
+        this.genericWriter = configure(objectMapper.writer());
+        this.outputWriter = outputType != null ? configure(objectMapper.writerFor(outputType)) : genericWriter;
+        this.format = WireFormat.JSON;
+
+        this.variants = new EnumMap<>(WireFormat.class);
+        variants.put(WireFormat.JSON, this);
+        for (WireFormat binary : WireFormat.values()) {
+            if (binary.isBinary()) {
+                variants.put(binary, new FunctionCodec(this, binary));
+            }
+        }
+    }
+
+    private FunctionCodec(FunctionCodec json, WireFormat format) {
+        this.format = format;
+        this.variants = json.variants;
+        this.objectMapper = json.objectMapper;
+        this.inputType = json.inputType;
+        this.inputReader = format.reader(json.inputReader);
+        this.outputType = json.outputType;
+        this.genericWriter = format.writer(json.genericWriter);
+        this.outputWriter = format.writer(json.outputWriter);
+    }
+
+    private static ObjectWriter configure(ObjectWriter writer) {
+        return writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    /**
+     * Read a raw request body straight into the declared input type.
+     * Falls back to a generic tree when no input type is known; returns null for an empty body.
+     */
+    public Object readInput(InputStream body) throws IOException {
+        try (JsonParser parser = inputReader.createParser(body)) {
+            if (parser.nextToken() == null) {
+                return null;
+            }
+            return inputReader.readValue(parser);
+        }
+    }
+
+    /**
+     * Read one value from a slice of bytes (e.g. a single NDJSON line)
+     */
+    public Object readInput(byte[] data, int offset, int length) throws IOException {
+        return inputReader.readValue(data, offset, length);
+    }
+
+    /**
+     * Read one value (e.g. an array element) from a parser positioned on its first token
+     */
+    public Object readInput(JsonParser parser) throws IOException {
+        return inputReader.readValue(parser);
+    }
+
+    /**
+     * Convert an already-parsed input (e.g. a LinkedHashMap tree) to the declared input type
+     */
+    public Object convertInput(Object input) {
+        if (input == null || inputType == null || inputType.isInstance(input)) {
+            return input;
+        }
+        try {
+            return objectMapper.convertValue(input, inputType);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Input type conversion failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Write a function result to the given stream using the writer resolved for the output type.
+     * Results that do not match the declared output type use the generic writer.
+     */
+    public void writeOutput(Object result, OutputStream out) throws IOException {
+        ObjectWriter writer = outputType != null && outputType.isInstance(result) ? outputWriter : genericWriter;
+        writer.writeValue(out, result);
+    }
+
+    /**
+     * Encode a function result to bytes (e.g. to decide whether it is worth compressing)
+     */
+    public byte[] writeOutputAsBytes(Object result) throws IOException {
+        ObjectWriter writer = outputType != null && outputType.isInstance(result) ? outputWriter : genericWriter;
+        return writer.writeValueAsBytes(result);
+    }
+
+    /**
+     * Write a function result as the next value of an open generator
+     */
+    public void writeOutput(Object result, JsonGenerator generator) throws IOException {
+        ObjectWriter writer = outputType != null && outputType.isInstance(result) ? outputWriter : genericWriter;
+        writer.writeValue(generator, result);
+    }
+
+    /**
+     * Create a generator over a caller-owned stream for multi-value responses
+     */
+    public JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return genericWriter.createGenerator(out);
+    }
+
+    /**
+     * This codec reading and writing the given format
+     */
+    public FunctionCodec forFormat(WireFormat format) {
+        return format == this.format ? this : variants.get(format);
+    }
+
+    public WireFormat getFormat() { return format; }
+
+    public ObjectReader getInputReader() { return inputReader; }
+
+    public ObjectWriter getOutputWriter() { return outputWriter; }
+}
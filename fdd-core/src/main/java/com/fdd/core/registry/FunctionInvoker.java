@@ -0,0 +1,177 @@
+package com.fdd.core.registry;
+
+import com.fdd.core.cache.CacheKey;
+import com.fdd.core.cache.CachedFunction;
+import com.fdd.core.cache.FunctionCache;
+import com.fdd.core.cache.SingleFlight;
+import com.fdd.core.execution.Bulkhead;
+import com.fdd.core.execution.Deadline;
+
+import java.util.function.Function;
+
+/**
+ * Immutable dispatch entry for a registered function.
+ * Everything the invocation path needs is resolved once at registration time,
+ * so callers do a single registry lookup and go straight to execution.
+ */
+public final class FunctionInvoker {
+
+    private final String componentName;
+    private final Function<Object, Object> function;
+    // What runs on a cache miss: the function without its cache, which the invoker looks up itself
+    private final Function<Object, Object> compute;
+    private final FunctionCache cache;
+    private final FunctionMetadata metadata;
+    private final Class<?> inputType;
+    private final Class<?> outputType;
+    private final FunctionCodec codec;
+    private final Bulkhead bulkhead;
+    private final SingleFlight singleFlight;
+    private final long timeoutNanos;
+
+    @SuppressWarnings("unchecked")
+    FunctionInvoker(String componentName, Function<?, ?> function, FunctionMetadata metadata,
+                    FunctionCodec codec, Bulkhead bulkhead, SingleFlight singleFlight) {
+        this.componentName = componentName;
+        this.function = (Function<Object, Object>) function;
+        this.cache = function instanceof CachedFunction ? ((CachedFunction) function).getFunctionCache() : null;
+        this.compute = function instanceof CachedFunction ? ((CachedFunction) function).getDelegate() : this.function;
+        this.metadata = metadata;
+        this.inputType = metadata.getInputType();
+        this.outputType = metadata.getOutputType();
+        this.codec = codec;
+        this.bulkhead = bulkhead;
+        this.singleFlight = singleFlight;
+        FunctionMetadata.DeploymentMetadata deployment = metadata.getDeployment();
+        this.timeoutNanos = deployment != null && deployment.getTimeoutDuration() != null
+                ? deployment.getTimeoutDuration().toNanos() : 0L;
+    }
+
+    /**
+     * Execute the function with an input that is already of the declared input type.
+     * The function runs under the earlier of the caller's deadline and its own deployment timeout,
+     * which nested invocations inherit. A cached result is returned before coalescing and the bulkhead
+     * are involved, so hits never wait for a permit. With coalescing enabled, a call with the same input
+     * as one already running waits for that execution instead of starting another.
+     * @throws com.fdd.core.execution.BulkheadFullException when the function's bulkhead is saturated
+     * @throws com.fdd.core.execution.DeadlineExceededException when the budget is spent before it can start
+     */
+    public Object invoke(Object typedInput) {
+        Deadline deadline = deadlineFor(Deadline.current());
+        if (deadline != null) {
+            deadline.check(componentName);
+        }
+        CacheKey key = cacheKey(typedInput);
+        if (key != null) {
+            Object cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        if (singleFlight != null) {
+            return singleFlight.apply(typedInput, deadline, input -> store(key, invokeWithin(input, deadline)));
+        }
+        return store(key, invokeWithin(typedInput, deadline));
+    }
+
+    /**
+     * Execute without coalescing or a cache lookup, storing the result under the cache key when given;
+     * used for executions that missed the cache and that single-flight has already claimed
+     */
+    Object invokeDirect(Object typedInput, CacheKey key) {
+        Deadline deadline = deadlineFor(Deadline.current());
+        if (deadline != null) {
+            deadline.check(componentName);
+        }
+        return store(key, invokeWithin(typedInput, deadline));
+    }
+
+    /**
+     * Apply the function alone, without its cache, coalescing, bulkhead or deadline, e.g. to warm it up
+     * without leaving results or counts behind
+     */
+    public Object applyDirectly(Object typedInput) {
+        return compute.apply(typedInput);
+    }
+
+    /**
+     * The key the function's result for an input is cached under, or null when results are not cached
+     */
+    CacheKey cacheKey(Object typedInput) {
+        return cache != null ? cache.keyFor(typedInput) : null;
+    }
+
+    private Object store(CacheKey key, Object result) {
+        if (key != null) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    private Object invokeWithin(Object typedInput, Deadline deadline) {
+        return deadline == null ? execute(typedInput, null)
+                : Deadline.callWithin(deadline, () -> execute(typedInput, deadline));
+    }
+
+    /**
+     * The deadline this function runs under when called with the given caller deadline (either may be null)
+     */
+    public Deadline deadlineFor(Deadline callerDeadline) {
+        return timeoutNanos > 0 ? Deadline.earliest(callerDeadline, Deadline.afterNanos(timeoutNanos)) : callerDeadline;
+    }
+
+    private Object execute(Object typedInput, Deadline deadline) {
+        if (bulkhead == null) {
+            return compute.apply(typedInput);
+        }
+        bulkhead.acquire(deadline);
+        try {
+            return compute.apply(typedInput);
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    /**
+     * Convert an untyped input to the declared input type and execute the function
+     */
+    public Object convertAndInvoke(Object input) {
+        return invoke(codec.convertInput(input));
+    }
+
+    public String getComponentName() { return componentName; }
+
+    public Function<Object, Object> getFunction() { return function; }
+
+    public FunctionMetadata getMetadata() { return metadata; }
+
+    public Class<?> getInputType() { return inputType; }
+
+    public Class<?> getOutputType() { return outputType; }
+
+    public FunctionCodec getCodec() { return codec; }
+
+    /**
+     * Concurrency limit from the deployment block, or null when the function is unbounded
+     */
+    public Bulkhead getBulkhead() { return bulkhead; }
+
+    /**
+     * Result cache from the cache: section, or null when results are not memoized
+     */
+    public FunctionCache getCache() { return cache; }
+
+    /**
+     * Coalescing of identical concurrent invocations, or null when every call executes
+     */
+    public SingleFlight getSingleFlight() { return singleFlight; }
+
+    @Override
+    public String toString() {
+        return "FunctionInvoker{" +
+                "componentName='" + componentName + '\'' +
+                ", inputType=" + inputType +
+                ", outputType=" + outputType +
+                '}';
+    }
+}
@@ -1,6 +1,8 @@
 package com.fdd.core.registry;
 
+import java.time.Duration;
 import java.util.List;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -11,8 +13,13 @@ public class FunctionMetadata {
     private String component;
     private Class<?> inputType;
     private Class<?> outputType;
+    private String implementation;
     private SecurityMetadata security;
     private DeploymentMetadata deployment;
+    private CacheMetadata cache;
+    private CoalesceMetadata coalesce;
+    private RetryMetadata retry;
+    private List<Object> samples;
 
     public FunctionMetadata() {}
 
@@ -37,12 +44,33 @@ public class FunctionMetadata {
     public Class<?> getOutputType() { return outputType; }
     public void setOutputType(Class<?> outputType) { this.outputType = outputType; }
 
+    /**
+     * Class name of the Function implementation, so a deployment that has it on its classpath can run it in-process
+     */
+    public String getImplementation() { return implementation; }
+    public void setImplementation(String implementation) { this.implementation = implementation; }
+
     public SecurityMetadata getSecurity() { return security; }
     public void setSecurity(SecurityMetadata security) { this.security = security; }
 
     public DeploymentMetadata getDeployment() { return deployment; }
     public void setDeployment(DeploymentMetadata deployment) { this.deployment = deployment; }
 
+    public CacheMetadata getCache() { return cache; }
+    public void setCache(CacheMetadata cache) { this.cache = cache; }
+
+    public CoalesceMetadata getCoalesce() { return coalesce; }
+    public void setCoalesce(CoalesceMetadata coalesce) { this.coalesce = coalesce; }
+
+    public RetryMetadata getRetry() { return retry; }
+    public void setRetry(RetryMetadata retry) { this.retry = retry; }
+
+    /**
+     * Inputs run through the function to warm it before a snapshot; only side-effect free ones belong here
+     */
+    public List<Object> getSamples() { return samples; }
+    public void setSamples(List<Object> samples) { this.samples = samples; }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) return true;
@@ -97,6 +125,10 @@ public class FunctionMetadata {
         private String cloud;
         private String memory;
         private String timeout;
+        private Duration timeoutDuration;
+        private Integer maxConcurrency;
+        private Integer maxQueue;
+        private String bulkhead;
 
         public DeploymentMetadata() {}
 
@@ -107,6 +139,212 @@ public class FunctionMetadata {
         public void setMemory(String memory) { this.memory = memory; }
 
         public String getTimeout() { return timeout; }
-        public void setTimeout(String timeout) { this.timeout = timeout; }
+
+        /**
+         * Set the timeout as declared in serverless.yml ("500ms", "30s", "5m", "1h"; a bare number is seconds)
+         * @throws IllegalArgumentException if the value cannot be parsed
+         */
+        public void setTimeout(String timeout) {
+            this.timeoutDuration = parseDuration(timeout);
+            this.timeout = timeout;
+        }
+
+        /**
+         * The parsed timeout, or null when none is declared
+         */
+        public Duration getTimeoutDuration() { return timeoutDuration; }
+
+        public Integer getMaxConcurrency() { return maxConcurrency; }
+        public void setMaxConcurrency(Integer maxConcurrency) { this.maxConcurrency = maxConcurrency; }
+
+        public Integer getMaxQueue() { return maxQueue; }
+        public void setMaxQueue(Integer maxQueue) { this.maxQueue = maxQueue; }
+
+        /**
+         * Bulkhead scope: "function" (default) or "group" to share the limit across the security group
+         */
+        public String getBulkhead() { return bulkhead; }
+        public void setBulkhead(String bulkhead) { this.bulkhead = bulkhead; }
+
+        public boolean isGroupBulkhead() { return "group".equalsIgnoreCase(bulkhead); }
+    }
+
+    /**
+     * Result memoization configuration for a pure function
+     */
+    public static class CacheMetadata {
+        private String ttl;
+        private Duration ttlDuration;
+        private Integer maxEntries;
+        private String maxBytes;
+        private Long maxBytesValue;
+        private List<String> keyFields;
+
+        public CacheMetadata() {}
+
+        public String getTtl() { return ttl; }
+
+        /**
+         * @throws IllegalArgumentException if the value cannot be parsed
+         */
+        public void setTtl(String ttl) {
+            this.ttlDuration = parseDuration(ttl);
+            this.ttl = ttl;
+        }
+
+        public Duration getTtlDuration() { return ttlDuration; }
+
+        public Integer getMaxEntries() { return maxEntries; }
+        public void setMaxEntries(Integer maxEntries) { this.maxEntries = maxEntries; }
+
+        public String getMaxBytes() { return maxBytes; }
+
+        /**
+         * Set the byte budget ("512KB", "16MB", "1GB"; a bare number is bytes)
+         * @throws IllegalArgumentException if the value cannot be parsed
+         */
+        public void setMaxBytes(String maxBytes) {
+            this.maxBytesValue = parseBytes(maxBytes);
+            this.maxBytes = maxBytes;
+        }
+
+        public Long getMaxBytesValue() { return maxBytesValue; }
+
+        /**
+         * Input fields (dotted paths for nested ones) the cache key is built from; all fields when empty
+         */
+        public List<String> getKeyFields() { return keyFields; }
+        public void setKeyFields(List<String> keyFields) { this.keyFields = keyFields; }
+    }
+
+    /**
+     * Single-flight coalescing of concurrent invocations with equal inputs
+     */
+    public static class CoalesceMetadata {
+        private List<String> keyFields;
+
+        public CoalesceMetadata() {}
+
+        /**
+         * Input fields (dotted paths for nested ones) that identify equal invocations; all fields when empty
+         */
+        public List<String> getKeyFields() { return keyFields; }
+        public void setKeyFields(List<String> keyFields) { this.keyFields = keyFields; }
+    }
+
+    /**
+     * Retry policy for calls to a remote function
+     */
+    public static class RetryMetadata {
+        private Integer maxAttempts;
+        private List<Integer> retryOn;
+        private String initialBackoff;
+        private Duration initialBackoffDuration;
+        private String maxBackoff;
+        private Duration maxBackoffDuration;
+        private Double multiplier;
+
+        public RetryMetadata() {}
+
+        /**
+         * Attempts in total, the first one included
+         */
+        public Integer getMaxAttempts() { return maxAttempts; }
+        public void setMaxAttempts(Integer maxAttempts) { this.maxAttempts = maxAttempts; }
+
+        /**
+         * HTTP status codes worth retrying (default 429, 502, 503)
+         */
+        public List<Integer> getRetryOn() { return retryOn; }
+        public void setRetryOn(List<Integer> retryOn) { this.retryOn = retryOn; }
+
+        public String getInitialBackoff() { return initialBackoff; }
+
+        /**
+         * @throws IllegalArgumentException if the value cannot be parsed
+         */
+        public void setInitialBackoff(String initialBackoff) {
+            this.initialBackoffDuration = parseDuration(initialBackoff);
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getInitialBackoffDuration() { return initialBackoffDuration; }
+
+        public String getMaxBackoff() { return maxBackoff; }
+
+        /**
+         * @throws IllegalArgumentException if the value cannot be parsed
+         */
+        public void setMaxBackoff(String maxBackoff) {
+            this.maxBackoffDuration = parseDuration(maxBackoff);
+            this.maxBackoff = maxBackoff;
+        }
+
+        public Duration getMaxBackoffDuration() { return maxBackoffDuration; }
+
+        public Double getMultiplier() { return multiplier; }
+        public void setMultiplier(Double multiplier) { this.multiplier = multiplier; }
+    }
+
+    /**
+     * Parse a duration as written in serverless.yml ("500ms", "30s", "5m", "1h"; a bare number is seconds)
+     */
+    static Duration parseDuration(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim().toLowerCase(Locale.ROOT);
+        try {
+            if (text.endsWith("ms")) {
+                return Duration.ofMillis(Long.parseLong(text.substring(0, text.length() - 2).trim()));
+            }
+            char unit = text.charAt(text.length() - 1);
+            if (Character.isDigit(unit)) {
+                return Duration.ofSeconds(Long.parseLong(text));
+            }
+            long amount = Long.parseLong(text.substring(0, text.length() - 1).trim());
+            switch (unit) {
+                case 's': return Duration.ofSeconds(amount);
+                case 'm': return Duration.ofMinutes(amount);
+                case 'h': return Duration.ofHours(amount);
+                default: break;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid duration '" + value + "' (expected e.g. 500ms, 30s, 5m)");
+    }
+
+    /**
+     * Parse a size as written in serverless.yml ("512KB", "16MB", "1GB"; a bare number is bytes)
+     */
+    static Long parseBytes(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        String text = value.trim().toUpperCase(Locale.ROOT);
+        String number = text;
+        long multiplier = 1;
+        if (text.endsWith("KB")) {
+            number = text.substring(0, text.length() - 2);
+            multiplier = 1024L;
+        } else if (text.endsWith("MB")) {
+            number = text.substring(0, text.length() - 2);
+            multiplier = 1024L * 1024;
+        } else if (text.endsWith("GB")) {
+            number = text.substring(0, text.length() - 2);
+            multiplier = 1024L * 1024 * 1024;
+        } else if (text.endsWith("B")) {
+            number = text.substring(0, text.length() - 1);
+        }
+        try {
+            long amount = Long.parseLong(number.trim());
+            if (amount > 0) {
+                return amount * multiplier;
+            }
+        } catch (NumberFormatException e) {
+            // fall through to the error below
+        }
+        throw new IllegalArgumentException("Invalid size '" + value + "' (expected e.g. 512KB, 16MB)");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package com.fdd.core.registry;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fdd.core.workflow.WorkflowFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+
+/**
+ * Warms the functions of a registry before a snapshot is taken (SnapStart, CRaC) or traffic arrives.
+ * Every serverless.yml sample of a function is encoded in each wire format, read back through the
+ * function's codec, applied and its result written again, so the JIT, Jackson's (de)serializer
+ * caches and the function's own lazy state are ready for the first real request.
+ * Functions are applied without their result caches, coalescing and bulkheads, so no sample result
+ * is cached and no call is counted; workflows are skipped since their steps may be remote.
+ * A failing sample is logged and skipped.
+ */
+public class FunctionPrimer {
+
+    private static final Logger logger = LoggerFactory.getLogger(FunctionPrimer.class);
+
+    private final FunctionRegistry registry;
+    private final ObjectWriter sampleWriter;
+    private int primedFunctions;
+    private int sampleCalls;
+    private int failures;
+
+    public FunctionPrimer(FunctionRegistry registry) {
+        this.registry = registry;
+        this.sampleWriter = registry.getObjectMapper().writer();
+    }
+
+    /**
+     * Run every sample of every registered function through each wire format
+     * @return this primer, for its counts
+     */
+    public FunctionPrimer prime() {
+        for (String name : registry.getFunctionNames()) {
+            FunctionInvoker invoker = registry.getInvoker(name);
+            List<Object> samples = invoker.getMetadata() != null ? invoker.getMetadata().getSamples() : null;
+            if (samples == null || samples.isEmpty() || (Object) invoker.getFunction() instanceof WorkflowFunction) {
+                continue;
+            }
+            boolean primed = false;
+            for (Object sample : samples) {
+                for (WireFormat format : WireFormat.values()) {
+                    try {
+                        FunctionCodec codec = invoker.getCodec().forFormat(format);
+                        byte[] encoded = format.writer(sampleWriter).writeValueAsBytes(sample);
+                        Object result = invoker.applyDirectly(codec.readInput(encoded, 0, encoded.length));
+                        codec.writeOutputAsBytes(result);
+                        sampleCalls++;
+                        primed = true;
+                    } catch (Exception e) {
+                        failures++;
+                        logger.warn("Priming {} with a {} sample failed: {}", name, format, e.getMessage());
+                    }
+                }
+            }
+            if (primed) {
+                primedFunctions++;
+            }
+        }
+        logger.info("🔥 Primed {} functions with {} sample calls ({} failed)", primedFunctions, sampleCalls, failures);
+        return this;
+    }
+
+    public int getPrimedFunctions() { return primedFunctions; }
+
+    public int getSampleCalls() { return sampleCalls; }
+
+    public int getFailures() { return failures; }
+}
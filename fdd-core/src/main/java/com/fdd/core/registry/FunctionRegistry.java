@@ -1,13 +1,33 @@
 package com.fdd.core.registry;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.cache.CacheKey;
+import com.fdd.core.cache.CachedFunction;
+import com.fdd.core.cache.CachingFunction;
+import com.fdd.core.cache.FunctionCache;
+import com.fdd.core.cache.SingleFlight;
+import com.fdd.core.execution.Bulkhead;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.security.SecurityContextHolder;
+import com.fdd.core.workflow.WorkflowDefinition;
+import com.fdd.core.workflow.WorkflowFunction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.function.Function;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.Collection;
 import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 /**
  * Registry for Function<T,R> instances with metadata from serverless.yml
@@ -15,8 +35,33 @@ import java.util.Optional;
 public class FunctionRegistry {
     private static final Logger logger = LoggerFactory.getLogger(FunctionRegistry.class);
 
-    private final Map<String, Function<?, ?>> functions = new ConcurrentHashMap<>();
-    private final Map<String, FunctionMetadata> metadata = new ConcurrentHashMap<>();
+    private final Map<String, FunctionInvoker> invokers = new ConcurrentHashMap<>();
+    private final Map<String, Bulkhead> groupBulkheads = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private volatile FunctionExecutors functionExecutors;
+
+    public FunctionRegistry() {
+        this(new ObjectMapper());
+    }
+
+    public FunctionRegistry(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Executors used by invokeAsync; without them async invocations run on the common pool
+     */
+    public void setFunctionExecutors(FunctionExecutors functionExecutors) {
+        this.functionExecutors = functionExecutors;
+    }
+
+    public FunctionExecutors getFunctionExecutors() {
+        return functionExecutors;
+    }
+
+    public ObjectMapper getObjectMapper() {
+        return objectMapper;
+    }
 
     /**
      * Register a function with its metadata
@@ -24,62 +69,210 @@ public class FunctionRegistry {
     public void registerFunction(String componentName, Function<?, ?> function, FunctionMetadata metadata) {
         logger.debug("Registering function: {} with metadata: {}", componentName, metadata);
 
-        this.functions.put(componentName, function);
-        this.metadata.put(componentName, metadata);
+        Objects.requireNonNull(function, "function must not be null");
+        Objects.requireNonNull(metadata, "metadata must not be null");
+
+        // Functions declared with a cache: section are memoized (Spring beans arrive already wrapped)
+        if (metadata.getCache() != null && !(function instanceof CachedFunction)) {
+            function = new CachingFunction(function, FunctionCache.create(componentName, metadata.getCache(), objectMapper));
+            logger.info("Function {} results are cached", componentName);
+        }
+
+        FunctionCodec codec = new FunctionCodec(objectMapper, metadata.getInputType(), metadata.getOutputType());
+        Bulkhead bulkhead = createBulkhead(componentName, metadata);
+        SingleFlight singleFlight = metadata.getCoalesce() != null
+                ? new SingleFlight(componentName, metadata.getCoalesce().getKeyFields(), objectMapper) : null;
+        this.invokers.put(componentName, new FunctionInvoker(componentName, function, metadata, codec, bulkhead, singleFlight));
+        if (bulkhead != null) {
+            logger.info("Function {} limited by bulkhead {}", componentName, bulkhead);
+        }
+        if (singleFlight != null) {
+            logger.info("Function {} coalesces identical concurrent invocations", componentName);
+        }
 
         logger.info("Successfully registered function: {}", componentName);
     }
 
+    /**
+     * Register a workflow as a function; its steps are invoked through this registry
+     */
+    public void registerWorkflow(WorkflowDefinition workflow) {
+        if (isRegistered(workflow.getName())) {
+            logger.warn("Workflow {} has the name of a registered function - not registered", workflow.getName());
+            return;
+        }
+        registerFunction(workflow.getName(), new WorkflowFunction(this, workflow, objectMapper), workflow.toMetadata());
+        logger.info("Workflow {} runs {} steps in {} stages", workflow.getName(),
+                workflow.getSteps().size(), workflow.getStageCount());
+    }
+
+    /**
+     * Get the precompiled invoker for a function, or null if it is not registered.
+     * This is the hot-path lookup used by the invocation endpoints.
+     */
+    public FunctionInvoker getInvoker(String componentName) {
+        return invokers.get(componentName);
+    }
+
+    /**
+     * Invoke a function without blocking the caller.
+     * Local functions run on the executor configured for the function or its security group,
+     * with the caller's security context and deadline; functions that are not registered locally
+     * are handed to invokeRemoteAsync. The future fails with DeadlineExceededException once the
+     * caller's deadline or the function's timeout passes. Callers of a coalescing function join
+     * an identical invocation already in flight instead of occupying a thread to wait for it.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> invokeAsync(String componentName, Object input) {
+        FunctionInvoker invoker = invokers.get(componentName);
+        if (invoker == null) {
+            return invokeRemoteAsync(componentName, input);
+        }
+        Deadline deadline = invoker.deadlineFor(Deadline.current());
+        if (deadline != null && deadline.isExpired()) {
+            return CompletableFuture.failedFuture(new DeadlineExceededException(componentName));
+        }
+        SingleFlight singleFlight = invoker.getSingleFlight();
+        CompletableFuture<Object> future;
+        if (singleFlight == null && invoker.getCache() == null) {
+            future = supplyAsync(invoker, deadline, () -> invoker.convertAndInvoke(input));
+        } else {
+            Object typedInput;
+            CacheKey key;
+            try {
+                typedInput = invoker.getCodec().convertInput(input);
+                key = invoker.cacheKey(typedInput);
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+            // Cache hits are answered here, without an executor, a bulkhead permit or a coalescing key
+            Object cached = key != null ? invoker.getCache().get(key) : null;
+            if (cached != null) {
+                return CompletableFuture.completedFuture((R) cached);
+            }
+            future = singleFlight == null
+                    ? supplyAsync(invoker, deadline, () -> invoker.invokeDirect(typedInput, key))
+                    : singleFlight.applyAsync(typedInput,
+                            in -> supplyAsync(invoker, deadline, () -> invoker.invokeDirect(in, key)));
+        }
+        return (CompletableFuture<R>) (deadline != null ? deadline.bound(future, componentName) : future);
+    }
+
+    private CompletableFuture<Object> supplyAsync(FunctionInvoker invoker, Deadline deadline, Supplier<Object> task) {
+        Supplier<Object> withDeadline = deadline != null ? () -> Deadline.callWithin(deadline, task) : task;
+        return CompletableFuture.supplyAsync(SecurityContextHolder.wrap(withDeadline), executorFor(invoker));
+    }
+
+    /**
+     * Asynchronous invocation of a function that is not registered locally
+     */
+    protected <R> CompletableFuture<R> invokeRemoteAsync(String componentName, Object input) {
+        return CompletableFuture.failedFuture(new IllegalArgumentException("Function not found: " + componentName));
+    }
+
+    /**
+     * The remote deployment a function is invoked on, or null when it runs here.
+     * Workflow steps whose functions share a deployment are sent to it together with invokeCompositeAsync.
+     */
+    public String getRemoteDeployment(String componentName) {
+        return null;
+    }
+
+    /**
+     * Send a composite request (workflow steps, see CompositeEnvelope) to the deployment of a remote function,
+     * which runs the steps locally and answers with all their outputs
+     */
+    public CompletableFuture<JsonNode> invokeCompositeAsync(String componentName, JsonNode request) {
+        return CompletableFuture.failedFuture(new UnsupportedOperationException(
+                "Composite requests are not supported for " + componentName));
+    }
+
     /**
      * Get a function by component name
      */
     @SuppressWarnings("unchecked")
     public <T, R> Optional<Function<T, R>> getFunction(String componentName) {
-        Function<?, ?> function = functions.get(componentName);
-        return Optional.ofNullable((Function<T, R>) function);
+        FunctionInvoker invoker = invokers.get(componentName);
+        return invoker != null ? Optional.of((Function<T, R>) (Function<?, ?>) invoker.getFunction()) : Optional.empty();
     }
 
     /**
      * Get metadata for a function
      */
     public Optional<FunctionMetadata> getMetadata(String componentName) {
-        return Optional.ofNullable(metadata.get(componentName));
+        FunctionInvoker invoker = invokers.get(componentName);
+        return invoker != null ? Optional.of(invoker.getMetadata()) : Optional.empty();
     }
 
     /**
      * Get all registered function names
      */
     public Collection<String> getFunctionNames() {
-        return functions.keySet();
+        return invokers.keySet();
     }
 
     /**
      * Get all metadata
      */
     public Collection<FunctionMetadata> getAllMetadata() {
-        return metadata.values();
+        return invokers.values().stream()
+                .map(FunctionInvoker::getMetadata)
+                .collect(Collectors.toList());
     }
 
     /**
      * Check if a function is registered
      */
     public boolean isRegistered(String componentName) {
-        return functions.containsKey(componentName);
+        return invokers.containsKey(componentName);
     }
 
     /**
      * Get the count of registered functions
      */
     public int size() {
-        return functions.size();
+        return invokers.size();
+    }
+
+    /**
+     * Build the bulkhead declared by deployment.max-concurrency / max-queue.
+     * With deployment.bulkhead=group the limit is shared by every function of the security group;
+     * the first function registered for the group defines it.
+     */
+    private Bulkhead createBulkhead(String componentName, FunctionMetadata metadata) {
+        FunctionMetadata.DeploymentMetadata deployment = metadata.getDeployment();
+        if (deployment == null || deployment.getMaxConcurrency() == null) {
+            return null;
+        }
+        int maxConcurrency = deployment.getMaxConcurrency();
+        int maxQueue = deployment.getMaxQueue() != null ? deployment.getMaxQueue() : 0;
+
+        String group = metadata.getSecurity() != null ? metadata.getSecurity().getGroup() : null;
+        if (deployment.isGroupBulkhead()) {
+            if (group != null) {
+                return groupBulkheads.computeIfAbsent(group, name -> new Bulkhead("group:" + name, maxConcurrency, maxQueue));
+            }
+            logger.warn("Function {} requests a group bulkhead but has no security group - using a per-function bulkhead",
+                    componentName);
+        }
+        return new Bulkhead(componentName, maxConcurrency, maxQueue);
+    }
+
+    private Executor executorFor(FunctionInvoker invoker) {
+        FunctionExecutors executors = functionExecutors;
+        if (executors == null) {
+            return ForkJoinPool.commonPool();
+        }
+        FunctionMetadata.SecurityMetadata security = invoker.getMetadata().getSecurity();
+        return executors.executorFor(invoker.getComponentName(), security != null ? security.getGroup() : null);
     }
 
     /**
      * Clear all registered functions (mainly for testing)
      */
     public void clear() {
-        functions.clear();
-        metadata.clear();
+        invokers.clear();
+        groupBulkheads.clear();
         logger.debug("Cleared all registered functions");
     }
-}
\ No newline at end of file
+}
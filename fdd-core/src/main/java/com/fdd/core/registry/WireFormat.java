@@ -0,0 +1,102 @@
+package com.fdd.core.registry;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import java.util.Locale;
+
+/**
+ * Encodings a function body can travel in.
+ * External callers use JSON; FDD-to-FDD calls can negotiate a binary Jackson format
+ * through Content-Type and Accept, with the same data model and annotations as JSON.
+ */
+public enum WireFormat {
+
+    JSON("application/json", null),
+    SMILE("application/x-jackson-smile", new SmileFactory()),
+    CBOR("application/cbor", new CBORFactory());
+
+    private final String mediaType;
+    private final JsonFactory factory;
+
+    WireFormat(String mediaType, JsonFactory factory) {
+        this.mediaType = mediaType;
+        this.factory = factory;
+    }
+
+    public String getMediaType() { return mediaType; }
+
+    public boolean isBinary() { return factory != null; }
+
+    /**
+     * The given JSON reader, reading this format instead
+     */
+    public ObjectReader reader(ObjectReader jsonReader) {
+        return factory != null ? jsonReader.with(factory) : jsonReader;
+    }
+
+    /**
+     * The given JSON writer, writing this format instead
+     */
+    public ObjectWriter writer(ObjectWriter jsonWriter) {
+        return factory != null ? jsonWriter.with(factory) : jsonWriter;
+    }
+
+    /**
+     * Accept header value asking for this format, with JSON as the fallback for callees that only speak JSON
+     */
+    public String acceptHeader() {
+        return factory != null ? mediaType + ", " + JSON.mediaType : JSON.mediaType;
+    }
+
+    /**
+     * Format of a body from its Content-Type; anything unrecognised is treated as JSON
+     */
+    public static WireFormat fromContentType(String contentType) {
+        if (contentType == null) {
+            return JSON;
+        }
+        String type = mediaTypeOf(contentType);
+        for (WireFormat format : values()) {
+            if (format.mediaType.equals(type)) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Format to answer in: the first binary format the Accept header names, otherwise JSON
+     */
+    public static WireFormat fromAccept(String accept) {
+        if (accept == null) {
+            return JSON;
+        }
+        for (String range : accept.split(",")) {
+            WireFormat format = fromContentType(range);
+            if (format.isBinary()) {
+                return format;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Format by name (json, smile or cbor), as used in configuration
+     */
+    public static WireFormat named(String name) {
+        try {
+            return valueOf(name.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown wire format '" + name + "', expected json, smile or cbor");
+        }
+    }
+
+    private static String mediaTypeOf(String value) {
+        int parameters = value.indexOf(';');
+        return (parameters >= 0 ? value.substring(0, parameters) : value).trim().toLowerCase(Locale.ROOT);
+    }
+}
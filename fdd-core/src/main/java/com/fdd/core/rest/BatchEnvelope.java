@@ -0,0 +1,78 @@
+package com.fdd.core.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.DeadlineExceededException;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Wire format of batched invocations.
+ * A request carrying the X-FDD-Batch header has a JSON array of inputs as its body; the response
+ * is a JSON array with one entry per input, in input order:
+ * {"index":n,"result":...} or {"index":n,"error":...,"message":...,"details":...}
+ */
+public final class BatchEnvelope {
+
+    public static final String HEADER = "X-FDD-Batch";
+
+    public static final String INDEX = "index";
+    public static final String RESULT = "result";
+    public static final String ERROR = "error";
+    public static final String MESSAGE = "message";
+    public static final String DETAILS = "details";
+
+    public static final String EXECUTION_FAILED = "Function execution failed";
+    public static final String INVALID_INPUT = "Invalid input";
+    public static final String SATURATED = "Function saturated";
+    public static final String DEADLINE_EXCEEDED = "Deadline exceeded";
+    public static final String UNAVAILABLE = "Downstream unavailable";
+
+    private BatchEnvelope() {}
+
+    /**
+     * Whether a request header value marks the body as a batch envelope
+     */
+    public static boolean isBatch(String headerValue) {
+        return headerValue != null && !headerValue.isBlank() && !"false".equalsIgnoreCase(headerValue.trim());
+    }
+
+    /**
+     * The error label of a failed entry
+     */
+    public static String errorLabel(Throwable failure) {
+        if (failure instanceof JsonProcessingException) {
+            return INVALID_INPUT;
+        }
+        if (failure instanceof BulkheadFullException) {
+            return SATURATED;
+        }
+        if (failure instanceof DeadlineExceededException) {
+            return DEADLINE_EXCEEDED;
+        }
+        if (failure instanceof CircuitBreakerOpenException) {
+            return UNAVAILABLE;
+        }
+        return EXECUTION_FAILED;
+    }
+
+    /**
+     * One entry as a map, for callers that serialize the whole response at once
+     */
+    public static Map<String, Object> entry(long index, Object result, Throwable failure) {
+        Map<String, Object> entry = new LinkedHashMap<>();
+        entry.put(INDEX, index);
+        if (failure == null) {
+            entry.put(RESULT, result);
+        } else {
+            entry.put(ERROR, errorLabel(failure));
+            entry.put(MESSAGE, failure instanceof JsonProcessingException
+                    ? ((JsonProcessingException) failure).getOriginalMessage()
+                    : failure.getMessage());
+            entry.put(DETAILS, failure.getClass().getSimpleName());
+        }
+        return entry;
+    }
+}
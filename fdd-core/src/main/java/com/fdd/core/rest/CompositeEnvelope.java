@@ -0,0 +1,136 @@
+package com.fdd.core.rest;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fdd.core.config.ServerlessConfig;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.flow.FlowStepFailedException;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.workflow.WorkflowDefinition;
+import com.fdd.core.workflow.WorkflowFunction;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Wire format of composite requests: several steps of a workflow pushed down to the deployment
+ * their functions live on, so they cost one round trip instead of one per step.
+ * A request carrying the X-FDD-Composite header has as its body
+ * {"workflow":name,"input":...,"provided":{step:output,...},"steps":{step:{"function":...,"input":...,...},...}}
+ * where provided holds the outputs of steps that ran before; the receiver runs the steps as a workflow
+ * with its own registry and answers {"steps":{step:output,...}} or {"error":...,"message":...,"details":...}
+ */
+public final class CompositeEnvelope {
+
+    public static final String HEADER = "X-FDD-Composite";
+
+    public static final String WORKFLOW = "workflow";
+    public static final String INPUT = "input";
+    public static final String PROVIDED = "provided";
+    public static final String STEPS = "steps";
+
+    public static final String REJECTED = "Step rejected";
+
+    private static final TypeReference<LinkedHashMap<String, ServerlessConfig.WorkflowStepConfig>> STEP_CONFIGS =
+            new TypeReference<>() {};
+
+    private CompositeEnvelope() {}
+
+    /**
+     * Whether a request header value marks the body as a composite request
+     */
+    public static boolean isComposite(String headerValue) {
+        return BatchEnvelope.isBatch(headerValue);
+    }
+
+    /**
+     * The request running the given steps of a workflow, in the order given
+     */
+    public static ObjectNode request(String workflow, List<WorkflowDefinition.Step> steps,
+                                     JsonNode input, ObjectNode provided) {
+        ObjectNode request = JsonNodeFactory.instance.objectNode();
+        request.put(WORKFLOW, workflow);
+        request.set(INPUT, input);
+        request.set(PROVIDED, provided);
+        ObjectNode stepConfigs = request.putObject(STEPS);
+        for (WorkflowDefinition.Step step : steps) {
+            ObjectNode config = stepConfigs.putObject(step.getName());
+            config.put("function", step.getFunction());
+            if (step.getInput() != null) {
+                config.set("input", step.getInput());
+            }
+            if (!step.getDependencies().isEmpty()) {
+                step.getDependencies().forEach(config.putArray("depends-on")::add);
+            }
+            if (step.getRequire() != null) {
+                config.put("require", step.getRequire());
+            }
+            config.put("on-failure", step.isContinueOnFailure() ? "continue" : "fail");
+        }
+        return request;
+    }
+
+    /**
+     * Run the steps of a composite request through a registry and build the response;
+     * failures are answered as an error rather than thrown
+     */
+    public static ObjectNode execute(FunctionRegistry registry, JsonNode request) {
+        ObjectNode response = JsonNodeFactory.instance.objectNode();
+        try {
+            ObjectMapper objectMapper = registry.getObjectMapper();
+            ServerlessConfig.WorkflowConfig config = new ServerlessConfig.WorkflowConfig();
+            config.setSteps(objectMapper.convertValue(request.path(STEPS), STEP_CONFIGS));
+            ObjectNode provided = request.path(PROVIDED).isObject()
+                    ? (ObjectNode) request.get(PROVIDED) : JsonNodeFactory.instance.objectNode();
+            Set<String> providedSteps = new HashSet<>();
+            provided.fieldNames().forEachRemaining(providedSteps::add);
+            WorkflowDefinition steps = WorkflowDefinition.compile(request.path(WORKFLOW).asText("composite"),
+                    config, providedSteps);
+            response.set(STEPS, new WorkflowFunction(registry, steps, objectMapper)
+                    .execute(request.path(INPUT), provided));
+        } catch (RuntimeException e) {
+            response.put(BatchEnvelope.ERROR, e instanceof FlowStepFailedException ? REJECTED : BatchEnvelope.errorLabel(e));
+            response.put(BatchEnvelope.MESSAGE, e.getMessage());
+            response.put(BatchEnvelope.DETAILS, e.getClass().getSimpleName());
+        }
+        return response;
+    }
+
+    /**
+     * The step outputs of a composite response
+     * @throws FlowStepFailedException when a step's require condition rejected its output
+     * @throws DeadlineExceededException when the receiver ran out of the caller's budget
+     */
+    public static ObjectNode outputs(String functionName, JsonNode response) {
+        if (response.hasNonNull(BatchEnvelope.ERROR)) {
+            String error = response.get(BatchEnvelope.ERROR).asText();
+            String message = response.path(BatchEnvelope.MESSAGE).asText();
+            if (REJECTED.equals(error)) {
+                throw new FlowStepFailedException(message);
+            }
+            if (BatchEnvelope.DEADLINE_EXCEEDED.equals(error)) {
+                throw new DeadlineExceededException(functionName);
+            }
+            throw new RuntimeException("Composite call to " + functionName + " failed: " + error + " - " + message);
+        }
+        if (!response.path(STEPS).isObject()) {
+            throw new IllegalStateException("Composite response from " + functionName + " has no step outputs"
+                    + " - the target does not accept " + HEADER + " requests");
+        }
+        return (ObjectNode) response.get(STEPS);
+    }
+
+    /**
+     * The output of one step of a composite response; a step without output yields null
+     */
+    public static JsonNode output(ObjectNode outputs, String step) {
+        JsonNode output = outputs.get(step);
+        return output != null ? output : NullNode.getInstance();
+    }
+}
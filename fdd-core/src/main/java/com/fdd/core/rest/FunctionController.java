@@ -1,20 +1,51 @@
 package com.fdd.core.rest;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.cache.FunctionCache;
+import com.fdd.core.cache.FunctionResultCache;
+import com.fdd.core.cache.SingleFlight;
+import com.fdd.core.execution.Bulkhead;
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.execution.OrderedInvocationWindow;
+import com.fdd.core.registry.FunctionCodec;
+import com.fdd.core.registry.FunctionInvoker;
 import com.fdd.core.registry.FunctionRegistry;
 import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.security.SecurityContextHolder;
+import com.fdd.core.workflow.WorkflowFunction;
+import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.function.Function;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.Optional;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
 import java.util.stream.Collectors;
+import java.util.zip.ZipException;
 
 /**
  * Enhanced FDD Function Controller with proper type conversion
@@ -28,99 +59,354 @@ public class FunctionController {
     @Autowired
     private FunctionRegistry functionRegistry;
 
-    @Autowired
-    private ObjectMapper objectMapper;
+    @Autowired(required = false)
+    private FunctionExecutors functionExecutors;
+
+    @Value("${fdd.function.batch.max-in-flight:64}")
+    private int batchMaxInFlight = 64;
+
+    @Value("${fdd.function.stream.max-in-flight:64}")
+    private int streamMaxInFlight = 64;
+
+    @Value("${fdd.function.stream.max-line-bytes:1048576}")
+    private int streamMaxLineBytes = 1048576;
+
+    @Value("${fdd.function.compression.enabled:true}")
+    private boolean compressionEnabled = true;
+
+    @Value("${fdd.function.compression.min-bytes:" + PayloadCompression.DEFAULT_MIN_BYTES + "}")
+    private int compressionMinBytes = PayloadCompression.DEFAULT_MIN_BYTES;
 
     /**
      * Execute a function via REST call with proper type conversion
      * POST /functions/{functionName}
+     * The raw body is read straight into the function's declared input type and the
+     * result is written straight to the response with the function's cached writer.
+     * A caller's remaining budget arrives in the X-FDD-Deadline-Ms header; with the X-FDD-Batch
+     * header the body is a batch envelope from a micro-batching caller and is handled as /batch; with the
+     * X-FDD-Composite header it holds workflow steps pushed down by a caller and is handled as /composite.
+     * The body is read in the format named by Content-Type and the result written in the binary
+     * format named by Accept (Smile or CBOR, for FDD callers), otherwise as JSON.
+     * gzip/deflate request bodies are decoded; results of at least fdd.function.compression.min-bytes
+     * are compressed when Accept-Encoding allows it.
      */
     @PostMapping("/{functionName}")
-    @SuppressWarnings("unchecked")
-    public ResponseEntity<?> executeFunction(
+    public void executeFunction(
             @PathVariable String functionName,
-            @RequestBody(required = false) Object input) {
+            @RequestHeader(value = Deadline.HEADER, required = false) Long deadlineMillis,
+            @RequestHeader(value = BatchEnvelope.HEADER, required = false) String batch,
+            @RequestHeader(value = CompositeEnvelope.HEADER, required = false) String composite,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+
+        if (BatchEnvelope.isBatch(batch)) {
+            executeBatch(functionName, deadlineMillis, contentType, accept, contentEncoding, body, response);
+            return;
+        }
+        if (CompositeEnvelope.isComposite(composite)) {
+            executeComposite(functionName, deadlineMillis, contentType, accept, contentEncoding, body, response);
+            return;
+        }
+        body = decodeBody(functionName, contentEncoding, body, response);
+        if (body == null) {
+            return;
+        }
 
-        logger.debug("🔧 Executing function: {} with input type: {}",
-                functionName, input != null ? input.getClass().getSimpleName() : "null");
+        logger.debug("🔧 Executing function: {}", functionName);
 
         try {
-            // Get the function from registry
-            Optional<Function<Object, Object>> functionOpt = functionRegistry.getFunction(functionName);
-            if (functionOpt.isEmpty()) {
+            // Single lookup - the invoker carries the function, metadata and resolved codec
+            FunctionInvoker invoker = functionRegistry.getInvoker(functionName);
+            if (invoker == null) {
                 logger.warn("❌ Function not found: {}", functionName);
-                return ResponseEntity.notFound().build();
+                FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_NOT_FOUND,
+                        FunctionResponseWriter.FUNCTION_NOT_FOUND.staticBytes());
+                return;
             }
 
-            // Get function metadata to determine input type
-            Optional<FunctionMetadata> metadataOpt = functionRegistry.getMetadata(functionName);
-            if (metadataOpt.isEmpty()) {
-                logger.warn("❌ Function metadata not found: {}", functionName);
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Function metadata not available", "function", functionName));
+            // Deserialize directly into the input type (generic tree when no type is declared)
+            Object typedInput;
+            try {
+                typedInput = invoker.getCodec().forFormat(WireFormat.fromContentType(contentType)).readInput(body);
+            } catch (JsonProcessingException e) {
+                logger.warn("❌ Invalid request body for function '{}': {}", functionName, e.getOriginalMessage());
+                FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_BAD_REQUEST,
+                        FunctionResponseWriter.INVALID_REQUEST_BODY.render(
+                                "message", e.getOriginalMessage(),
+                                "function", functionName));
+                return;
             }
 
-            Function<Object, Object> function = functionOpt.get();
-            FunctionMetadata metadata = metadataOpt.get();
-
-            // Convert input to the correct type if needed
-            Object typedInput = convertInputToCorrectType(input, metadata, functionName);
-
-            // Execute the function with properly typed input
-            Object result = function.apply(typedInput);
+            // Execute the function with properly typed input, within the caller's deadline
+            Object result = Deadline.callWithin(requestDeadline(deadlineMillis), () -> invoker.invoke(typedInput));
 
-            logger.debug("✅ Function '{}' executed successfully, result type: {}",
-                    functionName, result != null ? result.getClass().getSimpleName() : "null");
+            if (logger.isDebugEnabled()) {
+                logger.debug("✅ Function '{}' executed successfully, result type: {}",
+                        functionName, result != null ? result.getClass().getSimpleName() : "null");
+            }
 
-            return ResponseEntity.ok(result);
+            FunctionResponseWriter.writeResult(response, invoker.getCodec().forFormat(WireFormat.fromAccept(accept)), result,
+                    compressionEnabled ? PayloadCompression.negotiate(acceptEncoding) : null, compressionMinBytes);
 
+        } catch (DeadlineExceededException e) {
+            logger.warn("⏱️ Function '{}' abandoned: {}", functionName, e.getMessage());
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_GATEWAY_TIMEOUT,
+                    FunctionResponseWriter.DEADLINE_EXCEEDED.render(
+                            "message", e.getMessage(),
+                            "function", functionName));
+        } catch (BulkheadFullException e) {
+            logger.warn("⛔ Function '{}' rejected: {}", functionName, e.getMessage());
+            FunctionResponseWriter.writeJson(response, HttpStatus.TOO_MANY_REQUESTS.value(),
+                    FunctionResponseWriter.FUNCTION_SATURATED.render(
+                            "message", e.getMessage(),
+                            "function", functionName));
+        } catch (CircuitBreakerOpenException e) {
+            logger.warn("🔌 Function '{}' failed fast: {}", functionName, e.getMessage());
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                    FunctionResponseWriter.DOWNSTREAM_UNAVAILABLE.render(
+                            "message", e.getMessage(),
+                            "function", functionName));
         } catch (Exception e) {
             logger.error("❌ Function '{}' execution failed: {}", functionName, e.getMessage(), e);
-            return ResponseEntity.internalServerError()
-                    .body(Map.of(
-                            "error", "Function execution failed",
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                    FunctionResponseWriter.EXECUTION_FAILED.render(
                             "message", e.getMessage(),
                             "function", functionName,
-                            "details", e.getClass().getSimpleName()
-                    ));
+                            "details", e.getClass().getSimpleName()));
         }
     }
 
     /**
-     * Convert generic input object to the function's expected input type
+     * Execute a function for every element of a JSON array
+     * POST /functions/{functionName}/batch
+     * Elements are parsed one at a time into the input type, executed concurrently on the
+     * invocation executor with a bounded number in flight, and streamed back in order as
+     * [{"index":0,"result":...},{"index":1,"error":...},...]
+     * Content-Type and Accept select the wire format as for single invocations; compressed request
+     * bodies are decoded, while the streamed response is left to the server's own compression.
      */
-    private Object convertInputToCorrectType(Object input, FunctionMetadata metadata, String functionName) {
-        try {
-            // If input is null, return null
-            if (input == null) {
-                return null;
-            }
+    @PostMapping("/{functionName}/batch")
+    public void executeBatch(
+            @PathVariable String functionName,
+            @RequestHeader(value = Deadline.HEADER, required = false) Long deadlineMillis,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+
+        body = decodeBody(functionName, contentEncoding, body, response);
+        if (body == null) {
+            return;
+        }
+
+        FunctionInvoker invoker = functionRegistry.getInvoker(functionName);
+        if (invoker == null) {
+            logger.warn("❌ Function not found: {}", functionName);
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_NOT_FOUND,
+                    FunctionResponseWriter.FUNCTION_NOT_FOUND.staticBytes());
+            return;
+        }
 
-            // If no input type specified in metadata, return as-is
-            Class<?> inputType = metadata.getInputType();
-            if (inputType == null) {
-                logger.debug("No input type specified for function {}, using input as-is", functionName);
-                return input;
+        // Codecs, deadline and security context are resolved once for the whole batch
+        FunctionCodec codec = invoker.getCodec().forFormat(WireFormat.fromContentType(contentType));
+        FunctionCodec responseCodec = invoker.getCodec().forFormat(WireFormat.fromAccept(accept));
+        Deadline deadline = requestDeadline(deadlineMillis);
+
+        try (JsonParser parser = codec.getInputReader().createParser(body)) {
+            JsonToken first;
+            try {
+                first = parser.nextToken();
+            } catch (JsonProcessingException e) {
+                first = null;
+            }
+            if (first != JsonToken.START_ARRAY) {
+                FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_BAD_REQUEST,
+                        FunctionResponseWriter.INVALID_REQUEST_BODY.render(
+                                "message", "Batch body must be a JSON array",
+                                "function", functionName));
+                return;
             }
 
-            // If input is already the correct type, return as-is
-            if (inputType.isAssignableFrom(input.getClass())) {
-                logger.debug("Input already correct type for function {}", functionName);
-                return input;
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(responseCodec.getFormat().getMediaType());
+
+            try (JsonGenerator generator = responseCodec.createGenerator(response.getOutputStream())) {
+                generator.writeStartArray();
+                OrderedInvocationWindow window = new OrderedInvocationWindow(invocationExecutor(), batchMaxInFlight,
+                        (index, result, failure) -> FunctionResponseWriter.writeEntry(generator, responseCodec, index, result, failure));
+
+                while (true) {
+                    Object element;
+                    try {
+                        JsonToken token = parser.nextToken();
+                        if (token == JsonToken.END_ARRAY) {
+                            break;
+                        }
+                        if (token == null) {
+                            throw new JsonParseException(parser, "Unexpected end of batch array");
+                        }
+                        element = codec.readInput(parser);
+                    } catch (JsonProcessingException e) {
+                        // The parser position is unknown after a failed element, so the batch stops here
+                        logger.warn("❌ Invalid batch element for function '{}': {}", functionName, e.getOriginalMessage());
+                        window.fail(e);
+                        break;
+                    }
+                    window.submit(SecurityContextHolder.wrap(() -> Deadline.callWithin(deadline, () -> invoker.invoke(element))));
+                }
+                window.drain();
+
+                generator.writeEndArray();
+                logger.debug("✅ Batch for function '{}' completed with {} items", functionName, window.emitted());
             }
+        }
+    }
+
+    /**
+     * Run workflow steps pushed down by a caller whose functions are registered here
+     * POST /functions/{functionName}/composite
+     * The body is a composite request (see CompositeEnvelope); the steps run with this registry within
+     * the caller's deadline and are answered with all their outputs at once, or with the failure that
+     * stopped them. Content-Type and Accept select the wire format as for single invocations.
+     */
+    @PostMapping("/{functionName}/composite")
+    public void executeComposite(
+            @PathVariable String functionName,
+            @RequestHeader(value = Deadline.HEADER, required = false) Long deadlineMillis,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+
+        body = decodeBody(functionName, contentEncoding, body, response);
+        if (body == null) {
+            return;
+        }
 
-            // Convert using Jackson ObjectMapper
-            logger.debug("Converting input from {} to {} for function {}",
-                    input.getClass().getSimpleName(), inputType.getSimpleName(), functionName);
+        ObjectMapper objectMapper = functionRegistry.getObjectMapper();
+        JsonNode request;
+        try {
+            request = WireFormat.fromContentType(contentType).reader(objectMapper.reader()).readTree(body);
+        } catch (JsonProcessingException e) {
+            logger.warn("❌ Invalid composite request for function '{}': {}", functionName, e.getOriginalMessage());
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_BAD_REQUEST,
+                    FunctionResponseWriter.INVALID_REQUEST_BODY.render(
+                            "message", e.getOriginalMessage(),
+                            "function", functionName));
+            return;
+        }
 
-            return objectMapper.convertValue(input, inputType);
+        JsonNode result = Deadline.callWithin(requestDeadline(deadlineMillis),
+                () -> CompositeEnvelope.execute(functionRegistry, request));
+        logger.debug("✅ Composite request for function '{}' ran {} steps", functionName,
+                request.path(CompositeEnvelope.STEPS).size());
 
-        } catch (Exception e) {
-            logger.error("Failed to convert input type for function {}: {}", functionName, e.getMessage());
-            throw new RuntimeException("Input type conversion failed: " + e.getMessage(), e);
+        WireFormat format = WireFormat.fromAccept(accept);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(format.getMediaType());
+        format.writer(objectMapper.writer()).writeValue(response.getOutputStream(), result);
+    }
+
+    /**
+     * Execute a function for every line of a newline-delimited JSON stream
+     * POST /functions/{functionName}/stream (application/x-ndjson)
+     * Each line is parsed into the input type as it arrives, executed with a bounded number
+     * in flight, and its entry is written and flushed as one NDJSON line in input order.
+     * Memory stays flat regardless of input size; a bad line only fails its own entry.
+     */
+    @PostMapping("/{functionName}/stream")
+    public void executeStream(
+            @PathVariable String functionName,
+            @RequestHeader(value = Deadline.HEADER, required = false) Long deadlineMillis,
+            InputStream body,
+            HttpServletResponse response) throws IOException {
+
+        FunctionInvoker invoker = functionRegistry.getInvoker(functionName);
+        if (invoker == null) {
+            logger.warn("❌ Function not found: {}", functionName);
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_NOT_FOUND,
+                    FunctionResponseWriter.FUNCTION_NOT_FOUND.staticBytes());
+            return;
+        }
+
+        FunctionCodec codec = invoker.getCodec();
+        Deadline deadline = requestDeadline(deadlineMillis);
+        NdjsonLineReader lines = new NdjsonLineReader(body, streamMaxLineBytes);
+
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+
+        try (JsonGenerator generator = codec.createGenerator(response.getOutputStream())) {
+            generator.setRootValueSeparator(null);
+            OrderedInvocationWindow window = new OrderedInvocationWindow(invocationExecutor(), streamMaxInFlight,
+                    (index, result, failure) -> {
+                        FunctionResponseWriter.writeEntry(generator, codec, index, result, failure);
+                        generator.writeRaw('\n');
+                        generator.flush();
+                    });
+
+            while (lines.nextLine()) {
+                if (lines.isOversized()) {
+                    window.fail(new JsonParseException(null,
+                            "Line exceeds the maximum of " + lines.maxLineBytes() + " bytes"));
+                    continue;
+                }
+                Object element;
+                try {
+                    element = codec.readInput(lines.buffer(), lines.lineStart(), lines.lineLength());
+                } catch (JsonProcessingException e) {
+                    window.fail(e);
+                    continue;
+                }
+                window.submit(SecurityContextHolder.wrap(() -> Deadline.callWithin(deadline, () -> invoker.invoke(element))));
+            }
+            window.drain();
+
+            logger.debug("✅ Stream for function '{}' completed with {} items", functionName, window.emitted());
+        }
+    }
+
+    /**
+     * The request body decoded by its Content-Encoding, or null once an error response is written.
+     * Every function response advertises the codings accepted on requests (RFC 7694), so FDD
+     * callers know they may compress what they send.
+     */
+    private InputStream decodeBody(String functionName, String contentEncoding,
+                                   InputStream body, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.ACCEPT_ENCODING, PayloadCompression.SUPPORTED);
+        if (!PayloadCompression.isSupported(contentEncoding)) {
+            FunctionResponseWriter.writeJson(response, HttpStatus.UNSUPPORTED_MEDIA_TYPE.value(),
+                    FunctionResponseWriter.UNSUPPORTED_ENCODING.render(
+                            "message", "Content-Encoding '" + contentEncoding + "' is not supported",
+                            "function", functionName));
+            return null;
+        }
+        try {
+            return PayloadCompression.decompress(body, contentEncoding);
+        } catch (ZipException e) {
+            logger.warn("❌ Invalid compressed body for function '{}': {}", functionName, e.getMessage());
+            FunctionResponseWriter.writeJson(response, HttpServletResponse.SC_BAD_REQUEST,
+                    FunctionResponseWriter.INVALID_REQUEST_BODY.render(
+                            "message", e.getMessage(),
+                            "function", functionName));
+            return null;
         }
     }
 
+    private static Deadline requestDeadline(Long deadlineMillis) {
+        return deadlineMillis != null ? Deadline.afterMillis(deadlineMillis) : null;
+    }
+
+    private Executor invocationExecutor() {
+        return functionExecutors != null ? functionExecutors.getInvocationExecutor() : ForkJoinPool.commonPool();
+    }
+
     /**
      * Get list of available functions
      * GET /functions
@@ -165,6 +451,59 @@ public class FunctionController {
             }
 
             Map<String, Object> info = createDetailedFunctionInfo(metadata.get());
+
+            FunctionInvoker invoker = functionRegistry.getInvoker(functionName);
+            Bulkhead bulkhead = invoker != null ? invoker.getBulkhead() : null;
+            if (bulkhead != null) {
+                Map<String, Object> limits = new HashMap<>();
+                limits.put("name", bulkhead.getName());
+                limits.put("maxConcurrency", bulkhead.getMaxConcurrent());
+                limits.put("maxQueue", bulkhead.getMaxQueue());
+                limits.put("active", bulkhead.getActiveCount());
+                limits.put("queued", bulkhead.getQueuedCount());
+                limits.put("rejected", bulkhead.getRejectedCount());
+                info.put("bulkhead", limits);
+            }
+            FunctionCache cache = invoker != null ? invoker.getCache() : null;
+            if (cache != null) {
+                FunctionResultCache results = cache.getResults();
+                Map<String, Object> cacheInfo = new HashMap<>();
+                cacheInfo.put("size", results.size());
+                cacheInfo.put("weight", results.weight());
+                cacheInfo.put("maximumWeight", results.getMaximumWeight());
+                cacheInfo.put("hits", results.getHitCount());
+                cacheInfo.put("misses", results.getMissCount());
+                cacheInfo.put("evictions", results.getEvictionCount());
+                cacheInfo.put("expirations", results.getExpirationCount());
+                cacheInfo.put("hitRate", results.getHitRate());
+                info.put("cache", cacheInfo);
+            }
+            SingleFlight singleFlight = invoker != null ? invoker.getSingleFlight() : null;
+            if (singleFlight != null) {
+                Map<String, Object> coalescing = new HashMap<>();
+                coalescing.put("inFlight", singleFlight.getInFlightCount());
+                coalescing.put("executions", singleFlight.getExecutionCount());
+                coalescing.put("coalesced", singleFlight.getCoalescedCount());
+                info.put("coalescing", coalescing);
+            }
+            Object function = invoker != null ? invoker.getFunction() : null;
+            if (function instanceof WorkflowFunction) {
+                WorkflowFunction workflow = (WorkflowFunction) function;
+                Map<String, Object> steps = new LinkedHashMap<>();
+                workflow.getStepStats().forEach((step, stats) -> {
+                    Map<String, Object> stepInfo = new HashMap<>();
+                    stepInfo.put("calls", stats.getCallCount());
+                    stepInfo.put("failures", stats.getFailureCount());
+                    stepInfo.put("rejected", stats.getRejectedCount());
+                    stepInfo.put("pushedDown", stats.getPushedDownCount());
+                    stepInfo.put("averageLatencyMs", stats.getAverageLatency().toNanos() / 1_000_000.0);
+                    steps.put(step, stepInfo);
+                });
+                Map<String, Object> workflowInfo = new HashMap<>();
+                workflowInfo.put("stages", workflow.getDefinition().getStageCount());
+                workflowInfo.put("steps", steps);
+                info.put("workflow", workflowInfo);
+            }
             return ResponseEntity.ok(info);
 
         } catch (Exception e) {
@@ -0,0 +1,133 @@
+package com.fdd.core.rest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fdd.core.error.JsonErrorBody;
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.CircuitBreakerOpenException;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.registry.FunctionCodec;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+
+import java.io.IOException;
+
+/**
+ * Response encoding stage for function invocations.
+ * Results are written straight to the servlet output stream with the function's
+ * cached ObjectWriter; error bodies reuse pre-encoded static parts.
+ */
+final class FunctionResponseWriter {
+
+    static final JsonErrorBody FUNCTION_NOT_FOUND = JsonErrorBody.of("error", "Function not found");
+    static final JsonErrorBody INVALID_REQUEST_BODY = JsonErrorBody.of("error", "Invalid request body");
+    static final JsonErrorBody EXECUTION_FAILED = JsonErrorBody.of("error", "Function execution failed");
+    static final JsonErrorBody FUNCTION_SATURATED = JsonErrorBody.of("error", "Function saturated");
+    static final JsonErrorBody DEADLINE_EXCEEDED = JsonErrorBody.of("error", "Deadline exceeded");
+    static final JsonErrorBody DOWNSTREAM_UNAVAILABLE = JsonErrorBody.of("error", "Downstream unavailable");
+    static final JsonErrorBody UNSUPPORTED_ENCODING = JsonErrorBody.of("error", "Unsupported content encoding");
+
+    // Pre-encoded names for per-item entries of multi-value responses
+    private static final SerializedString INDEX = new SerializedString(BatchEnvelope.INDEX);
+    private static final SerializedString RESULT = new SerializedString(BatchEnvelope.RESULT);
+    private static final SerializedString ERROR = new SerializedString(BatchEnvelope.ERROR);
+    private static final SerializedString MESSAGE = new SerializedString(BatchEnvelope.MESSAGE);
+    private static final SerializedString DETAILS = new SerializedString(BatchEnvelope.DETAILS);
+    private static final SerializedString EXECUTION_FAILED_VALUE = new SerializedString(BatchEnvelope.EXECUTION_FAILED);
+    private static final SerializedString INVALID_INPUT_VALUE = new SerializedString(BatchEnvelope.INVALID_INPUT);
+    private static final SerializedString SATURATED_VALUE = new SerializedString(BatchEnvelope.SATURATED);
+    private static final SerializedString DEADLINE_EXCEEDED_VALUE = new SerializedString(BatchEnvelope.DEADLINE_EXCEEDED);
+    private static final SerializedString UNAVAILABLE_VALUE = new SerializedString(BatchEnvelope.UNAVAILABLE);
+
+    private FunctionResponseWriter() {}
+
+    /**
+     * Write a successful function result in the codec's wire format
+     */
+    static void writeResult(HttpServletResponse response, FunctionCodec codec, Object result) throws IOException {
+        response.setStatus(HttpServletResponse.SC_OK);
+        if (result == null) {
+            return;
+        }
+        response.setContentType(codec.getFormat().getMediaType());
+        codec.writeOutput(result, response.getOutputStream());
+    }
+
+    /**
+     * Write a successful function result, compressed with the negotiated coding when it reaches minBytes.
+     * Without a coding the result is streamed as before.
+     */
+    static void writeResult(HttpServletResponse response, FunctionCodec codec, Object result,
+                            String contentEncoding, int minBytes) throws IOException {
+        if (contentEncoding == null || result == null) {
+            writeResult(response, codec, result);
+            return;
+        }
+        byte[] body = codec.writeOutputAsBytes(result);
+        response.setStatus(HttpServletResponse.SC_OK);
+        response.setContentType(codec.getFormat().getMediaType());
+        response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (body.length >= minBytes) {
+            body = PayloadCompression.compress(body, contentEncoding);
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, contentEncoding);
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Write one per-item entry: {"index":n,"result":...} or {"index":n,"error":...,"message":...,"details":...}
+     */
+    static void writeEntry(JsonGenerator generator, FunctionCodec codec,
+                           long index, Object result, Throwable failure) throws IOException {
+        generator.writeStartObject();
+        generator.writeFieldName(INDEX);
+        generator.writeNumber(index);
+        if (failure == null) {
+            generator.writeFieldName(RESULT);
+            codec.writeOutput(result, generator);
+        } else {
+            generator.writeFieldName(ERROR);
+            generator.writeString(errorLabel(failure));
+            generator.writeFieldName(MESSAGE);
+            generator.writeString(failure instanceof JsonProcessingException
+                    ? ((JsonProcessingException) failure).getOriginalMessage()
+                    : failure.getMessage());
+            generator.writeFieldName(DETAILS);
+            generator.writeString(failure.getClass().getSimpleName());
+        }
+        generator.writeEndObject();
+    }
+
+    private static SerializedString errorLabel(Throwable failure) {
+        if (failure instanceof JsonProcessingException) {
+            return INVALID_INPUT_VALUE;
+        }
+        if (failure instanceof BulkheadFullException) {
+            return SATURATED_VALUE;
+        }
+        if (failure instanceof DeadlineExceededException) {
+            return DEADLINE_EXCEEDED_VALUE;
+        }
+        if (failure instanceof CircuitBreakerOpenException) {
+            return UNAVAILABLE_VALUE;
+        }
+        return EXECUTION_FAILED_VALUE;
+    }
+
+    /**
+     * Write a pre-encoded JSON body
+     */
+    static void writeJson(HttpServletResponse response, int status, byte[] body) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.resetBuffer();
+        response.setStatus(status);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
@@ -0,0 +1,139 @@
+package com.fdd.core.rest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Splits a newline-delimited JSON stream into lines without copying them into Strings.
+ * The current line is exposed as a slice of the internal buffer and is only valid until
+ * the next call to nextLine(). Lines that reach maxLineBytes are skipped and reported
+ * as oversized so one bad record cannot blow up memory or stop the stream.
+ */
+final class NdjsonLineReader {
+
+    private final InputStream in;
+    private final int maxLineBytes;
+    private byte[] buffer;
+    private int position;
+    private int limit;
+    private int searchFrom;
+    private boolean eof;
+
+    private int lineStart;
+    private int lineLength;
+    private boolean oversized;
+
+    NdjsonLineReader(InputStream in, int maxLineBytes) {
+        this.in = in;
+        this.maxLineBytes = maxLineBytes;
+        this.buffer = new byte[Math.min(8192, maxLineBytes)];
+    }
+
+    /**
+     * Advance to the next non-blank line
+     * @return false at end of input
+     */
+    boolean nextLine() throws IOException {
+        boolean skipping = false;
+        while (true) {
+            int newline = indexOfNewline();
+            if (newline >= 0) {
+                int start = position;
+                position = newline + 1;
+                searchFrom = position;
+                if (skipping) {
+                    return markOversized();
+                }
+                if (setLine(start, newline)) {
+                    return true;
+                }
+                continue;
+            }
+
+            if (eof) {
+                int start = position;
+                position = limit;
+                searchFrom = limit;
+                if (skipping) {
+                    return markOversized();
+                }
+                return start < limit && setLine(start, limit);
+            }
+
+            if (skipping || limit - position >= maxLineBytes) {
+                // Drop what we have of the oversized line and keep reading until its end
+                skipping = true;
+                position = limit;
+                searchFrom = limit;
+            }
+            fill();
+        }
+    }
+
+    byte[] buffer() { return buffer; }
+
+    int lineStart() { return lineStart; }
+
+    int lineLength() { return lineLength; }
+
+    boolean isOversized() { return oversized; }
+
+    int maxLineBytes() { return maxLineBytes; }
+
+    private int indexOfNewline() {
+        for (int i = searchFrom; i < limit; i++) {
+            if (buffer[i] == '\n') {
+                return i;
+            }
+        }
+        searchFrom = limit;
+        return -1;
+    }
+
+    private boolean setLine(int start, int end) {
+        while (end > start && isWhitespace(buffer[end - 1])) {
+            end--;
+        }
+        while (start < end && isWhitespace(buffer[start])) {
+            start++;
+        }
+        if (start == end) {
+            return false;
+        }
+        oversized = false;
+        lineStart = start;
+        lineLength = end - start;
+        return true;
+    }
+
+    private boolean markOversized() {
+        oversized = true;
+        lineStart = 0;
+        lineLength = 0;
+        return true;
+    }
+
+    private void fill() throws IOException {
+        if (position > 0) {
+            int remaining = limit - position;
+            System.arraycopy(buffer, position, buffer, 0, remaining);
+            searchFrom -= position;
+            limit = remaining;
+            position = 0;
+        }
+        if (limit == buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.min(buffer.length * 2, maxLineBytes));
+        }
+        int read = in.read(buffer, limit, buffer.length - limit);
+        if (read < 0) {
+            eof = true;
+        } else {
+            limit += read;
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r';
+    }
+}
@@ -0,0 +1,297 @@
+package com.fdd.core.rest;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * gzip and deflate content coding for function request and response bodies.
+ * Deflaters and inflaters hold native memory and are costly to create, so they are pooled
+ * and reset between calls. Bodies below the caller's threshold are never compressed.
+ */
+public final class PayloadCompression {
+
+    public static final String GZIP = "gzip";
+    public static final String DEFLATE = "deflate";
+    public static final String IDENTITY = "identity";
+    public static final String CONTENT_ENCODING = "Content-Encoding";
+    public static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+    /** Codings this side decodes; sent as Accept-Encoding on requests and responses (RFC 7694) */
+    public static final String SUPPORTED = GZIP + ", " + DEFLATE;
+
+    /** Bodies smaller than this gain little and only pay latency */
+    public static final int DEFAULT_MIN_BYTES = 1024;
+
+    /** Upper bound for a decompressed body, against compression bombs */
+    public static final int MAX_INFLATED_BYTES = 64 * 1024 * 1024;
+
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final byte[] GZIP_HEADER = {(byte) 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    // gzip frames raw deflate data itself; HTTP deflate is the zlib format
+    private static final Pool<Deflater> GZIP_DEFLATERS =
+            new Pool<>(() -> new Deflater(Deflater.BEST_SPEED, true), Deflater::reset, Deflater::end);
+    private static final Pool<Deflater> ZLIB_DEFLATERS =
+            new Pool<>(() -> new Deflater(Deflater.BEST_SPEED, false), Deflater::reset, Deflater::end);
+    private static final Pool<Inflater> GZIP_INFLATERS =
+            new Pool<>(() -> new Inflater(true), Inflater::reset, Inflater::end);
+    private static final Pool<Inflater> ZLIB_INFLATERS =
+            new Pool<>(() -> new Inflater(false), Inflater::reset, Inflater::end);
+
+    private PayloadCompression() {}
+
+    /**
+     * The coding to compress a response with for the given Accept-Encoding (gzip preferred), or null
+     */
+    public static String negotiate(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return null;
+        }
+        boolean deflate = false;
+        for (String range : acceptEncoding.split(",")) {
+            String[] parts = range.split(";");
+            String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            if (isRefused(parts)) {
+                continue;
+            }
+            if (GZIP.equals(coding) || "x-gzip".equals(coding) || "*".equals(coding)) {
+                return GZIP;
+            }
+            deflate |= DEFLATE.equals(coding);
+        }
+        return deflate ? DEFLATE : null;
+    }
+
+    private static boolean isRefused(String[] parameters) {
+        for (int i = 1; i < parameters.length; i++) {
+            String parameter = parameters[i].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2)) <= 0;
+                } catch (NumberFormatException e) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether a body with this Content-Encoding can be decoded
+     */
+    public static boolean isSupported(String contentEncoding) {
+        return isIdentity(contentEncoding) || codingOf(contentEncoding) != null;
+    }
+
+    /**
+     * Compress a body with gzip or deflate
+     */
+    public static byte[] compress(byte[] data, String encoding) {
+        String coding = codingOf(encoding);
+        if (coding == null) {
+            throw new IllegalArgumentException("Unsupported content encoding: " + encoding);
+        }
+        boolean gzip = GZIP.equals(coding);
+        Pool<Deflater> pool = gzip ? GZIP_DEFLATERS : ZLIB_DEFLATERS;
+        Deflater deflater = pool.acquire();
+        try {
+            int header = gzip ? GZIP_HEADER.length : 0;
+            byte[] out = new byte[Math.max(64, header + data.length / 2 + 16)];
+            System.arraycopy(GZIP_HEADER, 0, out, 0, header);
+            int length = header;
+            deflater.setInput(data);
+            deflater.finish();
+            while (!deflater.finished()) {
+                if (length == out.length) {
+                    out = Arrays.copyOf(out, out.length * 2);
+                }
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            if (!gzip) {
+                return Arrays.copyOf(out, length);
+            }
+            CRC32 crc = new CRC32();
+            crc.update(data);
+            out = Arrays.copyOf(out, length + 8);
+            writeIntLE(out, length, (int) crc.getValue());
+            writeIntLE(out, length + 4, data.length);
+            return out;
+        } finally {
+            pool.release(deflater);
+        }
+    }
+
+    /**
+     * Decode a body by its Content-Encoding; identity bodies are returned as they are
+     */
+    public static byte[] decompress(byte[] data, String contentEncoding) throws IOException {
+        if (isIdentity(contentEncoding)) {
+            return data;
+        }
+        String coding = codingOf(contentEncoding);
+        if (coding == null) {
+            throw new ZipException("Unsupported content encoding: " + contentEncoding);
+        }
+        if (DEFLATE.equals(coding)) {
+            return inflate(ZLIB_INFLATERS, data, 0, null);
+        }
+
+        int offset = gzipHeaderLength(data);
+        CRC32 crc = new CRC32();
+        byte[] inflated = inflate(GZIP_INFLATERS, data, offset, crc);
+        int trailer = data.length - 8;
+        if (readIntLE(data, trailer) != (int) crc.getValue() || readIntLE(data, trailer + 4) != inflated.length) {
+            throw new ZipException("Corrupt gzip body: checksum mismatch");
+        }
+        return inflated;
+    }
+
+    /**
+     * Decode a request body stream by its Content-Encoding
+     */
+    public static InputStream decompress(InputStream body, String contentEncoding) throws IOException {
+        if (isIdentity(contentEncoding)) {
+            return body;
+        }
+        return new ByteArrayInputStream(decompress(body.readAllBytes(), contentEncoding));
+    }
+
+    private static byte[] inflate(Pool<Inflater> pool, byte[] data, int offset, CRC32 crc) throws IOException {
+        Inflater inflater = pool.acquire();
+        try {
+            inflater.setInput(data, offset, data.length - offset);
+            byte[] out = new byte[Math.max(64, Math.min(MAX_INFLATED_BYTES, data.length * 4))];
+            int length = 0;
+            while (!inflater.finished()) {
+                if (length == out.length) {
+                    if (out.length >= MAX_INFLATED_BYTES) {
+                        throw new ZipException("Decompressed body exceeds " + MAX_INFLATED_BYTES + " bytes");
+                    }
+                    out = Arrays.copyOf(out, (int) Math.min(MAX_INFLATED_BYTES, out.length * 2L));
+                }
+                int inflated = inflater.inflate(out, length, out.length - length);
+                if (inflated == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new ZipException("Truncated compressed body");
+                }
+                length += inflated;
+            }
+            if (crc != null) {
+                if (inflater.getRemaining() < 8) {
+                    throw new ZipException("Truncated gzip trailer");
+                }
+                crc.update(out, 0, length);
+            }
+            return length == out.length ? out : Arrays.copyOf(out, length);
+        } catch (DataFormatException e) {
+            throw new ZipException("Corrupt compressed body: " + e.getMessage());
+        } finally {
+            pool.release(inflater);
+        }
+    }
+
+    private static int gzipHeaderLength(byte[] data) throws IOException {
+        if (data.length < 18 || ((data[0] & 0xff) | (data[1] & 0xff) << 8) != GZIP_MAGIC || data[2] != Deflater.DEFLATED) {
+            throw new ZipException("Not a gzip body");
+        }
+        int flags = data[3] & 0xff;
+        int offset = 10;
+        if ((flags & FEXTRA) != 0) {
+            offset += 2 + ((data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8);
+        }
+        if ((flags & FNAME) != 0) {
+            offset = skipZeroTerminated(data, offset);
+        }
+        if ((flags & FCOMMENT) != 0) {
+            offset = skipZeroTerminated(data, offset);
+        }
+        if ((flags & FHCRC) != 0) {
+            offset += 2;
+        }
+        if (offset >= data.length) {
+            throw new ZipException("Truncated gzip header");
+        }
+        return offset;
+    }
+
+    private static int skipZeroTerminated(byte[] data, int offset) throws IOException {
+        while (offset < data.length && data[offset] != 0) {
+            offset++;
+        }
+        if (offset == data.length) {
+            throw new ZipException("Truncated gzip header");
+        }
+        return offset + 1;
+    }
+
+    private static boolean isIdentity(String contentEncoding) {
+        return contentEncoding == null || contentEncoding.isBlank() || IDENTITY.equalsIgnoreCase(contentEncoding.trim());
+    }
+
+    private static String codingOf(String encoding) {
+        if (encoding == null) {
+            return null;
+        }
+        String coding = encoding.trim().toLowerCase(Locale.ROOT);
+        if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+            return GZIP;
+        }
+        return DEFLATE.equals(coding) ? DEFLATE : null;
+    }
+
+    private static void writeIntLE(byte[] out, int offset, int value) {
+        out[offset] = (byte) value;
+        out[offset + 1] = (byte) (value >>> 8);
+        out[offset + 2] = (byte) (value >>> 16);
+        out[offset + 3] = (byte) (value >>> 24);
+    }
+
+    private static int readIntLE(byte[] data, int offset) {
+        return (data[offset] & 0xff) | (data[offset + 1] & 0xff) << 8
+                | (data[offset + 2] & 0xff) << 16 | (data[offset + 3] & 0xff) << 24;
+    }
+
+    /**
+     * Bounded pool of reusable codecs; extras beyond the bound are released instead of kept
+     */
+    private static final class Pool<T> {
+        private static final int MAX_IDLE = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+
+        private final ArrayBlockingQueue<T> idle = new ArrayBlockingQueue<>(MAX_IDLE);
+        private final Supplier<T> factory;
+        private final Consumer<T> reset;
+        private final Consumer<T> dispose;
+
+        Pool(Supplier<T> factory, Consumer<T> reset, Consumer<T> dispose) {
+            this.factory = factory;
+            this.reset = reset;
+            this.dispose = dispose;
+        }
+
+        T acquire() {
+            T codec = idle.poll();
+            return codec != null ? codec : factory.get();
+        }
+
+        void release(T codec) {
+            reset.accept(codec);
+            if (!idle.offer(codec)) {
+                dispose.accept(codec);
+            }
+        }
+    }
+}
@@ -1,6 +1,8 @@
 // SecurityContextHolder.java
 package com.fdd.core.security;
 
+import java.util.function.Supplier;
+
 /**
  * Thread-local holder for security context
  */
@@ -23,4 +25,46 @@ public class SecurityContextHolder {
     public static void clearContext() {
         contextHolder.remove();
     }
+
+    /**
+     * The context set on this thread, or null; unlike getContext this does not create one
+     */
+    public static FunctionSecurityContext getContextIfPresent() {
+        return contextHolder.get();
+    }
+
+    /**
+     * Run a task with the given context installed as the current one
+     */
+    public static <T> T callWithin(FunctionSecurityContext context, Supplier<T> task) {
+        FunctionSecurityContext previous = contextHolder.get();
+        if (context == previous) {
+            return task.get();
+        }
+        if (context != null) {
+            contextHolder.set(context);
+        } else {
+            contextHolder.remove();
+        }
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                contextHolder.set(previous);
+            } else {
+                contextHolder.remove();
+            }
+        }
+    }
+
+    /**
+     * Capture the caller's context so a task handed to another thread runs with it
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        FunctionSecurityContext captured = contextHolder.get();
+        if (captured == null) {
+            return task;
+        }
+        return () -> callWithin(captured, task);
+    }
 }
\ No newline at end of file
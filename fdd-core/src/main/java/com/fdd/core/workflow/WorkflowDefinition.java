@@ -0,0 +1,301 @@
+package com.fdd.core.workflow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fdd.core.config.ServerlessConfig;
+import com.fdd.core.registry.FunctionMetadata;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A workflow from serverless.yml compiled into a DAG.
+ * A step depends on the steps listed in depends-on and on every step its input references, and starts
+ * as soon as those have finished, so independent steps run in parallel. Compilation rejects steps
+ * without a function, references to unknown steps and dependency cycles.
+ */
+public final class WorkflowDefinition {
+
+    private static final String REFERENCE = "$.";
+
+    private final String name;
+    private final String functionName;
+    private final String timeout;
+    private final List<Step> steps;
+    private final JsonNode output;
+    private final int stages;
+
+    private WorkflowDefinition(String name, String functionName, String timeout, List<Step> steps, JsonNode output) {
+        this.name = name;
+        this.functionName = functionName;
+        this.timeout = timeout;
+        this.steps = Collections.unmodifiableList(steps);
+        this.output = output;
+        Map<String, Integer> depth = new HashMap<>();
+        for (Step step : steps) {
+            depth.put(step.name, step.dependencies.stream().mapToInt(depth::get).max().orElse(0) + 1);
+        }
+        this.stages = depth.values().stream().mapToInt(Integer::intValue).max().orElse(0);
+    }
+
+    /**
+     * Compile a workflow declared in serverless.yml
+     * @throws IllegalArgumentException when the workflow is not a valid DAG
+     */
+    public static WorkflowDefinition compile(String name, ServerlessConfig.WorkflowConfig config) {
+        return compile(name, config, Set.of());
+    }
+
+    /**
+     * Compile part of a workflow whose other steps ran elsewhere: the provided steps' outputs are supplied
+     * with the input, so steps may reference and depend on them without declaring them
+     * @throws IllegalArgumentException when the steps are not a valid DAG
+     */
+    public static WorkflowDefinition compile(String name, ServerlessConfig.WorkflowConfig config,
+                                             Collection<String> provided) {
+        if (config.getSteps() == null || config.getSteps().isEmpty()) {
+            throw new IllegalArgumentException("Workflow " + name + " has no steps");
+        }
+        Map<String, Step> declared = new LinkedHashMap<>();
+        config.getSteps().forEach((stepName, stepConfig) -> {
+            if (provided.contains(stepName)) {
+                throw new IllegalArgumentException("Workflow " + name + " step " + stepName + " is also provided");
+            }
+            declared.put(stepName, step(name, stepName, stepConfig, provided));
+        });
+
+        for (Step step : declared.values()) {
+            for (String dependency : step.dependencies) {
+                if (!declared.containsKey(dependency)) {
+                    throw new IllegalArgumentException("Workflow " + name + " step " + step.name
+                            + " depends on unknown step " + dependency);
+                }
+            }
+        }
+        for (String reference : references(config.getOutput())) {
+            if (!declared.containsKey(reference) && !provided.contains(reference)) {
+                throw new IllegalArgumentException("Workflow " + name + " output references unknown step " + reference);
+            }
+        }
+        WorkflowDefinition definition = new WorkflowDefinition(name,
+                config.getName() != null ? config.getName() : "com.fdd.workflow." + name,
+                config.getTimeout(), topologicalOrder(name, declared), config.getOutput());
+        definition.toMetadata(); // rejects an invalid timeout now rather than at registration
+        return definition;
+    }
+
+    private static Step step(String workflow, String stepName, ServerlessConfig.WorkflowStepConfig config,
+                             Collection<String> provided) {
+        if (config.getFunction() == null || config.getFunction().isBlank()) {
+            throw new IllegalArgumentException("Workflow " + workflow + " step " + stepName + " has no function");
+        }
+        boolean continueOnFailure;
+        if (config.getOnFailure() == null || "fail".equalsIgnoreCase(config.getOnFailure())) {
+            continueOnFailure = false;
+        } else if ("continue".equalsIgnoreCase(config.getOnFailure())) {
+            continueOnFailure = true;
+        } else {
+            throw new IllegalArgumentException("Workflow " + workflow + " step " + stepName
+                    + " has unknown on-failure policy " + config.getOnFailure() + " (fail or continue)");
+        }
+        Set<String> dependencies = new LinkedHashSet<>();
+        if (config.getDependsOn() != null) {
+            dependencies.addAll(config.getDependsOn());
+        }
+        dependencies.addAll(references(config.getInput()));
+        if (dependencies.contains(stepName)) {
+            throw new IllegalArgumentException("Workflow " + workflow + " step " + stepName + " depends on itself");
+        }
+        dependencies.removeAll(provided);
+        return new Step(stepName, config.getFunction(), config.getInput(), List.copyOf(dependencies),
+                config.getRequire(), continueOnFailure);
+    }
+
+    /**
+     * Steps ordered so every step follows its dependencies, keeping declaration order where free
+     */
+    private static List<Step> topologicalOrder(String workflow, Map<String, Step> declared) {
+        List<Step> ordered = new ArrayList<>(declared.size());
+        Set<String> placed = new LinkedHashSet<>();
+        while (ordered.size() < declared.size()) {
+            boolean progress = false;
+            for (Step step : declared.values()) {
+                if (!placed.contains(step.name) && placed.containsAll(step.dependencies)) {
+                    ordered.add(step);
+                    placed.add(step.name);
+                    progress = true;
+                }
+            }
+            if (!progress) {
+                List<String> cycle = new ArrayList<>(declared.keySet());
+                cycle.removeAll(placed);
+                throw new IllegalArgumentException("Workflow " + workflow + " has a dependency cycle between steps " + cycle);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Steps referenced by a template ($.steps.name...)
+     */
+    private static Set<String> references(JsonNode template) {
+        Set<String> references = new LinkedHashSet<>();
+        collectReferences(template, references);
+        return references;
+    }
+
+    private static void collectReferences(JsonNode template, Set<String> references) {
+        if (template == null) {
+            return;
+        }
+        if (template.isTextual() && template.asText().startsWith(REFERENCE)) {
+            String[] path = template.asText().substring(REFERENCE.length()).split("\\.");
+            if ("steps".equals(path[0])) {
+                if (path.length < 2) {
+                    throw new IllegalArgumentException("Reference " + template.asText() + " names no step");
+                }
+                references.add(path[1]);
+            } else if (!"input".equals(path[0])) {
+                throw new IllegalArgumentException("Reference " + template.asText() + " must start with $.input or $.steps");
+            }
+        }
+        template.forEach(child -> collectReferences(child, references));
+    }
+
+    /**
+     * Evaluate a template against {"input": ..., "steps": {...}}; a missing template yields the workflow input
+     */
+    static JsonNode render(JsonNode template, JsonNode context) {
+        if (template == null || template.isNull()) {
+            return context.path("input");
+        }
+        if (template.isTextual() && template.asText().startsWith(REFERENCE)) {
+            JsonNode value = context;
+            for (String field : template.asText().substring(REFERENCE.length()).split("\\.")) {
+                value = value.path(field);
+            }
+            return value.isMissingNode() ? NullNode.getInstance() : value;
+        }
+        if (template.isObject()) {
+            ObjectNode rendered = JsonNodeFactory.instance.objectNode();
+            Iterator<Map.Entry<String, JsonNode>> fields = template.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                rendered.set(field.getKey(), render(field.getValue(), context));
+            }
+            return rendered;
+        }
+        if (template.isArray()) {
+            ArrayNode rendered = JsonNodeFactory.instance.arrayNode();
+            template.forEach(element -> rendered.add(render(element, context)));
+            return rendered;
+        }
+        return template;
+    }
+
+    /**
+     * Metadata for registering the workflow as a function (JSON in and out, timeout as deadline)
+     */
+    public FunctionMetadata toMetadata() {
+        FunctionMetadata metadata = new FunctionMetadata();
+        metadata.setComponent(name);
+        metadata.setName(functionName);
+        metadata.setInputType(JsonNode.class);
+        metadata.setOutputType(JsonNode.class);
+        if (timeout != null) {
+            FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
+            deployment.setTimeout(timeout);
+            metadata.setDeployment(deployment);
+        }
+        return metadata;
+    }
+
+    public String getName() { return name; }
+
+    /**
+     * Steps in an order where every step follows its dependencies
+     */
+    public List<Step> getSteps() { return steps; }
+
+    /**
+     * Length of the longest dependency chain: the number of step latencies a run waits for
+     */
+    public int getStageCount() { return stages; }
+
+    JsonNode getOutput() { return output; }
+
+    @Override
+    public String toString() {
+        return "WorkflowDefinition{" +
+                "name='" + name + '\'' +
+                ", steps=" + steps.size() +
+                ", stages=" + stages +
+                '}';
+    }
+
+    public static final class Step {
+        private final String name;
+        private final String function;
+        private final JsonNode input;
+        private final List<String> dependencies;
+        private final String[] require;
+        private final boolean continueOnFailure;
+
+        private Step(String name, String function, JsonNode input, List<String> dependencies,
+                     String require, boolean continueOnFailure) {
+            this.name = name;
+            this.function = function;
+            this.input = input;
+            this.dependencies = dependencies;
+            this.require = require != null && !require.isBlank() ? require.split("\\.") : null;
+            this.continueOnFailure = continueOnFailure;
+        }
+
+        JsonNode inputFor(JsonNode context) {
+            return render(input, context);
+        }
+
+        /**
+         * Whether an output passes the require condition (a field that must be true)
+         */
+        boolean accepts(JsonNode output) {
+            if (require == null) {
+                return true;
+            }
+            JsonNode value = output;
+            for (String field : require) {
+                value = value.path(field);
+            }
+            return value.asBoolean(false);
+        }
+
+        public String getName() { return name; }
+
+        public String getFunction() { return function; }
+
+        /**
+         * The input template, or null when the step takes the workflow input
+         */
+        public JsonNode getInput() { return input; }
+
+        public List<String> getDependencies() { return dependencies; }
+
+        public String getRequire() { return require != null ? String.join(".", require) : null; }
+
+        /**
+         * on-failure: continue - a failed step yields null and its dependents still run
+         */
+        public boolean isContinueOnFailure() { return continueOnFailure; }
+    }
+}
@@ -0,0 +1,276 @@
+package com.fdd.core.workflow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.NullNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fdd.core.flow.FddFlow;
+import com.fdd.core.flow.FlowStepFailedException;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.rest.CompositeEnvelope;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Runs a compiled workflow as a function.
+ * Each step is invoked through the registry (locally, or remotely when the registry forwards calls)
+ * as soon as its dependencies have finished, with the caller's security context and deadline. The first
+ * step that fails or is rejected by its require condition fails the workflow and cancels the steps still
+ * running, unless the step is marked on-failure: continue. Per-step call counts and latencies are kept.
+ * Steps whose functions live on the same remote deployment are pushed down to it as one composite
+ * request when that does not delay any of them, saving a round trip per additional step.
+ */
+public class WorkflowFunction implements Function<JsonNode, JsonNode> {
+    private static final Logger logger = LoggerFactory.getLogger(WorkflowFunction.class);
+
+    private final FunctionRegistry registry;
+    private final WorkflowDefinition definition;
+    private final ObjectMapper objectMapper;
+    private final Map<String, StepStats> stepStats;
+
+    public WorkflowFunction(FunctionRegistry registry, WorkflowDefinition definition, ObjectMapper objectMapper) {
+        this.registry = registry;
+        this.definition = definition;
+        this.objectMapper = objectMapper;
+        Map<String, StepStats> stats = new LinkedHashMap<>();
+        definition.getSteps().forEach(step -> stats.put(step.getName(), new StepStats()));
+        this.stepStats = Collections.unmodifiableMap(stats);
+    }
+
+    /**
+     * @throws FlowStepFailedException when a step's require condition rejects its output
+     */
+    @Override
+    public JsonNode apply(JsonNode input) {
+        JsonNode workflowInput = input != null ? input : NullNode.getInstance();
+        ObjectNode outputs = start(workflowInput, JsonNodeFactory.instance.objectNode()).join();
+        return WorkflowDefinition.render(outputTemplate(), context(workflowInput, outputs));
+    }
+
+    /**
+     * Run the steps for an input and return every step's output by name.
+     * Provided holds the outputs of steps that ran elsewhere, for steps that reference them.
+     * @throws FlowStepFailedException when a step's require condition rejects its output
+     */
+    public ObjectNode execute(JsonNode input, ObjectNode provided) {
+        return start(input != null && !input.isMissingNode() ? input : NullNode.getInstance(), provided).join();
+    }
+
+    private FddFlow<ObjectNode> start(JsonNode input, ObjectNode provided) {
+        Map<String, FddFlow<JsonNode>> flows = new HashMap<>();
+        for (List<WorkflowDefinition.Step> unit : plan()) {
+            // Every step of a unit has its dependencies in the unit or among the first step's
+            List<String> dependencies = unit.get(0).getDependencies();
+            List<FddFlow<? extends JsonNode>> ready = new ArrayList<>();
+            dependencies.forEach(dependency -> ready.add(flows.get(dependency)));
+            if (unit.size() == 1) {
+                WorkflowDefinition.Step step = unit.get(0);
+                flows.put(step.getName(), FddFlow.parallel(ready)
+                        .thenCompose(outputs -> run(step, context(input, provided(provided, dependencies, outputs)))));
+            } else {
+                FddFlow<ObjectNode> pushed = FddFlow.parallel(ready)
+                        .thenCompose(outputs -> pushDown(unit, input, provided(provided, dependencies, outputs)));
+                unit.forEach(step -> flows.put(step.getName(),
+                        pushed.thenApply(outputs -> CompositeEnvelope.output(outputs, step.getName()))));
+            }
+        }
+        List<String> names = new ArrayList<>();
+        List<FddFlow<? extends JsonNode>> all = new ArrayList<>();
+        for (WorkflowDefinition.Step step : definition.getSteps()) {
+            names.add(step.getName());
+            all.add(flows.get(step.getName()));
+        }
+        return FddFlow.parallel(all).thenApply(outputs -> provided(JsonNodeFactory.instance.objectNode(), names, outputs));
+    }
+
+    /**
+     * Steps grouped into units that run as one: a step whose function runs on the same remote deployment
+     * as the last unit for that deployment joins it when pushing the unit down does not make the step
+     * wait longer than it would on its own.
+     * Units with one step are invoked through the registry; larger units go to their deployment
+     * as one composite request. Resolved per run, as deployments may change while the registry is live.
+     */
+    private List<List<WorkflowDefinition.Step>> plan() {
+        List<List<WorkflowDefinition.Step>> units = new ArrayList<>();
+        Map<String, List<WorkflowDefinition.Step>> open = new HashMap<>();
+        for (WorkflowDefinition.Step step : definition.getSteps()) {
+            String deployment = registry.getRemoteDeployment(step.getFunction());
+            List<WorkflowDefinition.Step> unit = deployment != null ? open.get(deployment) : null;
+            if (unit != null && joins(step, unit)) {
+                unit.add(step);
+                continue;
+            }
+            List<WorkflowDefinition.Step> opened = new ArrayList<>();
+            opened.add(step);
+            units.add(opened);
+            if (deployment != null) {
+                open.put(deployment, opened);
+            }
+        }
+        return units;
+    }
+
+    /**
+     * Whether a step starts exactly when a unit could: it follows a step of the unit, or it waits for the
+     * same steps as the unit's first step, and it waits for nothing the unit's first step does not
+     */
+    private static boolean joins(WorkflowDefinition.Step step, List<WorkflowDefinition.Step> unit) {
+        List<String> unitDependencies = unit.get(0).getDependencies();
+        boolean followsMember = false;
+        List<String> outside = new ArrayList<>();
+        for (String dependency : step.getDependencies()) {
+            if (unit.stream().anyMatch(member -> member.getName().equals(dependency))) {
+                followsMember = true;
+            } else {
+                outside.add(dependency);
+            }
+        }
+        return unitDependencies.containsAll(outside) && (followsMember || outside.containsAll(unitDependencies));
+    }
+
+    /**
+     * Send the steps of a unit to their deployment in one composite request
+     */
+    private FddFlow<ObjectNode> pushDown(List<WorkflowDefinition.Step> unit, JsonNode input, ObjectNode provided) {
+        String target = unit.get(0).getFunction();
+        ObjectNode request = CompositeEnvelope.request(definition.getName(), unit, input, provided);
+        return FddFlow.async(() -> {
+            long start = System.nanoTime();
+            return recording(registry.invokeCompositeAsync(target, request), (response, failure) -> unit.forEach(step -> {
+                StepStats stats = stepStats.get(step.getName());
+                stats.pushedDown.increment();
+                stats.record(System.nanoTime() - start, failure);
+            }));
+        }).thenApply(response -> CompositeEnvelope.outputs(target, response));
+    }
+
+    private FddFlow<JsonNode> run(WorkflowDefinition.Step step, JsonNode context) {
+        StepStats stats = stepStats.get(step.getName());
+        JsonNode stepInput = step.inputFor(context);
+        FddFlow<JsonNode> flow = FddFlow.async(() -> {
+            long start = System.nanoTime();
+            return recording(registry.invokeAsync(step.getFunction(), stepInput),
+                    (result, failure) -> stats.record(System.nanoTime() - start, failure));
+        }).thenApply(result -> {
+            JsonNode output = result instanceof JsonNode ? (JsonNode) result : objectMapper.valueToTree(result);
+            if (!step.accepts(output)) {
+                stats.rejected.increment();
+                throw new FlowStepFailedException("Workflow " + definition.getName() + " step " + step.getName()
+                        + " rejected: " + step.getRequire() + " is not true");
+            }
+            return output;
+        });
+        if (step.isContinueOnFailure()) {
+            flow = flow.recover(failure -> {
+                logger.debug("Workflow {} step {} failed, continuing: {}",
+                        definition.getName(), step.getName(), failure.getMessage());
+                return NullNode.getInstance();
+            });
+        }
+        return flow;
+    }
+
+    /**
+     * The call, completing only once its stats are recorded, so the workflow result never runs ahead of them;
+     * cancelling it cancels the call
+     */
+    private static <T> CompletableFuture<T> recording(CompletableFuture<T> call,
+                                                      BiConsumer<? super T, ? super Throwable> record) {
+        CompletableFuture<T> recorded = call.whenComplete(record);
+        recorded.whenComplete((result, failure) -> {
+            if (recorded.isCancelled()) {
+                call.cancel(true);
+            }
+        });
+        return recorded;
+    }
+
+    /**
+     * Outputs of earlier steps: the provided ones plus the named ones
+     */
+    private static ObjectNode provided(ObjectNode provided, List<String> stepNames, List<? extends JsonNode> outputs) {
+        ObjectNode steps = JsonNodeFactory.instance.objectNode();
+        steps.setAll(provided);
+        for (int i = 0; i < stepNames.size(); i++) {
+            steps.set(stepNames.get(i), outputs.get(i));
+        }
+        return steps;
+    }
+
+    private static JsonNode context(JsonNode input, ObjectNode steps) {
+        ObjectNode context = JsonNodeFactory.instance.objectNode();
+        context.set("input", input);
+        context.set("steps", steps);
+        return context;
+    }
+
+    /**
+     * The declared output, or every step's output keyed by step name
+     */
+    private JsonNode outputTemplate() {
+        if (definition.getOutput() != null) {
+            return definition.getOutput();
+        }
+        ObjectNode all = JsonNodeFactory.instance.objectNode();
+        definition.getSteps().forEach(step -> all.put(step.getName(), "$.steps." + step.getName()));
+        return all;
+    }
+
+    public WorkflowDefinition getDefinition() { return definition; }
+
+    /**
+     * Call statistics per step, in execution order
+     */
+    public Map<String, StepStats> getStepStats() { return stepStats; }
+
+    public static final class StepStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder pushedDown = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+
+        private void record(long nanos, Throwable failure) {
+            calls.increment();
+            totalNanos.add(nanos);
+            if (failure != null) {
+                failures.increment();
+            }
+        }
+
+        public long getCallCount() { return calls.sum(); }
+
+        /**
+         * Calls that failed, including those cancelled because another step failed first
+         */
+        public long getFailureCount() { return failures.sum(); }
+
+        /**
+         * Calls whose output did not pass the step's require condition
+         */
+        public long getRejectedCount() { return rejected.sum(); }
+
+        /**
+         * Calls sent to a remote deployment together with other steps in one composite request
+         */
+        public long getPushedDownCount() { return pushedDown.sum(); }
+
+        public Duration getAverageLatency() {
+            long count = calls.sum();
+            return count == 0 ? Duration.ZERO : Duration.ofNanos(totalNanos.sum() / count);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.fdd.core.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.registry.FunctionMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FunctionCache
+ */
+class FunctionCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldKeyOnCanonicalJsonRegardlessOfPropertyOrder() {
+        // Given
+        FunctionCache cache = FunctionCache.create("inventoryChecker", config(null), objectMapper);
+        AtomicInteger calls = new AtomicInteger();
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("productId", "LAPTOP-001");
+        first.put("quantity", 2);
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("quantity", 2);
+        second.put("productId", "LAPTOP-001");
+
+        // When
+        Object a = cache.apply(first, input -> "available-" + calls.incrementAndGet());
+        Object b = cache.apply(second, input -> "available-" + calls.incrementAndGet());
+
+        // Then
+        assertThat(a).isEqualTo(b);
+        assertThat(calls).hasValue(1);
+        assertThat(cache.getResults().getHitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldIgnoreFieldsOutsideKeyFields() {
+        // Given
+        FunctionCache cache = FunctionCache.create("inventoryChecker",
+                config(List.of("productId", "quantity")), objectMapper);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        cache.apply(Map.of("productId", "LAPTOP-001", "quantity", 1, "requestId", "r1"), input -> calls.incrementAndGet());
+        cache.apply(Map.of("productId", "LAPTOP-001", "quantity", 1, "requestId", "r2"), input -> calls.incrementAndGet());
+        cache.apply(Map.of("productId", "LAPTOP-001", "quantity", 3, "requestId", "r3"), input -> calls.incrementAndGet());
+
+        // Then
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void shouldNotCacheNullResults() {
+        // Given
+        FunctionCache cache = FunctionCache.create("userValidator", config(null), objectMapper);
+        AtomicInteger calls = new AtomicInteger();
+
+        // When
+        cache.apply("alice", input -> { calls.incrementAndGet(); return null; });
+        cache.apply("alice", input -> { calls.incrementAndGet(); return null; });
+
+        // Then
+        assertThat(calls).hasValue(2);
+        assertThat(cache.getResults().size()).isZero();
+    }
+
+    @Test
+    void shouldWeighEntriesInBytesWhenMaxBytesIsSet() {
+        // Given
+        FunctionMetadata.CacheMetadata config = config(null);
+        config.setMaxBytes("1KB");
+        FunctionCache cache = FunctionCache.create("inventoryChecker", config, objectMapper);
+
+        // When
+        cache.apply("LAPTOP-001", input -> "x".repeat(100));
+
+        // Then
+        assertThat(cache.getResults().getMaximumWeight()).isEqualTo(1024);
+        assertThat(cache.getResults().weight()).isGreaterThan(100);
+    }
+
+    private FunctionMetadata.CacheMetadata config(List<String> keyFields) {
+        FunctionMetadata.CacheMetadata config = new FunctionMetadata.CacheMetadata();
+        config.setTtl("60s");
+        config.setKeyFields(keyFields);
+        return config;
+    }
+}
@@ -0,0 +1,81 @@
+package com.fdd.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for FunctionResultCache
+ */
+class FunctionResultCacheTest {
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        // Given
+        FunctionResultCache cache = new FunctionResultCache("userValidator", 100, null, 100);
+
+        // When
+        assertThat(cache.get("alice")).isNull();
+        cache.put("alice", "valid", 1);
+
+        // Then
+        assertThat(cache.get("alice")).isEqualTo("valid");
+        assertThat(cache.getHitCount()).isEqualTo(1);
+        assertThat(cache.getMissCount()).isEqualTo(1);
+        assertThat(cache.getHitRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void shouldExpireEntriesAfterTtl() throws Exception {
+        // Given
+        FunctionResultCache cache = new FunctionResultCache("inventoryChecker", 100, Duration.ofMillis(20), 100);
+        cache.put("laptop", "in stock", 1);
+
+        // When
+        Thread.sleep(40);
+
+        // Then
+        assertThat(cache.get("laptop")).isNull();
+        assertThat(cache.getExpirationCount()).isEqualTo(1);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void shouldKeepFrequentEntriesWhenFloodedWithOneOffInputs() {
+        // Given - a popular key read many times
+        FunctionResultCache cache = new FunctionResultCache("userValidator", 100, null, 100);
+        cache.put("popular", "result", 1);
+        for (int i = 0; i < 20; i++) {
+            cache.get("popular");
+        }
+
+        // When - a scan of distinct inputs much larger than the cache
+        for (int i = 0; i < 1_000; i++) {
+            cache.get("scan-" + i);
+            cache.put("scan-" + i, "result", 1);
+        }
+
+        // Then
+        assertThat(cache.get("popular")).isEqualTo("result");
+        assertThat(cache.size()).isLessThanOrEqualTo(100);
+        assertThat(cache.getEvictionCount()).isGreaterThanOrEqualTo(900);
+    }
+
+    @Test
+    void shouldBoundTotalWeight() {
+        // Given
+        FunctionResultCache cache = new FunctionResultCache("inventoryChecker", 1_000, null, 10);
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            cache.put("key-" + i, "value", 100);
+        }
+        cache.put("huge", "value", 5_000);
+
+        // Then
+        assertThat(cache.weight()).isLessThanOrEqualTo(1_000);
+        assertThat(cache.get("huge")).isNull();
+    }
+}
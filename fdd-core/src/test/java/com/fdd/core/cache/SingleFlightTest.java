@@ -0,0 +1,148 @@
+package com.fdd.core.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for SingleFlight
+ */
+class SingleFlightTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void concurrentCallersShouldShareOneExecution() throws Exception {
+        // Given
+        SingleFlight singleFlight = new SingleFlight("inventoryChecker", null, objectMapper);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+
+        try {
+            // When - one caller is executing while three more arrive with the same input
+            Future<Object> leader = callers.submit(() -> singleFlight.apply("LAPTOP-001", null, input -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "available";
+            }));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            List<Future<Object>> followers = List.of(
+                    callers.submit(() -> singleFlight.apply("LAPTOP-001", null, input -> executions.incrementAndGet())),
+                    callers.submit(() -> singleFlight.apply("LAPTOP-001", null, input -> executions.incrementAndGet())),
+                    callers.submit(() -> singleFlight.apply("LAPTOP-001", null, input -> executions.incrementAndGet())));
+            while (singleFlight.getCoalescedCount() < 3) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            // Then
+            assertThat(leader.get(5, TimeUnit.SECONDS)).isEqualTo("available");
+            for (Future<Object> follower : followers) {
+                assertThat(follower.get(5, TimeUnit.SECONDS)).isEqualTo("available");
+            }
+            assertThat(executions).hasValue(1);
+            assertThat(singleFlight.getExecutionCount()).isEqualTo(1);
+            assertThat(singleFlight.getInFlightCount()).isZero();
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldNotKeepResultsOnceExecutionCompletes() {
+        // Given
+        SingleFlight singleFlight = new SingleFlight("userValidator", null, objectMapper);
+        AtomicInteger executions = new AtomicInteger();
+
+        // When
+        singleFlight.apply("alice", null, input -> executions.incrementAndGet());
+        singleFlight.apply("alice", null, input -> executions.incrementAndGet());
+
+        // Then
+        assertThat(executions).hasValue(2);
+        assertThat(singleFlight.getCoalescedCount()).isZero();
+    }
+
+    @Test
+    void failureShouldReachEveryAsyncCaller() {
+        // Given
+        SingleFlight singleFlight = new SingleFlight("paymentProcessor", null, objectMapper);
+        CompletableFuture<Object> remote = new CompletableFuture<>();
+
+        // When
+        CompletableFuture<Object> first = singleFlight.applyAsync(Map.of("amount", 10), input -> remote);
+        CompletableFuture<Object> second = singleFlight.applyAsync(Map.of("amount", 10), input -> new CompletableFuture<>());
+        remote.completeExceptionally(new IllegalStateException("Payment gateway down"));
+
+        // Then
+        assertThat(first).isCompletedExceptionally();
+        assertThat(second).isCompletedExceptionally();
+        assertThatThrownBy(second::join).hasRootCauseMessage("Payment gateway down");
+        assertThat(singleFlight.getInFlightCount()).isZero();
+    }
+
+    @Test
+    void cancellingOneCallerShouldNotCancelTheSharedExecution() {
+        // Given
+        SingleFlight singleFlight = new SingleFlight("inventoryChecker", List.of("productId"), objectMapper);
+        CompletableFuture<Object> remote = new CompletableFuture<>();
+        CompletableFuture<Object> first = singleFlight.applyAsync(Map.of("productId", "LAPTOP-001", "requestId", "a"),
+                input -> remote);
+        CompletableFuture<Object> second = singleFlight.applyAsync(Map.of("productId", "LAPTOP-001", "requestId", "b"),
+                input -> new CompletableFuture<>());
+
+        // When
+        first.cancel(true);
+        remote.complete("available");
+
+        // Then
+        assertThat(remote.isCancelled()).isFalse();
+        assertThat(second.join()).isEqualTo("available");
+    }
+
+    @Test
+    void waitingCallerShouldGiveUpAtItsDeadline() throws Exception {
+        // Given
+        SingleFlight singleFlight = new SingleFlight("inventoryChecker", null, objectMapper);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread leader = new Thread(() -> singleFlight.apply("LAPTOP-001", null, input -> {
+            started.countDown();
+            await(release);
+            return "available";
+        }));
+        leader.start();
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // When / Then
+        assertThatThrownBy(() -> singleFlight.apply("LAPTOP-001", Deadline.afterMillis(20), input -> "unused"))
+                .isInstanceOf(DeadlineExceededException.class);
+        release.countDown();
+        leader.join();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
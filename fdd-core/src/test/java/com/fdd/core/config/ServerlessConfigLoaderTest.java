@@ -0,0 +1,40 @@
+package com.fdd.core.config;
+
+import com.fdd.core.registry.FunctionMetadata;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for ServerlessConfigLoader
+ */
+class ServerlessConfigLoaderTest {
+
+    private final ServerlessConfigLoader loader = new ServerlessConfigLoader();
+
+    @Test
+    void shouldReadFddMetadataBesideDeploymentOnlySettings() {
+        // When
+        ServerlessConfig config = loader.loadConfig("config/serverless-lambda.yml");
+        Map<String, FunctionMetadata> metadata = loader.createMetadataMap(config);
+
+        // Then
+        assertThat(config.getServerless().getProvider().getName()).isEqualTo("aws");
+        FunctionMetadata echo = metadata.get("echo");
+        assertThat(echo.getImplementation()).isEqualTo("com.test.EchoFunction");
+        assertThat(echo.getDeployment().getTimeoutDuration()).isEqualTo(Duration.ofSeconds(5));
+        assertThat(echo.getCache().getTtlDuration()).isEqualTo(Duration.ofSeconds(30));
+    }
+
+    @Test
+    void shouldNotIgnoreUnknownFddKeys() {
+        // When
+        ServerlessConfig config = loader.loadConfig("config/serverless-typo.yml");
+
+        // Then
+        assertThat(config.getServerless().getFunctions()).isEmpty();
+    }
+}
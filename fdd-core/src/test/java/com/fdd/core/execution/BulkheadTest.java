@@ -0,0 +1,61 @@
+package com.fdd.core.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for Bulkhead
+ */
+class BulkheadTest {
+
+    @Test
+    void shouldRejectImmediatelyWhenSlotsAndQueueAreFull() {
+        // Given
+        Bulkhead bulkhead = new Bulkhead("paymentProcessor", 2, 0);
+        bulkhead.acquire();
+        bulkhead.acquire();
+
+        // When / Then
+        assertThatThrownBy(bulkhead::acquire)
+                .isInstanceOf(BulkheadFullException.class)
+                .hasMessageContaining("paymentProcessor");
+        assertThat(bulkhead.getActiveCount()).isEqualTo(2);
+        assertThat(bulkhead.getRejectedCount()).isEqualTo(1);
+
+        bulkhead.release();
+        bulkhead.acquire();
+        assertThat(bulkhead.getActiveCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldQueueUpToMaxQueueAndRunWhenSlotFrees() throws Exception {
+        // Given
+        Bulkhead bulkhead = new Bulkhead("inventoryChecker", 1, 1);
+        bulkhead.acquire();
+        CountDownLatch acquired = new CountDownLatch(1);
+        Thread queued = new Thread(() -> {
+            bulkhead.acquire();
+            acquired.countDown();
+            bulkhead.release();
+        });
+        queued.start();
+        while (bulkhead.getQueuedCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        // When - the queue is full, so a third caller is rejected
+        assertThatThrownBy(bulkhead::acquire).isInstanceOf(BulkheadFullException.class);
+        bulkhead.release();
+
+        // Then
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+        queued.join();
+        assertThat(bulkhead.getActiveCount()).isZero();
+        assertThat(bulkhead.getQueuedCount()).isZero();
+    }
+}
@@ -0,0 +1,125 @@
+package com.fdd.core.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for CircuitBreaker
+ */
+class CircuitBreakerTest {
+
+    private static final long MS = 1_000_000;
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private CircuitBreaker breaker(CircuitBreaker.Settings settings) {
+        return new CircuitBreaker("paymentProcessor", settings, clock::get);
+    }
+
+    private static CircuitBreaker.Settings settings() {
+        CircuitBreaker.Settings settings = new CircuitBreaker.Settings();
+        settings.setWindowSize(10);
+        settings.setMinimumCalls(4);
+        settings.setOpenDuration(Duration.ofSeconds(5));
+        settings.setHalfOpenCalls(2);
+        return settings;
+    }
+
+    private static void call(CircuitBreaker breaker, boolean fails, long durationNanos) {
+        breaker.acquirePermission();
+        if (fails) {
+            breaker.onFailure(durationNanos);
+        } else {
+            breaker.onSuccess(durationNanos);
+        }
+    }
+
+    @Test
+    void shouldOpenOnFailureRateAndFailFast() {
+        // Given
+        CircuitBreaker breaker = breaker(settings());
+        call(breaker, false, MS);
+        call(breaker, true, MS);
+        call(breaker, false, MS);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED); // below minimum calls
+
+        // When - 2 of 4 calls failed
+        call(breaker, true, MS);
+
+        // Then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(breaker::acquirePermission)
+                .isInstanceOf(CircuitBreakerOpenException.class)
+                .hasMessageContaining("paymentProcessor");
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        assertThat(breaker.getRejectedCount()).isEqualTo(2);
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulHalfOpenProbes() {
+        // Given
+        CircuitBreaker breaker = breaker(settings());
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, MS);
+        }
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        // When - two probes are let through, a third caller is still rejected
+        breaker.acquirePermission();
+        breaker.acquirePermission();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        breaker.onSuccess(MS);
+        breaker.onSuccess(MS);
+
+        // Then
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.getFailureRate()).isZero();
+        call(breaker, false, MS);
+    }
+
+    @Test
+    void shouldReopenWhenAProbeFails() {
+        // Given
+        CircuitBreaker breaker = breaker(settings());
+        for (int i = 0; i < 4; i++) {
+            call(breaker, true, MS);
+        }
+        clock.addAndGet(Duration.ofSeconds(6).toNanos());
+
+        // When
+        call(breaker, true, MS);
+
+        // Then - open again for a full open duration
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        assertThat(breaker.tryAcquirePermission()).isFalse();
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertThat(breaker.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    void shouldOpenOnSlowCallRate() {
+        // Given
+        CircuitBreaker.Settings settings = settings();
+        settings.setSlowCallDuration(Duration.ofMillis(500));
+        settings.setSlowCallRateThreshold(75);
+        CircuitBreaker breaker = breaker(settings);
+
+        // When - successful but slow
+        call(breaker, false, 600 * MS);
+        call(breaker, false, 20 * MS);
+        call(breaker, false, 700 * MS);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        call(breaker, false, 900 * MS);
+
+        // Then
+        assertThat(breaker.getSlowCallRate()).isEqualTo(75f);
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,106 @@
+package com.fdd.core.execution;
+
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.FunctionRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for deadline parsing, propagation and enforcement
+ */
+class DeadlineTest {
+
+    @Test
+    void shouldParseDeploymentTimeoutOnce() {
+        FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
+
+        deployment.setTimeout("30s");
+        assertThat(deployment.getTimeoutDuration()).isEqualTo(Duration.ofSeconds(30));
+
+        deployment.setTimeout("250ms");
+        assertThat(deployment.getTimeoutDuration()).isEqualTo(Duration.ofMillis(250));
+
+        deployment.setTimeout("5m");
+        assertThat(deployment.getTimeoutDuration()).isEqualTo(Duration.ofMinutes(5));
+
+        deployment.setTimeout("60");
+        assertThat(deployment.getTimeoutDuration()).isEqualTo(Duration.ofSeconds(60));
+
+        assertThatThrownBy(() -> deployment.setTimeout("soon"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("soon");
+    }
+
+    @Test
+    void shouldPickEarliestDeadline() {
+        Deadline soon = Deadline.afterMillis(100);
+        Deadline later = Deadline.afterMillis(10_000);
+
+        assertThat(Deadline.earliest(soon, later)).isSameAs(soon);
+        assertThat(Deadline.earliest(later, soon)).isSameAs(soon);
+        assertThat(Deadline.earliest(null, later)).isSameAs(later);
+        assertThat(Deadline.earliest(soon, null)).isSameAs(soon);
+    }
+
+    @Test
+    void nestedInvocationShouldInheritCallerBudget() {
+        // Given - orderProcessor has a 50ms timeout and calls paymentProcessor after spending it
+        FunctionRegistry registry = new FunctionRegistry();
+        Function<Object, Object> payment = input -> "paid";
+        registry.registerFunction("paymentProcessor", payment, metadata("paymentProcessor", "60s"));
+        Function<Object, Object> order = input -> {
+            sleep(100);
+            return registry.getInvoker("paymentProcessor").invoke(input);
+        };
+        registry.registerFunction("orderProcessor", order, metadata("orderProcessor", "50ms"));
+
+        // When / Then - the child is abandoned instead of running on the spent budget
+        assertThatThrownBy(() -> registry.getInvoker("orderProcessor").invoke("order"))
+                .isInstanceOf(DeadlineExceededException.class)
+                .hasMessageContaining("paymentProcessor");
+        assertThat(Deadline.current()).isNull();
+    }
+
+    @Test
+    void asyncInvocationShouldFailWhenTimeoutPasses() {
+        // Given
+        FunctionRegistry registry = new FunctionRegistry();
+        Function<Object, Object> slow = input -> {
+            sleep(2_000);
+            return "late";
+        };
+        registry.registerFunction("slow", slow, metadata("slow", "50ms"));
+
+        // When
+        CompletableFuture<Object> result = registry.invokeAsync("slow", "input");
+
+        // Then
+        assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+    }
+
+    private static FunctionMetadata metadata(String component, String timeout) {
+        FunctionMetadata metadata = new FunctionMetadata("test." + component, component, null, null);
+        FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
+        deployment.setTimeout(timeout);
+        metadata.setDeployment(deployment);
+        return metadata;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.fdd.core.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for execution mode selection
+ */
+class FunctionExecutorsTest {
+
+    @Test
+    void shouldParseExecutionModeProperty() {
+        assertThat(ExecutionMode.fromProperty(null)).isEqualTo(ExecutionMode.PLATFORM);
+        assertThat(ExecutionMode.fromProperty(" ")).isEqualTo(ExecutionMode.PLATFORM);
+        assertThat(ExecutionMode.fromProperty("platform")).isEqualTo(ExecutionMode.PLATFORM);
+        assertThat(ExecutionMode.fromProperty("virtual-threads")).isEqualTo(ExecutionMode.VIRTUAL_THREADS);
+        assertThat(ExecutionMode.fromProperty("VIRTUAL_THREADS")).isEqualTo(ExecutionMode.VIRTUAL_THREADS);
+        assertThatThrownBy(() -> ExecutionMode.fromProperty("green-threads"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("green-threads");
+    }
+
+    @Test
+    void shouldUseVirtualThreadsOnlyWhenRuntimeSupportsThem() throws Exception {
+        // Given
+        try (FunctionExecutors executors = new FunctionExecutors(ExecutionMode.VIRTUAL_THREADS, 2)) {
+
+            // When
+            String result = CompletableFuture.supplyAsync(() -> "done", executors.getInvocationExecutor()).get();
+
+            // Then
+            assertThat(result).isEqualTo("done");
+            assertThat(executors.isVirtual()).isEqualTo(VirtualThreads.isSupported());
+            assertThat(executors.getMode()).isEqualTo(VirtualThreads.isSupported()
+                    ? ExecutionMode.VIRTUAL_THREADS : ExecutionMode.PLATFORM);
+        }
+    }
+}
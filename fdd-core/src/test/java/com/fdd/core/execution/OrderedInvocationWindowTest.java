@@ -0,0 +1,90 @@
+package com.fdd.core.execution;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for OrderedInvocationWindow
+ */
+class OrderedInvocationWindowTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(8);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldEmitOutcomesInSubmissionOrder() throws Exception {
+        // Given
+        List<Object> emitted = new ArrayList<>();
+        OrderedInvocationWindow window = new OrderedInvocationWindow(executor, 4,
+                (index, result, failure) -> emitted.add(failure != null ? failure.getMessage() : result));
+
+        // When
+        for (int i = 0; i < 50; i++) {
+            int value = i;
+            window.submit(() -> {
+                sleepQuietly(ThreadLocalRandom.current().nextInt(3));
+                if (value % 10 == 7) {
+                    throw new IllegalStateException("failed-" + value);
+                }
+                return value;
+            });
+        }
+        window.drain();
+
+        // Then
+        assertThat(emitted).hasSize(50);
+        for (int i = 0; i < 50; i++) {
+            assertThat(emitted.get(i)).isEqualTo(i % 10 == 7 ? "failed-" + i : i);
+        }
+        assertThat(window.emitted()).isEqualTo(50);
+    }
+
+    @Test
+    void shouldNeverExceedMaxInFlight() throws Exception {
+        // Given
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        OrderedInvocationWindow window = new OrderedInvocationWindow(executor, 3, (index, result, failure) -> {});
+
+        // When
+        for (int i = 0; i < 30; i++) {
+            window.submit(() -> {
+                peak.accumulateAndGet(running.incrementAndGet(), Math::max);
+                sleepQuietly(2);
+                running.decrementAndGet();
+                return null;
+            });
+        }
+        window.drain();
+
+        // Then
+        assertThat(peak.get()).isLessThanOrEqualTo(3);
+    }
+
+    private static void sleepQuietly(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.fdd.core.execution;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.ConnectException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for RetryBudget and RetryPolicy
+ */
+class RetryBudgetTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    @Test
+    void shouldAllowRetriesUpToRatioOfRequests() {
+        // Given - 10% of requests, no per-second floor
+        RetryBudget budget = new RetryBudget(0.1, 0, clock::get);
+        for (int i = 0; i < 50; i++) {
+            budget.onRequest();
+        }
+
+        // When
+        int granted = 0;
+        for (int i = 0; i < 20; i++) {
+            granted += budget.tryAcquire() ? 1 : 0;
+        }
+
+        // Then
+        assertThat(granted).isEqualTo(5);
+        assertThat(budget.getRetryCount()).isEqualTo(5);
+        assertThat(budget.getExhaustedCount()).isEqualTo(15);
+    }
+
+    @Test
+    void shouldForgetRequestsAndRetriesOutsideTheWindow() {
+        // Given
+        RetryBudget budget = new RetryBudget(0.5, 1, clock::get);
+        for (int i = 0; i < 10; i++) {
+            budget.onRequest();
+        }
+        int granted = 0;
+        while (budget.tryAcquire()) {
+            granted++;
+        }
+        assertThat(granted).isEqualTo(15); // 5 earned + 10 floor over the 10s window
+
+        // When - the window has moved on, only the floor is left
+        clock.addAndGet(Duration.ofSeconds(11).toNanos());
+        granted = 0;
+        while (budget.tryAcquire()) {
+            granted++;
+        }
+
+        // Then
+        assertThat(granted).isEqualTo(10);
+    }
+
+    @Test
+    void shouldBackOffExponentiallyWithJitterUpToTheCap() {
+        // Given
+        RetryPolicy policy = new RetryPolicy("inventoryChecker", 4, null,
+                Duration.ofMillis(100), Duration.ofMillis(300), 2.0);
+
+        // Then
+        for (int i = 0; i < 200; i++) {
+            assertThat(policy.backoffNanos(1)).isBetween(0L, Duration.ofMillis(100).toNanos());
+            assertThat(policy.backoffNanos(2)).isBetween(0L, Duration.ofMillis(200).toNanos());
+            assertThat(policy.backoffNanos(5)).isBetween(0L, Duration.ofMillis(300).toNanos());
+        }
+        assertThat(policy.hasAttemptsAfter(3)).isTrue();
+        assertThat(policy.hasAttemptsAfter(4)).isFalse();
+        assertThat(policy.isRetryableStatus(503)).isTrue();
+        assertThat(policy.isRetryableStatus(500)).isFalse();
+        assertThat(policy.isRetryable(new ConnectException("refused"))).isTrue();
+        assertThat(policy.isRetryable(new CircuitBreakerOpenException("inventoryChecker", 100))).isFalse();
+    }
+}
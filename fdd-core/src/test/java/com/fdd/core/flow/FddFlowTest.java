@@ -0,0 +1,133 @@
+package com.fdd.core.flow;
+
+import com.fdd.core.execution.Deadline;
+import com.fdd.core.execution.DeadlineExceededException;
+import com.fdd.core.security.FunctionSecurityContext;
+import com.fdd.core.security.SecurityContextHolder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for FddFlow
+ */
+class FddFlowTest {
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void parallelStepsShouldRunConcurrently() {
+        // Given - each step waits for the other to have started
+        CountDownLatch started = new CountDownLatch(2);
+        Function<String, String> step = input -> {
+            started.countDown();
+            await(started);
+            return input.toUpperCase();
+        };
+
+        // When
+        String result = FddFlow.parallel(
+                        FddFlow.call(step, "user", executor),
+                        FddFlow.call(step, "inventory", executor),
+                        (user, inventory) -> user + "+" + inventory)
+                .thenCompose(combined -> FddFlow.call(value -> value + "+PAYMENT", combined, executor))
+                .join();
+
+        // Then
+        assertThat(result).isEqualTo("USER+INVENTORY+PAYMENT");
+    }
+
+    @Test
+    void firstFailureShouldFailTheFlowAndCancelSiblings() {
+        // Given - inventory never answers on its own
+        CompletableFuture<String> inventory = new CompletableFuture<>();
+        AtomicBoolean paymentStarted = new AtomicBoolean();
+
+        // When
+        FddFlow<String> flow = FddFlow.parallel(
+                        FddFlow.call((String user) -> false, "user", executor)
+                                .require(valid -> valid, valid -> "User validation failed"),
+                        FddFlow.async(() -> inventory),
+                        (valid, available) -> "payment")
+                .thenCompose(payment -> FddFlow.call(input -> {
+                    paymentStarted.set(true);
+                    return input;
+                }, payment, executor));
+
+        // Then
+        assertThatThrownBy(flow::join)
+                .isInstanceOf(FlowStepFailedException.class)
+                .hasMessage("User validation failed");
+        assertThat(inventory).isCancelled();
+        assertThat(paymentStarted).isFalse();
+    }
+
+    @Test
+    void stepsShouldRunWithCallerSecurityContextAndDeadline() {
+        // Given
+        FunctionSecurityContext context = new FunctionSecurityContext("user-1", List.of("ORDER_PROCESSOR"), "orders");
+        SecurityContextHolder.setContext(context);
+        Deadline deadline = Deadline.afterMillis(10_000);
+        Function<String, String> step = input ->
+                input + ":" + SecurityContextHolder.getContext().getUserId() + ":" + (Deadline.current() == deadline);
+
+        // When
+        List<String> results = Deadline.callWithin(deadline, () -> FddFlow.parallel(List.of(
+                        FddFlow.call(step, "a", executor),
+                        FddFlow.async(() -> CompletableFuture.supplyAsync(() -> "b", executor))
+                                .thenCompose(b -> FddFlow.call(step, b, executor))))
+                .join());
+
+        // Then
+        assertThat(results).containsExactly("a:user-1:true", "b:user-1:true");
+    }
+
+    @Test
+    void shouldNotStartStepsOrWaitPastTheDeadline() {
+        // Given
+        AtomicBoolean ran = new AtomicBoolean();
+        CompletableFuture<String> slow = new CompletableFuture<>();
+
+        // When / Then - a spent budget starts nothing
+        assertThatThrownBy(() -> Deadline.callWithin(Deadline.afterMillis(-1),
+                () -> FddFlow.call(input -> ran.getAndSet(true), "x", executor).join()))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(ran).isFalse();
+
+        // When / Then - join gives up once the budget is spent and abandons the step
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> Deadline.callWithin(Deadline.afterMillis(50),
+                () -> FddFlow.async(() -> slow).join()))
+                .isInstanceOf(DeadlineExceededException.class);
+        assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(5_000);
+        assertThat(slow).isCancelled();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("steps did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
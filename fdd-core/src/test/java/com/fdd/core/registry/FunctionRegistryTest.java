@@ -1,11 +1,26 @@
 package com.fdd.core.registry;
 
+import com.fdd.core.execution.BulkheadFullException;
+import com.fdd.core.execution.ExecutionMode;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.security.FunctionSecurityContext;
+import com.fdd.core.security.SecurityContextHolder;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 /**
  * Unit tests for FunctionRegistry
@@ -83,4 +98,234 @@ class FunctionRegistryTest {
         // Then
         assertThat(functionNames).containsExactlyInAnyOrder("bean1", "bean2");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldBuildInvokerAtRegistration() {
+        // Given
+        Function<String, String> testFunction = String::toUpperCase;
+        FunctionMetadata metadata = new FunctionMetadata("test.function", "testBean", String.class, String.class);
+
+        // When
+        registry.registerFunction("testBean", testFunction, metadata);
+        FunctionInvoker invoker = registry.getInvoker("testBean");
+
+        // Then
+        assertThat(invoker).isNotNull();
+        assertThat(invoker.getMetadata()).isSameAs(metadata);
+        assertThat(invoker.getInputType()).isEqualTo(String.class);
+        assertThat(invoker.invoke("hello")).isEqualTo("HELLO");
+        assertThat(registry.getInvoker("nonExistent")).isNull();
+    }
+
+    @Test
+    void invokerShouldConvertUntypedInputToDeclaredType() {
+        // Given
+        Function<Payload, String> testFunction = payload -> payload.getName() + ":" + payload.getCount();
+        FunctionMetadata metadata = new FunctionMetadata("payload.function", "payloadBean", Payload.class, String.class);
+        registry.registerFunction("payloadBean", testFunction, metadata);
+
+        // When
+        Object result = registry.getInvoker("payloadBean").convertAndInvoke(Map.of("name", "widget", "count", 3));
+
+        // Then
+        assertThat(result).isEqualTo("widget:3");
+    }
+
+    @Test
+    void shouldInvokeAsynchronouslyOnFunctionExecutor() throws Exception {
+        // Given
+        ExecutorService dedicated = Executors.newSingleThreadExecutor(task -> new Thread(task, "pricing-pool"));
+        try (FunctionExecutors executors = new FunctionExecutors(ExecutionMode.PLATFORM, 2)) {
+            executors.registerFunctionExecutor("threadName", dedicated);
+            registry.setFunctionExecutors(executors);
+            Function<Payload, String> threadName = payload -> payload.getName() + "@" + Thread.currentThread().getName();
+            registry.registerFunction("threadName", threadName,
+                    new FunctionMetadata("thread.function", "threadName", Payload.class, String.class));
+
+            // When
+            CompletableFuture<String> result = registry.invokeAsync("threadName", Map.of("name", "widget"));
+
+            // Then
+            assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("widget@pricing-pool");
+        } finally {
+            dedicated.shutdown();
+        }
+    }
+
+    @Test
+    void shouldResolveExecutorBySecurityGroup() throws Exception {
+        // Given
+        ExecutorService groupPool = Executors.newSingleThreadExecutor(task -> new Thread(task, "admin-pool"));
+        try (FunctionExecutors executors = new FunctionExecutors(ExecutionMode.PLATFORM, 2)) {
+            executors.registerGroupExecutor("admin", groupPool);
+            registry.setFunctionExecutors(executors);
+            FunctionMetadata metadata = new FunctionMetadata("admin.function", "adminTask", null, null);
+            FunctionMetadata.SecurityMetadata security = new FunctionMetadata.SecurityMetadata();
+            security.setGroup("admin");
+            metadata.setSecurity(security);
+            Function<Object, String> adminTask = input -> Thread.currentThread().getName();
+            registry.registerFunction("adminTask", adminTask, metadata);
+
+            // When
+            Object threadName = registry.invokeAsync("adminTask", "run").get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(threadName).isEqualTo("admin-pool");
+        } finally {
+            groupPool.shutdown();
+        }
+    }
+
+    @Test
+    void asyncInvocationShouldCarryCallerSecurityContext() throws Exception {
+        // Given
+        Function<Object, String> whoAmI = input -> SecurityContextHolder.getContext().getUserId();
+        registry.registerFunction("whoAmI", whoAmI, new FunctionMetadata("who.function", "whoAmI", null, null));
+        FunctionSecurityContext context = new FunctionSecurityContext();
+        context.setUserId("user-42");
+        SecurityContextHolder.setContext(context);
+
+        try {
+            // When
+            Object userId = registry.invokeAsync("whoAmI", "ignored").get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(userId).isEqualTo("user-42");
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
+    @Test
+    void asyncInvocationOfUnknownFunctionShouldFail() {
+        CompletableFuture<Object> result = registry.invokeAsync("nonExistent", "input");
+
+        assertThatThrownBy(result::get)
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("nonExistent");
+    }
+
+    @Test
+    void concurrentIdenticalInvocationsShouldShareOneExecution() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Function<String, String> slowLookup = input -> {
+            executions.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "stock:" + input;
+        };
+        FunctionMetadata metadata = new FunctionMetadata("test.inventory", "inventory", String.class, String.class);
+        metadata.setCoalesce(new FunctionMetadata.CoalesceMetadata());
+        registry.registerFunction("inventory", slowLookup, metadata);
+
+        // When
+        CompletableFuture<Object> first = registry.invokeAsync("inventory", "LAPTOP-001");
+        CompletableFuture<Object> second = registry.invokeAsync("inventory", "LAPTOP-001");
+        CompletableFuture<Object> other = registry.invokeAsync("inventory", "PHONE-002");
+        release.countDown();
+
+        // Then
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("stock:LAPTOP-001");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("stock:LAPTOP-001");
+        assertThat(other.get(5, TimeUnit.SECONDS)).isEqualTo("stock:PHONE-002");
+        assertThat(executions).hasValue(2);
+        assertThat(registry.getInvoker("inventory").getSingleFlight().getCoalescedCount()).isEqualTo(1);
+        assertThat(registry.getInvoker("inventory").getSingleFlight().getInFlightCount()).isZero();
+    }
+
+    @Test
+    void cachedResultsShouldBeServedWithoutABulkheadPermit() throws Exception {
+        // Given - one slot, no queue, and a cached result for LAPTOP-001
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger executions = new AtomicInteger();
+        Function<String, String> lookup = input -> {
+            executions.incrementAndGet();
+            if (input.startsWith("SLOW")) {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return "stock:" + input;
+        };
+        FunctionMetadata metadata = new FunctionMetadata("test.inventory", "inventory", String.class, String.class);
+        FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
+        deployment.setMaxConcurrency(1);
+        deployment.setMaxQueue(0);
+        metadata.setDeployment(deployment);
+        FunctionMetadata.CacheMetadata cache = new FunctionMetadata.CacheMetadata();
+        cache.setTtl("60s");
+        metadata.setCache(cache);
+        metadata.setCoalesce(new FunctionMetadata.CoalesceMetadata());
+        registry.registerFunction("inventory", lookup, metadata);
+        FunctionInvoker invoker = registry.getInvoker("inventory");
+        invoker.invoke("LAPTOP-001");
+
+        // When - a slow call holds the only permit
+        CompletableFuture<Object> slow = registry.invokeAsync("inventory", "SLOW-001");
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // Then - hits are answered, misses are rejected
+        assertThat(invoker.invoke("LAPTOP-001")).isEqualTo("stock:LAPTOP-001");
+        assertThat(registry.invokeAsync("inventory", "LAPTOP-001").getNow(null)).isEqualTo("stock:LAPTOP-001");
+        assertThatThrownBy(() -> invoker.invoke("PHONE-002")).isInstanceOf(BulkheadFullException.class);
+        release.countDown();
+        assertThat(slow.get(5, TimeUnit.SECONDS)).isEqualTo("stock:SLOW-001");
+        assertThat(executions).hasValue(2);
+        assertThat(invoker.getCache().getResults().getHitCount()).isEqualTo(2);
+        assertThat(invoker.getSingleFlight().getExecutionCount()).isEqualTo(3); // the misses only
+    }
+
+    @Test
+    void primerShouldRunSamplesThroughEveryWireFormat() {
+        // Given - one sample the function can handle and one it rejects
+        AtomicInteger applied = new AtomicInteger();
+        Function<Payload, String> greeter = payload -> {
+            applied.incrementAndGet();
+            if (payload.getCount() < 0) {
+                throw new IllegalArgumentException("negative count");
+            }
+            return payload.getName() + "x" + payload.getCount();
+        };
+        FunctionMetadata metadata = new FunctionMetadata("test.greeter", "greeter", Payload.class, String.class);
+        metadata.setSamples(List.of(Map.of("name", "sample", "count", 2), Map.of("name", "bad", "count", -1)));
+        FunctionMetadata.CacheMetadata cache = new FunctionMetadata.CacheMetadata();
+        cache.setTtl("60s");
+        metadata.setCache(cache);
+        registry.registerFunction("greeter", greeter, metadata);
+        registry.registerFunction("unsampled", (Function<String, String>) String::trim,
+                new FunctionMetadata("test.unsampled", "unsampled", String.class, String.class));
+
+        // When
+        FunctionPrimer primer = new FunctionPrimer(registry).prime();
+
+        // Then - both samples in each format, the rejected one counted rather than thrown
+        int formats = WireFormat.values().length;
+        assertThat(applied).hasValue(2 * formats);
+        assertThat(primer.getPrimedFunctions()).isEqualTo(1);
+        assertThat(primer.getSampleCalls()).isEqualTo(formats);
+        assertThat(primer.getFailures()).isEqualTo(formats);
+        assertThat(registry.getInvoker("greeter").getCache().getResults().size()).isZero();
+        assertThat(registry.getInvoker("greeter").getCache().getResults().getMissCount()).isZero();
+    }
+
+    static class Payload {
+        private String name;
+        private int count;
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+
+        public int getCount() { return count; }
+        public void setCount(int count) { this.count = count; }
+    }
+}
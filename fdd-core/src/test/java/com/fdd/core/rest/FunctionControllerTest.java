@@ -0,0 +1,304 @@
+package com.fdd.core.rest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.registry.WireFormat;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Unit tests for FunctionController invocation endpoints
+ */
+class FunctionControllerTest {
+
+    private FunctionRegistry registry;
+    private MockMvc mockMvc;
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        registry = new FunctionRegistry();
+
+        Function<Item, Map<String, Object>> priceFunction = item -> {
+            if (item.getQuantity() < 0) {
+                throw new IllegalArgumentException("Quantity must not be negative");
+            }
+            return Map.of("sku", item.getSku(), "total", item.getQuantity() * 10);
+        };
+        registry.registerFunction("pricer", priceFunction,
+                new FunctionMetadata("test.pricer", "pricer", Item.class, Map.class));
+
+        Function<Object, Object> echoFunction = input -> input;
+        registry.registerFunction("echo", echoFunction, new FunctionMetadata("test.echo", "echo", null, null));
+
+        Function<Object, Object> failingFunction = input -> {
+            throw new IllegalStateException("Downstream said \"no\"");
+        };
+        registry.registerFunction("failing", failingFunction, new FunctionMetadata("test.failing", "failing", null, null));
+
+        Function<Object, Object> blockingFunction = input -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("done", true);
+        };
+        FunctionMetadata limitedMetadata = new FunctionMetadata("test.limited", "limited", null, null);
+        FunctionMetadata.DeploymentMetadata deployment = new FunctionMetadata.DeploymentMetadata();
+        deployment.setMaxConcurrency(1);
+        deployment.setMaxQueue(0);
+        limitedMetadata.setDeployment(deployment);
+        registry.registerFunction("limited", blockingFunction, limitedMetadata);
+
+        FunctionController controller = new FunctionController();
+        ReflectionTestUtils.setField(controller, "functionRegistry", registry);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @Test
+    void shouldReadBodyDirectlyIntoDeclaredInputType() throws Exception {
+        mockMvc.perform(post("/functions/pricer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sku\":\"A-1\",\"quantity\":3}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sku").value("A-1"))
+                .andExpect(jsonPath("$.total").value(30));
+    }
+
+    @Test
+    void shouldNegotiateBinaryFormatFromContentTypeAndAccept() throws Exception {
+        // Given
+        ObjectMapper smile = new ObjectMapper(new SmileFactory());
+        byte[] body = smile.writeValueAsBytes(Map.of("sku", "A-1", "quantity", 3));
+
+        // When
+        MvcResult result = mockMvc.perform(post("/functions/pricer")
+                        .contentType(WireFormat.SMILE.getMediaType())
+                        .header(HttpHeaders.ACCEPT, WireFormat.SMILE.acceptHeader())
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(result.getResponse().getContentType()).isEqualTo(WireFormat.SMILE.getMediaType());
+        Map<?, ?> decoded = smile.readValue(result.getResponse().getContentAsByteArray(), Map.class);
+        assertThat(decoded.get("sku")).isEqualTo("A-1");
+        assertThat(decoded.get("total")).isEqualTo(30);
+    }
+
+    @Test
+    void shouldAnswerJsonWhenAcceptNamesNoBinaryFormat() throws Exception {
+        byte[] body = new ObjectMapper(new CBORFactory()).writeValueAsBytes(Map.of("sku", "B", "quantity", 1));
+
+        mockMvc.perform(post("/functions/pricer")
+                        .contentType(WireFormat.CBOR.getMediaType())
+                        .header(HttpHeaders.ACCEPT, "application/json, */*")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.sku").value("B"))
+                .andExpect(jsonPath("$.total").value(10));
+    }
+
+    @Test
+    void shouldDecodeGzipBodyAndCompressOnlyLargeResults() throws Exception {
+        // Given
+        String note = "x".repeat(2048);
+        byte[] body = PayloadCompression.compress(("{\"note\":\"" + note + "\"}").getBytes(StandardCharsets.UTF_8), "gzip");
+
+        // When
+        MvcResult large = mockMvc.perform(post("/functions/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn();
+        MvcResult small = mockMvc.perform(post("/functions/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                        .content("{\"note\":\"tiny\"}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        // Then
+        assertThat(large.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(new String(PayloadCompression.decompress(large.getResponse().getContentAsByteArray(), "gzip"),
+                StandardCharsets.UTF_8)).contains(note);
+        assertThat(small.getResponse().getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(small.getResponse().getContentAsString()).isEqualTo("{\"note\":\"tiny\"}");
+        assertThat(small.getResponse().getHeader(HttpHeaders.ACCEPT_ENCODING)).isEqualTo(PayloadCompression.SUPPORTED);
+    }
+
+    @Test
+    void shouldRejectUnsupportedContentEncoding() throws Exception {
+        mockMvc.perform(post("/functions/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header(HttpHeaders.CONTENT_ENCODING, "br")
+                        .content("{}"))
+                .andExpect(status().isUnsupportedMediaType())
+                .andExpect(jsonPath("$.error").value("Unsupported content encoding"));
+    }
+
+    @Test
+    void shouldFallBackToGenericInputWhenNoTypeDeclared() throws Exception {
+        mockMvc.perform(post("/functions/echo")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"hello\":\"world\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hello").value("world"));
+    }
+
+    @Test
+    void shouldRejectMalformedBody() throws Exception {
+        mockMvc.perform(post("/functions/pricer")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sku\":"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.function").value("pricer"));
+    }
+
+    @Test
+    void shouldReturnNotFoundForUnknownFunction() throws Exception {
+        mockMvc.perform(post("/functions/missing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Function not found"));
+    }
+
+    @Test
+    void shouldEncodeFailureWithEscapedMessage() throws Exception {
+        mockMvc.perform(post("/functions/failing")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.error").value("Function execution failed"))
+                .andExpect(jsonPath("$.message").value("Downstream said \"no\""))
+                .andExpect(jsonPath("$.function").value("failing"))
+                .andExpect(jsonPath("$.details").value("IllegalStateException"));
+    }
+
+    @Test
+    void shouldExecuteBatchInOrderWithPerItemErrors() throws Exception {
+        mockMvc.perform(post("/functions/pricer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"sku\":\"A\",\"quantity\":1},{\"sku\":\"B\",\"quantity\":-1},{\"sku\":\"C\",\"quantity\":3}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(3))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].result.total").value(10))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].error").value("Function execution failed"))
+                .andExpect(jsonPath("$[1].message").value("Quantity must not be negative"))
+                .andExpect(jsonPath("$[2].result.sku").value("C"))
+                .andExpect(jsonPath("$[2].result.total").value(30));
+    }
+
+    @Test
+    void shouldExecuteBatchEnvelopeSentToFunctionEndpoint() throws Exception {
+        mockMvc.perform(post("/functions/pricer")
+                        .header(BatchEnvelope.HEADER, "true")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"sku\":\"A\",\"quantity\":2},{\"sku\":\"B\",\"quantity\":-1}]"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].index").value(0))
+                .andExpect(jsonPath("$[0].result.total").value(20))
+                .andExpect(jsonPath("$[1].error").value(BatchEnvelope.EXECUTION_FAILED));
+    }
+
+    @Test
+    void shouldRejectBatchThatIsNotAnArray() throws Exception {
+        mockMvc.perform(post("/functions/pricer/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sku\":\"A\",\"quantity\":1}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Batch body must be a JSON array"));
+    }
+
+    @Test
+    void shouldStreamNdjsonResultsAndContinuePastBadLines() throws Exception {
+        MvcResult result = mockMvc.perform(post("/functions/pricer/stream")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"sku\":\"A\",\"quantity\":1}\n"
+                                + "\n"
+                                + "{\"sku\":\n"
+                                + "{\"sku\":\"C\",\"quantity\":3}\r\n"
+                                + "{\"sku\":\"D\",\"quantity\":-1}"))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertThat(lines).hasSize(4);
+        assertThat(lines[0]).startsWith("{\"index\":0,\"result\":{").contains("\"sku\":\"A\"", "\"total\":10");
+        assertThat(lines[1]).startsWith("{\"index\":1,\"error\":\"Invalid input\"");
+        assertThat(lines[2]).startsWith("{\"index\":2,\"result\":{").contains("\"sku\":\"C\"", "\"total\":30");
+        assertThat(lines[3]).contains("\"index\":3", "Quantity must not be negative");
+    }
+
+    @Test
+    void shouldRejectWithTooManyRequestsWhenBulkheadIsSaturated() throws Exception {
+        // Given - the only slot is held by an in-flight invocation
+        Thread inFlight = new Thread(() -> registry.getInvoker("limited").invoke("first"));
+        inFlight.start();
+        while (registry.getInvoker("limited").getBulkhead().getActiveCount() == 0) {
+            Thread.onSpinWait();
+        }
+
+        try {
+            // When / Then
+            mockMvc.perform(post("/functions/limited")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content("{}"))
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(jsonPath("$.error").value("Function saturated"))
+                    .andExpect(jsonPath("$.function").value("limited"));
+        } finally {
+            release.countDown();
+            inFlight.join();
+        }
+    }
+
+    @Test
+    void shouldAbandonInvocationWhenCallerBudgetIsSpent() throws Exception {
+        mockMvc.perform(post("/functions/pricer")
+                        .header("X-FDD-Deadline-Ms", "0")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"sku\":\"A-1\",\"quantity\":3}"))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.error").value("Deadline exceeded"))
+                .andExpect(jsonPath("$.function").value("pricer"));
+    }
+
+    static class Item {
+        private String sku;
+        private int quantity;
+
+        public String getSku() { return sku; }
+        public void setSku(String sku) { this.sku = sku; }
+
+        public int getQuantity() { return quantity; }
+        public void setQuantity(int quantity) { this.quantity = quantity; }
+    }
+}
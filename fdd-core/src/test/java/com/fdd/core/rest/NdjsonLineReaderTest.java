@@ -0,0 +1,58 @@
+package com.fdd.core.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for NdjsonLineReader
+ */
+class NdjsonLineReaderTest {
+
+    @Test
+    void shouldSplitLinesAcrossBufferRefills() throws Exception {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            input.append("{\"n\":").append(i).append("}\n");
+        }
+
+        List<String> lines = readAll(input.toString(), 64);
+
+        assertThat(lines).hasSize(500);
+        assertThat(lines.get(0)).isEqualTo("{\"n\":0}");
+        assertThat(lines.get(499)).isEqualTo("{\"n\":499}");
+    }
+
+    @Test
+    void shouldSkipBlankLinesAndTrimCarriageReturns() throws Exception {
+        List<String> lines = readAll("{\"a\":1}\r\n\r\n   \n{\"b\":2}", 64);
+
+        assertThat(lines).containsExactly("{\"a\":1}", "{\"b\":2}");
+    }
+
+    @Test
+    void shouldReportOversizedLinesAndContinue() throws Exception {
+        String longLine = "{\"data\":\"" + "x".repeat(200) + "\"}";
+
+        List<String> lines = readAll("{\"a\":1}\n" + longLine + "\n{\"b\":2}\n" + longLine, 64);
+
+        assertThat(lines).containsExactly("{\"a\":1}", "<oversized>", "{\"b\":2}", "<oversized>");
+    }
+
+    private static List<String> readAll(String input, int maxLineBytes) throws Exception {
+        NdjsonLineReader reader = new NdjsonLineReader(
+                new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), maxLineBytes);
+        List<String> lines = new ArrayList<>();
+        while (reader.nextLine()) {
+            lines.add(reader.isOversized()
+                    ? "<oversized>"
+                    : new String(reader.buffer(), reader.lineStart(), reader.lineLength(), StandardCharsets.UTF_8));
+        }
+        return lines;
+    }
+}
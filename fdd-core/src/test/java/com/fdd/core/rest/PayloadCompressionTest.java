@@ -0,0 +1,72 @@
+package com.fdd.core.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for PayloadCompression
+ */
+class PayloadCompressionTest {
+
+    private static final byte[] PAYLOAD = "{\"items\":[\"A\",\"B\",\"C\"],\"note\":\"repeat repeat repeat\"}"
+            .repeat(100).getBytes(StandardCharsets.UTF_8);
+
+    @Test
+    void shouldProduceGzipReadableByTheJdk() throws Exception {
+        // When
+        byte[] compressed = PayloadCompression.compress(PAYLOAD, "gzip");
+
+        // Then
+        assertThat(compressed.length).isLessThan(PAYLOAD.length / 4);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(in.readAllBytes()).isEqualTo(PAYLOAD);
+        }
+    }
+
+    @Test
+    void shouldDecodeGzipAndDeflateBodies() throws Exception {
+        // Given
+        ByteArrayOutputStream jdkGzip = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(jdkGzip)) {
+            out.write(PAYLOAD);
+        }
+
+        // Then
+        assertThat(PayloadCompression.decompress(jdkGzip.toByteArray(), "gzip")).isEqualTo(PAYLOAD);
+        assertThat(PayloadCompression.decompress(PayloadCompression.compress(PAYLOAD, "deflate"), "Deflate"))
+                .isEqualTo(PAYLOAD);
+        assertThat(PayloadCompression.decompress(PAYLOAD, null)).isSameAs(PAYLOAD);
+    }
+
+    @Test
+    void shouldRejectCorruptOrTruncatedBodies() {
+        byte[] compressed = PayloadCompression.compress(PAYLOAD, "gzip");
+        byte[] corrupt = compressed.clone();
+        corrupt[corrupt.length - 5] ^= 0x55; // CRC
+
+        assertThatThrownBy(() -> PayloadCompression.decompress(corrupt, "gzip")).isInstanceOf(ZipException.class);
+        assertThatThrownBy(() -> PayloadCompression.decompress(Arrays.copyOf(compressed, compressed.length / 2), "gzip"))
+                .isInstanceOf(ZipException.class);
+        assertThatThrownBy(() -> PayloadCompression.decompress(PAYLOAD, "br")).isInstanceOf(ZipException.class);
+    }
+
+    @Test
+    void shouldNegotiateCodingFromAcceptEncoding() {
+        assertThat(PayloadCompression.negotiate("deflate, gzip;q=0.8")).isEqualTo("gzip");
+        assertThat(PayloadCompression.negotiate("br, deflate")).isEqualTo("deflate");
+        assertThat(PayloadCompression.negotiate("gzip;q=0, identity")).isNull();
+        assertThat(PayloadCompression.negotiate(null)).isNull();
+        assertThat(PayloadCompression.isSupported("identity")).isTrue();
+        assertThat(PayloadCompression.isSupported("br")).isFalse();
+    }
+}
@@ -0,0 +1,305 @@
+package com.fdd.core.workflow;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fdd.core.config.ServerlessConfig;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.flow.FlowStepFailedException;
+import com.fdd.core.registry.FunctionMetadata;
+import com.fdd.core.registry.FunctionRegistry;
+import com.fdd.core.rest.CompositeEnvelope;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Unit tests for workflow compilation and execution
+ */
+class WorkflowTest {
+
+    private static final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private static final String ORDER_WORKFLOW = """
+            timeout: "5s"
+            steps:
+              validateUser:
+                function: "userValidator"
+                input: "$.input.user"
+                require: "valid"
+              checkInventory:
+                function: "inventoryChecker"
+                input:
+                  productId: "$.input.productId"
+                  quantity: "$.input.quantity"
+                require: "available"
+              processPayment:
+                function: "paymentProcessor"
+                depends-on: ["validateUser"]
+                input:
+                  userId: "$.input.user.name"
+                  reserved: "$.steps.checkInventory.quantity"
+                  currency: "USD"
+            output:
+              transactionId: "$.steps.processPayment.transactionId"
+            """;
+
+    private final FunctionRegistry registry = new FunctionRegistry();
+    private final FunctionExecutors executors = new FunctionExecutors(8);
+
+    @BeforeEach
+    void setUp() {
+        registry.setFunctionExecutors(executors);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executors.close();
+    }
+
+    private static WorkflowDefinition compile(String yaml) throws Exception {
+        return WorkflowDefinition.compile("placeOrder", yamlMapper.readValue(yaml, ServerlessConfig.WorkflowConfig.class));
+    }
+
+    private void register(String name, Function<JsonNode, Object> function) {
+        FunctionMetadata metadata = new FunctionMetadata();
+        metadata.setComponent(name);
+        registry.registerFunction(name, function, metadata);
+    }
+
+    private WorkflowFunction workflow() {
+        return (WorkflowFunction) (Object) registry.getInvoker("placeOrder").getFunction();
+    }
+
+    @Test
+    void shouldCompileStepsIntoStagesAndRejectInvalidGraphs() throws Exception {
+        // When
+        WorkflowDefinition workflow = compile(ORDER_WORKFLOW);
+
+        // Then - payment depends on validation explicitly and on inventory through its input
+        assertThat(workflow.getSteps()).extracting(WorkflowDefinition.Step::getName)
+                .containsExactly("validateUser", "checkInventory", "processPayment");
+        assertThat(workflow.getSteps().get(2).getDependencies()).containsExactly("validateUser", "checkInventory");
+        assertThat(workflow.getStageCount()).isEqualTo(2);
+        assertThat(workflow.toMetadata().getDeployment().getTimeoutDuration()).hasSeconds(5);
+
+        assertThatThrownBy(() -> compile("""
+                steps:
+                  a: { function: "f", input: "$.steps.b" }
+                  b: { function: "g", depends-on: ["a"] }
+                """))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("cycle");
+        assertThatThrownBy(() -> compile("""
+                steps:
+                  a: { function: "f", depends-on: ["missing"] }
+                """))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("unknown step missing");
+    }
+
+    @Test
+    void shouldRunIndependentStepsConcurrentlyAndMapOutputs() throws Exception {
+        // Given - validation and inventory each wait for the other to have started
+        CountDownLatch started = new CountDownLatch(2);
+        register("userValidator", input -> {
+            awaitBoth(started);
+            return Map.of("valid", input.path("age").asInt() >= 18);
+        });
+        register("inventoryChecker", input -> {
+            awaitBoth(started);
+            return Map.of("available", true, "quantity", input.path("quantity").asInt());
+        });
+        register("paymentProcessor", input -> Map.of("transactionId",
+                "txn-" + input.path("userId").asText() + "-" + input.path("reserved").asInt() + input.path("currency").asText()));
+        registry.registerWorkflow(compile(ORDER_WORKFLOW));
+
+        // When - invoked like any other function
+        JsonNode result = registry.<JsonNode>invokeAsync("placeOrder", Map.of(
+                "user", Map.of("name", "john", "age", 30), "productId", "p-1", "quantity", 2)).join();
+
+        // Then
+        assertThat(result.path("transactionId").asText()).isEqualTo("txn-john-2USD");
+        assertThat(workflow().getStepStats().get("processPayment").getCallCount()).isEqualTo(1);
+    }
+
+    @Test
+    void shouldFailFastWhenARequiredStepIsRejected() throws Exception {
+        // Given - inventory would not answer before the test ends
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean paid = new AtomicBoolean();
+        register("userValidator", input -> Map.of("valid", false));
+        register("inventoryChecker", input -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return Map.of("available", true);
+        });
+        register("paymentProcessor", input -> {
+            paid.set(true);
+            return Map.of("transactionId", "txn");
+        });
+        registry.registerWorkflow(compile(ORDER_WORKFLOW));
+
+        // When / Then
+        assertThatThrownBy(() -> registry.invokeAsync("placeOrder", Map.of("user", Map.of("age", 12))).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(FlowStepFailedException.class)
+                .hasMessageContaining("validateUser");
+        assertThat(paid).isFalse();
+        assertThat(workflow().getStepStats().get("validateUser").getRejectedCount()).isEqualTo(1);
+        release.countDown();
+    }
+
+    @Test
+    void continuePolicyShouldLetDependentsRunWithNullOutput() throws Exception {
+        // Given
+        register("recommendations", input -> {
+            throw new IllegalStateException("recommendation service down");
+        });
+        register("summary", input -> Map.of("hasRecommendations", !input.path("recommended").isNull()));
+        registry.registerWorkflow(compile("""
+                steps:
+                  recommend:
+                    function: "recommendations"
+                    on-failure: "continue"
+                  summarize:
+                    function: "summary"
+                    input:
+                      recommended: "$.steps.recommend"
+                """));
+
+        // When
+        JsonNode result = registry.<JsonNode>invokeAsync("placeOrder", Map.of()).join();
+
+        // Then - without an output section every step's output is returned
+        assertThat(result.path("recommend").isNull()).isTrue();
+        assertThat(result.path("summarize").path("hasRecommendations").asBoolean()).isFalse();
+    }
+
+    @Test
+    void stepsOnTheSameRemoteDeploymentShouldBePushedDownInOneRoundTrip() throws Exception {
+        // Given - every function lives on one remote deployment
+        RemoteDeployment remote = new RemoteDeployment();
+        remote.register("userValidator", input -> Map.of("valid", true));
+        remote.register("inventoryChecker", input -> Map.of("available", true, "quantity", input.path("quantity").asInt()));
+        remote.register("paymentProcessor", input -> Map.of("transactionId",
+                "txn-" + input.path("userId").asText() + "-" + input.path("reserved").asInt()));
+        FunctionRegistry caller = remote.caller();
+        caller.registerWorkflow(compile(ORDER_WORKFLOW));
+
+        // When
+        JsonNode result = caller.<JsonNode>invokeAsync("placeOrder", Map.of(
+                "user", Map.of("name", "john", "age", 30), "productId", "p-1", "quantity", 2)).join();
+
+        // Then - all three steps ran remotely in a single request
+        assertThat(result.path("transactionId").asText()).isEqualTo("txn-john-2");
+        assertThat(remote.compositeRequests).hasValue(1);
+        assertThat(remote.singleRequests).hasValue(0);
+        WorkflowFunction workflow = (WorkflowFunction) (Object) caller.getInvoker("placeOrder").getFunction();
+        assertThat(workflow.getStepStats().get("processPayment").getPushedDownCount()).isEqualTo(1);
+    }
+
+    @Test
+    void pushedDownRejectionShouldFailTheWorkflowLikeALocalOne() throws Exception {
+        // Given - validation rejects remotely; payment lives elsewhere and must not run
+        RemoteDeployment remote = new RemoteDeployment();
+        remote.register("userValidator", input -> Map.of("valid", false));
+        remote.register("inventoryChecker", input -> Map.of("available", true));
+        FunctionRegistry caller = remote.caller();
+        AtomicBoolean paid = new AtomicBoolean();
+        FunctionMetadata metadata = new FunctionMetadata();
+        metadata.setComponent("paymentProcessor");
+        caller.registerFunction("paymentProcessor", (Function<JsonNode, Object>) input -> {
+            paid.set(true);
+            return Map.of("transactionId", "txn");
+        }, metadata);
+        caller.registerWorkflow(compile(ORDER_WORKFLOW));
+
+        // When / Then
+        assertThatThrownBy(() -> caller.invokeAsync("placeOrder", Map.of("user", Map.of("age", 30))).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(FlowStepFailedException.class)
+                .hasMessageContaining("validateUser");
+        assertThat(remote.compositeRequests).hasValue(1);
+        assertThat(paid).isFalse();
+    }
+
+    /**
+     * A registry standing in for a remote deployment, and a caller that reaches it through JSON requests
+     */
+    private final class RemoteDeployment {
+        private final FunctionRegistry registry = new FunctionRegistry();
+        private final AtomicInteger compositeRequests = new AtomicInteger();
+        private final AtomicInteger singleRequests = new AtomicInteger();
+
+        RemoteDeployment() {
+            registry.setFunctionExecutors(executors);
+        }
+
+        void register(String name, Function<JsonNode, Object> function) {
+            FunctionMetadata metadata = new FunctionMetadata();
+            metadata.setComponent(name);
+            registry.registerFunction(name, function, metadata);
+        }
+
+        FunctionRegistry caller() {
+            FunctionRegistry caller = new FunctionRegistry() {
+                @Override
+                public String getRemoteDeployment(String componentName) {
+                    return getInvoker(componentName) == null && registry.isRegistered(componentName) ? "remote" : null;
+                }
+
+                @Override
+                protected <R> CompletableFuture<R> invokeRemoteAsync(String componentName, Object input) {
+                    singleRequests.incrementAndGet();
+                    return registry.invokeAsync(componentName, input);
+                }
+
+                @Override
+                public CompletableFuture<JsonNode> invokeCompositeAsync(String componentName, JsonNode request) {
+                    compositeRequests.incrementAndGet();
+                    return CompletableFuture.supplyAsync(() -> {
+                        try {
+                            JsonNode received = mapper.readTree(mapper.writeValueAsBytes(request));
+                            return mapper.readTree(mapper.writeValueAsBytes(CompositeEnvelope.execute(registry, received)));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                }
+            };
+            caller.setFunctionExecutors(executors);
+            return caller;
+        }
+    }
+
+    private static void awaitBoth(CountDownLatch latch) {
+        latch.countDown();
+        try {
+            if (!latch.await(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("steps did not run concurrently");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
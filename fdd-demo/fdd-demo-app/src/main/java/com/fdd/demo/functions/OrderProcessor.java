@@ -1,5 +1,7 @@
 package com.fdd.demo.functions;
 
+import com.fdd.core.flow.FddFlow;
+import com.fdd.core.flow.FlowStepFailedException;
 import com.fdd.demo.domain.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -31,42 +33,44 @@ public class OrderProcessor {
     /**
      * Process an order by composing multiple functions in a workflow
      * This demonstrates the core FDD principle: complex business logic
-     * built from simple, reusable, type-safe functions
+     * built from simple, reusable, type-safe functions.
+     * User validation and the inventory check are independent, so they run at the same time;
+     * the first one to fail rejects the order and cancels the other.
      */
     public OrderResult createOrder(CreateOrderRequest request) {
-        // Step 1: Validate user data
-        ValidationResult validation = userValidator.apply(request.getUserData());
-        if (!validation.isValid()) {
-            return OrderResult.failed("User validation failed: " + validation.getMessage());
-        }
-
-        // Step 2: Check inventory availability
         InventoryCheckRequest inventoryRequest = new InventoryCheckRequest(
                 request.getProductId(),
                 request.getQuantity()
         );
-        InventoryResult inventoryResult = inventoryChecker.apply(inventoryRequest);
-        if (!inventoryResult.isAvailable()) {
-            return OrderResult.failed("Inventory check failed: " + inventoryResult.getMessage());
-        }
-
-        // Step 3: Process payment
-        PaymentRequest paymentRequest = new PaymentRequest(
-                request.getUserData().getName(),
-                calculateOrderTotal(request),
-                "USD",
-                request.getPaymentMethod() != null ? request.getPaymentMethod() : "CARD",
-                "temp-order-id"
-        );
 
-        PaymentResult paymentResult = paymentProcessor.apply(paymentRequest);
-        if (!paymentResult.isSuccess()) {
-            return OrderResult.failed("Payment processing failed: " + paymentResult.getMessage());
+        try {
+            return FddFlow.parallel(
+                            // Step 1: Validate user data
+                            FddFlow.call(userValidator, request.getUserData())
+                                    .require(ValidationResult::isValid,
+                                            validation -> "User validation failed: " + validation.getMessage()),
+                            // Step 2: Check inventory availability
+                            FddFlow.call(inventoryChecker, inventoryRequest)
+                                    .require(InventoryResult::isAvailable,
+                                            inventory -> "Inventory check failed: " + inventory.getMessage()),
+                            (validation, inventory) -> new PaymentRequest(
+                                    request.getUserData().getName(),
+                                    calculateOrderTotal(request),
+                                    "USD",
+                                    request.getPaymentMethod() != null ? request.getPaymentMethod() : "CARD",
+                                    "temp-order-id"
+                            ))
+                    // Step 3: Process payment once both checks passed
+                    .thenCompose(paymentRequest -> FddFlow.call(paymentProcessor, paymentRequest))
+                    .require(PaymentResult::isSuccess,
+                            payment -> "Payment processing failed: " + payment.getMessage())
+                    // Step 4: Create order (simplified - in real world this would save to DB)
+                    .thenApply(payment -> OrderResult.success("order-" + System.currentTimeMillis(),
+                            payment.getTransactionId()))
+                    .join();
+        } catch (FlowStepFailedException e) {
+            return OrderResult.failed(e.getMessage());
         }
-
-        // Step 4: Create order (simplified - in real world this would save to DB)
-        String orderId = "order-" + System.currentTimeMillis();
-        return OrderResult.success(orderId, paymentResult.getTransactionId());
     }
 
     /**
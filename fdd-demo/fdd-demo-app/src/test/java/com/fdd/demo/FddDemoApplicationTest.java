@@ -1,5 +1,6 @@
 package com.fdd.demo;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fdd.demo.domain.*;
 import com.fdd.demo.functions.OrderProcessor;
 import com.fdd.core.registry.FunctionRegistry;
@@ -9,6 +10,7 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.TestPropertySource;
 
+import java.util.Map;
 import java.util.function.Function;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -151,4 +153,20 @@ class FddDemoApplicationTest {
         assertThat(result.isSuccess()).isFalse();
         assertThat(result.getMessage()).contains("Inventory check failed");
     }
+    @Test
+    void placeOrderWorkflowIsRegisteredAsAFunction() {
+        // Test the serverless.yml workflow running its steps through the registry
+        Map<String, Object> order = Map.of(
+                "userData", Map.of("name", "John Doe", "email", "john@example.com", "age", 25),
+                "productId", "product-123",
+                "quantity", 5,
+                "amount", 50,
+                "paymentMethod", "CARD",
+                "orderId", "order-1");
+
+        JsonNode result = functionRegistry.<JsonNode>invokeAsync("placeOrder", order).join();
+
+        assertThat(result.path("transactionId").asText()).startsWith("txn-");
+        assertThat(result.path("availableQuantity").asInt()).isEqualTo(5);
+    }
 }
\ No newline at end of file
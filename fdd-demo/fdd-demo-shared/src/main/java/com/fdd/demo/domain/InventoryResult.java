@@ -1,11 +1,17 @@
 package com.fdd.demo.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class InventoryResult {
     private boolean available;
     private int availableQuantity;
     private String message;
 
-    private InventoryResult(boolean available, int availableQuantity, String message) {
+    @JsonCreator
+    private InventoryResult(@JsonProperty("available") boolean available,
+                            @JsonProperty("availableQuantity") int availableQuantity,
+                            @JsonProperty("message") String message) {
         this.available = available;
         this.availableQuantity = availableQuantity;
         this.message = message;
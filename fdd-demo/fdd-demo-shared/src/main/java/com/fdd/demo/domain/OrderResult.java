@@ -1,13 +1,20 @@
 // Enhanced OrderResult.java
 package com.fdd.demo.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 public class OrderResult {
     private boolean success;
     private String orderId;
     private String transactionId;
     private String message;
 
-    private OrderResult(boolean success, String orderId, String transactionId, String message) {
+    @JsonCreator
+    private OrderResult(@JsonProperty("success") boolean success,
+                        @JsonProperty("orderId") String orderId,
+                        @JsonProperty("transactionId") String transactionId,
+                        @JsonProperty("message") String message) {
         this.success = success;
         this.orderId = orderId;
         this.transactionId = transactionId;
@@ -1,6 +1,9 @@
 // PaymentResult.java
 package com.fdd.demo.domain;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
 import java.math.BigDecimal;
 
 public class PaymentResult {
@@ -10,7 +13,12 @@ public class PaymentResult {
     private String message;
     private String status;
 
-    private PaymentResult(boolean success, String transactionId, BigDecimal processedAmount, String message, String status) {
+    @JsonCreator
+    private PaymentResult(@JsonProperty("success") boolean success,
+                          @JsonProperty("transactionId") String transactionId,
+                          @JsonProperty("processedAmount") BigDecimal processedAmount,
+                          @JsonProperty("message") String message,
+                          @JsonProperty("status") String status) {
         this.success = success;
         this.transactionId = transactionId;
         this.processedAmount = processedAmount;
@@ -1,5 +1,7 @@
 package com.fdd.lambda.functions;
 
+import com.fdd.core.flow.FddFlow;
+import com.fdd.core.flow.FlowStepFailedException;
 import com.fdd.demo.domain.*;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -38,50 +40,56 @@ public class OrderProcessorFunction implements Function<CreateOrderRequest, Orde
     public OrderResult apply(CreateOrderRequest request) {
         System.out.println("🚀 FDD OrderProcessor starting...");
 
-        // Step 1: Validate user data
-        // This might call userValidator Lambda behind the scenes!
-        System.out.println("👤 Validating user...");
-        ValidationResult validation = userValidator.apply(request.getUserData());
-        if (!validation.isValid()) {
-            return OrderResult.failed("User validation failed: " + validation.getMessage());
-        }
-        System.out.println("✅ User validation passed");
-
-        // Step 2: Check inventory availability
-        // This might call inventoryChecker Lambda behind the scenes!
-        System.out.println("📦 Checking inventory...");
+        // Steps 1 and 2 are independent, so they run at the same time:
+        // two Lambda calls cost the latency of the slower one, not the sum.
+        // The first to fail rejects the order and the other call is abandoned.
+        System.out.println("👤📦 Validating user and checking inventory...");
         InventoryCheckRequest inventoryRequest = new InventoryCheckRequest(
                 request.getProductId(),
                 request.getQuantity()
         );
-        InventoryResult inventoryResult = inventoryChecker.apply(inventoryRequest);
-        if (!inventoryResult.isAvailable()) {
-            return OrderResult.failed("Inventory check failed: " + inventoryResult.getMessage());
-        }
-        System.out.println("✅ Inventory check passed");
 
-        // Step 3: Process payment
-        // This might call paymentProcessor Lambda behind the scenes!
-        System.out.println("💳 Processing payment...");
-        PaymentRequest paymentRequest = new PaymentRequest(
-                request.getUserData().getName(),
-                calculateOrderTotal(request),
-                "USD",
-                request.getPaymentMethod() != null ? request.getPaymentMethod() : "CARD",
-                "temp-order-id"
-        );
-
-        PaymentResult paymentResult = paymentProcessor.apply(paymentRequest);
-        if (!paymentResult.isSuccess()) {
-            return OrderResult.failed("Payment processing failed: " + paymentResult.getMessage());
+        try {
+            return FddFlow.parallel(
+                            // Step 1: Validate user data
+                            // This might call userValidator Lambda behind the scenes!
+                            FddFlow.call(userValidator, request.getUserData())
+                                    .require(ValidationResult::isValid,
+                                            validation -> "User validation failed: " + validation.getMessage()),
+                            // Step 2: Check inventory availability
+                            // This might call inventoryChecker Lambda behind the scenes!
+                            FddFlow.call(inventoryChecker, inventoryRequest)
+                                    .require(InventoryResult::isAvailable,
+                                            inventory -> "Inventory check failed: " + inventory.getMessage()),
+                            (validation, inventory) -> {
+                                System.out.println("✅ User validation and inventory check passed");
+                                return new PaymentRequest(
+                                        request.getUserData().getName(),
+                                        calculateOrderTotal(request),
+                                        "USD",
+                                        request.getPaymentMethod() != null ? request.getPaymentMethod() : "CARD",
+                                        "temp-order-id"
+                                );
+                            })
+                    // Step 3: Process payment
+                    // This might call paymentProcessor Lambda behind the scenes!
+                    .thenCompose(paymentRequest -> {
+                        System.out.println("💳 Processing payment...");
+                        return FddFlow.call(paymentProcessor, paymentRequest);
+                    })
+                    .require(PaymentResult::isSuccess,
+                            payment -> "Payment processing failed: " + payment.getMessage())
+                    // Step 4: Create order
+                    .thenApply(payment -> {
+                        System.out.println("✅ Payment processed");
+                        String orderId = "fdd-cross-lambda-order-" + System.currentTimeMillis();
+                        System.out.println("🎉 Order created: " + orderId);
+                        return OrderResult.success(orderId, payment.getTransactionId());
+                    })
+                    .join();
+        } catch (FlowStepFailedException e) {
+            return OrderResult.failed(e.getMessage());
         }
-        System.out.println("✅ Payment processed");
-
-        // Step 4: Create order
-        String orderId = "fdd-cross-lambda-order-" + System.currentTimeMillis();
-        System.out.println("🎉 Order created: " + orderId);
-
-        return OrderResult.success(orderId, paymentResult.getTransactionId());
     }
 
     private BigDecimal calculateOrderTotal(CreateOrderRequest request) {
@@ -0,0 +1,105 @@
+package com.fdd.local.bench;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fdd.aws.lambda.FddLambdaHandler;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lambda cold start of the demo userValidator: each run is a fresh JVM that loads FddLambdaHandler
+ * and answers one request, with the context built the standard way (classpath scanning, condition
+ * evaluation) against the one Spring AOT generated at build time. Needs the AOT-processed functions:
+ *
+ *   mvn -pl fdd-demo/fdd-lambda-functions -am -Paot install -DskipTests
+ *   mvn -q -f fdd-demo/fdd-lambda-functions dependency:build-classpath -Dmdep.outputFile=/tmp/lambda-cp.txt
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.ColdStartBenchmark \
+ *       -Dbench.classpath=fdd-demo/fdd-lambda-functions/target/classes:$(cat /tmp/lambda-cp.txt)
+ *
+ * Tunables (system properties): bench.classpath (required), bench.runs (5)
+ */
+public class ColdStartBenchmark {
+
+    static final String RESULT = "PROBE_MS ";
+
+    public static void main(String[] args) throws Exception {
+        String classpath = probeClasspath();
+        int runs = Integer.getInteger("bench.runs", 5);
+
+        System.out.printf("userValidator cold start: %d fresh JVMs per mode, Java %s%n", runs, Runtime.version());
+        for (boolean aot : new boolean[]{false, true}) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = runProbe(classpath, Probe.class, "-Dspring.aot.enabled=" + aot);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-28s median %6d ms  min %6d ms  max %6d ms%n",
+                    aot ? "spring aot" : "standard", millis[runs / 2], millis[0], millis[runs - 1]);
+        }
+    }
+
+    /**
+     * The Lambda's own classpath (bench.classpath) plus this module, where the probes come from
+     */
+    static String probeClasspath() throws Exception {
+        String lambdaClasspath = System.getProperty("bench.classpath");
+        if (lambdaClasspath == null) {
+            throw new IllegalArgumentException("Set -Dbench.classpath to the fdd-lambda-functions classpath");
+        }
+        return lambdaClasspath + File.pathSeparator
+                + new File(ColdStartBenchmark.class.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+
+    /**
+     * Run a probe in a fresh JVM serving userValidator and return the milliseconds it reports
+     */
+    static long runProbe(String classpath, Class<?> probe, String... jvmOptions) throws Exception {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        command.addAll(List.of(jvmOptions));
+        command.addAll(List.of("-cp", classpath, probe.getName()));
+        ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true);
+        builder.environment().put("FDD_FUNCTION_NAME", "userValidator");
+        Process process = builder.start();
+        Long millis = null;
+        StringBuilder output = new StringBuilder();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(RESULT)) {
+                    millis = Long.parseLong(line.substring(RESULT.length()).trim());
+                } else {
+                    output.append(line).append('\n');
+                }
+            }
+        }
+        if (process.waitFor() != 0 || millis == null) {
+            throw new IllegalStateException(probe.getSimpleName() + " run failed:\n" + output);
+        }
+        return millis;
+    }
+
+    /**
+     * Runs in the child JVM: one request through the Lambda handler, as the Lambda runtime would make it
+     */
+    public static class Probe {
+
+        public static void main(String[] args) {
+            RequestHandler<Object, Object> handler = new FddLambdaHandler();
+            Object response = handler.handleRequest(
+                    Map.of("body", "{\"name\":\"Cold Start\",\"email\":\"cold@example.com\",\"age\":30}"), null);
+            if (!(response instanceof Map<?, ?> map) || !Integer.valueOf(200).equals(map.get("statusCode"))) {
+                throw new IllegalStateException("Unexpected response: " + response);
+            }
+            System.out.println(RESULT + (System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime()));
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.fdd.local.bench;
+
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.demo.domain.CreateOrderRequest;
+import com.fdd.demo.domain.InventoryResult;
+import com.fdd.demo.domain.PaymentResult;
+import com.fdd.demo.domain.UserData;
+import com.fdd.demo.domain.ValidationResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.function.Function;
+
+/**
+ * The OrderProcessor flow (userValidator -> inventoryChecker -> paymentProcessor) with its dependencies
+ * called over HTTP against a local stub, forced remote although they could be co-located, and co-located
+ * in-process from the implementation classes named in the demo's serverless.yml.
+ * Orders run one after another, so the numbers are the per-order cost of the three calls.
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.ColocationBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (0), bench.orders (5000)
+ */
+public class ColocationBenchmark {
+
+    private static final String[] FUNCTIONS = {"userValidator", "inventoryChecker", "paymentProcessor"};
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 0);
+        int orders = Integer.getInteger("bench.orders", 5000);
+
+        System.out.printf("OrderProcessor flow: %d sequential orders, %d ms stub latency, Java %s%n",
+                orders, latencyMs, Runtime.version());
+        CreateOrderRequest order = new CreateOrderRequest(
+                new UserData("Bench User", "bench@example.com", 30), "product-123", 2);
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            System.out.println(run("remote", registry(stub), stub, order, orders));
+
+            CrossLambdaFunctionRegistry forced = registry(stub);
+            forced.setColocationEnabled(true);
+            for (String name : FUNCTIONS) {
+                forced.setForceRemote(name, true);
+            }
+            System.out.println(run("forced remote", forced, stub, order, orders));
+
+            CrossLambdaFunctionRegistry colocated = registry(stub);
+            colocated.setColocationEnabled(true);
+            System.out.println(run("co-located", colocated, stub, order, orders));
+        }
+    }
+
+    private static CrossLambdaFunctionRegistry registry(LocalFunctionStub stub) {
+        CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+        for (String name : FUNCTIONS) {
+            registry.registerLambdaUrl(name, stub.url(name));
+        }
+        registry.registerRemoteOutputType("userValidator", ValidationResult.class);
+        registry.registerRemoteOutputType("inventoryChecker", InventoryResult.class);
+        registry.registerRemoteOutputType("paymentProcessor", PaymentResult.class);
+        return registry;
+    }
+
+    private static String run(String label, CrossLambdaFunctionRegistry registry, LocalFunctionStub stub,
+                              CreateOrderRequest order, int orders) {
+        PrintStream stdout = System.out;
+        // The registry logs every lookup and remote call to stdout; keep that out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Function<Object, Object> userValidator = registry.<Object, Object>getFunction("userValidator").orElseThrow();
+            Function<Object, Object> inventoryChecker = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+            Function<Object, Object> paymentProcessor = registry.<Object, Object>getFunction("paymentProcessor").orElseThrow();
+
+            // Warm up connections and JIT before measuring
+            for (int i = 0; i < 500; i++) {
+                ExecutionModeBenchmark.placeOrder(order, userValidator, inventoryChecker, paymentProcessor);
+            }
+            long requestsBefore = stub.getRequestCount();
+            LatencyRecorder recorder = new LatencyRecorder(orders);
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                long t0 = System.nanoTime();
+                ExecutionModeBenchmark.placeOrder(order, userValidator, inventoryChecker, paymentProcessor);
+                recorder.record(System.nanoTime() - t0);
+            }
+            long elapsed = System.nanoTime() - start;
+            return String.format("%s  %6d HTTP requests", recorder.summary(label, elapsed),
+                    stub.getRequestCount() - requestsBefore);
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+}
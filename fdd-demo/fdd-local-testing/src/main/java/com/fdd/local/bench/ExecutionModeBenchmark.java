@@ -0,0 +1,160 @@
+package com.fdd.local.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.core.execution.ExecutionMode;
+import com.fdd.core.execution.FunctionExecutors;
+import com.fdd.core.execution.VirtualThreads;
+import com.fdd.demo.domain.CreateOrderRequest;
+import com.fdd.demo.domain.InventoryCheckRequest;
+import com.fdd.demo.domain.InventoryResult;
+import com.fdd.demo.domain.PaymentRequest;
+import com.fdd.demo.domain.PaymentResult;
+import com.fdd.demo.domain.UserData;
+import com.fdd.demo.domain.ValidationResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Platform vs virtual threads for the OrderProcessor flow
+ * (userValidator -> inventoryChecker -> paymentProcessor over cross-Lambda proxies)
+ * against a local stub with simulated latency.
+ *
+ * Run with Java 21+ to include the virtual-threads mode:
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.ExecutionModeBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (50), bench.orders (5000),
+ * bench.concurrency (2000 in-flight orders), bench.platformThreads (200)
+ */
+public class ExecutionModeBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 50);
+        int orders = Integer.getInteger("bench.orders", 5000);
+        int concurrency = Integer.getInteger("bench.concurrency", 2000);
+        int platformThreads = Integer.getInteger("bench.platformThreads", 200);
+
+        System.out.printf("OrderProcessor flow: %d orders, %d in flight, %d ms per remote call, Java %s%n",
+                orders, concurrency, latencyMs, Runtime.version());
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            String platform = run(stub, ExecutionMode.PLATFORM,
+                    Executors.newFixedThreadPool(platformThreads), orders, concurrency);
+            System.out.println(platform + "  (" + platformThreads + " platform threads)");
+
+            if (VirtualThreads.isSupported()) {
+                String virtual = run(stub, ExecutionMode.VIRTUAL_THREADS,
+                        VirtualThreads.newVirtualThreadPerTaskExecutor(), orders, concurrency);
+                System.out.println(virtual);
+            } else {
+                System.out.println("virtual-threads: skipped, requires Java 21+");
+            }
+        }
+    }
+
+    private static String run(LocalFunctionStub stub, ExecutionMode mode, ExecutorService callers,
+                              int orders, int concurrency) throws Exception {
+        try (FunctionExecutors executors = new FunctionExecutors(mode, Runtime.getRuntime().availableProcessors())) {
+            CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+            // The demo functions are on this classpath; keep the calls going to the stub
+            registry.setColocationEnabled(false);
+            registry.setFunctionExecutors(executors);
+            for (String name : new String[]{"userValidator", "inventoryChecker", "paymentProcessor"}) {
+                registry.registerLambdaUrl(name, stub.url(name));
+            }
+            registry.registerRemoteOutputType("userValidator", ValidationResult.class);
+            registry.registerRemoteOutputType("inventoryChecker", InventoryResult.class);
+            registry.registerRemoteOutputType("paymentProcessor", PaymentResult.class);
+            Function<Object, Object> userValidator = registry.<Object, Object>getFunction("userValidator").orElseThrow();
+            Function<Object, Object> inventoryChecker = registry.<Object, Object>getFunction("inventoryChecker").orElseThrow();
+            Function<Object, Object> paymentProcessor = registry.<Object, Object>getFunction("paymentProcessor").orElseThrow();
+
+            CreateOrderRequest order = new CreateOrderRequest(
+                    new UserData("Bench User", "bench@example.com", 30), "product-123", 2);
+
+            // Warm up connections and JIT before measuring
+            runOrders(callers, 200, 100, new LatencyRecorder(200),
+                    () -> placeOrder(order, userValidator, inventoryChecker, paymentProcessor));
+
+            LatencyRecorder recorder = new LatencyRecorder(orders);
+            long elapsed = runOrders(callers, orders, concurrency, recorder,
+                    () -> placeOrder(order, userValidator, inventoryChecker, paymentProcessor));
+            return recorder.summary(mode.getPropertyValue(), elapsed);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static long runOrders(ExecutorService callers, int orders, int concurrency,
+                                  LatencyRecorder recorder, Runnable order) throws InterruptedException {
+        PrintStream stdout = System.out;
+        // The cross-Lambda proxy logs every call to stdout; keep that out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(orders);
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                inFlight.acquire();
+                callers.execute(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        order.run();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        recorder.record(System.nanoTime() - t0);
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            if (failures.get() > 0) {
+                stdout.println("  " + failures.get() + " orders failed");
+            }
+            return elapsed;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    /**
+     * Same sequence of remote calls as OrderProcessorFunction
+     */
+    static void placeOrder(CreateOrderRequest request,
+                           Function<Object, Object> userValidator,
+                           Function<Object, Object> inventoryChecker,
+                           Function<Object, Object> paymentProcessor) {
+        if (!flag(userValidator.apply(request.getUserData()), "valid")) {
+            throw new IllegalStateException("User validation failed");
+        }
+        InventoryCheckRequest inventoryRequest = new InventoryCheckRequest(request.getProductId(), request.getQuantity());
+        if (!flag(inventoryChecker.apply(inventoryRequest), "available")) {
+            throw new IllegalStateException("Inventory check failed");
+        }
+        PaymentRequest paymentRequest = new PaymentRequest(request.getUserData().getName(),
+                new BigDecimal("10.00").multiply(new BigDecimal(request.getQuantity())), "USD", "CARD", "bench-order");
+        if (!flag(paymentProcessor.apply(paymentRequest), "success")) {
+            throw new IllegalStateException("Payment failed");
+        }
+    }
+
+    private static boolean flag(Object result, String field) {
+        Map<?, ?> values = result instanceof Map ? (Map<?, ?>) result : objectMapper.convertValue(result, Map.class);
+        return Boolean.TRUE.equals(values.get(field));
+    }
+}
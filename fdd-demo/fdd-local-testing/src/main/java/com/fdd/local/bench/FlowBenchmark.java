@@ -0,0 +1,136 @@
+package com.fdd.local.bench;
+
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.core.flow.FddFlow;
+import com.fdd.demo.domain.CreateOrderRequest;
+import com.fdd.demo.domain.InventoryCheckRequest;
+import com.fdd.demo.domain.InventoryResult;
+import com.fdd.demo.domain.PaymentRequest;
+import com.fdd.demo.domain.PaymentResult;
+import com.fdd.demo.domain.UserData;
+import com.fdd.demo.domain.ValidationResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * The OrderProcessor flow over cross-Lambda proxies against a local stub with simulated latency:
+ * sequential (userValidator, then inventoryChecker, then paymentProcessor) against FddFlow
+ * (userValidator and inventoryChecker in parallel, then paymentProcessor).
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.FlowBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (50), bench.orders (1000), bench.concurrency (16)
+ */
+public class FlowBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 50);
+        int orders = Integer.getInteger("bench.orders", 1000);
+        int concurrency = Integer.getInteger("bench.concurrency", 16);
+
+        System.out.printf("OrderProcessor flow: %d orders, %d in flight, %d ms per remote call, Java %s%n",
+                orders, concurrency, latencyMs, Runtime.version());
+        CreateOrderRequest order = new CreateOrderRequest(
+                new UserData("Bench User", "bench@example.com", 30), "product-123", 2);
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+            // The demo functions are on this classpath; keep the calls going to the stub
+            registry.setColocationEnabled(false);
+            for (String name : new String[]{"userValidator", "inventoryChecker", "paymentProcessor"}) {
+                registry.registerLambdaUrl(name, stub.url(name));
+            }
+            registry.registerRemoteOutputType("userValidator", ValidationResult.class);
+            registry.registerRemoteOutputType("inventoryChecker", InventoryResult.class);
+            registry.registerRemoteOutputType("paymentProcessor", PaymentResult.class);
+            Function<UserData, ValidationResult> userValidator =
+                    registry.<UserData, ValidationResult>getFunction("userValidator").orElseThrow();
+            Function<InventoryCheckRequest, InventoryResult> inventoryChecker =
+                    registry.<InventoryCheckRequest, InventoryResult>getFunction("inventoryChecker").orElseThrow();
+            Function<PaymentRequest, PaymentResult> paymentProcessor =
+                    registry.<PaymentRequest, PaymentResult>getFunction("paymentProcessor").orElseThrow();
+
+            ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+            try {
+                System.out.println(run("sequential", callers, orders, concurrency, () -> {
+                    if (!userValidator.apply(order.getUserData()).isValid()) {
+                        throw new IllegalStateException("User validation failed");
+                    }
+                    if (!inventoryChecker.apply(inventoryRequest(order)).isAvailable()) {
+                        throw new IllegalStateException("Inventory check failed");
+                    }
+                    if (!paymentProcessor.apply(paymentRequest(order)).isSuccess()) {
+                        throw new IllegalStateException("Payment failed");
+                    }
+                }));
+                System.out.println(run("FddFlow.parallel", callers, orders, concurrency, () -> FddFlow.parallel(
+                                FddFlow.call(userValidator, order.getUserData())
+                                        .require(ValidationResult::isValid, v -> "User validation failed"),
+                                FddFlow.call(inventoryChecker, inventoryRequest(order))
+                                        .require(InventoryResult::isAvailable, i -> "Inventory check failed"),
+                                (validation, inventory) -> paymentRequest(order))
+                        .thenCompose(payment -> FddFlow.call(paymentProcessor, payment))
+                        .require(PaymentResult::isSuccess, p -> "Payment failed")
+                        .join()));
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+    }
+
+    private static InventoryCheckRequest inventoryRequest(CreateOrderRequest order) {
+        return new InventoryCheckRequest(order.getProductId(), order.getQuantity());
+    }
+
+    private static PaymentRequest paymentRequest(CreateOrderRequest order) {
+        return new PaymentRequest(order.getUserData().getName(),
+                new BigDecimal("10.00").multiply(new BigDecimal(order.getQuantity())), "USD", "CARD", "bench-order");
+    }
+
+    private static String run(String label, ExecutorService callers, int orders, int concurrency,
+                              Runnable order) throws InterruptedException {
+        // Warm up connections and JIT before measuring
+        runOrders(callers, Math.min(orders, 200), concurrency, new LatencyRecorder(200), order);
+        LatencyRecorder recorder = new LatencyRecorder(orders);
+        long elapsed = runOrders(callers, orders, concurrency, recorder, order);
+        return recorder.summary(label, elapsed);
+    }
+
+    private static long runOrders(ExecutorService callers, int orders, int concurrency,
+                                  LatencyRecorder recorder, Runnable order) throws InterruptedException {
+        PrintStream stdout = System.out;
+        // The cross-Lambda proxy logs every call to stdout; keep that out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(orders);
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                inFlight.acquire();
+                callers.execute(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        order.run();
+                    } catch (RuntimeException e) {
+                        stdout.println("  order failed: " + e.getMessage());
+                    } finally {
+                        recorder.record(System.nanoTime() - t0);
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            return System.nanoTime() - start;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+}
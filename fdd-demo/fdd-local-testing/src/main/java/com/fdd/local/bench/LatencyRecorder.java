@@ -0,0 +1,52 @@
+package com.fdd.local.bench;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-capacity latency sample collector for the benchmarks
+ */
+public class LatencyRecorder {
+
+    private final long[] samples;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public LatencyRecorder(int capacity) {
+        this.samples = new long[capacity];
+    }
+
+    public void record(long nanos) {
+        int slot = count.getAndIncrement();
+        if (slot < samples.length) {
+            samples[slot] = nanos;
+        }
+    }
+
+    /**
+     * Latency at the given percentile (0-100) in milliseconds
+     */
+    public double percentileMillis(double percentile) {
+        int n = Math.min(count.get(), samples.length);
+        if (n == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(samples, n);
+        Arrays.sort(sorted);
+        int index = (int) Math.ceil(percentile / 100.0 * n) - 1;
+        return sorted[Math.max(0, Math.min(n - 1, index))] / 1_000_000.0;
+    }
+
+    public int count() {
+        return Math.min(count.get(), samples.length);
+    }
+
+    /**
+     * One-line summary: throughput and latency percentiles
+     */
+    public String summary(String label, long elapsedNanos) {
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        return String.format("%-28s %8d ops  %10.1f ops/s  p50 %8.2f ms  p99 %8.2f ms  max %8.2f ms",
+                label, count(), count() / seconds,
+                percentileMillis(50), percentileMillis(99), percentileMillis(100));
+    }
+}
@@ -0,0 +1,180 @@
+package com.fdd.local.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fdd.core.execution.VirtualThreads;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.core.rest.BatchEnvelope;
+import com.fdd.core.rest.CompositeEnvelope;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local stand-in for remote function Lambdas used by the benchmarks.
+ * Each registered path answers with a canned JSON body after a simulated latency,
+ * so benchmark numbers reflect the caller's threading and transport, not business logic.
+ * Batch envelopes (X-FDD-Batch) are answered with one entry per input, all carrying the canned body,
+ * composite requests (X-FDD-Composite) with every step's function's canned body after a single latency,
+ * and responses are encoded in the binary format the caller's Accept header asks for, like FunctionController.
+ * A fraction of requests can be made slow (a latency tail) or fail with 503.
+ */
+public class LocalFunctionStub implements AutoCloseable {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    static {
+        // Without TCP_NODELAY small responses wait for a delayed ACK (about 40 ms per call)
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final long latencyMillis;
+    private final Map<String, String> responses;
+    private volatile double slowFraction;
+    private volatile long slowLatencyMillis;
+    private volatile double failureRate;
+    private final LongAdder requests = new LongAdder();
+
+    public LocalFunctionStub(long latencyMillis, Map<String, String> responses) throws IOException {
+        this.latencyMillis = latencyMillis;
+        this.responses = Map.copyOf(responses);
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 4096);
+        // The stub must never be the bottleneck, so it sleeps on cheap threads
+        this.executor = VirtualThreads.isSupported()
+                ? VirtualThreads.newVirtualThreadPerTaskExecutor()
+                : Executors.newCachedThreadPool();
+        responses.forEach((name, body) -> {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            server.createContext("/" + name, exchange -> respond(exchange, bytes));
+        });
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    /**
+     * Stub answering for the demo userValidator, inventoryChecker and paymentProcessor functions
+     */
+    public static LocalFunctionStub forOrderFlow(long latencyMillis) throws IOException {
+        return new LocalFunctionStub(latencyMillis, Map.of(
+                "userValidator", "{\"valid\":true,\"message\":\"Valid\"}",
+                "inventoryChecker", "{\"available\":true,\"availableQuantity\":2,\"message\":\"Inventory available\"}",
+                "paymentProcessor", "{\"success\":true,\"transactionId\":\"txn-stub\",\"processedAmount\":20.00,"
+                        + "\"message\":\"Payment processed successfully\",\"status\":\"COMPLETED\"}"));
+    }
+
+    /**
+     * Make the given fraction of requests take slowLatencyMillis instead of the normal latency
+     */
+    public void setTailLatency(double fraction, long slowLatencyMillis) {
+        this.slowFraction = fraction;
+        this.slowLatencyMillis = slowLatencyMillis;
+    }
+
+    /**
+     * Answer every request with 503 (after the normal latency) until switched back
+     */
+    public void setFailing(boolean failing) {
+        this.failureRate = failing ? 1 : 0;
+    }
+
+    /**
+     * Answer the given fraction of requests with 503
+     */
+    public void setFailureRate(double failureRate) {
+        this.failureRate = failureRate;
+    }
+
+    /**
+     * Requests received so far, including batch envelopes, composite requests and hedges
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * URL of a registered function
+     */
+    public String url(String name) {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/" + name;
+    }
+
+    private void respond(HttpExchange exchange, byte[] body) throws IOException {
+        requests.increment();
+        byte[] request;
+        try (InputStream in = exchange.getRequestBody()) {
+            request = in.readAllBytes();
+        }
+        WireFormat requestFormat = WireFormat.fromContentType(exchange.getRequestHeaders().getFirst("Content-Type"));
+        WireFormat responseFormat = WireFormat.fromAccept(exchange.getRequestHeaders().getFirst("Accept"));
+        if (BatchEnvelope.isBatch(exchange.getRequestHeaders().getFirst(BatchEnvelope.HEADER))) {
+            body = batchResponse(requestFormat.reader(objectMapper.reader()).readTree(request).size(), body);
+        } else if (CompositeEnvelope.isComposite(exchange.getRequestHeaders().getFirst(CompositeEnvelope.HEADER))) {
+            body = compositeResponse(requestFormat.reader(objectMapper.reader()).readTree(request));
+        }
+        if (responseFormat.isBinary()) {
+            body = responseFormat.writer(objectMapper.writer()).writeValueAsBytes(objectMapper.readTree(body));
+        }
+        long latency = slowFraction > 0 && ThreadLocalRandom.current().nextDouble() < slowFraction
+                ? slowLatencyMillis : latencyMillis;
+        if (latency > 0) {
+            try {
+                Thread.sleep(latency);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (failureRate > 0 && ThreadLocalRandom.current().nextDouble() < failureRate) {
+            exchange.sendResponseHeaders(503, -1);
+            exchange.close();
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", responseFormat.getMediaType());
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] batchResponse(int size, byte[] result) throws IOException {
+        JsonNode cannedResult = objectMapper.readTree(result);
+        ArrayNode entries = objectMapper.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            entries.addObject().put(BatchEnvelope.INDEX, i).set(BatchEnvelope.RESULT, cannedResult);
+        }
+        return objectMapper.writeValueAsBytes(entries);
+    }
+
+    private byte[] compositeResponse(JsonNode request) throws IOException {
+        ObjectNode outputs = objectMapper.createObjectNode();
+        Iterator<Map.Entry<String, JsonNode>> steps = request.path(CompositeEnvelope.STEPS).fields();
+        while (steps.hasNext()) {
+            Map.Entry<String, JsonNode> step = steps.next();
+            String canned = responses.get(step.getValue().path("function").asText());
+            outputs.set(step.getKey(), canned != null ? objectMapper.readTree(canned) : null);
+        }
+        ObjectNode response = objectMapper.createObjectNode();
+        response.set(CompositeEnvelope.STEPS, outputs);
+        return objectMapper.writeValueAsBytes(response);
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,101 @@
+package com.fdd.local.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.core.config.ServerlessConfigLoader;
+import com.fdd.core.workflow.WorkflowDefinition;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+
+/**
+ * The demo placeOrder workflow against a local stub with simulated latency, where userValidator,
+ * inventoryChecker and paymentProcessor all live on one remote deployment: one request per step
+ * against the whole workflow pushed down as a single composite request.
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.PushDownBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (50), bench.orders (1000), bench.concurrency (16)
+ */
+public class PushDownBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 50);
+        int orders = Integer.getInteger("bench.orders", 1000);
+        int concurrency = Integer.getInteger("bench.concurrency", 16);
+
+        System.out.printf("placeOrder workflow: %d orders, %d in flight, %d ms per remote request, Java %s%n",
+                orders, concurrency, latencyMs, Runtime.version());
+        ServerlessConfigLoader loader = new ServerlessConfigLoader();
+        WorkflowDefinition placeOrder = loader.createWorkflows(loader.loadConfig()).get("placeOrder");
+        JsonNode order = new ObjectMapper().valueToTree(Map.of(
+                "userData", Map.of("name", "Bench User", "email", "bench@example.com", "age", 30),
+                "productId", "product-123", "quantity", 2, "amount", 20.00,
+                "paymentMethod", "CARD", "orderId", "bench-order"));
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+            try {
+                for (boolean composite : new boolean[]{false, true}) {
+                    CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+                    // The demo functions are on this classpath; keep the calls going to the stub
+                    registry.setColocationEnabled(false);
+                    registry.setCompositeEnabled(composite);
+                    for (String name : new String[]{"userValidator", "inventoryChecker", "paymentProcessor"}) {
+                        registry.registerLambdaUrl(name, stub.url(name));
+                    }
+                    registry.registerWorkflow(placeOrder);
+                    Runnable placeOneOrder = () -> registry.invokeAsync("placeOrder", order).join();
+
+                    // Warm up connections and JIT before measuring
+                    runOrders(callers, Math.min(orders, 200), concurrency, new LatencyRecorder(200), placeOneOrder);
+                    long before = stub.getRequestCount();
+                    LatencyRecorder recorder = new LatencyRecorder(orders);
+                    long elapsed = runOrders(callers, orders, concurrency, recorder, placeOneOrder);
+                    System.out.println(recorder.summary(composite ? "pushed down" : "per step", elapsed));
+                    System.out.printf("  %.1f remote requests per order%n",
+                            (double) (stub.getRequestCount() - before) / orders);
+                }
+            } finally {
+                callers.shutdownNow();
+            }
+        }
+    }
+
+    private static long runOrders(ExecutorService callers, int orders, int concurrency,
+                                  LatencyRecorder recorder, Runnable order) throws InterruptedException {
+        PrintStream stdout = System.out;
+        // The cross-Lambda proxy logs every call to stdout; keep that out of the measurement
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(orders);
+            long start = System.nanoTime();
+            for (int i = 0; i < orders; i++) {
+                inFlight.acquire();
+                callers.execute(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        order.run();
+                    } catch (RuntimeException e) {
+                        stdout.println("  order failed: " + e.getMessage());
+                    } finally {
+                        recorder.record(System.nanoTime() - t0);
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            return System.nanoTime() - start;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+}
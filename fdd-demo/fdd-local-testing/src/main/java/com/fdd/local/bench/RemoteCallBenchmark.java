@@ -0,0 +1,176 @@
+package com.fdd.local.bench;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.demo.domain.InventoryCheckRequest;
+import com.fdd.demo.domain.InventoryResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Throughput and tail latency of single remote calls (inventoryChecker) against a local stub:
+ * - blocking: the previous proxy, a default HttpClient with blocking send and String bodies
+ * - transport-sync: the cross-Lambda proxy over CrossLambdaTransport, one caller thread per call
+ * - transport-async: invokeAsync over CrossLambdaTransport, no caller thread held while waiting
+ * - transport-batched: invokeAsync with micro-batching, calls sent as batch envelopes
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.RemoteCallBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (20), bench.calls (20000),
+ * bench.concurrency (256 in-flight calls), bench.platformThreads (256),
+ * bench.batchSize (32), bench.batchDelayMs (2)
+ *
+ * The JDK stub server only speaks HTTP/1.1, so this measures pooling and the async path;
+ * HTTP/2 multiplexing applies against Lambda function URLs (https with ALPN).
+ */
+public class RemoteCallBenchmark {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+    private static final String FUNCTION = "inventoryChecker";
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 20);
+        int calls = Integer.getInteger("bench.calls", 20000);
+        int concurrency = Integer.getInteger("bench.concurrency", 256);
+        int platformThreads = Integer.getInteger("bench.platformThreads", 256);
+
+        System.out.printf("Remote %s calls: %d calls, %d in flight, %d ms stub latency, Java %s%n",
+                FUNCTION, calls, concurrency, latencyMs, Runtime.version());
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            InventoryCheckRequest request = new InventoryCheckRequest("product-123", 2);
+
+            HttpClient legacyClient = HttpClient.newHttpClient();
+            URI uri = URI.create(stub.url(FUNCTION));
+            Function<Object, Object> blocking = input -> {
+                try {
+                    String body = objectMapper.writeValueAsString(input);
+                    HttpResponse<String> response = legacyClient.send(HttpRequest.newBuilder(uri)
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(body)).build(),
+                            HttpResponse.BodyHandlers.ofString());
+                    return objectMapper.readValue(response.body(), Object.class);
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            System.out.println(runBlocking("blocking", blocking, request, calls, concurrency, platformThreads));
+
+            CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+            registry.setColocationEnabled(false);
+            registry.registerLambdaUrl(FUNCTION, stub.url(FUNCTION));
+            registry.registerRemoteOutputType(FUNCTION, InventoryResult.class);
+            Function<Object, Object> proxy = registry.<Object, Object>getFunction(FUNCTION).orElseThrow();
+            System.out.println(runBlocking("transport-sync", proxy, request, calls, concurrency, platformThreads));
+            System.out.println(runAsync("transport-async", registry, request, calls, concurrency));
+
+            CrossLambdaFunctionRegistry batched = new CrossLambdaFunctionRegistry();
+            batched.setColocationEnabled(false);
+            batched.registerLambdaUrl(FUNCTION, stub.url(FUNCTION));
+            batched.registerRemoteOutputType(FUNCTION, InventoryResult.class);
+            batched.enableBatching(FUNCTION, Integer.getInteger("bench.batchSize", 32),
+                    Duration.ofMillis(Long.getLong("bench.batchDelayMs", 2)));
+            System.out.println(runAsync("transport-batched", batched, request, calls, concurrency));
+        }
+    }
+
+    private static String runBlocking(String label, Function<Object, Object> function, Object request,
+                                      int calls, int concurrency, int platformThreads) throws Exception {
+        ExecutorService callers = Executors.newFixedThreadPool(platformThreads);
+        try {
+            measure(callers, 200, concurrency, new LatencyRecorder(200), () -> function.apply(request));
+            LatencyRecorder recorder = new LatencyRecorder(calls);
+            long elapsed = measure(callers, calls, concurrency, recorder, () -> function.apply(request));
+            return recorder.summary(label, elapsed) + "  (" + platformThreads + " platform threads)";
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static long measure(ExecutorService callers, int calls, int concurrency,
+                                LatencyRecorder recorder, Runnable call) throws InterruptedException {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(calls);
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                inFlight.acquire();
+                callers.execute(() -> {
+                    long t0 = System.nanoTime();
+                    try {
+                        call.run();
+                    } catch (RuntimeException e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        recorder.record(System.nanoTime() - t0);
+                        inFlight.release();
+                        done.countDown();
+                    }
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            if (failures.get() > 0) {
+                stdout.println("  " + failures.get() + " calls failed");
+            }
+            return elapsed;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+
+    private static String runAsync(String label, CrossLambdaFunctionRegistry registry, Object request,
+                                   int calls, int concurrency) throws InterruptedException {
+        measureAsync(registry, request, 200, concurrency, new LatencyRecorder(200));
+        LatencyRecorder recorder = new LatencyRecorder(calls);
+        long elapsed = measureAsync(registry, request, calls, concurrency, recorder);
+        return recorder.summary(label, elapsed) + "  (no caller threads)";
+    }
+
+    private static long measureAsync(CrossLambdaFunctionRegistry registry, Object request, int calls,
+                                     int concurrency, LatencyRecorder recorder) throws InterruptedException {
+        PrintStream stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(calls);
+            AtomicInteger failures = new AtomicInteger();
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                inFlight.acquire();
+                long t0 = System.nanoTime();
+                registry.invokeAsync(FUNCTION, request).whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        failures.incrementAndGet();
+                    }
+                    recorder.record(System.nanoTime() - t0);
+                    inFlight.release();
+                    done.countDown();
+                });
+            }
+            done.await();
+            long elapsed = System.nanoTime() - start;
+            if (failures.get() > 0) {
+                stdout.println("  " + failures.get() + " calls failed");
+            }
+            return elapsed;
+        } finally {
+            System.setOut(stdout);
+        }
+    }
+}
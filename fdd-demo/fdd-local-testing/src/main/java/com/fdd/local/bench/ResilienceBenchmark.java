@@ -0,0 +1,166 @@
+package com.fdd.local.bench;
+
+import com.fdd.aws.lambda.CrossLambdaFunctionRegistry;
+import com.fdd.core.execution.CircuitBreaker;
+import com.fdd.core.execution.RetryBudget;
+import com.fdd.core.execution.RetryPolicy;
+import com.fdd.demo.domain.InventoryCheckRequest;
+import com.fdd.demo.domain.InventoryResult;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Tail latency and failure behaviour of remote calls (inventoryChecker) against a local stub:
+ * - tail: a fraction of stub responses is slow; plain async calls against hedged calls
+ *   (second attempt after the configured latency percentile), with the extra requests hedging cost
+ * - flaky: a fraction of stub responses is 503; calls without and with a retry policy
+ * - outage: the stub answers 503 after its latency; without a circuit breaker every call waits for it,
+ *   with one calls fail fast once the breaker has opened. Retries without a budget multiply the
+ *   requests sent to the failing target by max-attempts; the retry budget caps them at its ratio
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.ResilienceBenchmark
+ *
+ * Tunables (system properties): bench.latencyMs (20), bench.slowFraction (0.05), bench.slowMs (300),
+ * bench.calls (4000), bench.concurrency (32), bench.hedgePercentile (90), bench.hedgeMaxExtraLoad (0.1),
+ * bench.failureRate (0.1), bench.outageLatencyMs (200)
+ */
+public class ResilienceBenchmark {
+
+    private static final String FUNCTION = "inventoryChecker";
+
+    public static void main(String[] args) throws Exception {
+        long latencyMs = Long.getLong("bench.latencyMs", 20);
+        double slowFraction = Double.parseDouble(System.getProperty("bench.slowFraction", "0.05"));
+        long slowMs = Long.getLong("bench.slowMs", 300);
+        int calls = Integer.getInteger("bench.calls", 4000);
+        int concurrency = Integer.getInteger("bench.concurrency", 32);
+        double percentile = Double.parseDouble(System.getProperty("bench.hedgePercentile", "90"));
+        double maxExtraLoad = Double.parseDouble(System.getProperty("bench.hedgeMaxExtraLoad", "0.1"));
+        double failureRate = Double.parseDouble(System.getProperty("bench.failureRate", "0.1"));
+        long outageLatencyMs = Long.getLong("bench.outageLatencyMs", 200);
+
+        System.out.printf("Remote %s calls: %d calls, %d in flight, %d ms stub latency (%.0f%% at %d ms), Java %s%n",
+                FUNCTION, calls, concurrency, latencyMs, slowFraction * 100, slowMs, Runtime.version());
+        InventoryCheckRequest request = new InventoryCheckRequest("product-123", 2);
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            stub.setTailLatency(slowFraction, slowMs);
+
+            CrossLambdaFunctionRegistry plain = registry(stub);
+            System.out.println(run("tail: async", plain, stub, request, calls, concurrency));
+
+            CrossLambdaFunctionRegistry hedged = registry(stub);
+            hedged.enableHedging(FUNCTION, percentile, Duration.ofMillis(1), maxExtraLoad);
+            System.out.println(run("tail: hedged p" + (int) percentile, hedged, stub, request, calls, concurrency));
+        }
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(latencyMs)) {
+            stub.setFailureRate(failureRate);
+
+            CrossLambdaFunctionRegistry plain = registry(stub);
+            plain.getTransport().setCircuitBreakerEnabled(false);
+            System.out.println(run("flaky: no retries", plain, stub, request, calls, concurrency));
+
+            CrossLambdaFunctionRegistry retried = registry(stub);
+            retried.getTransport().setCircuitBreakerEnabled(false);
+            retried.setRetryPolicy(FUNCTION, retryPolicy());
+            System.out.println(run("flaky: retries", retried, stub, request, calls, concurrency));
+        }
+
+        try (LocalFunctionStub stub = LocalFunctionStub.forOrderFlow(outageLatencyMs)) {
+            stub.setFailing(true);
+            int outageCalls = Math.max(concurrency * 4, calls / 10);
+
+            CrossLambdaFunctionRegistry unguarded = registry(stub);
+            unguarded.getTransport().setCircuitBreakerEnabled(false);
+            System.out.println(run("outage: no breaker", unguarded, stub, request, outageCalls, concurrency));
+
+            CrossLambdaFunctionRegistry unbudgeted = registry(stub);
+            unbudgeted.getTransport().setCircuitBreakerEnabled(false);
+            unbudgeted.setRetryPolicy(FUNCTION, retryPolicy());
+            unbudgeted.setRetryBudget(new RetryBudget(Double.MAX_VALUE, 0));
+            System.out.println(run("outage: retries, no budget", unbudgeted, stub, request, outageCalls, concurrency));
+
+            CrossLambdaFunctionRegistry budgeted = registry(stub);
+            budgeted.getTransport().setCircuitBreakerEnabled(false);
+            budgeted.setRetryPolicy(FUNCTION, retryPolicy());
+            budgeted.setRetryBudget(new RetryBudget(0.1, 1));
+            System.out.println(run("outage: retries, budget 10%", budgeted, stub, request, outageCalls, concurrency));
+
+            CrossLambdaFunctionRegistry guarded = registry(stub);
+            guarded.getTransport().setCircuitBreakerDefaults(new CircuitBreaker.Settings());
+            System.out.println(run("outage: circuit breaker", guarded, stub, request, outageCalls, concurrency));
+        }
+    }
+
+    private static RetryPolicy retryPolicy() {
+        return new RetryPolicy(FUNCTION, 3, RetryPolicy.DEFAULT_RETRY_ON,
+                Duration.ofMillis(10), Duration.ofMillis(100), 2.0);
+    }
+
+    /**
+     * Registry without the demo's serverless.yml retry policy, so each scenario opts in explicitly,
+     * and without co-location, so calls reach the stub
+     */
+    private static CrossLambdaFunctionRegistry registry(LocalFunctionStub stub) {
+        CrossLambdaFunctionRegistry registry = new CrossLambdaFunctionRegistry();
+        registry.setColocationEnabled(false);
+        registry.registerLambdaUrl(FUNCTION, stub.url(FUNCTION));
+        registry.registerRemoteOutputType(FUNCTION, InventoryResult.class);
+        registry.setRetryPolicy(FUNCTION, null);
+        return registry;
+    }
+
+    private static String run(String label, CrossLambdaFunctionRegistry registry, LocalFunctionStub stub,
+                              Object request, int calls, int concurrency) throws InterruptedException {
+        // Warm-up also gives hedging the latency samples it needs before it starts
+        measure(registry, request, 200, concurrency, new LatencyRecorder(200));
+        long requestsBefore = stub.getRequestCount();
+        LatencyRecorder recorder = new LatencyRecorder(calls);
+        AtomicInteger failures = new AtomicInteger();
+        long elapsed = measure(registry, request, calls, concurrency, recorder, failures);
+        long requests = stub.getRequestCount() - requestsBefore;
+        return String.format("%s  p99.9 %8.2f ms  %6d requests sent  %d failed", recorder.summary(label, elapsed),
+                recorder.percentileMillis(99.9), requests, failures.get());
+    }
+
+    private static long measure(CrossLambdaFunctionRegistry registry, Object request, int calls,
+                                int concurrency, LatencyRecorder recorder) throws InterruptedException {
+        return measure(registry, request, calls, concurrency, recorder, new AtomicInteger());
+    }
+
+    private static long measure(CrossLambdaFunctionRegistry registry, Object request, int calls, int concurrency,
+                                LatencyRecorder recorder, AtomicInteger failures) throws InterruptedException {
+        PrintStream stdout = System.out;
+        PrintStream stderr = System.err;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+        System.setErr(new PrintStream(OutputStream.nullOutputStream()));
+        try {
+            Semaphore inFlight = new Semaphore(concurrency);
+            CountDownLatch done = new CountDownLatch(calls);
+            long start = System.nanoTime();
+            for (int i = 0; i < calls; i++) {
+                inFlight.acquire();
+                long t0 = System.nanoTime();
+                registry.invokeAsync(FUNCTION, request).whenComplete((result, failure) -> {
+                    if (failure != null) {
+                        failures.incrementAndGet();
+                    }
+                    recorder.record(System.nanoTime() - t0);
+                    inFlight.release();
+                    done.countDown();
+                });
+            }
+            done.await();
+            return System.nanoTime() - start;
+        } finally {
+            System.setOut(stdout);
+            System.setErr(stderr);
+        }
+    }
+}
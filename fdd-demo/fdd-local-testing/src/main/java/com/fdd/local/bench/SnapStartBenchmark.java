@@ -0,0 +1,66 @@
+package com.fdd.local.bench;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.fdd.aws.lambda.FddLambdaHandler;
+import com.fdd.aws.lambda.FddLambdaPriming;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * First request after a (simulated) SnapStart restore against the first request of an on-demand start.
+ * Each run is a fresh JVM that initializes FddLambdaHandler for userValidator; the primed one then
+ * runs the checkpoint lifecycle by hand (beforeCheckpoint, afterRestore) as SnapStart would around the
+ * snapshot, before the request is timed. The restore itself is not simulated, only what runs around it.
+ * Needs the same classpath as ColdStartBenchmark:
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.SnapStartBenchmark \
+ *       -Dbench.classpath=fdd-demo/fdd-lambda-functions/target/classes:$(cat /tmp/lambda-cp.txt)
+ *
+ * Tunables (system properties): bench.classpath (required), bench.runs (5)
+ */
+public class SnapStartBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        String classpath = ColdStartBenchmark.probeClasspath();
+        int runs = Integer.getInteger("bench.runs", 5);
+
+        System.out.printf("userValidator first request: %d fresh JVMs per mode, Java %s%n", runs, Runtime.version());
+        for (boolean primed : new boolean[]{false, true}) {
+            long[] millis = new long[runs];
+            for (int i = 0; i < runs; i++) {
+                millis[i] = ColdStartBenchmark.runProbe(classpath, Probe.class, "-Dbench.primed=" + primed);
+            }
+            Arrays.sort(millis);
+            System.out.printf("%-28s median %6d ms  min %6d ms  max %6d ms%n",
+                    primed ? "primed, after restore" : "on demand", millis[runs / 2], millis[0], millis[runs - 1]);
+        }
+    }
+
+    /**
+     * Runs in the child JVM: init, the checkpoint lifecycle when primed, then one timed request
+     */
+    public static class Probe {
+
+        public static void main(String[] args) {
+            RequestHandler<Object, Object> handler = new FddLambdaHandler();
+            if (Boolean.getBoolean("bench.primed")) {
+                FddLambdaPriming priming = FddLambdaHandler.getPriming();
+                priming.beforeCheckpoint();
+                priming.afterRestore();
+                if (priming.getRequestCount() == 0 || priming.getFailureCount() > 0) {
+                    throw new IllegalStateException("Priming did not run cleanly: " + priming.getRequestCount()
+                            + " requests, " + priming.getFailureCount() + " failures");
+                }
+            }
+            long start = System.nanoTime();
+            Object response = handler.handleRequest(
+                    Map.of("body", "{\"name\":\"Snap Start\",\"email\":\"snap@example.com\",\"age\":41}"), null);
+            long millis = (System.nanoTime() - start) / 1_000_000;
+            if (!(response instanceof Map<?, ?> map) || !Integer.valueOf(200).equals(map.get("statusCode"))) {
+                throw new IllegalStateException("Unexpected response: " + response);
+            }
+            System.out.println(ColdStartBenchmark.RESULT + millis);
+        }
+    }
+}
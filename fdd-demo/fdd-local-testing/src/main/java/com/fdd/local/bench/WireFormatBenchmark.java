@@ -0,0 +1,79 @@
+package com.fdd.local.bench;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fdd.core.registry.WireFormat;
+import com.fdd.demo.domain.CreateOrderRequest;
+import com.fdd.demo.domain.PaymentResult;
+import com.fdd.demo.domain.UserData;
+
+import java.math.BigDecimal;
+
+/**
+ * Payload size and encode/decode time of the wire formats for demo domain types,
+ * using the same derived readers and writers as FunctionCodec and the cross-Lambda proxies.
+ *
+ *   mvn -pl fdd-demo/fdd-local-testing exec:java -Dexec.mainClass=com.fdd.local.bench.WireFormatBenchmark
+ *
+ * Tunables (system properties): bench.iterations (200000 per measurement), bench.rounds (5, best kept)
+ */
+public class WireFormatBenchmark {
+
+    // As configured by Spring Boot: UserData serializes a derived "valid" property it cannot read back
+    private static final ObjectMapper objectMapper = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+    public static void main(String[] args) throws Exception {
+        int iterations = Integer.getInteger("bench.iterations", 200000);
+        int rounds = Integer.getInteger("bench.rounds", 5);
+
+        System.out.printf("Wire formats: %d iterations x %d rounds (best round), Java %s%n",
+                iterations, rounds, Runtime.version());
+        System.out.printf("%-20s %-6s %8s %14s %14s%n", "type", "format", "bytes", "encode ns/op", "decode ns/op");
+
+        CreateOrderRequest order = new CreateOrderRequest(
+                new UserData("Jane Doe", "jane.doe@example.com", 34), "product-123", 2, "CARD");
+        PaymentResult payment = PaymentResult.success("txn-7f3a9c2e-5b1d-4e8f-a6c0-1d2e3f4a5b6c", new BigDecimal("1249.99"));
+
+        for (WireFormat format : WireFormat.values()) {
+            measure(order, CreateOrderRequest.class, format, iterations, rounds);
+        }
+        for (WireFormat format : WireFormat.values()) {
+            measure(payment, PaymentResult.class, format, iterations, rounds);
+        }
+    }
+
+    private static void measure(Object value, Class<?> type, WireFormat format,
+                                int iterations, int rounds) throws Exception {
+        ObjectWriter writer = format.writer(objectMapper.writerFor(type));
+        ObjectReader reader = format.reader(objectMapper.readerFor(type));
+        byte[] encoded = writer.writeValueAsBytes(value);
+
+        long bestEncode = Long.MAX_VALUE;
+        long bestDecode = Long.MAX_VALUE;
+        long sink = 0;
+        for (int round = 0; round <= rounds; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += writer.writeValueAsBytes(value).length;
+            }
+            long encode = System.nanoTime() - start;
+
+            start = System.nanoTime();
+            for (int i = 0; i < iterations; i++) {
+                sink += reader.readValue(encoded) != null ? 1 : 0;
+            }
+            long decode = System.nanoTime() - start;
+
+            if (round > 0) { // round 0 warms up
+                bestEncode = Math.min(bestEncode, encode);
+                bestDecode = Math.min(bestDecode, decode);
+            }
+        }
+
+        System.out.printf("%-20s %-6s %8d %14.1f %14.1f%s%n", type.getSimpleName(), format, encoded.length,
+                (double) bestEncode / iterations, (double) bestDecode / iterations, sink == 42 ? " " : "");
+    }
+}
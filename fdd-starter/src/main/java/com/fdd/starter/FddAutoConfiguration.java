@@ -1,5 +1,8 @@
 package com.fdd.starter;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.execution.ExecutionMode;
+import com.fdd.core.execution.FunctionExecutors;
 import com.fdd.core.rest.FunctionController;
 import com.fdd.core.config.ServerlessConfig;
 import com.fdd.core.config.ServerlessConfigLoader;
@@ -7,15 +10,19 @@ import com.fdd.core.registry.FunctionRegistry;
 import com.fdd.core.security.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.boot.autoconfigure.AutoConfiguration;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.EnableAspectJAutoProxy;
+import org.springframework.core.env.Environment;
 
 import java.util.function.Function;
 import java.util.Map;
@@ -40,9 +47,12 @@ public class FddAutoConfiguration implements ApplicationListener<ApplicationRead
 
     @Bean
     @ConditionalOnMissingBean
-    public FunctionRegistry functionRegistry() {
+    public FunctionRegistry functionRegistry(ObjectProvider<ObjectMapper> objectMapper,
+                                             ObjectProvider<FunctionExecutors> functionExecutors) {
         logger.info("✅ Creating FunctionRegistry bean");
-        return new FunctionRegistry();
+        FunctionRegistry registry = new FunctionRegistry(objectMapper.getIfAvailable(ObjectMapper::new));
+        registry.setFunctionExecutors(functionExecutors.getIfAvailable());
+        return registry;
     }
 
     @Bean
@@ -52,6 +62,42 @@ public class FddAutoConfiguration implements ApplicationListener<ApplicationRead
         return new ServerlessConfigLoader();
     }
 
+    /**
+     * Static so the post-processor is created before the Function beans it wraps
+     */
+    @Bean
+    @ConditionalOnMissingBean
+    public static FunctionCachePostProcessor functionCachePostProcessor() {
+        return new FunctionCachePostProcessor(new ServerlessConfigLoader());
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public FunctionExecutors functionExecutors(Environment environment) {
+        ExecutionMode mode = ExecutionMode.fromProperty(environment.getProperty("fdd.function.execution.mode"));
+        int parallelism = environment.getProperty("fdd.function.execution.parallelism", Integer.class,
+                Runtime.getRuntime().availableProcessors());
+        logger.info("✅ Creating FunctionExecutors bean in {} mode", mode.getPropertyValue());
+        FunctionExecutors executors = new FunctionExecutors(mode, parallelism);
+
+        // Dedicated executors: fdd.function.execution.functions.<component>=<parallelism>
+        //                      fdd.function.execution.groups.<security group>=<parallelism>
+        Binder binder = Binder.get(environment);
+        binder.bind("fdd.function.execution.functions", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of())
+                .forEach((component, componentParallelism) -> {
+                    executors.configureFunction(component, componentParallelism);
+                    logger.info("🧵 Dedicated executor for function {} (parallelism {})", component, componentParallelism);
+                });
+        binder.bind("fdd.function.execution.groups", Bindable.mapOf(String.class, Integer.class))
+                .orElse(Map.of())
+                .forEach((group, groupParallelism) -> {
+                    executors.configureGroup(group, groupParallelism);
+                    logger.info("🧵 Dedicated executor for security group {} (parallelism {})", group, groupParallelism);
+                });
+        return executors;
+    }
+
     // =====================================================
     // DISCOVERY & MONITORING BEANS
     // =====================================================
@@ -84,8 +130,11 @@ public class FddAutoConfiguration implements ApplicationListener<ApplicationRead
             ServerlessConfig config = configLoader.loadConfig();
             Map<String, com.fdd.core.registry.FunctionMetadata> metadataMap = configLoader.createMetadataMap(config);
 
-            // Scan for Function beans in the application context
-            Map<String, Function> functionBeans = applicationContext.getBeansOfType(Function.class);
+            // Function beans found at build time in an AOT-processed context, otherwise scanned for
+            FddFunctionBeans precomputed = applicationContext.getBeanProvider(FddFunctionBeans.class).getIfAvailable();
+            Map<String, Function> functionBeans = precomputed != null
+                    ? precomputed.resolve(applicationContext)
+                    : applicationContext.getBeansOfType(Function.class);
 
             logger.info("📊 Found {} Function beans and {} metadata entries",
                     functionBeans.size(), metadataMap.size());
@@ -110,6 +159,9 @@ public class FddAutoConfiguration implements ApplicationListener<ApplicationRead
                 logger.debug("✅ Registered function: {}", beanName);
             }
 
+            // Workflows become functions too; their steps may be local or remote
+            configLoader.createWorkflows(config).values().forEach(functionRegistry::registerWorkflow);
+
             logger.info("🎉 FDD Framework initialization complete - {} functions registered", registeredCount);
 
             // Log framework status
@@ -128,11 +180,15 @@ public class FddAutoConfiguration implements ApplicationListener<ApplicationRead
                     .getProperty("fdd.function.monitoring.enabled", Boolean.class, true);
             boolean securityEnabled = applicationContext.getEnvironment()
                     .getProperty("fdd.security.enabled", Boolean.class, false);
+            FunctionExecutors executors = applicationContext.getBeanProvider(FunctionExecutors.class).getIfAvailable();
 
             logger.info("📈 FDD Framework Status:");
             logger.info("   📡 Discovery: {}", discoveryEnabled ? "ENABLED" : "DISABLED");
             logger.info("   📊 Monitoring: {}", monitoringEnabled ? "ENABLED" : "DISABLED");
             logger.info("   🔒 Security Framework: {}", securityEnabled ? "ENABLED" : "DISABLED");
+            if (executors != null) {
+                logger.info("   🧵 Execution Mode: {}", executors.getMode().getPropertyValue());
+            }
 
         } catch (Exception e) {
             logger.debug("Could not log framework status: {}", e.getMessage());
@@ -0,0 +1,37 @@
+package com.fdd.starter;
+
+import com.fdd.core.execution.ExecutionMode;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+
+import java.util.Map;
+
+/**
+ * Maps fdd.function.execution.mode=virtual-threads onto Spring Boot's own switch so that
+ * servlet request threads (where single invocations and their compositions run) are virtual too.
+ * An explicit spring.threads.virtual.enabled always wins.
+ */
+public class FddExecutionModeEnvironmentPostProcessor implements EnvironmentPostProcessor, Ordered {
+
+    static final String PROPERTY_SOURCE_NAME = "fddExecutionMode";
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        String mode = environment.getProperty("fdd.function.execution.mode");
+        if (mode == null || environment.containsProperty("spring.threads.virtual.enabled")) {
+            return;
+        }
+        if (ExecutionMode.fromProperty(mode) == ExecutionMode.VIRTUAL_THREADS) {
+            environment.getPropertySources().addLast(new MapPropertySource(PROPERTY_SOURCE_NAME,
+                    Map.of("spring.threads.virtual.enabled", "true")));
+        }
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+}
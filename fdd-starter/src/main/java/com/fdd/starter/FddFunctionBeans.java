@@ -0,0 +1,38 @@
+package com.fdd.starter;
+
+import org.springframework.beans.factory.BeanFactory;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Names of the Function beans of an application, found at build time by FddFunctionBeansAotProcessor.
+ * An AOT-processed context registers it so FDD registers its functions by name instead of
+ * scanning every bean definition for Function types at startup.
+ */
+public final class FddFunctionBeans {
+
+    public static final String BEAN_NAME = "fddFunctionBeans";
+
+    private final List<String> names;
+
+    public FddFunctionBeans(List<String> names) {
+        this.names = List.copyOf(names);
+    }
+
+    public List<String> getNames() { return names; }
+
+    /**
+     * The Function beans by name, in build-time order
+     */
+    @SuppressWarnings("rawtypes")
+    public Map<String, Function> resolve(BeanFactory beanFactory) {
+        Map<String, Function> functions = new LinkedHashMap<>();
+        for (String name : names) {
+            functions.put(name, beanFactory.getBean(name, Function.class));
+        }
+        return functions;
+    }
+}
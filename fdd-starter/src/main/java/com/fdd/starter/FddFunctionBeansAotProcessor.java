@@ -0,0 +1,42 @@
+package com.fdd.starter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.javapoet.CodeBlock;
+
+import javax.lang.model.element.Modifier;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Build-time half of FDD function registration for AOT-processed applications.
+ * While Spring AOT processes the context it finds the Function beans and generates an initializer
+ * that registers their names as FddFunctionBeans, so the runtime looks them up by name.
+ */
+public class FddFunctionBeansAotProcessor implements BeanFactoryInitializationAotProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FddFunctionBeansAotProcessor.class);
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        List<String> names = List.of(beanFactory.getBeanNamesForType(Function.class, true, false));
+        logger.info("📦 Registering {} Function beans ahead of time: {}", names.size(), names);
+        return (generationContext, code) -> {
+            CodeBlock.Builder list = CodeBlock.builder().add("$T.of(", List.class);
+            for (int i = 0; i < names.size(); i++) {
+                list.add(i == 0 ? "$S" : ", $S", names.get(i));
+            }
+            list.add(")");
+            CodeBlock functionBeans = list.build();
+            code.addInitializer(code.getMethods().add("registerFddFunctionBeans", method -> method
+                    .addModifiers(Modifier.PUBLIC, Modifier.STATIC)
+                    .addParameter(DefaultListableBeanFactory.class, "beanFactory")
+                    .addStatement("beanFactory.registerSingleton($S, new $T($L))",
+                            FddFunctionBeans.BEAN_NAME, FddFunctionBeans.class, functionBeans)).toMethodReference());
+        };
+    }
+}
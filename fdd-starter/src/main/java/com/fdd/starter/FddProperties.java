@@ -2,6 +2,9 @@ package com.fdd.starter;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
+import java.util.HashMap;
+import java.util.Map;
+
 /**
  * Configuration properties for FDD framework
  */
@@ -25,10 +28,22 @@ public class FddProperties {
         private boolean enabled = true;
         private Discovery discovery = new Discovery();
         private Registry registry = new Registry();
+        private Execution execution = new Execution();
+        private Batch batch = new Batch();
+        private Stream stream = new Stream();
 
         public boolean isEnabled() { return enabled; }
         public void setEnabled(boolean enabled) { this.enabled = enabled; }
 
+        public Execution getExecution() { return execution; }
+        public void setExecution(Execution execution) { this.execution = execution; }
+
+        public Batch getBatch() { return batch; }
+        public void setBatch(Batch batch) { this.batch = batch; }
+
+        public Stream getStream() { return stream; }
+        public void setStream(Stream stream) { this.stream = stream; }
+
         public Discovery getDiscovery() { return discovery; }
         public void setDiscovery(Discovery discovery) { this.discovery = discovery; }
 
@@ -54,6 +69,43 @@ public class FddProperties {
         public void setScanPackages(String scanPackages) { this.scanPackages = scanPackages; }
     }
 
+    public static class Execution {
+        private String mode = "platform";
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+        private Map<String, Integer> functions = new HashMap<>();
+        private Map<String, Integer> groups = new HashMap<>();
+
+        public String getMode() { return mode; }
+        public void setMode(String mode) { this.mode = mode; }
+
+        public int getParallelism() { return parallelism; }
+        public void setParallelism(int parallelism) { this.parallelism = parallelism; }
+
+        public Map<String, Integer> getFunctions() { return functions; }
+        public void setFunctions(Map<String, Integer> functions) { this.functions = functions; }
+
+        public Map<String, Integer> getGroups() { return groups; }
+        public void setGroups(Map<String, Integer> groups) { this.groups = groups; }
+    }
+
+    public static class Batch {
+        private int maxInFlight = 64;
+
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+    }
+
+    public static class Stream {
+        private int maxInFlight = 64;
+        private int maxLineBytes = 1048576;
+
+        public int getMaxInFlight() { return maxInFlight; }
+        public void setMaxInFlight(int maxInFlight) { this.maxInFlight = maxInFlight; }
+
+        public int getMaxLineBytes() { return maxLineBytes; }
+        public void setMaxLineBytes(int maxLineBytes) { this.maxLineBytes = maxLineBytes; }
+    }
+
     public static class Security {
         private ContextPropagation contextPropagation = new ContextPropagation();
 
@@ -0,0 +1,92 @@
+package com.fdd.starter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fdd.core.cache.CachedFunction;
+import com.fdd.core.cache.FunctionCache;
+import com.fdd.core.config.ServerlessConfigLoader;
+import com.fdd.core.registry.FunctionMetadata;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Wraps Function beans that declare a cache: section in serverless.yml with their result cache.
+ * Wrapping the bean itself means the same cache serves FunctionController, FddLambdaHandler and
+ * functions injected with @Qualifier into other functions. Beans are proxied by subclass where
+ * possible so the Function<T,R> type arguments stay discoverable by reflection.
+ */
+public class FunctionCachePostProcessor implements BeanPostProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(FunctionCachePostProcessor.class);
+
+    private final ServerlessConfigLoader configLoader;
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private volatile Map<String, FunctionMetadata> metadataMap;
+
+    public FunctionCachePostProcessor(ServerlessConfigLoader configLoader) {
+        this.configLoader = configLoader;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Function) || bean instanceof CachedFunction) {
+            return bean;
+        }
+        FunctionMetadata metadata = metadata().get(beanName);
+        if (metadata == null || metadata.getCache() == null) {
+            return bean;
+        }
+
+        FunctionCache cache = FunctionCache.create(beanName, metadata.getCache(), objectMapper);
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.setProxyTargetClass(canSubclass(bean.getClass()));
+        proxyFactory.addInterface(Function.class);
+        proxyFactory.addInterface(CachedFunction.class);
+        proxyFactory.addAdvice((MethodInterceptor) invocation -> {
+            Method method = invocation.getMethod();
+            if (method.getDeclaringClass() == CachedFunction.class) {
+                return "getDelegate".equals(method.getName()) ? bean : cache;
+            }
+            if ("apply".equals(method.getName()) && method.getParameterCount() == 1) {
+                return cache.apply(invocation.getArguments()[0], input -> proceed(invocation));
+            }
+            return invocation.proceed();
+        });
+
+        logger.info("🗄️ Caching results of function {} (ttl {}, key fields {})", beanName,
+                metadata.getCache().getTtl() != null ? metadata.getCache().getTtl() : "none",
+                cache.getKeyFields().isEmpty() ? "all" : cache.getKeyFields());
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private Map<String, FunctionMetadata> metadata() {
+        Map<String, FunctionMetadata> map = metadataMap;
+        if (map == null) {
+            map = configLoader.createMetadataMap(configLoader.loadConfig());
+            metadataMap = map;
+        }
+        return map;
+    }
+
+    private static Object proceed(MethodInvocation invocation) {
+        try {
+            return invocation.proceed();
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static boolean canSubclass(Class<?> type) {
+        return !Modifier.isFinal(type.getModifiers()) && !type.isSynthetic() && !type.getName().contains("$$Lambda");
+    }
+}